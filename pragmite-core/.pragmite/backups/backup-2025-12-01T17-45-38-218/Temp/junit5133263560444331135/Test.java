@@ -1 +0,0 @@
-public class Test { }
\ No newline at end of file
@@ -1 +0,0 @@
-public class Original { }
\ No newline at end of file
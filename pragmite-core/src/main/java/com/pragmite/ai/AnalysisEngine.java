@@ -1,5 +1,6 @@
 package com.pragmite.ai;
 
+import com.pragmite.cache.RefactoringCache;
 import com.pragmite.model.CodeSmell;
 import com.pragmite.model.CodeSmellType;
 import com.pragmite.interactive.InteractiveApprovalManager;
@@ -8,8 +9,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -94,6 +99,14 @@ public class AnalysisEngine {
         return websocketServer;
     }
 
+    /**
+     * Set the token budget of each code snippet sent in prompts.
+     * v1.6.3 - Smaller prompts lower latency and cost per request
+     */
+    public void setContextTokenBudget(int tokenBudget) {
+        contextExtractor.setTokenBudget(tokenBudget);
+    }
+
     /**
      * Check if progress broadcast is enabled.
      * v1.6.3 - Integration Sprint Task 3
@@ -140,6 +153,14 @@ public class AnalysisEngine {
      * @return AIAnalysisResult containing root cause, impact, recommendations, and AI prompt
      */
     public AIAnalysisResult analyze(CodeSmell smell, String sourceCode) {
+        return analyze(smell, new SourceFile(sourceCode, sourceCode.split("\n"),
+            FileStructureIndex.build(sourceCode).orElse(null)));
+    }
+
+    /**
+     * Analyzes a code smell of a file that is already read, split and indexed.
+     */
+    private AIAnalysisResult analyze(CodeSmell smell, SourceFile file) {
         AIAnalysisResult.Builder builder = AIAnalysisResult.builder(smell);
 
         // Extract root cause based on smell type
@@ -155,11 +176,11 @@ public class AnalysisEngine {
         builder.recommendation(recommendation);
 
         // Extract relevant code snippets
-        List<String> snippets = contextExtractor.extractContext(smell, sourceCode);
+        List<String> snippets = contextExtractor.extractContext(smell, file.lines(), file.index());
         snippets.forEach(builder::addCodeSnippet);
 
         // Generate AI prompt
-        String aiPrompt = promptGenerator.generatePrompt(smell, sourceCode, snippets);
+        String aiPrompt = promptGenerator.generatePrompt(smell, file.source(), snippets);
         builder.aiPrompt(aiPrompt);
 
         // Add metadata
@@ -191,58 +212,170 @@ public class AnalysisEngine {
      */
     public List<AIAnalysisResult> analyzeAll(List<CodeSmell> smells, Path projectRoot, ApiConfig apiConfig) {
         List<AIAnalysisResult> results = new ArrayList<>();
-        ClaudeApiClient claudeClient = null;
+        List<String> sources = new ArrayList<>();
+        boolean autoRefactor = apiConfig != null && apiConfig.isValid();
 
-        // Initialize Claude client if auto-refactoring is enabled
-        if (apiConfig != null && apiConfig.isValid()) {
-            claudeClient = new ClaudeApiClient(apiConfig);
+        if (autoRefactor) {
             System.out.println("🤖 Auto-refactoring enabled with Claude API");
         }
 
+        // Read and split each file once, however many smells it has
+        Map<String, SourceFile> fileCache = new HashMap<>();
         for (CodeSmell smell : smells) {
-            try {
-                // Try to resolve as absolute first, if it fails, try relative to project root
-                Path filePath = Paths.get(smell.getFilePath());
-                if (!Files.exists(filePath)) {
-                    filePath = projectRoot.resolve(smell.getFilePath());
+            SourceFile file = fileCache.computeIfAbsent(smell.getFilePath(), path -> readSource(path, projectRoot));
+            if (file == SourceFile.UNREADABLE) {
+                // Skip files that cannot be read
+                System.err.println("Warning: Could not read file for AI analysis: " + smell.getFilePath());
+                continue;
+            }
+            results.add(analyze(smell, file));
+            sources.add(file.source());
+        }
+
+        if (!autoRefactor || results.isEmpty()) {
+            return results;
+        }
+
+        // v1.6.3 - Serve unchanged requests from the on-disk cache before any network call
+        RefactoringCache cache = apiConfig.isCacheResults()
+            ? RefactoringCache.forProject(projectRoot, Duration.ofHours(apiConfig.getCacheTtlHours()), apiConfig.getCacheMaxBytes())
+            : null;
+        RefactoredCode[] refactorings = new RefactoredCode[results.size()];
+        String[] cacheKeys = new String[results.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (cache != null) {
+                cacheKeys[i] = RefactoringCache.key(apiConfig.getModel(), PromptGenerator.TEMPLATE_VERSION,
+                    results.get(i).getAiPrompt(), sources.get(i));
+                refactorings[i] = cache.get(cacheKeys[i], sources.get(i));
+            }
+            if (refactorings[i] == null) {
+                pending.add(i);
+            }
+        }
+        if (cache != null && cache.getHits() > 0) {
+            System.out.println("  💾 " + cache.getHits() + " refactorings loaded from cache");
+        }
+
+        // v1.6.3 - Send refactoring requests concurrently (rate limited, adaptive concurrency)
+        if (!pending.isEmpty()) {
+            List<Integer> order = new ArrayList<>(pending.size());
+            List<RefactoringPipeline.Request> requests = buildRequests(pending, results, sources,
+                apiConfig.getMaxBatchSize(), order);
+            System.out.println("  ⏳ Sending " + requests.size() + " refactoring requests for " + pending.size()
+                + " issues (max " + apiConfig.getMaxConcurrentRequests() + " concurrent)");
+
+            RefactoringPipeline pipeline = new RefactoringPipeline(apiConfig);
+            List<RefactoredCode> responses = pipeline.process(requests, null);
+            for (int j = 0; j < order.size(); j++) {
+                int i = order.get(j);
+                refactorings[i] = responses.get(j);
+                if (cache != null) {
+                    cache.put(cacheKeys[i], refactorings[i]);
                 }
-                String sourceCode = Files.readString(filePath);
-                AIAnalysisResult baseResult = analyze(smell, sourceCode);
-
-                // Generate refactored code if enabled
-                if (claudeClient != null) {
-                    String aiPrompt = baseResult.getAiPrompt();
-                    RefactoredCode refactored = claudeClient.generateRefactoring(aiPrompt, sourceCode);
-
-                    // Rebuild with refactored code
-                    AIAnalysisResult.Builder builder = AIAnalysisResult.builder(smell)
-                        .rootCause(baseResult.getRootCause())
-                        .impact(baseResult.getImpact())
-                        .recommendation(baseResult.getRecommendation())
-                        .aiPrompt(aiPrompt)
-                        .refactoredCode(refactored);
-
-                    // Copy code snippets and metadata
-                    baseResult.getCodeSnippets().forEach(builder::addCodeSnippet);
-                    baseResult.getMetadata().forEach(builder::addMetadata);
-
-                    if (refactored.isSuccessful()) {
-                        System.out.println("  ✅ Refactored: " + smell.getFilePath() + ":" + smell.getLine());
-                    } else {
-                        System.out.println("  ⚠️  Refactoring failed: " + refactored.getErrorMessage());
-                    }
+            }
+            if (pipeline.getThrottledCount() > 0) {
+                System.out.println("  ⚠️  API throttled " + pipeline.getThrottledCount() + " requests ("
+                    + pipeline.getRetryCount() + " retries)");
+            }
+        }
 
-                    results.add(builder.build());
+        for (int i = 0; i < results.size(); i++) {
+            results.set(i, withRefactoredCode(results.get(i), refactorings[i]));
+        }
+
+        return results;
+    }
+
+    /**
+     * Groups pending issues by file into batched requests of at most {@code maxBatchSize} issues.
+     * Files with a single pending issue keep the detailed per-type prompt.
+     *
+     * @param order Receives the result index of each issue, in the order the pipeline returns them
+     */
+    private List<RefactoringPipeline.Request> buildRequests(List<Integer> pending, List<AIAnalysisResult> results,
+                                                            List<String> sources, int maxBatchSize, List<Integer> order) {
+        Map<String, List<Integer>> byFile = new LinkedHashMap<>();
+        for (int i : pending) {
+            byFile.computeIfAbsent(results.get(i).getOriginalSmell().getFilePath(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<RefactoringPipeline.Request> requests = new ArrayList<>();
+        int batchSize = Math.max(1, maxBatchSize);
+        for (Map.Entry<String, List<Integer>> file : byFile.entrySet()) {
+            List<Integer> indexes = file.getValue();
+            for (int from = 0; from < indexes.size(); from += batchSize) {
+                List<Integer> batch = indexes.subList(from, Math.min(indexes.size(), from + batchSize));
+                String sourceCode = sources.get(batch.get(0));
+                if (batch.size() == 1) {
+                    requests.add(new RefactoringPipeline.Request(results.get(batch.get(0)).getAiPrompt(), sourceCode));
                 } else {
-                    results.add(baseResult);
+                    List<CodeSmell> batchSmells = new ArrayList<>(batch.size());
+                    List<List<String>> batchSnippets = new ArrayList<>(batch.size());
+                    for (int i : batch) {
+                        batchSmells.add(results.get(i).getOriginalSmell());
+                        batchSnippets.add(results.get(i).getCodeSnippets());
+                    }
+                    String prompt = promptGenerator.generateBatchPrompt(file.getKey(), batchSmells, batchSnippets);
+                    requests.add(new RefactoringPipeline.Request(prompt, sourceCode, batch.size()));
                 }
-            } catch (IOException e) {
-                // Skip files that cannot be read
-                System.err.println("Warning: Could not read file for AI analysis: " + smell.getFilePath());
+                order.addAll(batch);
             }
         }
+        return requests;
+    }
 
-        return results;
+    /**
+     * Source code of a file with its lines and structure, read and parsed once per file.
+     *
+     * @param index Structural index, null if the file does not parse
+     */
+    private record SourceFile(String source, String[] lines, FileStructureIndex index) {
+        static final SourceFile UNREADABLE = new SourceFile("", new String[0], null);
+    }
+
+    /**
+     * Reads a source file, resolving it against the project root if needed.
+     */
+    private static SourceFile readSource(String path, Path projectRoot) {
+        try {
+            // Try to resolve as absolute first, if it fails, try relative to project root
+            Path filePath = Paths.get(path);
+            if (!Files.exists(filePath)) {
+                filePath = projectRoot.resolve(path);
+            }
+            String sourceCode = Files.readString(filePath);
+            return new SourceFile(sourceCode, sourceCode.split("\n"), FileStructureIndex.build(sourceCode).orElse(null));
+        } catch (IOException | RuntimeException e) {
+            return SourceFile.UNREADABLE;
+        }
+    }
+
+    /**
+     * Rebuilds a result with the generated refactoring.
+     */
+    private AIAnalysisResult withRefactoredCode(AIAnalysisResult baseResult, RefactoredCode refactored) {
+        CodeSmell smell = baseResult.getOriginalSmell();
+        AIAnalysisResult.Builder builder = AIAnalysisResult.builder(smell)
+            .rootCause(baseResult.getRootCause())
+            .impact(baseResult.getImpact())
+            .recommendation(baseResult.getRecommendation())
+            .aiPrompt(baseResult.getAiPrompt())
+            .refactoredCode(refactored);
+
+        // Copy code snippets and metadata
+        baseResult.getCodeSnippets().forEach(builder::addCodeSnippet);
+        baseResult.getMetadata().forEach(builder::addMetadata);
+
+        if (refactored.isSuccessful() && Boolean.FALSE.equals(refactored.getSyntaxValid())) {
+            System.out.println("  ⚠️  Refactored code has syntax errors: " + smell.getFilePath() + ":" + smell.getLine());
+        } else if (refactored.isSuccessful()) {
+            System.out.println("  ✅ Refactored: " + smell.getFilePath() + ":" + smell.getLine());
+        } else {
+            System.out.println("  ⚠️  Refactoring failed: " + refactored.getErrorMessage());
+        }
+
+        return builder.build();
     }
 
     /**
@@ -8,6 +8,8 @@ package com.pragmite.ai;
  */
 public class ApiConfig {
 
+    public static final String DEFAULT_ENDPOINT = "https://api.anthropic.com/v1/messages";
+
     private String provider;      // "claude", "gpt-4", "gemini"
     private String apiKey;
     private String model;
@@ -15,6 +17,18 @@ public class ApiConfig {
     private boolean cacheResults;
     private int maxRetries;
     private int timeoutSeconds;
+    private String endpoint;
+    private boolean streaming;    // Receive responses as server-sent events
+
+    // Concurrent refactoring pipeline
+    private int maxConcurrentRequests;  // Upper bound for in-flight requests (AIMD never exceeds it)
+    private int requestsPerMinute;      // Token bucket rate, 0 = unlimited
+    private int targetLatencyMs;        // Responses slower than this shrink the concurrency limit
+    private int maxBatchSize;           // Smells of one file sent in a single request, 1 = no batching
+
+    // On-disk refactoring cache (used when cacheResults is true)
+    private int cacheTtlHours;
+    private long cacheMaxBytes;
 
     public ApiConfig() {
         // Default values
@@ -24,6 +38,14 @@ public class ApiConfig {
         this.cacheResults = true;
         this.maxRetries = 3;
         this.timeoutSeconds = 30;
+        this.endpoint = DEFAULT_ENDPOINT;
+        this.streaming = true;
+        this.maxConcurrentRequests = 4;
+        this.requestsPerMinute = 50;
+        this.targetLatencyMs = 20_000;
+        this.maxBatchSize = 8;
+        this.cacheTtlHours = 7 * 24;
+        this.cacheMaxBytes = 64L * 1024 * 1024;
     }
 
     /**
@@ -50,6 +72,15 @@ public class ApiConfig {
             config.setModel(model);
         }
 
+        String concurrency = System.getenv("PRAGMITE_AI_CONCURRENCY");
+        if (concurrency != null && !concurrency.isEmpty()) {
+            try {
+                config.setMaxConcurrentRequests(Integer.parseInt(concurrency.trim()));
+            } catch (NumberFormatException e) {
+                // Keep default
+            }
+        }
+
         return config;
     }
 
@@ -117,4 +148,68 @@ public class ApiConfig {
     public void setTimeoutSeconds(int timeoutSeconds) {
         this.timeoutSeconds = timeoutSeconds;
     }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+    }
+
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = Math.max(0, requestsPerMinute);
+    }
+
+    public int getTargetLatencyMs() {
+        return targetLatencyMs;
+    }
+
+    public void setTargetLatencyMs(int targetLatencyMs) {
+        this.targetLatencyMs = targetLatencyMs;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    public int getCacheTtlHours() {
+        return cacheTtlHours;
+    }
+
+    public void setCacheTtlHours(int cacheTtlHours) {
+        this.cacheTtlHours = cacheTtlHours;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
 }
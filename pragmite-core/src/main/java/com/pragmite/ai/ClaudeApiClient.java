@@ -3,6 +3,9 @@ package com.pragmite.ai;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.pragmite.autofix.CompilationResult;
+import com.pragmite.autofix.CompilationValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,9 +16,17 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Claude API client for generating refactored code.
@@ -26,12 +37,32 @@ import java.util.regex.Pattern;
 public class ClaudeApiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ClaudeApiClient.class);
-    private static final String API_ENDPOINT = "https://api.anthropic.com/v1/messages";
     private static final String API_VERSION = "2023-06-01";
+    private static final int MAX_TOKENS_PER_ISSUE = 4096;
+    private static final int MAX_TOKENS_PER_REQUEST = 32768;
+    private static final Pattern ISSUE_HEADER = Pattern.compile("^##\\s*Issue\\s+(\\d+)\\b.*$", Pattern.MULTILINE);
+
+    private static final Executor VALIDATION_EXECUTOR = task -> Thread.ofVirtual().name("pragmite-syntax-check").start(task);
+
+    /**
+     * Receives progress of streamed responses.
+     * v1.6.3 - Streaming responses
+     */
+    public interface StreamListener {
+        StreamListener NOOP = new StreamListener() {};
+
+        /** A refactored code block is complete (called on the request thread). */
+        default void onCodeBlock(String code) {}
+
+        /** The syntax check of a code block finished (called on the validation thread). */
+        default void onSyntaxChecked(String code, CompilationResult result) {}
+    }
 
     private final ApiConfig config;
     private final HttpClient httpClient;
     private final Gson gson;
+    private final CompilationValidator validator = new CompilationValidator();
+    private volatile StreamListener streamListener = StreamListener.NOOP;
 
     public ClaudeApiClient(ApiConfig config) {
         this.config = config;
@@ -41,6 +72,14 @@ public class ClaudeApiClient {
         this.gson = new Gson();
     }
 
+    /**
+     * Set listener for streamed responses.
+     */
+    public ClaudeApiClient withStreamListener(StreamListener listener) {
+        this.streamListener = listener != null ? listener : StreamListener.NOOP;
+        return this;
+    }
+
     /**
      * Generate refactored code using Claude API.
      *
@@ -49,22 +88,44 @@ public class ClaudeApiClient {
      * @return RefactoredCode object with results
      */
     public RefactoredCode generateRefactoring(String aiPrompt, String originalCode) {
+        return attempt(aiPrompt, originalCode, 1).getResult();
+    }
+
+    /**
+     * Generate refactorings for several issues of one file with a single API call.
+     *
+     * @param batchPrompt Prompt from {@link PromptGenerator#generateBatchPrompt}
+     * @param originalCode The original source code of the file
+     * @param issueCount Number of issues in the prompt
+     * @return One RefactoredCode per issue, in prompt order
+     */
+    public List<RefactoredCode> generateBatchRefactoring(String batchPrompt, String originalCode, int issueCount) {
+        return attempt(batchPrompt, originalCode, issueCount).getResults();
+    }
+
+    /**
+     * Sends a single request and reports the transport details the refactoring pipeline
+     * needs for retries and flow control (status code, latency, Retry-After).
+     * Safe to call from many threads at once.
+     *
+     * @param issueCount Number of issues in the prompt (1 = single refactoring)
+     */
+    ApiAttempt attempt(String aiPrompt, String originalCode, int issueCount) {
         if (!config.isValid()) {
-            return RefactoredCode.builder()
-                .successful(false)
-                .errorMessage("API configuration is invalid. Please set CLAUDE_API_KEY environment variable.")
-                .build();
+            return new ApiAttempt(0, 0, -1, failed(issueCount,
+                "API configuration is invalid. Please set CLAUDE_API_KEY environment variable."));
         }
 
+        long start = System.nanoTime();
         try {
             logger.info("Calling Claude API for code refactoring...");
 
             // Build request payload
-            String requestBody = buildRequestPayload(aiPrompt, originalCode);
+            String requestBody = buildRequestPayload(aiPrompt, originalCode, issueCount);
 
             // Send HTTP request
             HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(API_ENDPOINT))
+                .uri(URI.create(config.getEndpoint()))
                 .header("Content-Type", "application/json")
                 .header("x-api-key", config.getApiKey())
                 .header("anthropic-version", API_VERSION)
@@ -72,36 +133,222 @@ public class ClaudeApiClient {
                 .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                 .build();
 
+            if (config.isStreaming()) {
+                return sendStreaming(request, originalCode, issueCount, start);
+            }
+
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long latencyNanos = System.nanoTime() - start;
 
             // Handle response
             if (response.statusCode() == 200) {
-                return parseResponse(response.body(), originalCode);
+                return new ApiAttempt(200, latencyNanos, -1, parseResponse(response.body(), originalCode, issueCount));
             } else {
-                logger.error("Claude API error: HTTP {}", response.statusCode());
-                logger.error("Response: {}", response.body());
-                return RefactoredCode.builder()
-                    .successful(false)
-                    .errorMessage("API error: HTTP " + response.statusCode())
-                    .build();
+                return errorAttempt(response, response.body(), latencyNanos, issueCount);
             }
 
         } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             logger.error("Failed to call Claude API", e);
-            return RefactoredCode.builder()
-                .successful(false)
-                .errorMessage("Network error: " + e.getMessage())
-                .build();
+            return new ApiAttempt(0, System.nanoTime() - start, -1,
+                failed(issueCount, "Network error: " + e.getMessage()));
         }
     }
 
+    /**
+     * Receives a streamed response as server-sent events. Each refactored code block is
+     * syntax checked on a virtual thread as soon as its closing fence arrives, while the
+     * explanation is still streaming; the results are attached once the stream ends.
+     */
+    private ApiAttempt sendStreaming(HttpRequest request, String originalCode, int issueCount, long start)
+            throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                String body = lines.collect(Collectors.joining("\n"));
+                return errorAttempt(response, body, System.nanoTime() - start, issueCount);
+            }
+
+            boolean eventStream = response.headers().firstValue("content-type")
+                .map(type -> type.startsWith("text/event-stream"))
+                .orElse(false);
+            if (!eventStream) {
+                // Server ignored "stream": true, parse a regular response
+                String body = lines.collect(Collectors.joining("\n"));
+                return new ApiAttempt(200, System.nanoTime() - start, -1, parseResponse(body, originalCode, issueCount));
+            }
+
+            StreamListener listener = streamListener;
+            Map<String, CompletableFuture<CompilationResult>> syntaxChecks = new HashMap<>();
+            StreamingResponseAssembler assembler = new StreamingResponseAssembler(code -> {
+                listener.onCodeBlock(code);
+                syntaxChecks.computeIfAbsent(code, block -> CompletableFuture.supplyAsync(() -> {
+                    CompilationResult result = validator.validateSnippet(block);
+                    listener.onSyntaxChecked(block, result);
+                    return result;
+                }, VALIDATION_EXECUTOR));
+            });
+
+            StreamError error = readEvents(lines.iterator(), assembler);
+            long latencyNanos = System.nanoTime() - start;
+            if (error != null) {
+                logger.warn("Claude API stream error: {} ({})", error.type, error.message);
+                return new ApiAttempt(error.statusCode(), latencyNanos, -1,
+                    failed(issueCount, "API error: " + error.type + " - " + error.message));
+            }
+
+            String text = assembler.getText();
+            if (text.isEmpty()) {
+                return new ApiAttempt(200, latencyNanos, -1, failed(issueCount, "Empty response from API"));
+            }
+            List<RefactoredCode> results = issueCount > 1
+                ? parseBatchResponse(text, originalCode, issueCount)
+                : List.of(parseStructuredResponse(text, originalCode));
+            return new ApiAttempt(200, latencyNanos, -1, attachSyntaxChecks(results, syntaxChecks));
+        }
+    }
+
+    /**
+     * Reads server-sent events and feeds text deltas to the assembler.
+     *
+     * @return The error event of the stream, or null if it completed normally
+     */
+    private StreamError readEvents(Iterator<String> lines, StreamingResponseAssembler assembler) {
+        StringBuilder data = new StringBuilder();
+        while (true) {
+            String line = lines.hasNext() ? lines.next() : null;
+            if (line == null || line.isEmpty()) {
+                // Blank line (or end of stream) dispatches the buffered event
+                if (data.length() > 0) {
+                    StreamError error = dispatchEvent(data.toString(), assembler);
+                    data.setLength(0);
+                    if (error != null) {
+                        return error;
+                    }
+                }
+                if (line == null) {
+                    return null;
+                }
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.startsWith("data: ") ? line.substring(6) : line.substring(5));
+            }
+            // "event:", "id:" and ":" comment lines are not needed, the data carries its type
+        }
+    }
+
+    private StreamError dispatchEvent(String data, StreamingResponseAssembler assembler) {
+        JsonObject event;
+        try {
+            event = gson.fromJson(data, JsonObject.class);
+        } catch (JsonParseException e) {
+            logger.debug("Ignoring malformed stream event: {}", data);
+            return null;
+        }
+        if (event == null || !event.has("type")) {
+            return null;
+        }
+
+        switch (event.get("type").getAsString()) {
+            case "content_block_delta" -> {
+                JsonObject delta = event.getAsJsonObject("delta");
+                if (delta != null && delta.has("text")) {
+                    assembler.append(delta.get("text").getAsString());
+                }
+            }
+            case "error" -> {
+                JsonObject error = event.getAsJsonObject("error");
+                String type = error != null && error.has("type") ? error.get("type").getAsString() : "api_error";
+                String message = error != null && error.has("message") ? error.get("message").getAsString() : "";
+                return new StreamError(type, message);
+            }
+            default -> {
+                // message_start, content_block_start/stop, message_delta, message_stop, ping
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the syntax checks started during streaming and attaches their results.
+     */
+    private List<RefactoredCode> attachSyntaxChecks(List<RefactoredCode> results,
+                                                    Map<String, CompletableFuture<CompilationResult>> syntaxChecks) {
+        List<RefactoredCode> checked = new ArrayList<>(results.size());
+        for (RefactoredCode result : results) {
+            CompletableFuture<CompilationResult> check = result.isSuccessful()
+                ? syntaxChecks.get(result.getRefactoredCode())
+                : null;
+            if (check == null) {
+                checked.add(result);
+                continue;
+            }
+            CompilationResult compilation = check.join();
+            List<String> errors = new ArrayList<>();
+            compilation.getErrors().forEach(error -> errors.add(error.getMessage()));
+            checked.add(result.withSyntaxCheck(compilation.isSuccess(), errors));
+        }
+        return checked;
+    }
+
+    private ApiAttempt errorAttempt(HttpResponse<?> response, String body, long latencyNanos, int issueCount) {
+        if (response.statusCode() == 429) {
+            logger.warn("Claude API rate limit reached (HTTP 429)");
+        } else {
+            logger.error("Claude API error: HTTP {}", response.statusCode());
+        }
+        logger.debug("Response: {}", body);
+        return new ApiAttempt(response.statusCode(), latencyNanos, parseRetryAfter(response),
+            failed(issueCount, "API error: HTTP " + response.statusCode()));
+    }
+
+    /**
+     * Error event received in the middle of a stream.
+     */
+    private record StreamError(String type, String message) {
+        /** Equivalent HTTP status, so throttling mid-stream is retried like a 429/529. */
+        int statusCode() {
+            return switch (type) {
+                case "rate_limit_error" -> 429;
+                case "overloaded_error" -> 529;
+                case "invalid_request_error" -> 400;
+                case "authentication_error" -> 401;
+                case "permission_error" -> 403;
+                case "not_found_error" -> 404;
+                default -> 500;
+            };
+        }
+    }
+
+    /**
+     * Reads the Retry-After header (seconds) in milliseconds, or -1 if absent.
+     */
+    private long parseRetryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("retry-after")
+            .map(value -> {
+                try {
+                    return (long) (Double.parseDouble(value.trim()) * 1000);
+                } catch (NumberFormatException e) {
+                    return -1L;
+                }
+            })
+            .orElse(-1L);
+    }
+
     /**
      * Build the JSON request payload for Claude API.
      */
-    private String buildRequestPayload(String aiPrompt, String originalCode) {
+    private String buildRequestPayload(String aiPrompt, String originalCode, int issueCount) {
         JsonObject payload = new JsonObject();
         payload.addProperty("model", config.getModel());
-        payload.addProperty("max_tokens", 4096);
+        payload.addProperty("max_tokens", Math.min(MAX_TOKENS_PER_ISSUE * issueCount, MAX_TOKENS_PER_REQUEST));
+        if (config.isStreaming()) {
+            payload.addProperty("stream", true);
+        }
 
         // Build messages array
         JsonArray messages = new JsonArray();
@@ -109,7 +356,9 @@ public class ClaudeApiClient {
         message.addProperty("role", "user");
 
         // Enhanced prompt for refactoring
-        String fullPrompt = buildEnhancedPrompt(aiPrompt, originalCode);
+        String fullPrompt = issueCount > 1
+            ? buildBatchPrompt(aiPrompt, issueCount)
+            : buildEnhancedPrompt(aiPrompt, originalCode);
         message.addProperty("content", fullPrompt);
 
         messages.add(message);
@@ -130,34 +379,88 @@ public class ClaudeApiClient {
             "## Changes Made\n- [change 1]\n- [change 2]\n- [change 3]\n";
     }
 
+    /**
+     * Build instructions for a batched prompt: one numbered section per issue.
+     */
+    private String buildBatchPrompt(String batchPrompt, int issueCount) {
+        return batchPrompt + "\n\n" +
+            "Please answer every issue (1 to " + issueCount + ") in order, using exactly this format:\n\n" +
+            "## Issue 1\n" +
+            "### Refactored Code\n```java\n[refactored code for issue 1]\n```\n\n" +
+            "### Explanation\n[brief explanation of what you changed]\n\n" +
+            "### Why This is Better\n[explain the benefits and improvements]\n\n" +
+            "### Changes Made\n- [change 1]\n- [change 2]\n\n" +
+            "## Issue 2\n...\n";
+    }
+
     /**
      * Parse Claude API response and extract refactored code.
      */
-    private RefactoredCode parseResponse(String responseBody, String originalCode) {
+    private List<RefactoredCode> parseResponse(String responseBody, String originalCode, int issueCount) {
         try {
             JsonObject response = gson.fromJson(responseBody, JsonObject.class);
             JsonArray content = response.getAsJsonArray("content");
 
             if (content == null || content.size() == 0) {
-                return RefactoredCode.builder()
-                    .successful(false)
-                    .errorMessage("Empty response from API")
-                    .build();
+                return failed(issueCount, "Empty response from API");
             }
 
             // Extract text from first content block
             String text = content.get(0).getAsJsonObject().get("text").getAsString();
 
             // Parse the structured response
-            return parseStructuredResponse(text, originalCode);
+            return issueCount > 1
+                ? parseBatchResponse(text, originalCode, issueCount)
+                : List.of(parseStructuredResponse(text, originalCode));
 
         } catch (Exception e) {
             logger.error("Failed to parse API response", e);
-            return RefactoredCode.builder()
-                .successful(false)
-                .errorMessage("Failed to parse response: " + e.getMessage())
-                .build();
+            return failed(issueCount, "Failed to parse response: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Split a batched response into its "## Issue n" sections and parse each one.
+     * Issues without a section get a failed result.
+     */
+    List<RefactoredCode> parseBatchResponse(String text, String originalCode, int issueCount) {
+        String[] sections = new String[issueCount];
+        Matcher matcher = ISSUE_HEADER.matcher(text);
+        int sectionStart = -1;
+        int sectionIssue = -1;
+        while (true) {
+            boolean found = matcher.find();
+            if (sectionIssue >= 1 && sectionIssue <= issueCount && sections[sectionIssue - 1] == null) {
+                sections[sectionIssue - 1] = text.substring(sectionStart, found ? matcher.start() : text.length());
+            }
+            if (!found) {
+                break;
+            }
+            sectionIssue = Integer.parseInt(matcher.group(1));
+            sectionStart = matcher.end();
+        }
+
+        List<RefactoredCode> results = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            if (sections[i] == null) {
+                results.add(RefactoredCode.builder()
+                    .successful(false)
+                    .errorMessage("No refactoring returned for issue " + (i + 1))
+                    .build());
+            } else {
+                // Sub-sections use "###", the single-issue parser expects "##"
+                results.add(parseStructuredResponse(sections[i].replace("### ", "## "), originalCode));
+            }
         }
+        return results;
+    }
+
+    private static List<RefactoredCode> failed(int issueCount, String errorMessage) {
+        RefactoredCode failure = RefactoredCode.builder()
+            .successful(false)
+            .errorMessage(errorMessage)
+            .build();
+        return Collections.nCopies(Math.max(1, issueCount), failure);
     }
 
     /**
@@ -248,4 +551,39 @@ public class ClaudeApiClient {
 
         return changes;
     }
+
+    /**
+     * Outcome of one HTTP attempt.
+     */
+    static final class ApiAttempt {
+        private final int statusCode;
+        private final long latencyNanos;
+        private final long retryAfterMillis;
+        private final List<RefactoredCode> results;
+
+        ApiAttempt(int statusCode, long latencyNanos, long retryAfterMillis, List<RefactoredCode> results) {
+            this.statusCode = statusCode;
+            this.latencyNanos = latencyNanos;
+            this.retryAfterMillis = retryAfterMillis;
+            this.results = results;
+        }
+
+        /** HTTP status, or 0 if no response was received. */
+        int getStatusCode() { return statusCode; }
+        long getLatencyNanos() { return latencyNanos; }
+        long getRetryAfterMillis() { return retryAfterMillis; }
+        RefactoredCode getResult() { return results.get(0); }
+        /** One result per issue of the request. */
+        List<RefactoredCode> getResults() { return results; }
+
+        /** Overload signal: rate limited, server errors/overloaded (5xx, 529) or a network failure. */
+        boolean isThrottled() {
+            return statusCode == 429 || statusCode >= 500 || (statusCode == 0 && latencyNanos > 0);
+        }
+
+        /** Worth retrying with backoff. */
+        boolean isRetryable() {
+            return isThrottled() || statusCode == 408;
+        }
+    }
 }
@@ -3,12 +3,22 @@ package com.pragmite.ai;
 import com.pragmite.model.CodeSmell;
 import com.pragmite.model.CodeSmellType;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Extracts relevant code context for AI analysis.
  * Provides intelligent snippet selection based on code smell type.
  *
+ * With a {@link FileStructureIndex} of the file (v1.6.3), member boundaries come from
+ * the AST and the snippet is packed into a token budget: the member containing the smell
+ * first, then the enclosing type declaration, then the fields and sibling methods that
+ * member uses. Without an index, method boundaries are found by scanning braces.
+ *
  * @since 1.4.0
  */
 public class ContextExtractor {
@@ -16,19 +26,78 @@ public class ContextExtractor {
     private static final int DEFAULT_CONTEXT_LINES = 5;
     private static final int MAX_SNIPPET_LINES = 50;
 
+    /** Default token budget of the primary snippet (v1.6.3). */
+    public static final int DEFAULT_TOKEN_BUDGET = 1500;
+
+    private static final int LINE_PREFIX_TOKENS = 2;   // Line number and " | " of each snippet line
+    private static final int HIGHLIGHT_TOKENS = 3;     // ">>>" marker of the smell line
+    private static final int GAP_TOKENS = 5;           // "..." marker line between non-adjacent ranges
+    private static final String GAP_MARKER = "         | ...";
+    private static final Pattern CALL = Pattern.compile("\\b([A-Za-z_$][\\w$]*)\\s*\\(");
+    private static final Pattern WORD = Pattern.compile("[A-Za-z_$][\\w$]*");
+
+    private int tokenBudget;
+
+    public ContextExtractor() {
+        this(DEFAULT_TOKEN_BUDGET);
+    }
+
+    public ContextExtractor(int tokenBudget) {
+        this.tokenBudget = validBudget(tokenBudget);
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    public void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = validBudget(tokenBudget);
+    }
+
+    private static int validBudget(int tokenBudget) {
+        return Math.max(100, tokenBudget);
+    }
+
     /**
      * Extracts relevant code snippets for a code smell.
+     * Parses the source for its structure; callers with several smells per file
+     * should build the {@link FileStructureIndex} once and pass it in.
      *
      * @param smell The code smell
      * @param sourceCode Complete source code
      * @return List of code snippets with context
      */
     public List<String> extractContext(CodeSmell smell, String sourceCode) {
+        return extractContext(smell, sourceCode.split("\n"), FileStructureIndex.build(sourceCode).orElse(null));
+    }
+
+    /**
+     * Extracts relevant code snippets from a file that is already split into lines,
+     * so files with many smells are split only once.
+     *
+     * @param smell The code smell
+     * @param lines Source code lines
+     * @return List of code snippets with context
+     */
+    public List<String> extractContext(CodeSmell smell, String[] lines) {
+        return extractContext(smell, lines, null);
+    }
+
+    /**
+     * Extracts relevant code snippets using the structural index of the file.
+     *
+     * @param smell The code smell
+     * @param lines Source code lines
+     * @param index Structure of the file, or null to fall back to brace scanning
+     * @return List of code snippets with context
+     */
+    public List<String> extractContext(CodeSmell smell, String[] lines, FileStructureIndex index) {
         List<String> snippets = new ArrayList<>();
-        String[] lines = sourceCode.split("\n");
 
         // Extract primary snippet (the problematic code)
-        String primarySnippet = extractPrimarySnippet(smell, lines);
+        String primarySnippet = index != null
+            ? extractBudgetedSnippet(smell, lines, index)
+            : extractPrimarySnippet(smell, lines);
         if (!primarySnippet.isEmpty()) {
             snippets.add(primarySnippet);
         }
@@ -75,6 +144,180 @@ public class ContextExtractor {
         return extractLines(lines, startLine, endLine, smell.getLine());
     }
 
+    /**
+     * Packs the most relevant members around the smell into the token budget, in order:
+     * the member containing the smell (or a window around the smell line if it is too large),
+     * the enclosing type declaration, then fields and sibling methods used by that member.
+     * Class-level smells get an outline of the type: fields and method signatures only.
+     */
+    private String extractBudgetedSnippet(CodeSmell smell, String[] lines, FileStructureIndex index) {
+        int line = smell.getLine();
+        if (line < 1 || line > lines.length) {
+            return "";
+        }
+
+        LineSelection selection = new LineSelection(lines, tokenBudget);
+        FileStructureIndex.Member type = index.typeAt(line).orElse(null);
+        FileStructureIndex.Member member = index.memberAt(line).orElse(null);
+
+        if (member == null || isClassRelatedSmell(smell.getType())) {
+            // Window around the smell line, then the outline of the type
+            int contextLines = getContextLinesForType(smell.getType());
+            selection.addAround(line, line - contextLines, line + contextLines);
+            if (type != null) {
+                selection.add(type.begin(), type.bodyStart());
+                for (FileStructureIndex.Member sibling : index.membersOf(type)) {
+                    selection.add(sibling.begin(), sibling.bodyStart());
+                }
+                selection.add(type.end(), type.end());
+            }
+            return selection.render(line);
+        }
+
+        // The whole member, or as much of it around the smell line as fits
+        int from = member.begin();
+        int to = member.end();
+        if (!isMethodRelatedSmell(smell.getType())) {
+            int contextLines = getContextLinesForType(smell.getType());
+            from = Math.max(from, line - contextLines);
+            to = Math.min(to, line + contextLines);
+        }
+        if (!selection.add(from, to)) {
+            // Keep the signatures before growing the window over the rest of the budget
+            selection.add(line, line);
+            selection.add(member.begin(), member.bodyStart());
+            if (type != null) {
+                selection.add(type.begin(), type.bodyStart());
+            }
+            selection.addAround(line, from, to);
+        }
+
+        if (type != null) {
+            selection.add(type.begin(), type.bodyStart());
+            selection.add(type.end(), type.end());
+            addUsedMembers(selection, index, type, member, lines);
+        }
+        return selection.render(line);
+    }
+
+    /**
+     * Adds fields referenced by the member, then sibling methods it calls (whole if they fit,
+     * otherwise their signature), in order of first use.
+     */
+    private void addUsedMembers(LineSelection selection, FileStructureIndex index, FileStructureIndex.Member type,
+                                FileStructureIndex.Member member, String[] lines) {
+        Set<String> words = new LinkedHashSet<>();
+        Set<String> calls = new LinkedHashSet<>();
+        for (int i = member.bodyStart(); i <= member.end() && i <= lines.length; i++) {
+            Matcher word = WORD.matcher(lines[i - 1]);
+            while (word.find()) {
+                words.add(word.group());
+            }
+            Matcher call = CALL.matcher(lines[i - 1]);
+            while (call.find()) {
+                calls.add(call.group(1));
+            }
+        }
+
+        for (FileStructureIndex.Member sibling : index.membersOf(type)) {
+            if (sibling.kind() == FileStructureIndex.Kind.FIELD && words.contains(sibling.name())) {
+                selection.add(sibling.begin(), sibling.end());
+            }
+        }
+        for (String name : calls) {
+            for (FileStructureIndex.Member callee : index.methodsNamed(type, name)) {
+                if (callee != member && !selection.add(callee.begin(), callee.end())) {
+                    selection.add(callee.begin(), callee.bodyStart());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lines chosen for a snippet, with their estimated token cost.
+     * Ranges are 1-based and inclusive; a range is added whole or not at all.
+     */
+    private static final class LineSelection {
+        private final String[] lines;
+        private final int budget;
+        private final BitSet selected = new BitSet();
+        private int tokens = HIGHLIGHT_TOKENS;
+
+        LineSelection(String[] lines, int budget) {
+            this.lines = lines;
+            this.budget = budget;
+        }
+
+        boolean add(int from, int to) {
+            from = Math.max(1, from);
+            to = Math.min(lines.length, to);
+            if (from > to) {
+                return false;
+            }
+            int cost = 0;
+            for (int i = from; i <= to; i++) {
+                if (!selected.get(i)) {
+                    cost += lineCost(i);
+                }
+            }
+            if (cost == 0) {
+                return true;
+            }
+            // A range not touching the selection opens one more gap
+            if (!selected.isEmpty() && !selected.get(from - 1) && !selected.get(to + 1)) {
+                cost += GAP_TOKENS;
+            }
+            if (tokens + cost > budget) {
+                return false;
+            }
+            selected.set(from, to + 1);
+            tokens += cost;
+            return true;
+        }
+
+        /**
+         * Grows a window around the center line, within [from, to], until the budget is used.
+         */
+        void addAround(int center, int from, int to) {
+            add(center, center);
+            int before = center - 1;
+            int after = center + 1;
+            boolean grown = true;
+            while (grown) {
+                grown = false;
+                if (after <= Math.min(to, lines.length) && add(after, after)) {
+                    after++;
+                    grown = true;
+                }
+                if (before >= Math.max(1, from) && add(before, before)) {
+                    before--;
+                    grown = true;
+                }
+            }
+        }
+
+        private int lineCost(int line) {
+            return TokenEstimator.estimate(lines[line - 1]) + 1 + LINE_PREFIX_TOKENS;
+        }
+
+        String render(int highlightLine) {
+            StringBuilder snippet = new StringBuilder();
+            int previous = -1;
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                if (snippet.length() > 0) {
+                    snippet.append("\n");
+                    if (i != previous + 1) {
+                        snippet.append(GAP_MARKER).append("\n");
+                    }
+                }
+                String prefix = (i == highlightLine) ? ">>> " : "    ";
+                snippet.append(String.format("%s%4d | %s", prefix, i, lines[i - 1]));
+                previous = i;
+            }
+            return snippet.toString();
+        }
+    }
+
     /**
      * Extracts additional context if needed (e.g., related classes for coupling issues).
      */
@@ -182,6 +425,16 @@ public class ContextExtractor {
                type == CodeSmellType.MESSAGE_CHAIN;
     }
 
+    /**
+     * Determines if a smell type concerns a whole class.
+     */
+    private boolean isClassRelatedSmell(CodeSmellType type) {
+        return type == CodeSmellType.GOD_CLASS ||
+               type == CodeSmellType.LARGE_CLASS ||
+               type == CodeSmellType.DATA_CLASS ||
+               type == CodeSmellType.LAZY_CLASS;
+    }
+
     /**
      * Determines if additional context is needed for a smell type.
      */
@@ -0,0 +1,176 @@
+package com.pragmite.ai;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Structural index of one source file: the line ranges of its types, methods,
+ * constructors, initializers and fields, taken from the parsed AST.
+ *
+ * Built once per file and shared by all smells of that file, so context extraction
+ * does not rescan the source for brace boundaries. Lines are 1-based as in the AST.
+ *
+ * @since 1.6.3
+ */
+public final class FileStructureIndex {
+
+    public enum Kind { TYPE, METHOD, FIELD }
+
+    /**
+     * One member of a type.
+     *
+     * @param bodyStart First line of the body ({@code {}), equal to {@code begin} for fields
+     * @param parent Index of the enclosing type in {@link #getMembers()}, -1 for top-level types
+     */
+    public record Member(Kind kind, String name, int begin, int end, int bodyStart, int parent) {
+        public boolean contains(int line) {
+            return line >= begin && line <= end;
+        }
+
+        public int lineCount() {
+            return end - begin + 1;
+        }
+    }
+
+    private final List<Member> members;
+
+    private FileStructureIndex(List<Member> members) {
+        this.members = Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Parses the source and builds the index.
+     *
+     * @return The index, or empty if the source does not parse
+     */
+    public static Optional<FileStructureIndex> build(String sourceCode) {
+        ParseResult<CompilationUnit> result = new JavaParser().parse(sourceCode);
+        if (!result.isSuccessful() || result.getResult().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Member> members = new ArrayList<>();
+        for (TypeDeclaration<?> type : result.getResult().get().getTypes()) {
+            addType(type, -1, members);
+        }
+        return Optional.of(new FileStructureIndex(members));
+    }
+
+    private static void addType(TypeDeclaration<?> type, int parent, List<Member> members) {
+        Optional<Range> range = type.getRange();
+        if (range.isEmpty()) {
+            return;
+        }
+        int typeIndex = members.size();
+        int bodyStart = type.getName().getRange().map(r -> r.begin.line).orElse(range.get().begin.line);
+        members.add(new Member(Kind.TYPE, type.getNameAsString(), range.get().begin.line, range.get().end.line,
+            bodyStart, parent));
+
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration<?> nested) {
+                addType(nested, typeIndex, members);
+                continue;
+            }
+            Optional<Range> memberRange = member.getRange();
+            if (memberRange.isEmpty()) {
+                continue;
+            }
+            int begin = memberRange.get().begin.line;
+            int end = memberRange.get().end.line;
+            if (member instanceof FieldDeclaration field) {
+                String name = field.getVariables().isEmpty() ? "" : field.getVariables().get(0).getNameAsString();
+                members.add(new Member(Kind.FIELD, name, begin, end, begin, typeIndex));
+            } else if (member instanceof CallableDeclaration<?> callable) {
+                members.add(new Member(Kind.METHOD, callable.getNameAsString(), begin, end,
+                    bodyStartLine(callable, begin), typeIndex));
+            } else if (member instanceof InitializerDeclaration initializer) {
+                members.add(new Member(Kind.METHOD, initializer.isStatic() ? "<clinit>" : "<init>", begin, end,
+                    begin, typeIndex));
+            }
+        }
+    }
+
+    private static int bodyStartLine(CallableDeclaration<?> callable, int fallback) {
+        Optional<? extends Node> body = Optional.empty();
+        if (callable instanceof MethodDeclaration method) {
+            body = method.getBody();
+        } else if (callable instanceof ConstructorDeclaration constructor) {
+            body = Optional.of(constructor.getBody());
+        }
+        return body.flatMap(Node::getRange).map(r -> r.begin.line).orElse(fallback);
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    /**
+     * Innermost method, constructor, initializer or field containing the line.
+     */
+    public Optional<Member> memberAt(int line) {
+        Member best = null;
+        for (Member member : members) {
+            if (member.kind() != Kind.TYPE && member.contains(line)
+                && (best == null || member.lineCount() < best.lineCount())) {
+                best = member;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Innermost type containing the line.
+     */
+    public Optional<Member> typeAt(int line) {
+        Member best = null;
+        for (Member member : members) {
+            if (member.kind() == Kind.TYPE && member.contains(line)
+                && (best == null || member.lineCount() < best.lineCount())) {
+                best = member;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Direct members (not nested types) of a type.
+     */
+    public List<Member> membersOf(Member type) {
+        int typeIndex = members.indexOf(type);
+        List<Member> result = new ArrayList<>();
+        for (Member member : members) {
+            if (member.parent() == typeIndex && member.kind() != Kind.TYPE) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Methods of the type with the given name (overloads included).
+     */
+    public List<Member> methodsNamed(Member type, String name) {
+        List<Member> result = new ArrayList<>();
+        for (Member member : membersOf(type)) {
+            if (member.kind() == Kind.METHOD && member.name().equals(name)) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+}
@@ -16,6 +16,12 @@ import java.util.regex.Pattern;
  */
 public class PromptGenerator {
 
+    /**
+     * Version of the prompt templates. Part of the refactoring cache key, so bump it
+     * whenever templates or the request format change to invalidate cached responses.
+     */
+    public static final String TEMPLATE_VERSION = "1";
+
     private final Map<CodeSmellType, String> templates;
 
     public PromptGenerator() {
@@ -40,6 +46,44 @@ public class PromptGenerator {
         return prompt;
     }
 
+    /**
+     * Generates one prompt covering several code smells of the same file.
+     * Each snippet is sent once; issues that share a snippet refer back to it,
+     * which keeps the token count well below that of separate prompts.
+     *
+     * @param filePath File containing the smells
+     * @param smells The code smells to address
+     * @param snippets Code snippets for each smell (same order as smells)
+     * @return Formatted AI prompt with numbered issues
+     */
+    public String generateBatchPrompt(String filePath, List<CodeSmell> smells, List<List<String>> snippets) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Refactor the following Java code to fix ").append(smells.size())
+            .append(" code smells found in ").append(filePath).append(".\n")
+            .append("Handle each issue separately, keep the behavior unchanged and follow Java best practices.\n");
+
+        Map<String, Integer> seenSnippets = new HashMap<>();
+        for (int i = 0; i < smells.size(); i++) {
+            CodeSmell smell = smells.get(i);
+            int issue = i + 1;
+            prompt.append("\n## Issue ").append(issue).append(": ").append(smell.getType())
+                .append(" (line ").append(smell.getLine()).append(", ").append(smell.getSeverity()).append(")\n")
+                .append(smell.getMessage() != null ? smell.getMessage() : "Code smell detected").append('\n');
+            if (smell.getSuggestion() != null && !smell.getSuggestion().isEmpty()) {
+                prompt.append("Suggestion: ").append(smell.getSuggestion()).append('\n');
+            }
+
+            String snippet = snippets.get(i).isEmpty() ? "No code snippet available" : snippets.get(i).get(0);
+            Integer sameAs = seenSnippets.putIfAbsent(snippet, issue);
+            if (sameAs != null) {
+                prompt.append("Code: same as Issue ").append(sameAs).append('\n');
+            } else {
+                prompt.append("```java\n").append(snippet).append("\n```\n");
+            }
+        }
+        return prompt.toString();
+    }
+
     /**
      * Builds variable map for template substitution.
      */
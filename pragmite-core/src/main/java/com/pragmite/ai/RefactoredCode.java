@@ -21,6 +21,8 @@ public class RefactoredCode {
     private final String whyBetter;
     private final boolean successful;
     private final String errorMessage;
+    private final Boolean syntaxValid;          // null = not checked
+    private final List<String> syntaxErrors;
 
     private RefactoredCode(Builder builder) {
         this.originalCode = builder.originalCode;
@@ -32,6 +34,8 @@ public class RefactoredCode {
         this.whyBetter = builder.whyBetter;
         this.successful = builder.successful;
         this.errorMessage = builder.errorMessage;
+        this.syntaxValid = builder.syntaxValid;
+        this.syntaxErrors = new ArrayList<>(builder.syntaxErrors);
     }
 
     public static Builder builder() {
@@ -76,6 +80,36 @@ public class RefactoredCode {
         return errorMessage;
     }
 
+    /**
+     * Result of the early syntax check of the refactored code, or null if it was not checked.
+     */
+    public Boolean getSyntaxValid() {
+        return syntaxValid;
+    }
+
+    public List<String> getSyntaxErrors() {
+        return new ArrayList<>(syntaxErrors);
+    }
+
+    /**
+     * Returns a copy with the result of a syntax check attached.
+     */
+    public RefactoredCode withSyntaxCheck(boolean valid, List<String> errors) {
+        Builder builder = builder()
+            .originalCode(originalCode)
+            .refactoredCode(refactoredCode)
+            .explanation(explanation)
+            .whyBetter(whyBetter)
+            .successful(successful)
+            .errorMessage(errorMessage)
+            .syntaxValid(valid);
+        changes.forEach(builder::addChange);
+        beforeMetrics.forEach(builder::addBeforeMetric);
+        afterMetrics.forEach(builder::addAfterMetric);
+        errors.forEach(builder::addSyntaxError);
+        return builder.build();
+    }
+
     /**
      * Convert to JSON format.
      */
@@ -98,7 +132,11 @@ public class RefactoredCode {
             json.append("],\n");
 
             json.append("  \"beforeMetrics\": ").append(metricsToJson(beforeMetrics)).append(",\n");
-            json.append("  \"afterMetrics\": ").append(metricsToJson(afterMetrics)).append("\n");
+            json.append("  \"afterMetrics\": ").append(metricsToJson(afterMetrics));
+            if (syntaxValid != null) {
+                json.append(",\n  \"syntaxValid\": ").append(syntaxValid);
+            }
+            json.append("\n");
         } else {
             json.append("  \"error\": \"").append(escapeJson(errorMessage)).append("\"\n");
         }
@@ -142,6 +180,8 @@ public class RefactoredCode {
         private String whyBetter = "";
         private boolean successful = true;
         private String errorMessage = "";
+        private Boolean syntaxValid;
+        private List<String> syntaxErrors = new ArrayList<>();
 
         public Builder originalCode(String originalCode) {
             this.originalCode = originalCode;
@@ -188,6 +228,16 @@ public class RefactoredCode {
             return this;
         }
 
+        public Builder syntaxValid(Boolean syntaxValid) {
+            this.syntaxValid = syntaxValid;
+            return this;
+        }
+
+        public Builder addSyntaxError(String error) {
+            this.syntaxErrors.add(error);
+            return this;
+        }
+
         public RefactoredCode build() {
             return new RefactoredCode(this);
         }
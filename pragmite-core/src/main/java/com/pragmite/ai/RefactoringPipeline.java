@@ -0,0 +1,218 @@
+package com.pragmite.ai;
+
+import com.pragmite.util.AdaptiveConcurrencyLimiter;
+import com.pragmite.util.TokenBucketRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs many refactoring requests against the Claude API concurrently.
+ *
+ * Each request runs on its own virtual thread, so a blocked HTTP call costs almost nothing.
+ * Two limits keep the API happy:
+ * <ul>
+ *   <li>{@link TokenBucketRateLimiter} - requests per minute (from {@link ApiConfig#getRequestsPerMinute()})</li>
+ *   <li>{@link AdaptiveConcurrencyLimiter} - in-flight requests, shrinks on 429/5xx or slow responses
+ *       and grows back while responses are fast (never above {@link ApiConfig#getMaxConcurrentRequests()})</li>
+ * </ul>
+ * Throttled requests are retried up to {@link ApiConfig#getMaxRetries()} times, honouring
+ * Retry-After or falling back to exponential backoff with jitter.
+ *
+ * @since 1.6.3
+ */
+public class RefactoringPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefactoringPipeline.class);
+
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    /**
+     * One refactoring request, either a single issue or a batch of issues from one file.
+     */
+    public static final class Request {
+        private final String aiPrompt;
+        private final String originalCode;
+        private final int issueCount;
+
+        public Request(String aiPrompt, String originalCode) {
+            this(aiPrompt, originalCode, 1);
+        }
+
+        /**
+         * @param issueCount Number of issues in a batched prompt
+         */
+        public Request(String aiPrompt, String originalCode, int issueCount) {
+            this.aiPrompt = aiPrompt;
+            this.originalCode = originalCode;
+            this.issueCount = Math.max(1, issueCount);
+        }
+
+        public String getAiPrompt() { return aiPrompt; }
+        public String getOriginalCode() { return originalCode; }
+        public int getIssueCount() { return issueCount; }
+    }
+
+    private final ClaudeApiClient client;
+    private final int maxRetries;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final AtomicInteger throttledCount = new AtomicInteger();
+    private final AtomicInteger retryCount = new AtomicInteger();
+
+    public RefactoringPipeline(ApiConfig config) {
+        this(new ClaudeApiClient(config), config);
+    }
+
+    RefactoringPipeline(ClaudeApiClient client, ApiConfig config) {
+        this.client = client;
+        this.maxRetries = Math.max(0, config.getMaxRetries());
+        this.rateLimiter = config.getRequestsPerMinute() > 0
+            ? TokenBucketRateLimiter.perMinute(config.getRequestsPerMinute())
+            : null;
+        // Start at half the maximum and let AIMD find the sustainable level
+        int max = config.getMaxConcurrentRequests();
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(Math.max(1, max / 2), max, config.getTargetLatencyMs());
+    }
+
+    /**
+     * Processes all requests and returns the results in request order.
+     * A batched request contributes one result per issue, so the list has
+     * one entry per issue rather than per request.
+     *
+     * @param requests Requests to send
+     * @param onComplete Called as each result is ready (result index, result), from worker threads
+     */
+    public List<RefactoredCode> process(List<Request> requests, BiConsumer<Integer, RefactoredCode> onComplete) {
+        List<RefactoredCode> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<RefactoredCode>>> futures = new ArrayList<>(requests.size());
+            int offset = 0;
+            for (Request request : requests) {
+                final int firstIndex = offset;
+                futures.add(executor.submit(() -> {
+                    List<RefactoredCode> batch = execute(request);
+                    if (onComplete != null) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            onComplete.accept(firstIndex + i, batch.get(i));
+                        }
+                    }
+                    return batch;
+                }));
+                offset += request.getIssueCount();
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                results.addAll(await(futures.get(i), requests.get(i).getIssueCount()));
+            }
+        }
+
+        logger.info("Refactoring pipeline finished: {} requests, {} throttled, {} retries, peak concurrency {}",
+            requests.size(), throttledCount.get(), retryCount.get(), concurrencyLimiter.getPeakInFlight());
+        return results;
+    }
+
+    /**
+     * Sends one request, retrying throttled attempts.
+     */
+    List<RefactoredCode> execute(Request request) throws InterruptedException {
+        ClaudeApiClient.ApiAttempt attempt = null;
+        for (int tryNumber = 0; tryNumber <= maxRetries; tryNumber++) {
+            if (tryNumber > 0) {
+                retryCount.incrementAndGet();
+                TimeUnit.MILLISECONDS.sleep(backoffMillis(tryNumber, attempt.getRetryAfterMillis()));
+            }
+
+            long permit = concurrencyLimiter.acquire();
+            AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+            try {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                attempt = client.attempt(request.getAiPrompt(), request.getOriginalCode(), request.getIssueCount());
+                if (attempt.isThrottled()) {
+                    outcome = AdaptiveConcurrencyLimiter.Outcome.THROTTLED;
+                    throttledCount.incrementAndGet();
+                    if (attempt.getRetryAfterMillis() > 0 && rateLimiter != null) {
+                        rateLimiter.pauseFor(attempt.getRetryAfterMillis(), TimeUnit.MILLISECONDS);
+                    }
+                } else if (attempt.getStatusCode() == 200) {
+                    outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+                }
+            } finally {
+                concurrencyLimiter.release(permit, outcome,
+                    attempt != null ? attempt.getLatencyNanos() : 0);
+            }
+
+            if (!attempt.isRetryable()) {
+                break;
+            }
+            logger.debug("Request throttled (HTTP {}), concurrency limit now {}",
+                attempt.getStatusCode(), concurrencyLimiter.getLimit());
+        }
+        return attempt.getResults();
+    }
+
+    private static long backoffMillis(int tryNumber, long retryAfterMillis) {
+        if (retryAfterMillis > 0) {
+            return Math.min(retryAfterMillis, MAX_BACKOFF_MS);
+        }
+        long exponential = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(tryNumber - 1, 10));
+        // Jitter keeps retries of simultaneously throttled requests apart
+        return ThreadLocalRandom.current().nextLong(exponential / 2, exponential + 1);
+    }
+
+    private static List<RefactoredCode> await(Future<List<RefactoredCode>> future, int issueCount) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed("Interrupted", issueCount);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("Refactoring request failed", cause);
+            return failed(cause.getMessage(), issueCount);
+        }
+    }
+
+    private static List<RefactoredCode> failed(String message, int issueCount) {
+        RefactoredCode failure = RefactoredCode.builder()
+            .successful(false)
+            .errorMessage(message)
+            .build();
+        return Collections.nCopies(issueCount, failure);
+    }
+
+    public int getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    public int getRetryCount() {
+        return retryCount.get();
+    }
+
+    public int getPeakConcurrency() {
+        return concurrencyLimiter.getPeakInFlight();
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimiter.getLimit();
+    }
+}
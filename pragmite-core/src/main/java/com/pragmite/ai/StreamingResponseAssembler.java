@@ -0,0 +1,73 @@
+package com.pragmite.ai;
+
+import java.util.function.Consumer;
+
+/**
+ * Assembles a streamed response from text deltas and reports each fenced code block
+ * as soon as its closing fence arrives, while the rest of the response is still streaming.
+ *
+ * Only the newly appended text is scanned, so the total work stays linear in the response size.
+ * Code blocks are reported trimmed, exactly as {@code ClaudeApiClient} extracts them
+ * from the complete text.
+ */
+final class StreamingResponseAssembler {
+
+    private static final String FENCE = "```";
+    private static final String CLOSING_FENCE = "\n```";
+
+    private final StringBuilder text = new StringBuilder();
+    private final Consumer<String> onCodeBlock;
+
+    private int scanFrom;
+    private int openingLineEnd = -1; // End of the "```java" line of the open block, -1 outside a block
+    private int codeBlockCount;
+
+    StreamingResponseAssembler(Consumer<String> onCodeBlock) {
+        this.onCodeBlock = onCodeBlock;
+    }
+
+    void append(String delta) {
+        text.append(delta);
+        scan();
+    }
+
+    private void scan() {
+        while (true) {
+            if (openingLineEnd < 0) {
+                int fence = text.indexOf(FENCE, scanFrom);
+                if (fence < 0) {
+                    // A fence may be split across deltas
+                    scanFrom = Math.max(scanFrom, text.length() - FENCE.length() + 1);
+                    return;
+                }
+                int lineEnd = text.indexOf("\n", fence);
+                if (lineEnd < 0) {
+                    // Wait for the rest of the info string ("java")
+                    scanFrom = fence;
+                    return;
+                }
+                openingLineEnd = lineEnd;
+                scanFrom = lineEnd;
+            } else {
+                int close = text.indexOf(CLOSING_FENCE, scanFrom);
+                if (close < 0) {
+                    scanFrom = Math.max(openingLineEnd, text.length() - CLOSING_FENCE.length() + 1);
+                    return;
+                }
+                String code = close > openingLineEnd ? text.substring(openingLineEnd + 1, close) : "";
+                openingLineEnd = -1;
+                scanFrom = close + CLOSING_FENCE.length();
+                codeBlockCount++;
+                onCodeBlock.accept(code.trim());
+            }
+        }
+    }
+
+    String getText() {
+        return text.toString();
+    }
+
+    int getCodeBlockCount() {
+        return codeBlockCount;
+    }
+}
@@ -0,0 +1,79 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.FileAnalysis;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Listener for per-file events emitted by {@link ProjectAnalyzer} while a run is in progress.
+ * In parallel mode callbacks arrive from worker threads, so implementations must be thread-safe.
+ */
+public interface AnalysisListener {
+
+    /**
+     * Called once the file list is known, before any file is analyzed.
+     *
+     * @param projectPath Project root being analyzed
+     * @param totalFiles Number of Java files that will be analyzed
+     */
+    default void onAnalysisStart(String projectPath, int totalFiles) {
+        // Default: no-op
+    }
+
+    /**
+     * Called as soon as a single file has been analyzed.
+     *
+     * @param analysis Result for the file
+     * @param completed Number of files finished so far (including this one)
+     * @param total Total number of files
+     */
+    void onFileAnalyzed(FileAnalysis analysis, int completed, int total);
+
+    /**
+     * Called after scores and suggestions have been computed for the whole project.
+     *
+     * @param result Final analysis result
+     */
+    default void onAnalysisComplete(AnalysisResult result) {
+        // Default: no-op
+    }
+
+    /**
+     * Listener that forwards every event to the given listeners in order; null entries are skipped.
+     */
+    static AnalysisListener composite(AnalysisListener... listeners) {
+        List<AnalysisListener> targets = Arrays.stream(listeners).filter(Objects::nonNull).toList();
+        if (targets.isEmpty()) {
+            return NOOP;
+        }
+        if (targets.size() == 1) {
+            return targets.get(0);
+        }
+        return new AnalysisListener() {
+            @Override
+            public void onAnalysisStart(String projectPath, int totalFiles) {
+                targets.forEach(l -> l.onAnalysisStart(projectPath, totalFiles));
+            }
+
+            @Override
+            public void onFileAnalyzed(FileAnalysis analysis, int completed, int total) {
+                targets.forEach(l -> l.onFileAnalyzed(analysis, completed, total));
+            }
+
+            @Override
+            public void onAnalysisComplete(AnalysisResult result) {
+                targets.forEach(l -> l.onAnalysisComplete(result));
+            }
+        };
+    }
+
+    /**
+     * No-op implementation used when nobody is listening.
+     */
+    AnalysisListener NOOP = (analysis, completed, total) -> {
+        // No-op
+    };
+}
@@ -0,0 +1,116 @@
+package com.pragmite.analyzer;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.Statement;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.rules.smells.DuplicateCodeDetector;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Index of code blocks across all analyzed files, used by the deep analysis level to find
+ * clones that {@link DuplicateCodeDetector}, which only looks at one file, cannot see.
+ *
+ * Every window of {@link DuplicateCodeDetector#MIN_CLONE_STATEMENTS} consecutive statements
+ * of a method is normalized as by {@link DuplicateCodeDetector#normalizeBlock} (identifiers and
+ * literals replaced) and indexed by its normalized text, so blocks that are identical up to
+ * renaming (Type-2 clones) end up in the same bucket. Files can be added concurrently.
+ */
+public class CrossFileCloneIndex {
+
+    private record Location(String filePath, String methodName, int line) implements Comparable<Location> {
+
+        @Override
+        public int compareTo(Location other) {
+            int byFile = filePath.compareTo(other.filePath);
+            return byFile != 0 ? byFile : Integer.compare(line, other.line);
+        }
+    }
+
+    private final Map<String, Queue<Location>> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the method bodies of a file.
+     */
+    public void add(CompilationUnit cu, String filePath) {
+        int window = DuplicateCodeDetector.MIN_CLONE_STATEMENTS;
+        for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+            List<Statement> statements = method.getBody().map(body -> body.getStatements()).orElse(null);
+            if (statements == null || statements.size() < window) {
+                continue;
+            }
+
+            // Each statement is normalized once and shared by the windows containing it
+            List<String> normalized = new ArrayList<>(statements.size());
+            for (Statement statement : statements) {
+                normalized.add(DuplicateCodeDetector.normalizeBlock(List.of(statement)));
+            }
+            for (int i = 0; i <= statements.size() - window; i++) {
+                String block = String.join("", normalized.subList(i, i + window));
+                int line = statements.get(i).getBegin().map(pos -> pos.line).orElse(0);
+                blocks.computeIfAbsent(block, key -> new ConcurrentLinkedQueue<>())
+                    .add(new Location(filePath, method.getNameAsString(), line));
+            }
+        }
+    }
+
+    /**
+     * Number of indexed blocks.
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Finds blocks that also occur in another file. Each method is reported once per other
+     * file it shares code with, at the first shared block, even if the clone spans several windows.
+     *
+     * @return Smells by file path
+     */
+    public Map<String, List<CodeSmell>> findClones() {
+        // (location, first copy in another file) pairs, in a stable order
+        List<Location[]> pairs = new ArrayList<>();
+        for (Queue<Location> bucket : blocks.values()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            List<Location> locations = new ArrayList<>(bucket);
+            Collections.sort(locations);
+            for (Location location : locations) {
+                for (Location other : locations) {
+                    if (!other.filePath().equals(location.filePath())) {
+                        pairs.add(new Location[] {location, other});
+                        break;
+                    }
+                }
+            }
+        }
+        pairs.sort(Comparator.<Location[], Location>comparing(pair -> pair[0]).thenComparing(pair -> pair[1]));
+
+        Map<String, List<CodeSmell>> smells = new TreeMap<>();
+        Set<String> reported = new HashSet<>();
+        for (Location[] pair : pairs) {
+            Location location = pair[0];
+            Location other = pair[1];
+            if (!reported.add(location.filePath() + '#' + location.methodName() + '#' + other.filePath())) {
+                continue;
+            }
+            CodeSmell smell = new CodeSmell(
+                CodeSmellType.DUPLICATED_CODE,
+                location.filePath(),
+                location.line(),
+                String.format("Duplicated code block found in another file (%s in %s at line %d)",
+                    other.methodName(), Path.of(other.filePath()).getFileName(), other.line())
+            );
+            smell.withSuggestion("Extract the duplicated code into a method shared by both classes")
+                 .withAutoFix(false);
+            smells.computeIfAbsent(location.filePath(), key -> new ArrayList<>()).add(smell);
+        }
+        return smells;
+    }
+}
@@ -0,0 +1,142 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.scanner.GlobPattern;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Detects generated and vendored sources before they are parsed.
+ *
+ * Vendored files are recognized by their path alone, without reading them. Generated files are
+ * recognized from the first {@link #HEADER_BYTES} bytes: the {@code @Generated} annotation,
+ * "DO NOT EDIT" banners and the signatures of common generators (protoc, JAXB, ANTLR, JavaCC, ...).
+ * Depending on the {@link Mode}, such files are skipped or only get a metrics-only pass.
+ *
+ * Usage:
+ * <pre>
+ * GeneratedCodeDetector detector = new GeneratedCodeDetector(List.of("**&#47;vendor/**"), Mode.SKIP);
+ * String reason = detector.detectPath("lib/vendor/Json.java");    // "vendored"
+ * String reason = detector.detectHeader(header, header.length);   // e.g. "protoc"
+ * </pre>
+ */
+public class GeneratedCodeDetector {
+
+    /**
+     * Bytes of a file inspected for generator signatures
+     */
+    public static final int HEADER_BYTES = 4096;
+
+    /**
+     * Default vendored paths, relative to the project root
+     */
+    public static final List<String> DEFAULT_VENDORED_PATTERNS = List.of(
+        "**/vendor/**",
+        "**/third_party/**",
+        "**/third-party/**",
+        "**/thirdparty/**",
+        "**/generated-sources/**"
+    );
+
+    /**
+     * What happens to generated and vendored files.
+     */
+    public enum Mode {
+        /** Not analyzed and not part of the result */
+        SKIP,
+        /** Only counted (files, lines), without parsing or detectors */
+        METRICS,
+        /** Analyzed like any other file */
+        ANALYZE;
+
+        /**
+         * Parses a mode name (skip, metrics, analyze).
+         */
+        public static Mode parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unknown generated code mode: " + name
+                    + " (expected skip, metrics or analyze)");
+            }
+        }
+    }
+
+    private record Signature(String reason, Pattern pattern) {
+    }
+
+    // A comment line, so banners in code or string literals do not count
+    private static final String COMMENT = "(?m)^\\s*(?://|/?\\*).*";
+
+    // Checked in order, so the more specific generators come before the generic banners
+    private static final List<Signature> SIGNATURES = List.of(
+        new Signature("protoc", Pattern.compile("Generated by the protocol buffer compiler", Pattern.CASE_INSENSITIVE)),
+        new Signature("jaxb", Pattern.compile("generated by the JavaTM Architecture for XML Binding|generated by the Eclipse Implementation of JAXB")),
+        new Signature("antlr", Pattern.compile("Generated from \\S+ by ANTLR")),
+        new Signature("javacc", Pattern.compile("Generated By:JavaCC")),
+        new Signature("thrift", Pattern.compile("Autogenerated by Thrift", Pattern.CASE_INSENSITIVE)),
+        new Signature("@Generated", Pattern.compile("@(?:javax\\.annotation\\.(?:processing\\.)?|jakarta\\.annotation\\.(?:processing\\.)?)?Generated\\b")),
+        new Signature("@generated", Pattern.compile(COMMENT + "@generated\\b")),
+        new Signature("DO NOT EDIT", Pattern.compile(COMMENT + "\\bdo not edit\\b", Pattern.CASE_INSENSITIVE)),
+        new Signature("generated banner", Pattern.compile(COMMENT
+            + "\\b(?:this|the) (?:file|class|code|source(?: file)?) (?:is|was|has been) (?:auto-?\\s?)?generated\\b",
+            Pattern.CASE_INSENSITIVE))
+    );
+
+    private final Pattern vendoredPattern;
+    private final Mode mode;
+
+    public GeneratedCodeDetector(Collection<String> vendoredPatterns, Mode mode) {
+        this.vendoredPattern = GlobPattern.compileAny(vendoredPatterns);
+        this.mode = mode != null ? mode : Mode.METRICS;
+    }
+
+    /**
+     * Default vendored paths; generated files get a metrics-only pass.
+     */
+    public static GeneratedCodeDetector defaults() {
+        return new GeneratedCodeDetector(DEFAULT_VENDORED_PATTERNS, Mode.METRICS);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.ANALYZE;
+    }
+
+    /**
+     * Checks the path of a file.
+     *
+     * @param relativePath Path relative to the project root
+     * @return "vendored", or null
+     */
+    public String detectPath(String relativePath) {
+        if (vendoredPattern != null && vendoredPattern.matcher(relativePath.replace('\\', '/')).matches()) {
+            return "vendored";
+        }
+        return null;
+    }
+
+    /**
+     * Checks the start of a file for generator signatures.
+     *
+     * @param header The first bytes of the file
+     * @param length Number of valid bytes, at most {@link #HEADER_BYTES} are inspected
+     * @return The matching signature, or null
+     */
+    public String detectHeader(byte[] header, int length) {
+        // Signatures are ASCII, so a byte-per-char decoding is enough and never fails
+        CharSequence text = new String(header, 0, Math.min(length, HEADER_BYTES), StandardCharsets.ISO_8859_1);
+        for (Signature signature : SIGNATURES) {
+            if (signature.pattern().matcher(text).find()) {
+                return signature.reason();
+            }
+        }
+        return null;
+    }
+}
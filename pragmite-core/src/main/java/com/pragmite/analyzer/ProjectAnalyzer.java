@@ -3,26 +3,40 @@ package com.pragmite.analyzer;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
+import com.pragmite.cache.FileResultCache;
 import com.pragmite.config.AnalysisConfig;
 import com.pragmite.metrics.CKMetrics;
 import com.pragmite.metrics.CKMetricsCalculator;
 import com.pragmite.model.*;
+import com.pragmite.profiling.ActiveWork;
 import com.pragmite.profiling.JfrProfiler;
+import com.pragmite.profiling.PhaseTimer;
 import com.pragmite.profiling.ProfileReport;
+import com.pragmite.profiling.ProfilingLevel;
 import com.pragmite.refactoring.RefactoringManager;
 import com.pragmite.refactoring.RefactoringSuggestion;
 import com.pragmite.rules.RuleEngine;
+import com.pragmite.scanner.OptimizedFileScanner;
 import com.pragmite.scoring.ScoreCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 /**
  * Project analyzer with parallel processing support.
@@ -31,9 +45,10 @@ import java.util.concurrent.*;
 public class ProjectAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(ProjectAnalyzer.class);
 
-    private final JavaParser javaParser;
+    // JavaParser instances are not thread-safe, so each analysis thread gets its own
+    private final ThreadLocal<JavaParser> javaParser = ThreadLocal.withInitial(JavaParser::new);
     private final ComplexityAnalyzer complexityAnalyzer;
-    private final RuleEngine ruleEngine;
+    private RuleEngine ruleEngine;
     private final ScoreCalculator scoreCalculator;
     private final RefactoringManager refactoringManager;
     private final CKMetricsCalculator ckMetricsCalculator;
@@ -41,14 +56,23 @@ public class ProjectAnalyzer {
     private final JfrProfiler jfrProfiler;
 
     private Path projectPath;
-    private boolean enableProfiling = true;  // Enabled by default for performance insights
+    private ProfilingLevel profilingLevel = ProfilingLevel.defaultLevel();  // OFF on CI, LIGHT elsewhere
+    private PhaseTimer phaseTimer = new PhaseTimer(false);
+    private AnalysisListener analysisListener = AnalysisListener.NOOP;
+    private OptimizedFileScanner fileScanner = new OptimizedFileScanner();
+    private GeneratedCodeDetector generatedCodeDetector = GeneratedCodeDetector.defaults();
+    private volatile Path analysisRoot;
+    private AnalysisLevel analysisLevel = AnalysisLevel.STANDARD;
+    private volatile CrossFileCloneIndex cloneIndex;
+    private final LongAdder skippedBytes = new LongAdder();
+    private final LongAdder skippedFiles = new LongAdder();
+    private FileResultCache resultCache;
 
     public ProjectAnalyzer() {
         this(AnalysisConfig.defaultConfig());
     }
 
     public ProjectAnalyzer(AnalysisConfig config) {
-        this.javaParser = new JavaParser();
         this.complexityAnalyzer = new ComplexityAnalyzer();
         this.ruleEngine = new RuleEngine();
         this.scoreCalculator = new ScoreCalculator();
@@ -91,50 +115,94 @@ public class ProjectAnalyzer {
             throw new IllegalArgumentException("Project directory not found: " + projectPath);
         }
 
-        // Start JFR profiling if enabled
-        if (enableProfiling) {
+        analysisRoot = path;
+        skippedBytes.reset();
+        skippedFiles.reset();
+        cloneIndex = analysisLevel.usesCrossFileIndexes() ? new CrossFileCloneIndex() : null;
+        logger.info("Analysis level: {}", analysisLevel);
+
+        // Start profiling at the configured tier
+        phaseTimer = new PhaseTimer(profilingLevel.collectsPhases());
+        boolean jfrStarted = false;
+        if (profilingLevel.usesJfr()) {
             try {
-                logger.info("Starting JFR profiling...");
-                jfrProfiler.start();
-            } catch (IOException e) {
+                logger.info("Starting JFR profiling ({})...", profilingLevel);
+                jfrProfiler.start(profilingLevel, Duration.ofMinutes(10));
+                jfrStarted = true;
+            } catch (IOException | RuntimeException e) {
                 logger.warn("Failed to start JFR profiling", e);
             }
         }
 
         AnalysisResult result = new AnalysisResult(projectPath);
-        List<Path> javaFiles = findJavaFiles(path);
-
-        logger.info("Found {} Java files", javaFiles.size());
-        result.setTotalFiles(javaFiles.size());
+        List<Path> javaFiles = new ArrayList<>();
 
         // Choose parallel or sequential analysis based on config
         List<FileAnalysis> fileAnalyses;
-        if (config.isEnableParallelAnalysis() && javaFiles.size() > 10) {
+        if (config.isEnableParallelAnalysis()) {
+            // Files are analyzed while the directory tree is still being scanned
             logger.info("Using parallel analysis with {} threads", config.getParallelThreads());
-            fileAnalyses = analyzeFilesParallel(javaFiles);
+            fileAnalyses = analyzeFilesParallel(path, projectPath, javaFiles, result);
         } else {
+            Set<Path> unchangedFiles = ConcurrentHashMap.newKeySet();
+            phaseTimer.run("discover", () -> {
+                ConcurrentLinkedQueue<Path> found = new ConcurrentLinkedQueue<>();
+                fileScanner.scan(path, found::add, javaFile -> {
+                    found.add(javaFile);
+                    unchangedFiles.add(javaFile);
+                });
+                for (Path javaFile : new TreeSet<>(found)) {
+                    if (!skipBeforeAnalysis(javaFile)) {
+                        javaFiles.add(javaFile);
+                    }
+                }
+            });
+            startAnalysis(projectPath, javaFiles, result);
+
             logger.info("Using sequential analysis");
-            fileAnalyses = analyzeFilesSequential(javaFiles);
+            fileAnalyses = phaseTimer.time("analyze", () -> analyzeFilesSequential(javaFiles, unchangedFiles));
         }
 
-        // Aggregate results
+        // Cross-file smells are only known once all files have been indexed
+        if (cloneIndex != null) {
+            List<FileAnalysis> analyses = fileAnalyses;
+            phaseTimer.run("crossFile", () -> addCrossFileClones(analyses));
+        }
+
+        // Aggregate results; skipped generated files were never analyzed
         int totalLines = 0;
+        int generatedFiles = skippedFiles.intValue();
         for (FileAnalysis fileAnalysis : fileAnalyses) {
+            if (fileAnalysis.isGenerated()) {
+                generatedFiles++;
+            }
             result.addFileAnalysis(fileAnalysis);
             totalLines += fileAnalysis.getLineCount();
-            fileAnalysis.getSmells().forEach(result::addCodeSmell);
+            result.addFileSmells(fileAnalysis);
             fileAnalysis.getComplexities().forEach(result::addComplexityInfo);
         }
 
         result.setTotalLines(totalLines);
+        result.setGeneratedFiles(generatedFiles);
+        result.setSkippedBytes(skippedBytes.sum());
+        if (generatedFiles > 0) {
+            logger.info("Did not parse {} generated or vendored files ({} bytes skipped)", generatedFiles, skippedBytes.sum());
+        }
+        if (resultCache != null) {
+            logger.info("Reused the stored results of {} unchanged files", resultCache.getHitCount());
+            resultCache.update(result);
+        }
 
         // Calculate quality scores
-        QualityScore score = scoreCalculator.calculate(result.getFileAnalyses(), result.getCodeSmells());
-        result.setQualityScore(score);
+        result.setQualityScore(phaseTimer.time("score",
+            () -> scoreCalculator.calculate(result.getFileAnalyses(), result.getCodeSmells())));
 
         // Generate refactoring suggestions for code smells
         logger.info("Generating refactoring suggestions...");
-        List<RefactoringSuggestion> suggestions = generateSuggestions(result.getCodeSmells(), javaFiles);
+        List<RefactoringSuggestion> suggestions = new ArrayList<>();
+        if (analysisLevel.generatesSuggestions()) {
+            suggestions = phaseTimer.time("suggestions", () -> generateSuggestions(result.getCodeSmells(), javaFiles));
+        }
         result.setSuggestions(suggestions);
         logger.info("Generated {} refactoring suggestions", suggestions.size());
 
@@ -142,42 +210,120 @@ public class ProjectAnalyzer {
         long endTime = System.currentTimeMillis();
         result.setAnalysisDurationMs(endTime - startTime);
 
-        // Stop JFR profiling and collect results
-        if (enableProfiling) {
+        // Stop profiling and collect results
+        ProfileReport profileReport = null;
+        if (jfrStarted) {
             try {
                 logger.info("Stopping JFR profiling...");
-                ProfileReport profileReport = jfrProfiler.stop();
-                result.setProfileReport(profileReport);
+                profileReport = jfrProfiler.stop();
                 logger.info("JFR profiling complete");
-            } catch (IOException e) {
+            } catch (IOException | RuntimeException e) {
                 logger.warn("Failed to collect JFR profiling data", e);
             }
         }
+        if (phaseTimer.isEnabled()) {
+            if (profileReport == null) {
+                profileReport = new ProfileReport();
+                profileReport.setLevel(ProfilingLevel.LIGHT);
+            }
+            phaseTimer.count("files", javaFiles.size());
+            phaseTimer.count("lines", totalLines);
+            phaseTimer.count("generatedFiles", generatedFiles);
+            phaseTimer.count("smells", result.getCodeSmells().size());
+            phaseTimer.count("suggestions", suggestions.size());
+            phaseTimer.writeTo(profileReport);
+            result.setProfileReport(profileReport);
+        }
 
         logger.info("Analysis complete. Found {} code smells in {} ms",
             result.getCodeSmells().size(), result.getAnalysisDurationMs());
 
+        analysisListener.onAnalysisComplete(result);
         return result;
     }
 
     /**
      * Enables JFR profiling for performance analysis.
+     * v1.6.3 - true selects the deep tier, false turns profiling off.
      */
     public ProjectAnalyzer withProfiling(boolean enable) {
-        this.enableProfiling = enable;
+        return withProfilingLevel(enable ? ProfilingLevel.DEEP : ProfilingLevel.OFF);
+    }
+
+    /**
+     * Sets the self-profiling tier (off, light, sampling or deep).
+     */
+    public ProjectAnalyzer withProfilingLevel(ProfilingLevel level) {
+        this.profilingLevel = level != null ? level : ProfilingLevel.OFF;
+        return this;
+    }
+
+    public ProfilingLevel getProfilingLevel() {
+        return profilingLevel;
+    }
+
+    /**
+     * Registers a listener that receives each file result as soon as it is ready.
+     */
+    public ProjectAnalyzer withAnalysisListener(AnalysisListener listener) {
+        this.analysisListener = listener != null ? listener : AnalysisListener.NOOP;
+        return this;
+    }
+
+    /**
+     * Sets the scanner that finds the files to analyze, e.g. with include/exclude patterns.
+     */
+    public ProjectAnalyzer withFileScanner(OptimizedFileScanner scanner) {
+        this.fileScanner = scanner != null ? scanner : new OptimizedFileScanner();
+        return this;
+    }
+
+    /**
+     * Reuses the stored results of files the scanner reports as unchanged (see
+     * {@link OptimizedFileScanner#withManifest}) instead of parsing them again, and stores the
+     * results of this analysis in the cache. The result still covers every scanned file.
+     * Nothing is reused at levels with cross-file indexes, which need every file's content.
+     */
+    public ProjectAnalyzer withResultCache(FileResultCache cache) {
+        this.resultCache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the analysis depth: which detectors, metrics and cross-file indexes run.
+     */
+    public ProjectAnalyzer withAnalysisLevel(AnalysisLevel level) {
+        this.analysisLevel = level != null ? level : AnalysisLevel.STANDARD;
+        RuleEngine engine = new RuleEngine();
+        engine.retainDetectors(analysisLevel::includes);
+        this.ruleEngine = engine;
+        return this;
+    }
+
+    public AnalysisLevel getAnalysisLevel() {
+        return analysisLevel;
+    }
+
+    /**
+     * Sets how generated and vendored files are recognized and treated.
+     */
+    public ProjectAnalyzer withGeneratedCodeDetector(GeneratedCodeDetector detector) {
+        this.generatedCodeDetector = detector != null ? detector : GeneratedCodeDetector.defaults();
         return this;
     }
 
     /**
      * Analyzes files sequentially (single-threaded).
      */
-    private List<FileAnalysis> analyzeFilesSequential(List<Path> javaFiles) {
+    private List<FileAnalysis> analyzeFilesSequential(List<Path> javaFiles, Set<Path> unchangedFiles) {
         List<FileAnalysis> analyses = new ArrayList<>();
+        int completed = 0;
 
         for (Path javaFile : javaFiles) {
             try {
-                FileAnalysis fileAnalysis = analyzeFile(javaFile);
+                FileAnalysis fileAnalysis = analyzeOrReuse(javaFile, unchangedFiles.contains(javaFile));
                 analyses.add(fileAnalysis);
+                analysisListener.onFileAnalyzed(fileAnalysis, ++completed, javaFiles.size());
             } catch (Exception e) {
                 logger.warn("Failed to analyze file: {} - {}", javaFile, e.getMessage());
             }
@@ -186,70 +332,182 @@ public class ProjectAnalyzer {
         return analyses;
     }
 
+    private void startAnalysis(String projectPath, List<Path> javaFiles, AnalysisResult result) {
+        logger.info("Found {} Java files", javaFiles.size());
+        result.setTotalFiles(javaFiles.size());
+        analysisListener.onAnalysisStart(projectPath, javaFiles.size());
+    }
+
     /**
-     * Analyzes files in parallel (multi-threaded).
+     * Analyzes files in parallel (multi-threaded), starting with each file as soon as the
+     * scanner finds it.
+     *
+     * @param javaFiles Receives the discovered files, sorted by path
      */
-    private List<FileAnalysis> analyzeFilesParallel(List<Path> javaFiles) {
+    private List<FileAnalysis> analyzeFilesParallel(Path root, String projectPath, List<Path> javaFiles,
+                                                    AnalysisResult result) throws IOException {
         ExecutorService executor = Executors.newFixedThreadPool(config.getParallelThreads());
-        List<Future<FileAnalysis>> futures = new ArrayList<>();
+        Map<Path, Future<FileAnalysis>> futures = new ConcurrentHashMap<>();
+        StreamedProgress progress = new StreamedProgress();
 
-        // Submit all analysis tasks
-        for (Path javaFile : javaFiles) {
-            Future<FileAnalysis> future = executor.submit(() -> {
-                try {
-                    return analyzeFile(javaFile);
-                } catch (Exception e) {
-                    logger.warn("Failed to analyze file: {} - {}", javaFile, e.getMessage());
-                    return null;
+        try {
+            // Submit each analysis task as soon as its file is found
+            BiConsumer<Path, Boolean> submit = (javaFile, unchanged) -> {
+                if (skipBeforeAnalysis(javaFile)) {
+                    return;
+                }
+                futures.put(javaFile, executor.submit(() -> {
+                    try {
+                        FileAnalysis analysis = analyzeOrReuse(javaFile, unchanged);
+                        progress.fileAnalyzed(analysis);
+                        return analysis;
+                    } catch (Exception e) {
+                        logger.warn("Failed to analyze file: {} - {}", javaFile, e.getMessage());
+                        return null;
+                    }
+                }));
+            };
+            phaseTimer.run("discover", () -> fileScanner.scan(root,
+                javaFile -> submit.accept(javaFile, false),
+                javaFile -> submit.accept(javaFile, true)));
+            javaFiles.addAll(new TreeMap<>(futures).keySet());
+            progress.start(projectPath, javaFiles, result);
+
+            // Collect results in path order
+            List<FileAnalysis> analyses = new ArrayList<>();
+            phaseTimer.run("analyze", () -> {
+                for (Path javaFile : javaFiles) {
+                    try {
+                        FileAnalysis analysis = futures.get(javaFile).get();
+                        if (analysis != null) {
+                            analyses.add(analysis);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        logger.error("Interrupted while waiting for analysis results");
+                        break;
+                    } catch (ExecutionException e) {
+                        logger.error("Error getting analysis result", e);
+                    }
                 }
             });
-            futures.add(future);
+            return analyses;
+        } finally {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
         }
+    }
 
-        // Collect results
-        List<FileAnalysis> analyses = new ArrayList<>();
-        for (Future<FileAnalysis> future : futures) {
-            try {
-                FileAnalysis analysis = future.get();
-                if (analysis != null) {
-                    analyses.add(analysis);
+    /**
+     * Holds back file notifications until the scan has counted all files, so listeners
+     * always see the start event, with the total, first.
+     */
+    private final class StreamedProgress {
+        private final List<FileAnalysis> early = new ArrayList<>();
+        private final AtomicInteger completed = new AtomicInteger();
+        private int total = -1;
+
+        void fileAnalyzed(FileAnalysis analysis) {
+            int totalFiles;
+            synchronized (this) {
+                if (total < 0) {
+                    early.add(analysis);
+                    return;
                 }
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("Error getting analysis result", e);
+                totalFiles = total;
             }
+            analysisListener.onFileAnalyzed(analysis, completed.incrementAndGet(), totalFiles);
         }
 
-        executor.shutdown();
-        try {
-            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
+        void start(String projectPath, List<Path> javaFiles, AnalysisResult result) {
+            List<FileAnalysis> ready;
+            synchronized (this) {
+                startAnalysis(projectPath, javaFiles, result);
+                total = javaFiles.size();
+                ready = new ArrayList<>(early);
+                early.clear();
+            }
+            for (FileAnalysis analysis : ready) {
+                analysisListener.onFileAnalyzed(analysis, completed.incrementAndGet(), javaFiles.size());
             }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+    }
 
-        return analyses;
+    /**
+     * The stored result of an unchanged file if there is one, otherwise a fresh analysis.
+     */
+    private FileAnalysis analyzeOrReuse(Path javaFile, boolean unchanged) throws IOException {
+        FileAnalysis cached = unchanged && resultCache != null && cloneIndex == null
+            ? resultCache.get(javaFile) : null;
+        return cached != null ? cached : analyzeFile(javaFile);
     }
 
     /**
      * Tek bir Java dosyasını analiz eder.
      */
     public FileAnalysis analyzeFile(Path filePath) throws IOException {
-        logger.debug("Dosya analiz ediliyor: {}", filePath);
+        // Live profiling attributes this thread's CPU samples to the file
+        return ActiveWork.call(filePath.toString(), () -> phaseTimer.time("file", () -> analyzeFileContent(filePath)));
+    }
 
-        String content = Files.readString(filePath);
+    private FileAnalysis analyzeFileContent(Path filePath) throws IOException {
+        logger.debug("Dosya analiz ediliyor: {}", filePath);
         FileAnalysis analysis = new FileAnalysis(filePath.toString());
 
+        // v1.6.3 - Generated and vendored files are recognized before parsing
+        boolean detectGenerated = generatedCodeDetector.isEnabled();
+        boolean skipGenerated = generatedCodeDetector.getMode() == GeneratedCodeDetector.Mode.SKIP;
+        String generated = detectGenerated ? generatedCodeDetector.detectPath(relativePath(filePath)) : null;
+        if (generated != null && skipGenerated) {
+            return skipGenerated(analysis, generated, Files.size(filePath));
+        }
+
+        byte[] bytes;
+        PhaseTimer.Phase read = phaseTimer.start("read");
+        try (InputStream in = Files.newInputStream(filePath)) {
+            // Generator signatures are in the header, so skipped files are not read in full
+            byte[] header = in.readNBytes(GeneratedCodeDetector.HEADER_BYTES);
+            if (generated == null && detectGenerated) {
+                generated = generatedCodeDetector.detectHeader(header, header.length);
+                if (generated != null && skipGenerated) {
+                    return skipGenerated(analysis, generated, Files.size(filePath));
+                }
+            }
+            bytes = header.length < GeneratedCodeDetector.HEADER_BYTES ? header : concat(header, in.readAllBytes());
+        } finally {
+            read.close();
+        }
+        phaseTimer.count("bytesRead", bytes.length);
+
+        if (generated != null) {
+            // Metrics-only pass: the lines are counted, the file is not parsed
+            logger.debug("Generated file ({}), not parsed: {}", generated, analysis.getFilePath());
+            analysis.setGeneratedReason(generated);
+            analysis.setLineCount(countLines(bytes));
+            return analysis;
+        }
+
+        String content = decode(bytes);
+
         // Satır sayısını hesapla
         int lineCount = content.split("\n").length;
         analysis.setLineCount(lineCount);
 
         // Parse et
-        ParseResult<CompilationUnit> parseResult = javaParser.parse(content);
+        ParseResult<CompilationUnit> parseResult = phaseTimer.time("parse", () -> javaParser.get().parse(content));
 
         if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
             CompilationUnit cu = parseResult.getResult().get();
+            if (phaseTimer.isEnabled()) {
+                phaseTimer.count("nodesVisited", cu.stream().count());
+            }
 
             // Sınıf adını al
             cu.getPrimaryTypeName().ifPresent(analysis::setClassName);
@@ -260,21 +518,31 @@ public class ProjectAnalyzer {
             analysis.setMethodCount(methods.size());
 
             // Karmaşıklık analizi
-            List<ComplexityInfo> complexities = complexityAnalyzer.analyze(cu, filePath.toString());
-            analysis.setComplexities(complexities);
+            if (analysisLevel.analyzesComplexity()) {
+                analysis.setComplexities(phaseTimer.time("complexity",
+                    () -> complexityAnalyzer.analyze(cu, filePath.toString())));
+            }
 
             // Kod kokusu tespiti
-            List<CodeSmell> smells = ruleEngine.analyze(cu, filePath.toString(), content);
-            analysis.setSmells(smells);
+            analysis.setSmells(phaseTimer.time("rules", () -> ruleEngine.analyze(cu, filePath.toString(), content)));
 
             // CK Metrics hesaplama
-            Map<String, CKMetrics> metricsMap = ckMetricsCalculator.calculateAll(cu, filePath.toString());
-            // İlk (ve genellikle tek) sınıf için metrics'i al
-            if (!metricsMap.isEmpty()) {
-                analysis.setCkMetrics(metricsMap.values().iterator().next());
+            if (analysisLevel.calculatesMetrics()) {
+                Map<String, CKMetrics> metricsMap = phaseTimer.time("metrics",
+                    () -> ckMetricsCalculator.calculateAll(cu, filePath.toString()));
+                // İlk (ve genellikle tek) sınıf için metrics'i al
+                if (!metricsMap.isEmpty()) {
+                    analysis.setCkMetrics(metricsMap.values().iterator().next());
+                }
+            }
+
+            CrossFileCloneIndex index = cloneIndex;
+            if (index != null) {
+                phaseTimer.run("index", () -> index.add(cu, filePath.toString()));
             }
 
         } else {
+            phaseTimer.count("parseFailures", 1);
             // Detaylı parse hatası loglama
             if (parseResult.getProblems().isEmpty()) {
                 logger.warn("Parse failed for file: {} (no specific problems reported)", filePath);
@@ -291,6 +559,95 @@ public class ProjectAnalyzer {
         return analysis;
     }
 
+    /**
+     * Decodes a source file as UTF-8.
+     * Malformed input fails as with {@link Files#readString(Path)}.
+     */
+    private static String decode(byte[] bytes) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+
+    private static int countLines(byte[] bytes) {
+        int lines = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        return bytes.length > 0 && bytes[bytes.length - 1] != '\n' ? lines + 1 : lines;
+    }
+
+    /**
+     * In SKIP mode, recognizes a generated or vendored file while the files are discovered,
+     * so it is neither counted nor reported to listeners. Reads at most the file's header.
+     *
+     * @return true if the file is skipped
+     */
+    private boolean skipBeforeAnalysis(Path javaFile) {
+        if (generatedCodeDetector.getMode() != GeneratedCodeDetector.Mode.SKIP) {
+            return false;
+        }
+        try {
+            String reason = generatedCodeDetector.detectPath(relativePath(javaFile));
+            if (reason == null) {
+                try (InputStream in = Files.newInputStream(javaFile)) {
+                    byte[] header = in.readNBytes(GeneratedCodeDetector.HEADER_BYTES);
+                    reason = generatedCodeDetector.detectHeader(header, header.length);
+                }
+            }
+            if (reason == null) {
+                return false;
+            }
+            skipGenerated(new FileAnalysis(javaFile.toString()), reason, Files.size(javaFile));
+            skippedFiles.increment();
+            return true;
+        } catch (IOException e) {
+            return false; // Analyzed, so the failure is reported like for any other file
+        }
+    }
+
+    private FileAnalysis skipGenerated(FileAnalysis analysis, String reason, long bytes) {
+        logger.debug("Generated file ({}), not parsed: {}", reason, analysis.getFilePath());
+        analysis.setGeneratedReason(reason);
+        skippedBytes.add(bytes);
+        phaseTimer.count("bytesSkipped", bytes);
+        return analysis;
+    }
+
+    /**
+     * Path of a file relative to the analyzed directory, for matching vendored paths.
+     */
+    private String relativePath(Path filePath) {
+        Path root = analysisRoot;
+        return root != null && filePath.startsWith(root) ? root.relativize(filePath).toString() : filePath.toString();
+    }
+
+    /**
+     * Adds the clones shared with other files to the smells of each file.
+     * Listeners have already been notified, so these smells are only part of the final result.
+     */
+    private void addCrossFileClones(List<FileAnalysis> fileAnalyses) {
+        Map<String, List<CodeSmell>> clones = cloneIndex.findClones();
+        int count = 0;
+        for (FileAnalysis fileAnalysis : fileAnalyses) {
+            List<CodeSmell> fileClones = clones.get(fileAnalysis.getFilePath());
+            if (fileClones != null) {
+                List<CodeSmell> smells = new ArrayList<>(fileAnalysis.getSmells());
+                smells.addAll(fileClones);
+                fileAnalysis.setSmells(smells);
+                count += fileClones.size();
+            }
+        }
+        logger.info("Found {} cross-file clones in {} indexed blocks", count, cloneIndex.size());
+    }
+
     /**
      * Generates refactoring suggestions for detected code smells.
      */
@@ -313,7 +670,7 @@ public class ProjectAnalyzer {
             try {
                 // Parse the file
                 String content = Files.readString(filePath);
-                ParseResult<CompilationUnit> parseResult = javaParser.parse(content);
+                ParseResult<CompilationUnit> parseResult = javaParser.get().parse(content);
 
                 if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
                     CompilationUnit cu = parseResult.getResult().get();
@@ -331,37 +688,4 @@ public class ProjectAnalyzer {
 
         return suggestions;
     }
-
-    /**
-     * Belirtilen dizinde tüm Java dosyalarını bulur.
-     */
-    private List<Path> findJavaFiles(Path rootPath) throws IOException {
-        List<Path> javaFiles = new ArrayList<>();
-
-        Files.walkFileTree(rootPath, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (file.toString().endsWith(".java")) {
-                    // Test dosyalarını ve build dizinlerini atla
-                    String pathStr = file.toString();
-                    if (!pathStr.contains("build") && !pathStr.contains("target")) {
-                        javaFiles.add(file);
-                    }
-                }
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                String dirName = dir.getFileName().toString();
-                // Gizli dizinleri ve build dizinlerini atla
-                if (dirName.startsWith(".") || dirName.equals("build") || dirName.equals("target") || dirName.equals("node_modules")) {
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-                return FileVisitResult.CONTINUE;
-            }
-        });
-
-        return javaFiles;
-    }
 }
@@ -0,0 +1,454 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.PragmaticPrinciple;
+import com.pragmite.model.QualityScore;
+import com.pragmite.scanner.OptimizedFileScanner;
+import com.pragmite.scoring.ScoreCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Estimates the quality of a huge project from a stratified random sample of its files.
+ *
+ * Files are grouped into strata by package (directory) and size class; when there are too
+ * many packages for {@link #MAX_STRATA} strata (fewer for small projects), packages are merged
+ * into their parents. Each round analyzes files drawn at random from every stratum in
+ * proportion to its size, with {@link ProjectAnalyzer#analyzeFile}, and estimates project
+ * totals with the stratified estimator: every analyzed file stands for N/n files of its stratum.
+ * The sample is doubled each round until the 95% confidence interval of the smell count is
+ * within the target error, the time budget runs out, or every file has been analyzed. The first
+ * round always completes.
+ *
+ * Usage:
+ * <pre>
+ * SamplingResult result = new SamplingAnalyzer(new ProjectAnalyzer(projectRoot))
+ *     .withTargetError(0.05)
+ *     .withTimeBudget(Duration.ofMinutes(2))
+ *     .analyze(projectRoot);
+ * result.getOverallScore();   // e.g. 72.40 [69.10, 75.30]
+ * </pre>
+ */
+public class SamplingAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(SamplingAnalyzer.class);
+
+    public static final int DEFAULT_INITIAL_SAMPLE = 200;
+    public static final double DEFAULT_TARGET_ERROR = 0.05;
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMinutes(5);
+
+    /**
+     * Upper bound on the number of strata, so each stratum gets enough files
+     */
+    static final int MAX_STRATA = 64;
+
+    // Files per stratum at least, on average; small projects get fewer strata
+    private static final int MIN_STRATUM_FILES = 20;
+
+    // Files analyzed per stratum and round at least, so the stratum variance can be estimated
+    private static final int MIN_PER_STRATUM = 2;
+    private static final double Z_95 = 1.96;
+
+    // Size classes: < 2 KB, < 8 KB, < 32 KB, larger
+    private static final long[] SIZE_CLASS_LIMITS = {2 * 1024, 8 * 1024, 32 * 1024};
+
+    // Values measured per file
+    private static final int DRY = 0;
+    private static final int ORTHOGONALITY = 1;
+    private static final int CORRECTNESS = 2;
+    private static final int PERFORMANCE = 3;
+    private static final int HIGH_COMPLEXITY = 4;
+    private static final int SMELLS = 5;
+    private static final int LINES = 6;
+    private static final int VALUES = 7;
+
+    private static final PragmaticPrinciple[] PRINCIPLES = {
+        PragmaticPrinciple.DRY, PragmaticPrinciple.ORTHOGONALITY, PragmaticPrinciple.CORRECTNESS, PragmaticPrinciple.PERFORMANCE
+    };
+
+    private record Candidate(Path file, String directory, int sizeClass) {
+    }
+
+    /**
+     * Files of one stratum, in random order; the first {@code submitted} have been drawn and
+     * {@code finished} of them were analyzed or failed (the others were cancelled at the deadline).
+     */
+    private static final class Stratum {
+        final List<Candidate> files = new ArrayList<>();
+        final List<FileAnalysis> analyses = new ArrayList<>();
+        final List<double[]> values = new ArrayList<>();
+        int submitted;
+        int finished;
+
+        int size() {
+            return files.size();
+        }
+
+        double weight() {
+            return (double) size() / values.size();
+        }
+    }
+
+    private final ProjectAnalyzer analyzer;
+    private final ScoreCalculator scoreCalculator = new ScoreCalculator();
+    private OptimizedFileScanner fileScanner = new OptimizedFileScanner();
+    private double targetError = DEFAULT_TARGET_ERROR;
+    private Duration timeBudget = DEFAULT_TIME_BUDGET;
+    private int initialSampleSize = DEFAULT_INITIAL_SAMPLE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+
+    public SamplingAnalyzer(ProjectAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Sets the scanner that finds the files to sample from.
+     */
+    public SamplingAnalyzer withFileScanner(OptimizedFileScanner scanner) {
+        this.fileScanner = scanner != null ? scanner : new OptimizedFileScanner();
+        return this;
+    }
+
+    /**
+     * Relative half width of the 95% confidence interval of the smell count at which sampling
+     * stops, e.g. 0.05 for ±5%.
+     */
+    public SamplingAnalyzer withTargetError(double targetError) {
+        if (targetError <= 0) {
+            throw new IllegalArgumentException("targetError must be positive: " + targetError);
+        }
+        this.targetError = targetError;
+        return this;
+    }
+
+    /**
+     * Wall-clock time after which sampling stops, scanning included.
+     */
+    public SamplingAnalyzer withTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * Number of files analyzed in the first round.
+     */
+    public SamplingAnalyzer withInitialSampleSize(int initialSampleSize) {
+        if (initialSampleSize <= 0) {
+            throw new IllegalArgumentException("initialSampleSize must be positive: " + initialSampleSize);
+        }
+        this.initialSampleSize = initialSampleSize;
+        return this;
+    }
+
+    public SamplingAnalyzer withThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Seed of the random selection, to reproduce a sample.
+     */
+    public SamplingAnalyzer withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Samples the project until the target error or the time budget is reached.
+     */
+    public SamplingResult analyze(Path root) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+
+        List<Candidate> population = discover(root);
+        List<Stratum> strata = stratify(population, new Random(seed));
+        logger.info("Sampling {} files in {} strata (seed {})", population.size(), strata.size(), seed);
+
+        SamplingResult result = new SamplingResult();
+        result.populationFiles = population.size();
+        result.strata = strata.size();
+        result.seed = seed;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int target = Math.min(initialSampleSize, population.size());
+            while (true) {
+                result.rounds++;
+                boolean completed = runRound(strata, target, population.size(), executor,
+                    result.rounds == 1 ? Long.MAX_VALUE : deadline);
+                estimate(strata, result);
+                logger.info("Round {}: {} files, {} smells ± {}", result.rounds, result.sampledFiles,
+                    Math.round(result.totalSmells.value()), Math.round(result.totalSmells.halfWidth()));
+
+                if (!completed) {
+                    result.stopReason = SamplingResult.StopReason.TIME_BUDGET;
+                } else if (strata.stream().allMatch(stratum -> stratum.finished == stratum.size())) {
+                    result.stopReason = SamplingResult.StopReason.EXHAUSTED;
+                } else if (result.totalSmells.relativeError() <= targetError) {
+                    result.stopReason = SamplingResult.StopReason.TARGET_ERROR;
+                } else if (System.nanoTime() >= deadline) {
+                    result.stopReason = SamplingResult.StopReason.TIME_BUDGET;
+                }
+                if (result.stopReason != null) {
+                    break;
+                }
+                target = (int) Math.min(population.size(), target * 2L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        result.durationMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Sampling stopped ({}) after {} of {} files in {} ms", result.stopReason,
+            result.sampledFiles, result.populationFiles, result.durationMs);
+        return result;
+    }
+
+    private List<Candidate> discover(Path root) throws IOException {
+        List<Path> files = fileScanner.scanJavaFiles(root);
+        List<Candidate> candidates = new ArrayList<>(files.size());
+        for (Path file : files) {
+            Path parent = root.relativize(file).getParent();
+            String directory = parent == null ? "" : parent.toString().replace('\\', '/');
+            candidates.add(new Candidate(file, directory, sizeClass(Files.size(file))));
+        }
+        return candidates;
+    }
+
+    static int sizeClass(long size) {
+        int sizeClass = 0;
+        while (sizeClass < SIZE_CLASS_LIMITS.length && size >= SIZE_CLASS_LIMITS[sizeClass]) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    /**
+     * Groups files by package and size class, merging packages into their parents until
+     * there are at most {@link #MAX_STRATA} strata of {@link #MIN_STRATUM_FILES} files on average.
+     * Each stratum is shuffled.
+     */
+    private static List<Stratum> stratify(List<Candidate> population, Random random) {
+        int maxStrata = Math.max(1, Math.min(MAX_STRATA, population.size() / MIN_STRATUM_FILES));
+        int depth = population.stream().mapToInt(c -> segments(c.directory())).max().orElse(0);
+        Map<String, Stratum> strata;
+        do {
+            strata = new TreeMap<>();
+            for (Candidate candidate : population) {
+                String key = prefix(candidate.directory(), depth) + "#" + candidate.sizeClass();
+                strata.computeIfAbsent(key, k -> new Stratum()).files.add(candidate);
+            }
+            depth--;
+        } while (strata.size() > maxStrata && depth >= 0);
+
+        List<Stratum> result = new ArrayList<>(strata.values());
+        for (Stratum stratum : result) {
+            Collections.shuffle(stratum.files, random);
+        }
+        return result;
+    }
+
+    private static int segments(String directory) {
+        return directory.isEmpty() ? 0 : directory.split("/").length;
+    }
+
+    private static String prefix(String directory, int depth) {
+        if (directory.isEmpty() || depth <= 0) {
+            return "";
+        }
+        String[] parts = directory.split("/");
+        return parts.length <= depth ? directory : String.join("/", Arrays.copyOf(parts, depth));
+    }
+
+    /**
+     * Analyzes the files drawn for a round, allocated to the strata by size.
+     *
+     * @return false if the deadline passed before all files were analyzed
+     */
+    private boolean runRound(List<Stratum> strata, int target, int populationSize,
+                             ExecutorService executor, long deadline) {
+        Map<Stratum, List<Future<FileAnalysis>>> futures = new LinkedHashMap<>();
+        for (Stratum stratum : strata) {
+            int allocation = (int) Math.ceil((double) target * stratum.size() / populationSize);
+            int goal = Math.min(stratum.size(), Math.max(MIN_PER_STRATUM, allocation));
+            List<Future<FileAnalysis>> submitted = new ArrayList<>();
+            for (; stratum.submitted < goal; stratum.submitted++) {
+                Path file = stratum.files.get(stratum.submitted).file();
+                submitted.add(executor.submit(() -> analyzer.analyzeFile(file)));
+            }
+            futures.put(stratum, submitted);
+        }
+
+        boolean completed = true;
+        for (Map.Entry<Stratum, List<Future<FileAnalysis>>> entry : futures.entrySet()) {
+            Stratum stratum = entry.getKey();
+            for (Future<FileAnalysis> future : entry.getValue()) {
+                // Past the deadline, keep the files already done and cancel the rest
+                if (!completed && !future.isDone()) {
+                    future.cancel(true);
+                    continue;
+                }
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    FileAnalysis analysis = deadline == Long.MAX_VALUE ? future.get() : future.get(remaining, TimeUnit.NANOSECONDS);
+                    stratum.finished++;
+                    stratum.analyses.add(analysis);
+                    stratum.values.add(measure(analysis));
+                } catch (TimeoutException e) {
+                    completed = false;
+                    future.cancel(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    completed = false;
+                } catch (ExecutionException e) {
+                    stratum.finished++;
+                    logger.warn("Failed to analyze sampled file: {}", e.getCause().getMessage());
+                }
+            }
+        }
+        return completed;
+    }
+
+    private static double[] measure(FileAnalysis analysis) {
+        double[] values = new double[VALUES];
+        values[DRY] = ScoreCalculator.countViolations(analysis.getSmells(), PragmaticPrinciple.DRY);
+        values[ORTHOGONALITY] = ScoreCalculator.countViolations(analysis.getSmells(), PragmaticPrinciple.ORTHOGONALITY);
+        values[CORRECTNESS] = ScoreCalculator.countViolations(analysis.getSmells(), PragmaticPrinciple.CORRECTNESS);
+        values[PERFORMANCE] = ScoreCalculator.countViolations(analysis.getSmells(), PragmaticPrinciple.PERFORMANCE);
+        values[HIGH_COMPLEXITY] = ScoreCalculator.highComplexityMethods(analysis);
+        values[SMELLS] = analysis.getSmells().size();
+        values[LINES] = analysis.getLineCount();
+        return values;
+    }
+
+    /**
+     * Stratified estimates of the project totals and the scores derived from them.
+     * Strata without analyzed files (after a timeout) are estimated from the pooled sample.
+     */
+    private void estimate(List<Stratum> strata, SamplingResult result) {
+        List<double[]> pooled = new ArrayList<>();
+        List<FileAnalysis> sample = new ArrayList<>();
+        Map<FileAnalysis, Double> weights = new IdentityHashMap<>();
+        for (Stratum stratum : strata) {
+            pooled.addAll(stratum.values);
+            sample.addAll(stratum.analyses);
+            for (FileAnalysis analysis : stratum.analyses) {
+                weights.put(analysis, stratum.weight());
+            }
+        }
+        int population = result.populationFiles;
+        result.sampledFiles = sample.size();
+        result.sample = sample;
+
+        SamplingResult.Estimate[] totals = new SamplingResult.Estimate[VALUES];
+        for (int k = 0; k < VALUES; k++) {
+            int index = k;
+            totals[k] = stratifiedTotal(strata, pooled, values -> values[index]);
+        }
+        result.totalSmells = totals[SMELLS];
+        result.totalLines = totals[LINES];
+        result.smellsPerFile = population == 0 ? new SamplingResult.Estimate(0, 0, 0) : scale(totals[SMELLS], 1.0 / population);
+        result.smellsPerKloc = perKloc(strata, pooled, totals[SMELLS].value(), totals[LINES].value(), SMELLS);
+        result.smellsPerKlocByPrinciple.clear();
+        for (int p = 0; p < PRINCIPLES.length; p++) {
+            result.smellsPerKlocByPrinciple.put(PRINCIPLES[p],
+                perKloc(strata, pooled, totals[p].value(), totals[LINES].value(), p));
+        }
+
+        // Fewer violations give higher scores, so the upper violation bounds give the lower score bounds
+        result.qualityScore = scoreCalculator.calculateWeighted(sample, weights::get);
+        QualityScore worst = scoreCalculator.calculateFromViolations(totals[DRY].upper(), totals[ORTHOGONALITY].upper(),
+            totals[CORRECTNESS].upper(), ScoreCalculator.performanceViolations(totals[PERFORMANCE].upper(), totals[HIGH_COMPLEXITY].upper()));
+        QualityScore best = scoreCalculator.calculateFromViolations(totals[DRY].lower(), totals[ORTHOGONALITY].lower(),
+            totals[CORRECTNESS].lower(), ScoreCalculator.performanceViolations(totals[PERFORMANCE].lower(), totals[HIGH_COMPLEXITY].lower()));
+        QualityScore point = result.qualityScore;
+        result.dryScore = new SamplingResult.Estimate(point.getDryScore(), worst.getDryScore(), best.getDryScore());
+        result.orthogonalityScore = new SamplingResult.Estimate(point.getOrthogonalityScore(),
+            worst.getOrthogonalityScore(), best.getOrthogonalityScore());
+        result.correctnessScore = new SamplingResult.Estimate(point.getCorrectnessScore(),
+            worst.getCorrectnessScore(), best.getCorrectnessScore());
+        result.performanceScore = new SamplingResult.Estimate(point.getPerfScore(), worst.getPerfScore(), best.getPerfScore());
+        result.overallScore = new SamplingResult.Estimate(point.getOverallScore(), worst.getOverallScore(), best.getOverallScore());
+    }
+
+    private interface Measure {
+        double of(double[] values);
+    }
+
+    /**
+     * Estimated total of a per-file value: the sum of N_h times the stratum mean, with variance
+     * sum of N_h² (1 - n_h/N_h) s_h² / n_h. Violation counts cannot be negative, nor can the bound.
+     */
+    private static SamplingResult.Estimate stratifiedTotal(List<Stratum> strata, List<double[]> pooled, Measure measure) {
+        double pooledMean = mean(pooled, measure);
+        double pooledVariance = variance(pooled, measure, pooledMean);
+        double total = 0;
+        double variance = 0;
+        for (Stratum stratum : strata) {
+            int n = stratum.values.size();
+            int size = stratum.size();
+            if (n == 0) {
+                total += size * pooledMean;
+                variance += (double) size * size * pooledVariance;
+                continue;
+            }
+            double mean = mean(stratum.values, measure);
+            double stratumVariance = n > 1 ? variance(stratum.values, measure, mean) : pooledVariance;
+            total += size * mean;
+            variance += (double) size * size * (1 - (double) n / size) * stratumVariance / n;
+        }
+        double halfWidth = Z_95 * Math.sqrt(variance);
+        return new SamplingResult.Estimate(total, Math.max(0, total - halfWidth), total + halfWidth);
+    }
+
+    /**
+     * Ratio estimate of a value per 1000 lines, with the variance of the linearized residuals.
+     */
+    private static SamplingResult.Estimate perKloc(List<Stratum> strata, List<double[]> pooled,
+                                                   double total, double totalLines, int index) {
+        if (totalLines <= 0) {
+            return new SamplingResult.Estimate(0, 0, 0);
+        }
+        double ratio = total / totalLines;
+        SamplingResult.Estimate residual = stratifiedTotal(strata, pooled, values -> values[index] - ratio * values[LINES]);
+        double halfWidth = (residual.upper() - residual.value()) / totalLines;
+        return new SamplingResult.Estimate(1000 * ratio, 1000 * Math.max(0, ratio - halfWidth), 1000 * (ratio + halfWidth));
+    }
+
+    private static SamplingResult.Estimate scale(SamplingResult.Estimate estimate, double factor) {
+        return new SamplingResult.Estimate(estimate.value() * factor, estimate.lower() * factor, estimate.upper() * factor);
+    }
+
+    private static double mean(List<double[]> values, Measure measure) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        double sum = 0;
+        for (double[] v : values) {
+            sum += measure.of(v);
+        }
+        return sum / values.size();
+    }
+
+    private static double variance(List<double[]> values, Measure measure, double mean) {
+        if (values.size() < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (double[] v : values) {
+            double d = measure.of(v) - mean;
+            sum += d * d;
+        }
+        return sum / (values.size() - 1);
+    }
+}
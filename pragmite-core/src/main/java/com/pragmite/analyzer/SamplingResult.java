@@ -0,0 +1,132 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.PragmaticPrinciple;
+import com.pragmite.model.QualityScore;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Project metrics estimated from a stratified random sample of files, with 95% confidence
+ * intervals. Produced by {@link SamplingAnalyzer}.
+ */
+public class SamplingResult {
+
+    /**
+     * An estimate with its 95% confidence interval.
+     */
+    public record Estimate(double value, double lower, double upper) {
+
+        public double halfWidth() {
+            return (upper - lower) / 2;
+        }
+
+        /**
+         * Half width of the interval relative to the value (0 for an exact zero).
+         */
+        public double relativeError() {
+            if (value == 0) {
+                return halfWidth() == 0 ? 0 : Double.POSITIVE_INFINITY;
+            }
+            return halfWidth() / Math.abs(value);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.2f [%.2f, %.2f]", value, lower, upper);
+        }
+    }
+
+    /**
+     * Why sampling stopped.
+     */
+    public enum StopReason {
+        /** The estimated smell count reached the target error */
+        TARGET_ERROR,
+        /** The time budget ran out */
+        TIME_BUDGET,
+        /** Every file was analyzed */
+        EXHAUSTED
+    }
+
+    int populationFiles;
+    int sampledFiles;
+    int strata;
+    int rounds;
+    long seed;
+    long durationMs;
+    StopReason stopReason;
+    QualityScore qualityScore;
+    Estimate dryScore;
+    Estimate orthogonalityScore;
+    Estimate correctnessScore;
+    Estimate performanceScore;
+    Estimate overallScore;
+    Estimate totalSmells;
+    Estimate totalLines;
+    Estimate smellsPerFile;
+    Estimate smellsPerKloc;
+    Map<PragmaticPrinciple, Estimate> smellsPerKlocByPrinciple = new EnumMap<>(PragmaticPrinciple.class);
+    List<FileAnalysis> sample = List.of();
+
+    SamplingResult() {
+    }
+
+    /**
+     * Number of files in the project.
+     */
+    public int getPopulationFiles() { return populationFiles; }
+
+    /**
+     * Number of files analyzed.
+     */
+    public int getSampledFiles() { return sampledFiles; }
+
+    public int getStrata() { return strata; }
+    public int getRounds() { return rounds; }
+
+    /**
+     * Seed of the random selection; the same seed selects the same files.
+     */
+    public long getSeed() { return seed; }
+
+    public long getDurationMs() { return durationMs; }
+    public StopReason getStopReason() { return stopReason; }
+
+    /**
+     * Point estimate of the project's quality score.
+     */
+    public QualityScore getQualityScore() { return qualityScore; }
+
+    public Estimate getDryScore() { return dryScore; }
+    public Estimate getOrthogonalityScore() { return orthogonalityScore; }
+    public Estimate getCorrectnessScore() { return correctnessScore; }
+    public Estimate getPerformanceScore() { return performanceScore; }
+
+    /**
+     * Overall score. The interval combines the component bounds, so it is conservative.
+     */
+    public Estimate getOverallScore() { return overallScore; }
+
+    /**
+     * Estimated number of smells in the project.
+     */
+    public Estimate getTotalSmells() { return totalSmells; }
+
+    public Estimate getTotalLines() { return totalLines; }
+    public Estimate getSmellsPerFile() { return smellsPerFile; }
+    public Estimate getSmellsPerKloc() { return smellsPerKloc; }
+
+    public Estimate getSmellsPerKloc(PragmaticPrinciple principle) {
+        return smellsPerKlocByPrinciple.get(principle);
+    }
+
+    /**
+     * The analyzed files.
+     */
+    public List<FileAnalysis> getSample() { return Collections.unmodifiableList(sample); }
+}
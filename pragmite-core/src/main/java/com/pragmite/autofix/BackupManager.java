@@ -1,47 +1,51 @@
 package com.pragmite.autofix;
 
+import com.pragmite.util.BackupStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Stream;
 
 /**
  * Manages backups of source files before auto-apply modifications.
  *
  * Features:
- * - Creates timestamped backups in temp directory
- * - Calculates checksums for verification
+ * - Content-addressed backups in temp directory: identical contents are stored once, compressed
+ * - Index of backups by file and time (no directory scans)
+ * - SHA-256 checksums for verification
  * - Supports restore from backup
  * - Automatic cleanup of old backups
  */
 public class BackupManager {
     private static final Logger logger = LoggerFactory.getLogger(BackupManager.class);
     private static final int MAX_BACKUPS_PER_FILE = 10;
+    private static final String OPERATION = "auto-apply";
 
     private final Path backupDir;
     private final boolean enabled;
+    private BackupStore store;
 
     public BackupManager() {
         this(true);
     }
 
     public BackupManager(boolean enabled) {
+        this(enabled, Paths.get(System.getProperty("java.io.tmpdir"), "pragmite-backups"));
+    }
+
+    /**
+     * Create a backup manager storing backups in the given directory.
+     */
+    public BackupManager(boolean enabled, Path backupDir) {
         this.enabled = enabled;
-        this.backupDir = Paths.get(System.getProperty("java.io.tmpdir"), "pragmite-backups");
+        this.backupDir = backupDir;
 
         if (enabled) {
             try {
-                Files.createDirectories(backupDir);
+                this.store = new BackupStore(backupDir);
                 logger.info("Backup directory: {}", backupDir);
             } catch (IOException e) {
                 logger.error("Failed to create backup directory", e);
@@ -61,28 +65,14 @@ public class BackupManager {
             throw new IOException("Source file does not exist: " + sourceFile);
         }
 
-        // Generate backup filename with timestamp
-        String timestamp = Instant.now().toString()
-            .replace(":", "-")
-            .replace(".", "-");
-
-        String originalFileName = sourceFile.getFileName().toString();
-        String backupFileName = originalFileName + ".backup." + timestamp;
-        Path backupPath = backupDir.resolve(backupFileName);
-
-        // Copy file to backup location
-        Files.copy(sourceFile, backupPath, StandardCopyOption.REPLACE_EXISTING);
+        // Stores the content only if no earlier backup has the same content
+        BackupStore.Entry entry = requireStore().put(sourceFile, OPERATION);
+        Backup backup = toBackup(sourceFile, entry);
 
-        // Calculate checksum for verification
-        String checksum = calculateChecksum(sourceFile);
-        long size = Files.size(sourceFile);
-
-        Backup backup = new Backup(sourceFile, backupPath, Instant.now(), size, checksum);
-
-        logger.info("Created backup: {} → {}", sourceFile.getFileName(), backupPath.getFileName());
+        logger.info("Created backup: {} → {}", sourceFile.getFileName(), entry.hash());
 
         // Cleanup old backups
-        cleanupOldBackups(originalFileName);
+        requireStore().retainLatest(sourceFile, MAX_BACKUPS_PER_FILE);
 
         return backup;
     }
@@ -96,24 +86,12 @@ public class BackupManager {
             return;
         }
 
-        if (!Files.exists(backup.getBackupPath())) {
-            throw new IOException("Backup file does not exist: " + backup.getBackupPath());
-        }
-
-        // Restore from backup
-        Files.copy(backup.getBackupPath(), backup.getOriginalPath(),
-                   StandardCopyOption.REPLACE_EXISTING);
+        // Restore from backup; the content is verified against its checksum (the blob hash)
+        requireStore().restore(backup.getChecksum(), backup.getOriginalPath());
 
         logger.info("Restored {} from backup {}",
                    backup.getOriginalPath().getFileName(),
-                   backup.getBackupPath().getFileName());
-
-        // Verify checksum
-        String currentChecksum = calculateChecksum(backup.getOriginalPath());
-        if (!currentChecksum.equals(backup.getChecksum())) {
-            logger.warn("Checksum mismatch after restore! Expected: {}, Got: {}",
-                       backup.getChecksum(), currentChecksum);
-        }
+                   backup.getChecksum());
     }
 
     /**
@@ -137,40 +115,41 @@ public class BackupManager {
     }
 
     /**
-     * Clean up old backups, keeping only the last MAX_BACKUPS_PER_FILE.
+     * Backups of files with the given name, newest first.
      */
-    public void cleanupOldBackups(String originalFileName) {
+    public List<Backup> listBackups(String originalFileName) throws IOException {
         if (!enabled) {
-            return;
+            return List.of();
         }
+        return requireStore().entriesNamed(originalFileName).stream()
+            .map(entry -> toBackup(entry.file(), entry))
+            .toList();
+    }
 
-        try {
-            // Find all backups for this file
-            String backupPrefix = originalFileName + ".backup.";
-            List<Path> backups = new ArrayList<>();
+    /**
+     * All backups, newest first.
+     */
+    public List<Backup> listBackups() throws IOException {
+        if (!enabled) {
+            return List.of();
+        }
+        return requireStore().entries().stream()
+            .map(entry -> toBackup(entry.file(), entry))
+            .toList();
+    }
 
-            try (Stream<Path> paths = Files.list(backupDir)) {
-                paths.filter(p -> p.getFileName().toString().startsWith(backupPrefix))
-                     .forEach(backups::add);
-            }
+    /**
+     * Clean up old backups, keeping only the last MAX_BACKUPS_PER_FILE per file.
+     */
+    public void cleanupOldBackups(String originalFileName) {
+        if (!enabled || store == null) {
+            return;
+        }
 
-            // Sort by creation time (newest first)
-            backups.sort(Comparator.<Path, FileTime>comparing(p -> {
-                try {
-                    return Files.getLastModifiedTime(p);
-                } catch (IOException e) {
-                    return FileTime.fromMillis(0);
-                }
-            }).reversed());
-
-            // Delete old backups beyond MAX_BACKUPS_PER_FILE
-            if (backups.size() > MAX_BACKUPS_PER_FILE) {
-                for (int i = MAX_BACKUPS_PER_FILE; i < backups.size(); i++) {
-                    Files.deleteIfExists(backups.get(i));
-                    logger.debug("Deleted old backup: {}", backups.get(i).getFileName());
-                }
+        try {
+            for (BackupStore.Entry entry : store.entriesNamed(originalFileName)) {
+                store.retainLatest(entry.file(), MAX_BACKUPS_PER_FILE);
             }
-
         } catch (IOException e) {
             logger.error("Failed to cleanup old backups", e);
         }
@@ -180,31 +159,13 @@ public class BackupManager {
      * Clean up all backups older than specified days.
      */
     public void cleanupOldBackups(int olderThanDays) {
-        if (!enabled) {
+        if (!enabled || store == null) {
             return;
         }
 
         try {
             Instant cutoff = Instant.now().minusSeconds(olderThanDays * 24L * 60 * 60);
-            int deleted = 0;
-
-            try (Stream<Path> paths = Files.list(backupDir)) {
-                List<Path> oldBackups = paths
-                    .filter(p -> {
-                        try {
-                            BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
-                            return attrs.creationTime().toInstant().isBefore(cutoff);
-                        } catch (IOException e) {
-                            return false;
-                        }
-                    })
-                    .toList();
-
-                for (Path backup : oldBackups) {
-                    Files.deleteIfExists(backup);
-                    deleted++;
-                }
-            }
+            int deleted = store.removeOlderThan(cutoff);
 
             logger.info("Cleaned up {} old backups (older than {} days)", deleted, olderThanDays);
 
@@ -213,25 +174,8 @@ public class BackupManager {
         }
     }
 
-    /**
-     * Calculate MD5 checksum of file for verification.
-     */
-    private String calculateChecksum(Path file) throws IOException {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] bytes = Files.readAllBytes(file);
-            byte[] digest = md.digest(bytes);
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-
-        } catch (NoSuchAlgorithmException e) {
-            // MD5 should always be available
-            throw new IOException("MD5 algorithm not available", e);
-        }
+    private Backup toBackup(Path sourceFile, BackupStore.Entry entry) {
+        return new Backup(sourceFile, store.blobPath(entry.hash()), entry.createdAt(), entry.size(), entry.hash());
     }
 
     /**
@@ -248,6 +192,23 @@ public class BackupManager {
         return backupDir;
     }
 
+    /**
+     * Backup store holding the backup contents and their index.
+     */
+    public BackupStore getStore() {
+        if (store == null) {
+            throw new IllegalStateException("Backup store not available: " + backupDir);
+        }
+        return store;
+    }
+
+    private BackupStore requireStore() throws IOException {
+        if (store == null) {
+            throw new IOException("Backup store not available: " + backupDir);
+        }
+        return store;
+    }
+
     /**
      * Check if backups are enabled.
      */
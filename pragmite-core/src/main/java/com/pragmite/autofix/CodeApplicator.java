@@ -4,13 +4,24 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import com.pragmite.ai.RefactoredCode;
+import com.pragmite.util.FileLockManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Main application engine for auto-apply functionality.
@@ -23,6 +34,10 @@ import java.time.Instant;
  * 5. Validate compilation
  * 6. Rollback on failure
  *
+ * {@link #applyBatchTransactional(Map)} applies many files as one transaction: files are
+ * prepared in parallel, written through temp files and atomic moves under file locks,
+ * validated in one batch, and either all kept or all rolled back.
+ *
  * Version: v0.6
  */
 public class CodeApplicator {
@@ -32,6 +47,8 @@ public class CodeApplicator {
     private final CompilationValidator validator;
     private final ASTReplacer astReplacer;
     private final JavaParser javaParser;
+    // Sidecar locks: a lock on the file itself would stay on the old file once it is replaced
+    private final FileLockManager lockManager = new FileLockManager(FileLockManager.defaultLockDirectory());
     private final boolean dryRun;
 
     /**
@@ -48,8 +65,19 @@ public class CodeApplicator {
      * @param enableBackup If true, create backups before modifications
      */
     public CodeApplicator(boolean dryRun, boolean enableBackup) {
+        this(dryRun, enableBackup, new CompilationValidator(false)); // Use fast JavaParser validation
+    }
+
+    /**
+     * Create CodeApplicator with a custom validator, e.g. incremental semantic validation.
+     *
+     * @param dryRun If true, simulate changes without applying
+     * @param enableBackup If true, create backups before modifications
+     * @param validator Validator run on each modified file
+     */
+    public CodeApplicator(boolean dryRun, boolean enableBackup, CompilationValidator validator) {
         this.backupManager = new BackupManager(enableBackup);
-        this.validator = new CompilationValidator(false); // Use fast JavaParser validation
+        this.validator = validator;
         this.astReplacer = new ASTReplacer();
         this.javaParser = new JavaParser();
         this.dryRun = dryRun;
@@ -324,6 +352,268 @@ public class CodeApplicator {
         return results;
     }
 
+    /**
+     * Apply refactorings to many files as a single transaction.
+     *
+     * 1. Lock all files, so they cannot change between being read and being replaced
+     * 2. Prepare each file in parallel (parse, AST replacement); nothing is written yet
+     * 3. Back up every file and stage the new content in temp files
+     * 4. Move every staged file into place atomically, unless it changed since it was read
+     * 5. Validate all files in one batch
+     * 6. Keep all changes, or restore every file if any step failed
+     *
+     * @param refactorings Map of source files to refactored code
+     * @return Application results in the order of the map; all succeed or none is kept
+     */
+    public List<ApplicationResult> applyBatchTransactional(Map<Path, RefactoredCode> refactorings) {
+        Instant startTime = Instant.now();
+        logger.info("Applying transactional batch refactoring to {} files", refactorings.size());
+
+        if (dryRun) {
+            List<ApplicationResult> results = new ArrayList<>();
+            refactorings.forEach((file, refactored) -> results.add(performDryRun(refactored, file)));
+            return results;
+        }
+
+        List<Path> files = new ArrayList<>(refactorings.keySet());
+        Map<Path, ApplicationResult> failures = new LinkedHashMap<>();
+
+        List<Path> lockOrder = new ArrayList<>(files);
+        lockOrder.sort(null); // Same order everywhere, so concurrent batches cannot deadlock
+        Map<Path, String> lockTokens = new LinkedHashMap<>();
+        Map<Path, Backup> backups = new LinkedHashMap<>();
+        List<PreparedChange> changes = new ArrayList<>();
+        List<PreparedChange> committed = new ArrayList<>();
+
+        try {
+            // Step 1: Lock all files before reading them
+            for (Path file : lockOrder) {
+                String token = lockManager.tryAcquireLock(file);
+                if (token == null) {
+                    failures.put(file, ApplicationResult.failed("File is locked by another operation: " + file));
+                    return batchResults(files, failures, null, "Batch not applied: a file is locked");
+                }
+                lockTokens.put(file, token);
+            }
+
+            // Step 2: Prepare all files in parallel
+            changes.addAll(prepareAll(refactorings, failures));
+            if (!failures.isEmpty()) {
+                return batchResults(files, failures, null, "Batch not applied: another file failed to prepare");
+            }
+
+            // Step 3: Back up and stage
+            for (PreparedChange change : changes) {
+                backups.put(change.file, backupManager.createBackup(change.file));
+                change.stage();
+            }
+
+            // Step 4: Commit staged files
+            for (PreparedChange change : changes) {
+                change.commit();
+                committed.add(change);
+            }
+
+            // Step 5: Validate all files in one batch
+            Map<Path, CompilationResult> compilation = validator.validateAll(files);
+            for (PreparedChange change : changes) {
+                CompilationResult result = compilation.get(change.file);
+                if (result == null || !result.isSuccess()) {
+                    failures.put(change.file, ApplicationResult.compilationFailed(change.file,
+                        backups.get(change.file), result != null ? result : CompilationResult.failed(List.of())));
+                }
+            }
+            if (!failures.isEmpty()) {
+                logger.error("Batch compilation failed for {} of {} files, rolling back", failures.size(), files.size());
+                rollback(committed);
+                return batchResults(files, failures, backups, "Rolled back: another file of the batch failed to compile");
+            }
+
+            // Step 6: Success
+            List<ApplicationResult> results = new ArrayList<>();
+            for (PreparedChange change : changes) {
+                ApplicationMetrics metrics = change.metrics(startTime);
+                CompilationResult result = compilation.get(change.file);
+                results.add(result.hasWarnings()
+                    ? ApplicationResult.successWithWarnings(change.file, backups.get(change.file), metrics, result)
+                    : ApplicationResult.success(change.file, backups.get(change.file), metrics));
+            }
+            logger.info("Transactional batch applied to {} files in {} ms", files.size(),
+                java.time.Duration.between(startTime, Instant.now()).toMillis());
+            return results;
+
+        } catch (IOException | RuntimeException e) {
+            logger.error("Transactional batch failed, rolling back {} files", committed.size(), e);
+            rollback(committed);
+            return batchResults(files, failures, backups, "Rolled back: " + e.getMessage());
+        } finally {
+            changes.forEach(PreparedChange::discardStaged);
+            lockTokens.forEach((file, token) -> {
+                try {
+                    lockManager.releaseLock(file, token);
+                } catch (IOException e) {
+                    logger.warn("Failed to release lock on {}", file, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Prepares every file in parallel. Failures are added to {@code failures}.
+     */
+    private List<PreparedChange> prepareAll(Map<Path, RefactoredCode> refactorings, Map<Path, ApplicationResult> failures) {
+        int threads = Math.max(1, Math.min(refactorings.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<Path, Future<PreparedChange>> futures = new LinkedHashMap<>();
+            refactorings.forEach((file, refactored) -> futures.put(file, executor.submit(() -> prepare(file, refactored))));
+
+            List<PreparedChange> changes = new ArrayList<>();
+            for (Map.Entry<Path, Future<PreparedChange>> future : futures.entrySet()) {
+                try {
+                    changes.add(future.getValue().get());
+                } catch (ExecutionException e) {
+                    String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    failures.put(future.getKey(), ApplicationResult.failed("Failed to prepare " + future.getKey() + ": " + reason));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.put(future.getKey(), ApplicationResult.failed("Interrupted"));
+                }
+            }
+            return changes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the new content of a file without writing it. Thread-safe: uses its own parser.
+     */
+    private PreparedChange prepare(Path sourceFile, RefactoredCode refactored) throws IOException {
+        if (refactored == null || !refactored.isSuccessful()) {
+            throw new IOException("Refactored code is null or unsuccessful");
+        }
+        if (!Files.exists(sourceFile)) {
+            throw new IOException("Source file does not exist: " + sourceFile);
+        }
+
+        String originalContent = Files.readString(sourceFile);
+        JavaParser parser = new JavaParser();
+        ParseResult<CompilationUnit> original = parser.parse(originalContent);
+        if (!original.isSuccessful()) {
+            throw new IOException("Failed to parse original file");
+        }
+        ParseResult<CompilationUnit> replacement = parser.parse(refactored.getRefactoredCode());
+        if (!replacement.isSuccessful()) {
+            throw new IOException("Failed to parse refactored code");
+        }
+
+        CompilationUnit originalAST = original.getResult().get();
+        boolean replaced = new ASTReplacer().replace(originalAST, replacement.getResult().get(), refactored);
+        // Same fallback as apply(): replace the entire file content
+        String newContent = replaced ? originalAST.toString() : refactored.getRefactoredCode();
+        return new PreparedChange(sourceFile, originalContent, newContent);
+    }
+
+    /**
+     * Restores the original content of committed files, most recent first.
+     */
+    private void rollback(List<PreparedChange> committed) {
+        for (int i = committed.size() - 1; i >= 0; i--) {
+            PreparedChange change = committed.get(i);
+            try {
+                change.restore();
+            } catch (IOException e) {
+                logger.error("Failed to restore {} during rollback", change.file, e);
+            }
+        }
+    }
+
+    /**
+     * Results for a failed batch: the failures themselves, every other file rolled back.
+     */
+    private List<ApplicationResult> batchResults(List<Path> files, Map<Path, ApplicationResult> failures,
+                                                 Map<Path, Backup> backups, String reason) {
+        List<ApplicationResult> results = new ArrayList<>();
+        for (Path file : files) {
+            ApplicationResult failure = failures.get(file);
+            results.add(failure != null ? failure
+                : ApplicationResult.rolledBack(file, backups != null ? backups.get(file) : null, reason));
+        }
+        return results;
+    }
+
+    /**
+     * New content of one file of a batch, with its original content for rollback.
+     */
+    private static final class PreparedChange {
+        private final Path file;
+        private final String originalContent;
+        private final String newContent;
+        private Path staged;
+
+        PreparedChange(Path file, String originalContent, String newContent) {
+            this.file = file;
+            this.originalContent = originalContent;
+            this.newContent = newContent;
+        }
+
+        void stage() throws IOException {
+            staged = writeTemp(newContent);
+        }
+
+        void commit() throws IOException {
+            // Locks only keep out other Pragmite operations; editors do not take them
+            if (!Files.readString(file).equals(originalContent)) {
+                throw new IOException("File changed while the batch was being applied: " + file);
+            }
+            moveIntoPlace(staged);
+            staged = null;
+        }
+
+        void restore() throws IOException {
+            moveIntoPlace(writeTemp(originalContent));
+        }
+
+        void discardStaged() {
+            if (staged != null) {
+                try {
+                    Files.deleteIfExists(staged);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete staged file {}", staged, e);
+                }
+            }
+        }
+
+        private Path writeTemp(String content) throws IOException {
+            // Same directory, so the move is a rename on the same file system
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "." + file.getFileName(), ".pragmite-tmp");
+            Files.writeString(temp, content);
+            return temp;
+        }
+
+        private void moveIntoPlace(Path temp) throws IOException {
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        ApplicationMetrics metrics(Instant startTime) {
+            long originalLines = originalContent.lines().count();
+            long modifiedLines = newContent.lines().count();
+            return ApplicationMetrics.builder()
+                .startTime(startTime)
+                .endTime(Instant.now())
+                .linesChanged(Math.abs(modifiedLines - originalLines))
+                .linesAdded(Math.max(0, modifiedLines - originalLines))
+                .linesRemoved(Math.max(0, originalLines - modifiedLines))
+                .compilationSucceeded(true)
+                .build();
+        }
+    }
+
     /**
      * Check if dry run mode is enabled.
      */
@@ -4,18 +4,27 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.Problem;
 import com.github.javaparser.ast.CompilationUnit;
+import com.pragmite.validation.IncrementalCompiler;
+import com.pragmite.validation.InMemoryJavaFileManager;
+import com.pragmite.validation.ValidationError;
+import com.pragmite.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.tools.*;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +33,12 @@ import java.util.stream.Collectors;
  * Uses two validation strategies:
  * 1. Fast JavaParser validation (syntax check only)
  * 2. Full javac compilation (semantic validation)
+ *
+ * Javac runs in memory with one file manager kept for the validator's lifetime, and
+ * {@link #validateAll(List)} compiles a whole batch of changed files in one task.
+ *
+ * With an {@link IncrementalCompiler}, strategy 2 compiles only the changed files against
+ * a warm in-memory build of the project instead of compiling each file in isolation.
  */
 public class CompilationValidator {
     private static final Logger logger = LoggerFactory.getLogger(CompilationValidator.class);
@@ -31,6 +46,8 @@ public class CompilationValidator {
     private final JavaCompiler compiler;
     private final JavaParser javaParser;
     private final boolean useFullCompilation;
+    private InMemoryJavaFileManager javacFileManager; // Created on first javac validation
+    private final IncrementalCompiler incrementalCompiler;
 
     public CompilationValidator() {
         this(false); // Default: use fast JavaParser validation
@@ -40,12 +57,24 @@ public class CompilationValidator {
         this.compiler = ToolProvider.getSystemJavaCompiler();
         this.javaParser = new JavaParser();
         this.useFullCompilation = useFullCompilation;
+        this.incrementalCompiler = null;
 
         if (useFullCompilation && compiler == null) {
             logger.warn("Java compiler not available. Falling back to JavaParser validation.");
         }
     }
 
+    /**
+     * Validate against a warm build of the project (semantic checks of changed files only).
+     * Files that pass are put into the compiler's class cache, so validate files after saving them.
+     */
+    public CompilationValidator(IncrementalCompiler incrementalCompiler) {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        this.javaParser = new JavaParser();
+        this.useFullCompilation = true;
+        this.incrementalCompiler = incrementalCompiler;
+    }
+
     /**
      * Validate that file compiles successfully.
      */
@@ -65,6 +94,9 @@ public class CompilationValidator {
         }
 
         // Strategy 2: Full javac compilation (optional, slower but more thorough)
+        if (incrementalCompiler != null) {
+            return validateIncrementally(List.of(sourceFile)).get(sourceFile);
+        }
         if (useFullCompilation && compiler != null) {
             return validateWithJavac(sourceFile);
         }
@@ -72,6 +104,84 @@ public class CompilationValidator {
         return parserResult;
     }
 
+    /**
+     * Validate many files at once. Files that pass the JavaParser check are compiled
+     * together in a single javac task when full compilation is enabled.
+     *
+     * @return Result per file, in the order given
+     */
+    public Map<Path, CompilationResult> validateAll(List<Path> sourceFiles) {
+        Map<Path, CompilationResult> results = new LinkedHashMap<>();
+        List<Path> parsed = new ArrayList<>();
+        for (Path sourceFile : sourceFiles) {
+            if (!Files.exists(sourceFile)) {
+                results.put(sourceFile, CompilationResult.failed(Collections.singletonList(
+                    new CompilationResult.CompilationError(0, 0,
+                        "Source file does not exist: " + sourceFile, "FILE_NOT_FOUND")
+                )));
+                continue;
+            }
+            CompilationResult parserResult = validateWithJavaParser(sourceFile);
+            results.put(sourceFile, parserResult);
+            if (parserResult.isSuccess()) {
+                parsed.add(sourceFile);
+            }
+        }
+
+        if (parsed.isEmpty()) {
+            return results;
+        }
+        if (incrementalCompiler != null) {
+            results.putAll(validateIncrementally(parsed));
+        } else if (useFullCompilation && compiler != null) {
+            results.putAll(validateWithJavac(parsed));
+        }
+        return results;
+    }
+
+    /**
+     * Compile saved files against the warm project build and keep them in it if they compile.
+     */
+    private Map<Path, CompilationResult> validateIncrementally(List<Path> sourceFiles) {
+        Map<Path, CompilationResult> results = new LinkedHashMap<>();
+        Map<Path, String> sources = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            try {
+                sources.put(sourceFile, Files.readString(sourceFile));
+            } catch (IOException e) {
+                logger.error("Failed to read file for validation: {}", sourceFile, e);
+                results.put(sourceFile, CompilationResult.failed(Collections.singletonList(
+                    new CompilationResult.CompilationError(0, 0,
+                        "Failed to read file: " + e.getMessage(), "IO_ERROR")
+                )));
+            }
+        }
+
+        Map<Path, ValidationResult> validated = incrementalCompiler.update(sources);
+        for (Path sourceFile : sources.keySet()) {
+            ValidationResult result = validated.get(sourceFile.toAbsolutePath());
+            List<CompilationResult.CompilationWarning> warnings = result.getWarnings().stream()
+                .map(w -> new CompilationResult.CompilationWarning(w.getLineNumber(), w.getMessage()))
+                .collect(Collectors.toList());
+            if (result.isValid()) {
+                results.put(sourceFile, warnings.isEmpty()
+                    ? CompilationResult.success()
+                    : CompilationResult.successWithWarnings(warnings));
+            } else {
+                List<CompilationResult.CompilationError> errors = result.getErrors().stream()
+                    .map(this::convertValidationError)
+                    .collect(Collectors.toList());
+                results.put(sourceFile, CompilationResult.failedWithWarnings(errors, warnings));
+            }
+        }
+        return results;
+    }
+
+    private CompilationResult.CompilationError convertValidationError(ValidationError error) {
+        return new CompilationResult.CompilationError(error.getLineNumber(), error.getColumnNumber(),
+            error.getMessage(), error.getCode());
+    }
+
     /**
      * Fast validation using JavaParser (syntax only).
      */
@@ -103,21 +213,38 @@ public class CompilationValidator {
      * Full validation using javac compiler (syntax + semantics).
      */
     private CompilationResult validateWithJavac(Path sourceFile) {
+        return validateWithJavac(Collections.singletonList(sourceFile)).get(sourceFile);
+    }
+
+    /**
+     * Full validation of several files in one javac task. Class files stay in memory.
+     */
+    private synchronized Map<Path, CompilationResult> validateWithJavac(List<Path> sourceFiles) {
+        Map<Path, CompilationResult> results = new LinkedHashMap<>();
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
-        try (StandardJavaFileManager fileManager =
-                 compiler.getStandardFileManager(diagnostics, Locale.getDefault(), null)) {
+        try {
+            if (javacFileManager == null) {
+                javacFileManager = new InMemoryJavaFileManager(
+                    compiler.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8));
+            }
 
             // Get compilation units
-            Iterable<? extends JavaFileObject> compilationUnits =
-                fileManager.getJavaFileObjectsFromFiles(Collections.singletonList(sourceFile.toFile()));
+            Map<URI, Path> files = new HashMap<>();
+            List<JavaFileObject> compilationUnits = new ArrayList<>();
+            for (Path sourceFile : sourceFiles) {
+                for (JavaFileObject unit : javacFileManager.getStandardFileManager().getJavaFileObjects(sourceFile)) {
+                    compilationUnits.add(unit);
+                    files.put(unit.toUri(), sourceFile);
+                }
+            }
 
             // Create compilation task
             JavaCompiler.CompilationTask task = compiler.getTask(
                 null,              // Writer for additional output
-                fileManager,       // File manager
+                javacFileManager,  // File manager
                 diagnostics,       // Diagnostic listener
-                null,              // Options
+                List.of("-proc:none", "-XDshould-stop.ifError=FLOW", "-Xmaxerrs", "10000"), // Check every file
                 null,              // Classes for annotation processing
                 compilationUnits   // Compilation units
             );
@@ -125,42 +252,65 @@ public class CompilationValidator {
             // Run compilation
             boolean success = task.call();
 
-            // Collect errors and warnings
-            List<CompilationResult.CompilationError> errors = new ArrayList<>();
-            List<CompilationResult.CompilationWarning> warnings = new ArrayList<>();
+            // Collect errors and warnings per file
+            Map<Path, List<CompilationResult.CompilationError>> errors = new HashMap<>();
+            Map<Path, List<CompilationResult.CompilationWarning>> warnings = new HashMap<>();
+            List<CompilationResult.CompilationError> generalErrors = new ArrayList<>();
 
             for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                Path file = diagnostic.getSource() != null ? files.get(diagnostic.getSource().toUri()) : null;
                 if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
-                    errors.add(new CompilationResult.CompilationError(
+                    CompilationResult.CompilationError error = new CompilationResult.CompilationError(
                         diagnostic.getLineNumber(),
                         diagnostic.getColumnNumber(),
                         diagnostic.getMessage(Locale.getDefault()),
                         diagnostic.getCode()
-                    ));
-                } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING ||
-                          diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
-                    warnings.add(new CompilationResult.CompilationWarning(
+                    );
+                    if (file != null) {
+                        errors.computeIfAbsent(file, k -> new ArrayList<>()).add(error);
+                    } else {
+                        generalErrors.add(error);
+                    }
+                } else if ((diagnostic.getKind() == Diagnostic.Kind.WARNING ||
+                          diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) && file != null) {
+                    warnings.computeIfAbsent(file, k -> new ArrayList<>()).add(new CompilationResult.CompilationWarning(
                         diagnostic.getLineNumber(),
                         diagnostic.getMessage(Locale.getDefault())
                     ));
                 }
             }
+            if (!success && errors.isEmpty() && generalErrors.isEmpty()) {
+                generalErrors.add(new CompilationResult.CompilationError(0, 0, "Compilation failed", "COMPILATION_ERROR"));
+            }
 
-            if (success) {
-                return warnings.isEmpty()
-                    ? CompilationResult.success()
-                    : CompilationResult.successWithWarnings(warnings);
-            } else {
-                return CompilationResult.failedWithWarnings(errors, warnings);
+            for (Path sourceFile : sourceFiles) {
+                List<CompilationResult.CompilationError> fileErrors = new ArrayList<>(generalErrors);
+                fileErrors.addAll(errors.getOrDefault(sourceFile, List.of()));
+                List<CompilationResult.CompilationWarning> fileWarnings = warnings.getOrDefault(sourceFile, List.of());
+                if (fileErrors.isEmpty()) {
+                    results.put(sourceFile, fileWarnings.isEmpty()
+                        ? CompilationResult.success()
+                        : CompilationResult.successWithWarnings(fileWarnings));
+                } else {
+                    results.put(sourceFile, CompilationResult.failedWithWarnings(fileErrors, fileWarnings));
+                }
             }
 
         } catch (Exception e) {
-            logger.error("Compilation validation failed: {}", sourceFile, e);
-            return CompilationResult.failed(Collections.singletonList(
-                new CompilationResult.CompilationError(0, 0,
-                    "Compilation failed: " + e.getMessage(), "COMPILATION_ERROR")
-            ));
+            logger.error("Compilation validation failed: {}", sourceFiles, e);
+            for (Path sourceFile : sourceFiles) {
+                results.put(sourceFile, CompilationResult.failed(Collections.singletonList(
+                    new CompilationResult.CompilationError(0, 0,
+                        "Compilation failed: " + e.getMessage(), "COMPILATION_ERROR")
+                )));
+            }
+        } finally {
+            if (javacFileManager != null) {
+                javacFileManager.clearClasses();
+            }
         }
+
+        return results;
     }
 
     /**
@@ -197,10 +347,32 @@ public class CompilationValidator {
         return CompilationResult.failed(errors);
     }
 
+    /**
+     * Fast syntax check for a code fragment such as an AI-generated refactoring.
+     * Accepts a compilation unit, a member declaration (method, field, nested class)
+     * or a sequence of statements. Safe to call from several threads at once.
+     */
+    public CompilationResult validateSnippet(String code) {
+        // JavaParser instances reuse their parser, so use a fresh one per call
+        JavaParser parser = new JavaParser();
+        ParseResult<CompilationUnit> unit = parser.parse(code);
+        if (unit.isSuccessful()
+            || parser.parseBodyDeclaration(code).isSuccessful()
+            || parser.parseBlock("{\n" + code + "\n}").isSuccessful()) {
+            return CompilationResult.success();
+        }
+
+        // Report the errors of the most likely form: a whole file
+        List<CompilationResult.CompilationError> errors = unit.getProblems().stream()
+            .map(this::convertProblemToError)
+            .collect(Collectors.toList());
+        return CompilationResult.failed(errors);
+    }
+
     /**
      * Check if validator is using full compilation.
      */
     public boolean isUsingFullCompilation() {
-        return useFullCompilation && compiler != null;
+        return incrementalCompiler != null || (useFullCompilation && compiler != null);
     }
 }
@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,36 +39,18 @@ public class RollbackManager {
 
     /**
      * List all file-based backups for a specific file (v1.5.0).
+     * v1.6.3 - Index lookup in the backup store instead of a directory scan.
      */
     public List<FileBackupInfo> listFileBackups(String fileName) throws IOException {
         if (backupManager == null || !backupManager.isEnabled()) {
             throw new IllegalStateException("BackupManager not available. File-based rollback requires backup manager.");
         }
 
+        // Newest first
         List<FileBackupInfo> backups = new ArrayList<>();
-        Path backupDir = backupManager.getBackupDir();
-
-        if (!Files.exists(backupDir)) {
-            return backups;
-        }
-
-        String backupPrefix = fileName + ".backup.";
-
-        try (java.util.stream.Stream<Path> paths = Files.list(backupDir)) {
-            paths.filter(p -> p.getFileName().toString().startsWith(backupPrefix))
-                 .forEach(backupPath -> {
-                     try {
-                         FileBackupInfo info = createFileBackupInfo(backupPath, fileName);
-                         backups.add(info);
-                     } catch (IOException e) {
-                         logger.warn("Failed to read backup info: {}", backupPath, e);
-                     }
-                 });
+        for (Backup backup : backupManager.listBackups(fileName)) {
+            backups.add(createFileBackupInfo(backup));
         }
-
-        // Sort by creation time (newest first)
-        backups.sort(java.util.Comparator.comparing(FileBackupInfo::getCreatedAt).reversed());
-
         return backups;
     }
 
@@ -90,11 +71,18 @@ public class RollbackManager {
                 return FileRollbackResult.failed("Target file does not exist: " + targetFile);
             }
 
+            // Read first: the safety backup may prune the backup being restored
+            // (store blobs are compressed, older backups are plain copies)
+            java.util.Optional<String> hash = backupManager.getStore().hashOf(backupPath);
+            byte[] content = hash.isPresent()
+                ? backupManager.getStore().read(hash.get())
+                : Files.readAllBytes(backupPath);
+
             // Create a safety backup of current state
             Backup safetyBackup = backupManager.createBackup(targetFile);
 
             // Restore from backup
-            Files.copy(backupPath, targetFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.write(targetFile, content);
 
             logger.info("Rolled back {} from backup {}",
                        targetFile.getFileName(), backupPath.getFileName());
@@ -109,29 +97,29 @@ public class RollbackManager {
 
     /**
      * Rollback to the most recent file backup (v1.5.0).
+     * v1.6.3 - Uses the backups of this exact file, not of any file with the same name.
      */
     public FileRollbackResult rollbackToLatestFileBackup(Path targetFile) throws IOException {
-        String fileName = targetFile.getFileName().toString();
-        List<FileBackupInfo> backups = listFileBackups(fileName);
+        if (backupManager == null || !backupManager.isEnabled()) {
+            throw new IllegalStateException("BackupManager not available. File-based rollback requires backup manager.");
+        }
+
+        List<com.pragmite.util.BackupStore.Entry> backups = backupManager.getStore().entriesFor(targetFile);
 
         if (backups.isEmpty()) {
-            return FileRollbackResult.failed("No backups found for: " + fileName);
+            return FileRollbackResult.failed("No backups found for: " + targetFile.getFileName());
         }
 
-        FileBackupInfo latest = backups.get(0);
-        return rollbackToFileBackup(targetFile, latest.getBackupPath());
+        com.pragmite.util.BackupStore.Entry latest = backups.get(0);
+        return rollbackToFileBackup(targetFile, backupManager.getStore().blobPath(latest.hash()));
     }
 
-    private FileBackupInfo createFileBackupInfo(Path backupPath, String originalFileName) throws IOException {
-        java.nio.file.attribute.BasicFileAttributes attrs =
-            Files.readAttributes(backupPath, java.nio.file.attribute.BasicFileAttributes.class);
-        long size = Files.size(backupPath);
-
+    private FileBackupInfo createFileBackupInfo(Backup backup) {
         return new FileBackupInfo(
-            originalFileName,
-            backupPath,
-            attrs.creationTime().toInstant(),
-            size
+            backup.getOriginalPath().getFileName().toString(),
+            backup.getBackupPath(),
+            backup.getCreatedAt(),
+            backup.getOriginalSize()
         );
     }
 
@@ -0,0 +1,158 @@
+package com.pragmite.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.FileAnalysis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-file analysis results of the previous run, for incremental analysis.
+ *
+ * The {@link com.pragmite.scanner.DirectoryManifest} tells which files did not change since the
+ * previous run; their stored {@link FileAnalysis} is reused instead of parsing them again, so the
+ * result, quality score and reports still cover the whole project. Results are only reused when
+ * they were produced with the same settings (e.g. analysis level), given as a fingerprint.
+ *
+ * Save the cache before the manifest: if saving fails, the manifest is not updated and the files
+ * are analyzed again next time instead of reusing outdated results.
+ *
+ * Usage:
+ * <pre>
+ * FileResultCache cache = FileResultCache.forProject(projectRoot, "standard");
+ * AnalysisResult result = new ProjectAnalyzer(projectRoot).withResultCache(cache).analyze();
+ * cache.save();
+ * manifest.save();
+ * </pre>
+ */
+public class FileResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileResultCache.class);
+
+    public static final String CACHE_FILE = ".pragmite/file-results.json";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path cacheFile;
+    private final String fingerprint;
+    private final Map<String, FileAnalysis> previous;
+    private final Map<String, FileAnalysis> current = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private FileResultCache(Path cacheFile, String fingerprint, Map<String, FileAnalysis> previous) {
+        this.cacheFile = cacheFile;
+        this.fingerprint = fingerprint;
+        this.previous = previous;
+    }
+
+    /**
+     * Cache stored in the project's {@code .pragmite} directory.
+     */
+    public static FileResultCache forProject(Path projectRoot, String fingerprint) {
+        return load(projectRoot.resolve(CACHE_FILE), fingerprint);
+    }
+
+    /**
+     * Loads a cache. A missing, outdated or unreadable file, or one written with other
+     * settings, gives an empty cache, so every file is analyzed.
+     */
+    public static FileResultCache load(Path cacheFile, String fingerprint) {
+        Map<String, FileAnalysis> files = new ConcurrentHashMap<>();
+        try (Reader in = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            Stored stored = gson().fromJson(in, Stored.class);
+            if (stored == null || stored.version != FORMAT_VERSION || stored.files == null) {
+                logger.info("Ignoring file result cache of another format: {}", cacheFile);
+            } else if (!fingerprint.equals(stored.fingerprint)) {
+                logger.info("Ignoring file result cache of other settings ({} instead of {})", stored.fingerprint, fingerprint);
+            } else {
+                files.putAll(stored.files);
+                logger.debug("Loaded {} cached file results", files.size());
+            }
+        } catch (NoSuchFileException e) {
+            logger.debug("No file result cache yet: {}", cacheFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable file result cache {}: {}", cacheFile, e.getMessage());
+            files.clear();
+        }
+        return new FileResultCache(cacheFile, fingerprint, files);
+    }
+
+    /**
+     * The stored result of an unchanged file, or null if there is none.
+     * Each result is handed out once; it becomes part of the new analysis result.
+     */
+    public FileAnalysis get(Path file) {
+        FileAnalysis cached = previous.remove(file.toString());
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    /**
+     * Replaces the stored results with the files of a finished analysis.
+     */
+    public void update(AnalysisResult result) {
+        current.clear();
+        for (FileAnalysis analysis : result.getFileAnalyses()) {
+            current.put(analysis.getFilePath(), analysis);
+        }
+    }
+
+    /**
+     * Writes the results given to {@link #update}, replacing the file atomically where supported.
+     */
+    public void save() throws IOException {
+        Path target = cacheFile.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson().toJson(new Stored(FORMAT_VERSION, fingerprint, current), out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Saved {} file results", current.size());
+    }
+
+    /**
+     * Number of unchanged files whose stored result was reused
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of unchanged files without a stored result, which were analyzed again
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static Gson gson() {
+        return new GsonBuilder().create();
+    }
+
+    private record Stored(int version, String fingerprint, Map<String, FileAnalysis> files) {
+    }
+}
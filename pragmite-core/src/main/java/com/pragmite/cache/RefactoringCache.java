@@ -0,0 +1,319 @@
+package com.pragmite.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.pragmite.ai.RefactoredCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache for AI-generated refactorings.
+ *
+ * Entries are keyed by a SHA-256 of model, prompt template version, prompt and code, so a
+ * re-run on an unchanged codebase makes no API calls. Each entry is a small JSON file under
+ * {@code .pragmite/ai-cache/<2 hex>/<hash>.json}.
+ *
+ * Features:
+ * - TTL: entries older than the configured age are treated as misses and deleted
+ * - Size bound: when the total size exceeds the limit, least recently used entries
+ *   (by file modification time, refreshed on every hit) are evicted down to 90%
+ * - Atomic writes (temp file + move), safe for concurrent readers
+ * - Only successful refactorings are cached
+ */
+public class RefactoringCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefactoringCache.class);
+    public static final String CACHE_DIR = ".pragmite/ai-cache";
+    private static final String ENTRY_SUFFIX = ".json";
+
+    private final Path cacheDir;
+    private final Duration ttl;
+    private final long maxBytes;
+    private final Gson gson = new Gson();
+
+    private final AtomicLong totalBytes = new AtomicLong(-1);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RefactoringCache(Path cacheDir, Duration ttl, long maxBytes) {
+        this.cacheDir = cacheDir;
+        this.ttl = ttl;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cache stored in the project's {@code .pragmite} directory.
+     */
+    public static RefactoringCache forProject(Path projectRoot, Duration ttl, long maxBytes) {
+        return new RefactoringCache(projectRoot.resolve(CACHE_DIR), ttl, maxBytes);
+    }
+
+    /**
+     * Computes the cache key for a request.
+     */
+    public static String key(String model, String templateVersion, String aiPrompt, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, templateVersion, aiPrompt, code}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Returns the cached refactoring or null on a miss.
+     *
+     * @param key Key from {@link #key}
+     * @param originalCode Original code to attach to the result (not stored)
+     */
+    public RefactoredCode get(String key, String originalCode) {
+        Path file = entryPath(key);
+        try {
+            if (!Files.exists(file)) {
+                misses.incrementAndGet();
+                return null;
+            }
+            Entry entry = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            if (entry == null || isExpired(entry.createdAt)) {
+                remove(file);
+                misses.incrementAndGet();
+                return null;
+            }
+
+            // Refresh access time for LRU eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return entry.toRefactoredCode(originalCode);
+
+        } catch (IOException | JsonParseException e) {
+            logger.debug("Ignoring unreadable cache entry {}: {}", file, e.getMessage());
+            remove(file);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a successful refactoring. Failures are never cached.
+     */
+    public void put(String key, RefactoredCode refactored) {
+        if (refactored == null || !refactored.isSuccessful()) {
+            return;
+        }
+        Path file = entryPath(key);
+        currentSize(); // Initial scan happens before this entry is counted
+        try {
+            Files.createDirectories(file.getParent());
+            byte[] json = gson.toJson(Entry.of(refactored)).getBytes(StandardCharsets.UTF_8);
+            long previous = Files.exists(file) ? Files.size(file) : 0;
+
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.write(temp, json);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (totalBytes.addAndGet(json.length - previous) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write refactoring cache entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes expired entries and shrinks the cache below its size limit.
+     */
+    public synchronized void evict() {
+        List<CachedFile> files = listEntries();
+        long size = 0;
+        List<CachedFile> live = new ArrayList<>(files.size());
+        for (CachedFile cached : files) {
+            if (isExpired(cached.lastModified)) {
+                // Never read since before the TTL: the entry itself must be older
+                remove(cached.path);
+                evictions.incrementAndGet();
+            } else {
+                live.add(cached);
+                size += cached.size;
+            }
+        }
+
+        if (size > maxBytes) {
+            long target = maxBytes * 9 / 10;
+            live.sort(Comparator.comparingLong(c -> c.lastModified));
+            for (CachedFile cached : live) {
+                if (size <= target) {
+                    break;
+                }
+                remove(cached.path);
+                size -= cached.size;
+                evictions.incrementAndGet();
+            }
+        }
+        totalBytes.set(size);
+        logger.debug("Refactoring cache at {} bytes after eviction", size);
+    }
+
+    /**
+     * Clears all entries.
+     */
+    public synchronized void clear() {
+        for (CachedFile cached : listEntries()) {
+            remove(cached.path);
+        }
+        totalBytes.set(0);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Total size of the entries on disk (scanned once, then tracked).
+     */
+    public long currentSize() {
+        long size = totalBytes.get();
+        if (size < 0) {
+            synchronized (this) {
+                size = totalBytes.get();
+                if (size < 0) {
+                    size = listEntries().stream().mapToLong(c -> c.size).sum();
+                    totalBytes.set(size);
+                }
+            }
+        }
+        return size;
+    }
+
+    private Path entryPath(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private boolean isExpired(long timestampMillis) {
+        return System.currentTimeMillis() - timestampMillis > ttl.toMillis();
+    }
+
+    private List<CachedFile> listEntries() {
+        List<CachedFile> entries = new ArrayList<>();
+        if (!Files.isDirectory(cacheDir)) {
+            return entries;
+        }
+        try (Stream<Path> paths = Files.walk(cacheDir, 2)) {
+            paths.filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(p -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    entries.add(new CachedFile(p, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    // Removed concurrently
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to scan refactoring cache: {}", e.getMessage());
+        }
+        return entries;
+    }
+
+    private void remove(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete cache entry {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record CachedFile(Path path, long size, long lastModified) {}
+
+    /**
+     * Serialized form of a {@link RefactoredCode} (without the original code).
+     */
+    private static class Entry {
+        long createdAt;
+        String refactoredCode;
+        String explanation;
+        String whyBetter;
+        List<String> changes;
+        Map<String, String> beforeMetrics;
+        Map<String, String> afterMetrics;
+        Boolean syntaxValid;
+        List<String> syntaxErrors;
+
+        static Entry of(RefactoredCode code) {
+            Entry entry = new Entry();
+            entry.createdAt = System.currentTimeMillis();
+            entry.refactoredCode = code.getRefactoredCode();
+            entry.explanation = code.getExplanation();
+            entry.whyBetter = code.getWhyBetter();
+            entry.changes = code.getChanges();
+            entry.beforeMetrics = code.getBeforeMetrics();
+            entry.afterMetrics = code.getAfterMetrics();
+            entry.syntaxValid = code.getSyntaxValid();
+            entry.syntaxErrors = code.getSyntaxErrors();
+            return entry;
+        }
+
+        RefactoredCode toRefactoredCode(String originalCode) {
+            RefactoredCode.Builder builder = RefactoredCode.builder()
+                .originalCode(originalCode)
+                .refactoredCode(refactoredCode)
+                .explanation(explanation)
+                .whyBetter(whyBetter)
+                .syntaxValid(syntaxValid)
+                .successful(true);
+            if (changes != null) {
+                changes.forEach(builder::addChange);
+            }
+            if (beforeMetrics != null) {
+                beforeMetrics.forEach(builder::addBeforeMetric);
+            }
+            if (afterMetrics != null) {
+                afterMetrics.forEach(builder::addAfterMetric);
+            }
+            if (syntaxErrors != null) {
+                syntaxErrors.forEach(builder::addSyntaxError);
+            }
+            return builder.build();
+        }
+    }
+}
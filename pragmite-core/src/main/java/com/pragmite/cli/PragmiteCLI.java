@@ -1,15 +1,30 @@
 package com.pragmite.cli;
 
+import com.pragmite.analyzer.AnalysisLevel;
+import com.pragmite.analyzer.AnalysisListener;
 import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.analyzer.SamplingAnalyzer;
+import com.pragmite.analyzer.SamplingResult;
 import com.pragmite.config.ConfigLoader;
 import com.pragmite.config.PragmiteConfig;
 import com.pragmite.model.AnalysisResult;
 import com.pragmite.model.CodeSmellType;
 import com.pragmite.model.CodeSmell;
+import com.pragmite.model.PragmaticPrinciple;
 import com.pragmite.output.JsonReportWriter;
 import com.pragmite.output.ConsoleReportWriter;
+import com.pragmite.output.NdjsonReportWriter;
+import com.pragmite.output.ParallelReportWriter;
+import com.pragmite.output.PrometheusMetricsWriter;
+import com.pragmite.output.SarifReportWriter;
+import com.pragmite.profiling.LiveProfiler;
+import com.pragmite.profiling.ProfilingLevel;
 import com.pragmite.report.HtmlReportGenerator;
+import com.pragmite.report.PagedHtmlReportGenerator;
+import com.pragmite.scanner.DirectoryManifest;
+import com.pragmite.scanner.OptimizedFileScanner;
 import com.pragmite.cache.CacheManager;
+import com.pragmite.cache.FileResultCache;
 import com.pragmite.database.DatabaseManager;
 import com.pragmite.autofix.AutoFixEngine;
 import com.pragmite.autofix.FixOptions;
@@ -17,6 +32,9 @@ import com.pragmite.autofix.FixResult;
 import com.pragmite.autofix.RollbackManager;
 import com.pragmite.ai.AnalysisEngine;
 import com.pragmite.ai.AIAnalysisResult;
+import com.pragmite.util.ExecutorManager;
+import com.pragmite.util.PragmiteVersion;
+import com.pragmite.websocket.CoalescingBroadcaster;
 import com.pragmite.websocket.ProgressWebSocketServer;
 import com.pragmite.validation.JavacValidator;
 import com.pragmite.validation.ValidationResult;
@@ -26,12 +44,19 @@ import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.io.File;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -41,7 +66,7 @@ import java.util.concurrent.Callable;
 @Command(
     name = "pragmite",
     mixinStandardHelpOptions = true,
-    version = "Pragmite 1.4.0",
+    version = "Pragmite " + PragmiteVersion.VERSION,
     description = "Java kod kalitesi ve karmaşıklık analizi aracı"
 )
 public class PragmiteCLI implements Callable<Integer> {
@@ -52,7 +77,7 @@ public class PragmiteCLI implements Callable<Integer> {
     @Option(names = {"-o", "--output"}, description = "JSON rapor çıktı dosyası")
     private File outputFile;
 
-    @Option(names = {"-f", "--format"}, description = "Çıktı formatı: console, json, both", defaultValue = "console")
+    @Option(names = {"-f", "--format"}, description = "Çıktı formatı: console, json, html, html-paged, both, ndjson, sarif", defaultValue = "console")
     private String format;
 
     // v1.6.0 - Enhanced JSON Output
@@ -71,10 +96,10 @@ public class PragmiteCLI implements Callable<Integer> {
     @Option(names = {"-v", "--verbose"}, description = "Ayrıntılı çıktı")
     private boolean verbose;
 
-    @Option(names = {"--include"}, description = "Dahil edilecek dosya pattern (glob)", defaultValue = "**/*.java")
+    @Option(names = {"--include"}, description = "Dahil edilecek dosya pattern'leri (glob, virgülle ayrılmış)", defaultValue = "**/*.java")
     private String includePattern;
 
-    @Option(names = {"--exclude"}, description = "Hariç tutulacak dizinler (virgülle ayrılmış)")
+    @Option(names = {"--exclude"}, description = "Hariç tutulacak dizinler veya glob pattern'leri (virgülle ayrılmış)")
     private String excludeDirs;
 
     @Option(names = {"--config"}, description = "Yapılandırma dosyası yolu (.pragmite.yaml)")
@@ -92,7 +117,7 @@ public class PragmiteCLI implements Callable<Integer> {
     @Option(names = {"--generate-config"}, description = "Örnek .pragmite.yaml dosyası oluştur ve çık")
     private boolean generateConfig;
 
-    @Option(names = {"--incremental"}, description = "Sadece değiş dosyaları analiz et (cache kullan)")
+    @Option(names = {"--incremental"}, description = "Sadece değişen dosyaları ayrıştır, diğerlerinin önceki sonuçlarını kullan (cache kullan)")
     private boolean incrementalAnalysis;
 
     @Option(names = {"--clear-cache"}, description = "Analiz cache'ini temizle ve çık")
@@ -157,6 +182,25 @@ public class PragmiteCLI implements Callable<Integer> {
     @Option(names = {"--claude-api-key"}, description = "Claude API key (or use CLAUDE_API_KEY environment variable)")
     private String claudeApiKey;
 
+    // v1.6.3 - Concurrent refactoring pipeline
+    @Option(names = {"--ai-concurrency"}, description = "Maximum concurrent Claude API requests (default: 4, or PRAGMITE_AI_CONCURRENCY)")
+    private Integer aiConcurrency;
+
+    @Option(names = {"--ai-rate-limit"}, description = "Maximum Claude API requests per minute (default: 50, 0 = unlimited)")
+    private Integer aiRateLimit;
+
+    @Option(names = {"--ai-batch-size"}, description = "Maximum smells of one file sent in a single Claude request (default: 8, 1 = no batching)")
+    private Integer aiBatchSize;
+
+    @Option(names = {"--ai-context-tokens"}, description = "Token budget of the code context sent per issue (default: 1500)")
+    private Integer aiContextTokens;
+
+    @Option(names = {"--no-ai-stream"}, description = "Wait for complete Claude responses instead of streaming them")
+    private boolean noAiStream;
+
+    @Option(names = {"--no-ai-cache"}, description = "Do not use cached refactorings from .pragmite/ai-cache")
+    private boolean noAiCache;
+
     // v1.5.0 - Auto-Apply Options (Phase 3)
     @Option(names = {"--auto-apply"}, description = "Automatically apply AI-generated refactored code to source files")
     private boolean autoApply;
@@ -172,12 +216,44 @@ public class PragmiteCLI implements Callable<Integer> {
     @Option(names = {"--websocket-port"}, description = "WebSocket server port", defaultValue = "8765")
     private int websocketPort;
 
+    @Option(names = {"--websocket-compression"}, description = "Offer permessage-deflate compression to WebSocket clients")
+    private boolean websocketCompression;
+
+    @Option(names = {"--live-profile"}, description = "Stream live CPU/GC/allocation hotspots to WebSocket clients (requires --websocket)")
+    private boolean liveProfile;
+
     // v1.6.3 - Strict Validation (Phase 4, Sprint 4)
     @Option(names = {"--strict-validation"}, description = "Enable strict validation using javac compiler")
     private boolean strictValidation;
 
+    @Option(names = {"--level"}, description = "Analysis depth: fast (syntax-local detectors, no suggestions), standard, deep (adds cross-file clones) (default: standard)")
+    private String analysisLevel;
+
+    @Option(names = {"--sample"}, description = "Estimate quality from a stratified random sample of files with confidence intervals (for very large projects)")
+    private boolean sample;
+
+    @Option(names = {"--sample-target-error"}, description = "Relative error of the sampled smell count at which sampling stops (default: 0.05)")
+    private Double sampleTargetError;
+
+    @Option(names = {"--sample-time-budget"}, description = "Maximum sampling time in seconds (default: 300)")
+    private Integer sampleTimeBudget;
+
+    @Option(names = {"--profile"}, description = "Self-profiling level: off, light, sampling, deep (default: off on CI, light otherwise)")
+    private String profileLevel;
+
+    @Option(names = {"--metrics-file"}, description = "Write phase latency histograms and counters in Prometheus text format (e.g. for the node_exporter textfile collector)")
+    private File metricsFile;
+
     @Override
     public Integer call() throws Exception {
+        // NDJSON mode: stdout carries only event records, everything else goes to stderr
+        PrintStream originalOut = System.out;
+        NdjsonReportWriter ndjsonWriter = null;
+        if ("ndjson".equalsIgnoreCase(format)) {
+            ndjsonWriter = new NdjsonReportWriter(originalOut);
+            System.setOut(System.err);
+        }
+
         // Initialize database connection if needed
         DatabaseManager dbManager = null;
         Connection dbConnection = null;
@@ -199,12 +275,16 @@ public class PragmiteCLI implements Callable<Integer> {
 
         // v1.6.2 - WebSocket server instance
         ProgressWebSocketServer websocketServer = null;
+        LiveProfiler liveProfiler = null;
+        ExecutorManager executorManager = null;
+        SarifReportWriter sarifWriter = null;
 
         try {
             // v1.6.2 - Start WebSocket server if enabled
             if (enableWebSocket) {
                 try {
-                    websocketServer = new ProgressWebSocketServer(websocketPort);
+                    websocketServer = new ProgressWebSocketServer(websocketPort,
+                        CoalescingBroadcaster.DEFAULT_MAX_FRAMES_PER_SECOND, websocketCompression);
                     websocketServer.start();
                     System.out.println("🌐 WebSocket server started on port " + websocketPort);
                 } catch (Exception e) {
@@ -215,6 +295,23 @@ public class PragmiteCLI implements Callable<Integer> {
                 }
             }
 
+            // v1.6.3 - Live hotspot feed while the analysis runs
+            if (liveProfile) {
+                if (websocketServer == null) {
+                    System.err.println("⚠️  --live-profile requires --websocket, live profiling disabled");
+                } else {
+                    try {
+                        liveProfiler = new LiveProfiler(websocketServer::broadcastHotspots);
+                        liveProfiler.start();
+                        System.out.println("🔥 Live profiling enabled (hotspots every "
+                            + LiveProfiler.DEFAULT_WINDOW.toSeconds() + "s)");
+                    } catch (Exception e) {
+                        System.err.println("⚠️  Failed to start live profiling: " + e.getMessage());
+                        liveProfiler = null;
+                    }
+                }
+            }
+
             // Generate config template if requested
             if (generateConfig) {
                 Path templatePath = projectDir.toPath().resolve(".pragmite.yaml");
@@ -228,6 +325,8 @@ public class PragmiteCLI implements Callable<Integer> {
             if (clearCache) {
                 CacheManager cacheManager = new CacheManager(projectDir.toPath());
                 cacheManager.clearCache();
+                Files.deleteIfExists(projectDir.toPath().resolve(DirectoryManifest.MANIFEST_FILE));
+                Files.deleteIfExists(projectDir.toPath().resolve(FileResultCache.CACHE_FILE));
                 System.out.println("✅ Analysis cache cleared");
                 return 0;
             }
@@ -252,6 +351,12 @@ public class PragmiteCLI implements Callable<Integer> {
                 return 1;
             }
 
+            // v1.6.3 - A sample has estimates, not per-file results, so only console and JSON can show it
+            if (sample && !"console".equalsIgnoreCase(format) && !"json".equalsIgnoreCase(format)) {
+                System.err.println("Hata: --sample yalnızca console ve json formatlarını destekler (-f " + format + ")");
+                return 1;
+            }
+
             // Load configuration
             PragmiteConfig config;
             if (configFile != null) {
@@ -267,7 +372,7 @@ public class PragmiteCLI implements Callable<Integer> {
             applyCliOverrides(config);
 
             System.out.println("╔══════════════════════════════════════════════════════════════╗");
-            System.out.println("║                    PRAGMITE ANALYZER v1.4.0                  ║");
+            System.out.println(String.format("║%-62s║", " ".repeat(20) + "PRAGMITE ANALYZER v" + PragmiteVersion.VERSION));
             System.out.println("║          Java Kod Kalitesi ve Karmaşıklık Analizi            ║");
             System.out.println("╚══════════════════════════════════════════════════════════════╝");
             System.out.println();
@@ -279,13 +384,58 @@ public class PragmiteCLI implements Callable<Integer> {
                 System.out.println("  - Maksimum Metot Uzunluğu: " + config.getThreshold("longMethod", 50));
                 System.out.println("  - Maksimum Parametre Sayısı: " + config.getThreshold("longParameterList", 5));
                 System.out.println("Exclude patterns: " + config.getExcludePatterns());
+                System.out.println("Analiz seviyesi: " + config.getAnalysisOptions().getLevel());
                 System.out.println();
             }
 
             System.out.println("Analiz başlatılıyor...");
 
+            // v1.6.3 - --include, --exclude, config excludes and .gitignore decide which files are scanned
+            OptimizedFileScanner fileScanner = new OptimizedFileScanner()
+                .withIncludes(splitPatterns(includePattern))
+                .withExcludes(config.getExcludePatterns());
+
+            // v1.6.3 - Huge projects: estimate from a sample instead of analyzing every file
+            if (sample) {
+                return handleSampling(config, fileScanner);
+            }
+
+            // SARIF results are streamed to the file while the analysis is running
+            Path sarifPath = null;
+            if ("sarif".equalsIgnoreCase(format)) {
+                sarifPath = outputFile != null ? outputFile.toPath() : projectDir.toPath().resolve("pragmite-report.sarif");
+                Writer sarifOut = Files.newBufferedWriter(sarifPath, StandardCharsets.UTF_8);
+                sarifWriter = new SarifReportWriter(sarifOut);
+            }
+
+            // v1.6.3 - Incremental runs only parse files changed since the last run and reuse the
+            // stored results of the others, so scores, reports and the quality gate stay project-wide
+            DirectoryManifest manifest = null;
+            FileResultCache resultCache = null;
+            if (config.getAnalysisOptions().isIncrementalAnalysis()) {
+                manifest = DirectoryManifest.forProject(projectDir.toPath());
+                fileScanner.withManifest(manifest);
+                // Results of another release or other settings (.pragmite.yaml, CLI overrides) are not reused
+                resultCache = FileResultCache.forProject(projectDir.toPath(),
+                    PragmiteVersion.VERSION + "/" + config.analysisFingerprint());
+            }
+
             // Analyzer oluştur ve çalıştır
-            ProjectAnalyzer analyzer = new ProjectAnalyzer(projectDir.toPath());
+            // v1.6.3 - WebSocket clients receive each file result as soon as it is ready
+            ProjectAnalyzer analyzer = new ProjectAnalyzer(projectDir.toPath())
+                .withAnalysisListener(AnalysisListener.composite(
+                    ndjsonWriter != null ? ndjsonWriter : sarifWriter, websocketServer))
+                .withFileScanner(fileScanner)
+                .withResultCache(resultCache)
+                .withGeneratedCodeDetector(config.createGeneratedCodeDetector())
+                .withAnalysisLevel(AnalysisLevel.parse(config.getAnalysisOptions().getLevel()));
+            if (profileLevel != null) {
+                analyzer.withProfilingLevel(ProfilingLevel.parse(profileLevel));
+            }
+            if (metricsFile != null && !analyzer.getProfilingLevel().collectsPhases()) {
+                // Metrics come from the phase timers of the light tier
+                analyzer.withProfilingLevel(ProfilingLevel.LIGHT);
+            }
             AnalysisResult result = analyzer.analyze();
 
             // v1.4.0: Generate AI analysis if requested (do this before reporting so HTML can include it)
@@ -295,44 +445,97 @@ public class PragmiteCLI implements Callable<Integer> {
                 aiResults = handleAiAnalysis(result);
             }
 
-            // Çıktı formatına göre rapor yaz
+            // Çıktı formatına göre rapor yaz (v1.6.3 - sinks run concurrently on a shared snapshot)
+            final List<AIAnalysisResult> reportAiResults = aiResults;
+            ParallelReportWriter reports = new ParallelReportWriter();
             switch (format.toLowerCase()) {
                 case "json":
-                    writeJsonReport(result);
+                    reports.withSink("json", this::writeJsonReport);
                     break;
                 case "html":
-                    writeHtmlReport(result, aiResults);
+                    reports.withSink("html", snapshot -> writeHtmlReport(snapshot, reportAiResults));
+                    break;
+                case "html-paged":
+                    reports.withSink("html-paged", this::writePagedHtmlReport);
                     break;
                 case "pdf":
-                    writeHtmlReport(result, aiResults); // PDF is HTML-based for now
-                    System.out.println("📄 PDF generation via HTML report (print to PDF from browser)");
+                    reports.withSink("html", snapshot -> writeHtmlReport(snapshot, reportAiResults)
+                        + "\n📄 PDF generation via HTML report (print to PDF from browser)"); // PDF is HTML-based for now
                     break;
                 case "both":
-                    writeConsoleReport(result);
-                    writeJsonReport(result);
-                    writeHtmlReport(result, aiResults);
+                    reports.withForegroundSink("console", this::writeConsoleReport);
+                    reports.withSink("json", this::writeJsonReport);
+                    reports.withSink("html", snapshot -> writeHtmlReport(snapshot, reportAiResults));
+                    break;
+                case "ndjson":
+                    // Records were already streamed while the analysis was running
+                    break;
+                case "sarif":
+                    sarifWriter.close();
+                    sarifWriter = null;
+                    System.out.println("\n📄 SARIF raporu yazıldı: " + sarifPath.toAbsolutePath());
                     break;
                 case "console":
                 default:
-                    writeConsoleReport(result);
+                    reports.withForegroundSink("console", this::writeConsoleReport);
                     break;
             }
 
-            // v1.3.0: Apply auto-fixes if requested
-            if (applyFixes || fixTypes != null) {
-                handleAutoFix(result, dbConnection);
-            }
-
             // v1.3.0: Save to database if requested
             if (saveToDb && dbManager != null) {
-                try {
-                    long runId = dbManager.saveAnalysisRun(result);
-                    System.out.println("\n💾 Analysis saved to database (ID: " + runId + ")");
-                } catch (Exception e) {
-                    System.err.println("⚠️  Failed to save to database: " + e.getMessage());
+                final DatabaseManager db = dbManager;
+                reports.withSink("database", snapshot -> saveToDatabase(db, snapshot));
+            }
+
+            if (reports.getSinkCount() > 1) {
+                executorManager = new ExecutorManager();
+            }
+            long outputStart = System.nanoTime();
+            writeReports(reports, result, executorManager);
+            if (result.getProfileReport() != null) {
+                result.getProfileReport().addPhaseTiming("output", (System.nanoTime() - outputStart) / 1_000_000);
+            }
+
+            if (metricsFile != null) {
+                new PrometheusMetricsWriter().write(result, metricsFile.toPath());
+                System.out.println("\n📈 Metrikler yazıldı (Prometheus): " + metricsFile.getAbsolutePath());
+            }
+
+            // v1.6.3 - Generated and vendored files are not parsed
+            if (result.getGeneratedFiles() > 0) {
+                String skipped = result.getSkippedBytes() > 0
+                    ? ", " + String.format("%.1f KB", result.getSkippedBytes() / 1024.0) + " atlandı"
+                    : "";
+                System.out.println("\n⏭️  Üretilmiş/vendored dosyalar: " + result.getGeneratedFiles()
+                    + " dosya ayrıştırılmadı" + skipped + " (" + config.getAnalysisOptions().getGeneratedCode() + ")");
+            }
+
+            // The manifest is only updated once the changed files have been reported, and after
+            // the results it refers to, so a failed save never leaves outdated results in use
+            if (manifest != null) {
+                resultCache.save();
+                manifest.save();
+                System.out.println("\n📂 Artımlı analiz: " + manifest.getChangedFileCount() + " değişen / "
+                    + manifest.getScannedFileCount() + " dosya, " + resultCache.getHitCount()
+                    + " dosyanın önceki sonucu kullanıldı, " + manifest.getReusedDirectoryCount()
+                    + " değişmeyen dizin listelenmedi"
+                    + (manifest.isEmpty() ? " (ilk çalıştırma)" : ""));
+                List<String> removedFiles = manifest.getRemovedFiles();
+                if (!removedFiles.isEmpty()) {
+                    System.out.println("   🗑️  Silinen dosyalar: " + removedFiles.size());
                 }
             }
 
+            // Profile is printed when a profiling level was requested explicitly
+            if (profileLevel != null && result.getProfileReport() != null) {
+                System.out.println(result.getProfileReport());
+            }
+
+            // v1.3.0: Apply auto-fixes if requested
+            if (applyFixes || fixTypes != null) {
+                handleAutoFix(result, dbConnection);
+            }
+
             // Apply quality gate checks
             return checkQualityGate(result, config);
 
@@ -343,6 +546,11 @@ public class PragmiteCLI implements Callable<Integer> {
             }
             return 2; // Exit code 2 = analysis error
         } finally {
+            // Stop live profiling before the server, so the last window is still sent
+            if (liveProfiler != null) {
+                liveProfiler.close();
+            }
+
             // v1.6.2 - Stop WebSocket server
             if (websocketServer != null) {
                 try {
@@ -353,6 +561,18 @@ public class PragmiteCLI implements Callable<Integer> {
                 }
             }
 
+            if (executorManager != null) {
+                executorManager.shutdown();
+            }
+
+            if (sarifWriter != null) {
+                try {
+                    sarifWriter.close();
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+
             // Close database connection
             if (dbManager != null) {
                 try {
@@ -368,6 +588,8 @@ public class PragmiteCLI implements Callable<Integer> {
                     // Ignore
                 }
             }
+
+            System.setOut(originalOut);
         }
     }
 
@@ -403,6 +625,41 @@ public class PragmiteCLI implements Callable<Integer> {
         if (incrementalAnalysis) {
             options.setIncrementalAnalysis(true);
         }
+        if (analysisLevel != null) {
+            options.setLevel(analysisLevel.trim().toLowerCase(Locale.ROOT));
+        }
+
+        // Excluded directories (additive)
+        for (String exclude : splitPatterns(excludeDirs)) {
+            config.getExcludePatterns().add(toExcludePattern(exclude));
+        }
+    }
+
+    /**
+     * Splits a comma-separated pattern list.
+     */
+    static List<String> splitPatterns(String patterns) {
+        if (patterns == null || patterns.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(patterns.split(","))
+            .map(String::trim)
+            .filter(p -> !p.isEmpty())
+            .toList();
+    }
+
+    /**
+     * A plain directory name excludes that directory at any depth; anything else is a glob.
+     */
+    static String toExcludePattern(String exclude) {
+        String pattern = exclude.replace('\\', '/');
+        if (pattern.contains("*") || pattern.contains("?")) {
+            return pattern;
+        }
+        if (pattern.endsWith("/")) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        return pattern.contains("/") ? pattern + "/**" : "**/" + pattern + "/**";
     }
 
     /**
@@ -454,12 +711,116 @@ public class PragmiteCLI implements Callable<Integer> {
         return 0; // Success
     }
 
-    private void writeConsoleReport(AnalysisResult result) {
+    /**
+     * Estimates the project quality from a sample of files and prints the estimates with
+     * their 95% confidence intervals, or writes them as JSON.
+     */
+    private int handleSampling(PragmiteConfig config, OptimizedFileScanner fileScanner) throws Exception {
+        ProjectAnalyzer analyzer = new ProjectAnalyzer(projectDir.toPath())
+            .withGeneratedCodeDetector(config.createGeneratedCodeDetector())
+            .withAnalysisLevel(AnalysisLevel.parse(config.getAnalysisOptions().getLevel()));
+        SamplingAnalyzer sampler = new SamplingAnalyzer(analyzer)
+            .withFileScanner(fileScanner)
+            .withThreads(Math.max(1, config.getAnalysisOptions().getMaxThreads()));
+        if (sampleTargetError != null) {
+            sampler.withTargetError(sampleTargetError);
+        }
+        if (sampleTimeBudget != null) {
+            sampler.withTimeBudget(Duration.ofSeconds(sampleTimeBudget));
+        }
+
+        SamplingResult result = sampler.analyze(projectDir.toPath());
+
+        if ("json".equalsIgnoreCase(format)) {
+            Path outputPath = outputFile != null
+                ? outputFile.toPath()
+                : projectDir.toPath().resolve("pragmite-report.json");
+            new JsonReportWriter().write(result, outputPath);
+            System.out.println("\nJSON raporu yazıldı: " + outputPath.toAbsolutePath());
+            return 0;
+        }
+
+        System.out.println();
+        System.out.println("🎲 Örneklem analizi (%95 güven aralığı)");
+        System.out.println("   Dosyalar: " + result.getSampledFiles() + " / " + result.getPopulationFiles()
+            + " (" + result.getStrata() + " katman, " + result.getRounds() + " tur, "
+            + result.getDurationMs() + " ms, seed " + result.getSeed() + ")");
+        System.out.println("   Durma nedeni: " + result.getStopReason());
+        System.out.println();
+        System.out.println("📊 Kalite skoru:   " + result.getOverallScore());
+        System.out.println("   DRY:            " + result.getDryScore());
+        System.out.println("   Orthogonality:  " + result.getOrthogonalityScore());
+        System.out.println("   Correctness:    " + result.getCorrectnessScore());
+        System.out.println("   Performance:    " + result.getPerformanceScore());
+        System.out.println();
+        System.out.println("🔍 Tahmini sorun sayısı: " + result.getTotalSmells());
+        System.out.println("   Dosya başına:   " + result.getSmellsPerFile());
+        System.out.println("   KLOC başına:    " + result.getSmellsPerKloc());
+        if (verbose) {
+            for (PragmaticPrinciple principle : PragmaticPrinciple.values()) {
+                SamplingResult.Estimate density = result.getSmellsPerKloc(principle);
+                if (density != null) {
+                    System.out.println("   " + principle + " / KLOC: " + density);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the report sinks, prints their messages and records per-sink time in the profile.
+     * The first sink failure is rethrown once all sinks have finished.
+     */
+    private void writeReports(ParallelReportWriter reports, AnalysisResult result,
+                              ExecutorManager executorManager) throws Exception {
+        if (reports.getSinkCount() == 0) {
+            return;
+        }
+
+        List<ParallelReportWriter.SinkResult> sinkResults = reports.writeAll(result, executorManager);
+
+        Exception failure = null;
+        StringBuilder timings = new StringBuilder();
+        for (ParallelReportWriter.SinkResult sinkResult : sinkResults) {
+            if (sinkResult.getMessage() != null) {
+                System.out.println(sinkResult.getMessage());
+            }
+            if (!sinkResult.isSuccess() && failure == null) {
+                Throwable error = sinkResult.getError();
+                failure = error instanceof Exception ? (Exception) error : new Exception(error);
+            }
+            if (result.getProfileReport() != null) {
+                result.getProfileReport().addReportTiming(sinkResult.getName(), sinkResult.getDurationMs());
+            }
+            timings.append(timings.length() > 0 ? ", " : "")
+                .append(sinkResult.getName()).append(' ').append(sinkResult.getDurationMs()).append(" ms");
+        }
+
+        if (verbose) {
+            System.out.println("\n⏱️  Rapor süreleri: " + timings);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private String writeConsoleReport(AnalysisResult result) {
         ConsoleReportWriter writer = new ConsoleReportWriter(verbose);
         writer.write(result);
+        return null;
     }
 
-    private void writeJsonReport(AnalysisResult result) throws Exception {
+    private String saveToDatabase(DatabaseManager dbManager, AnalysisResult result) {
+        try {
+            long runId = dbManager.saveAnalysisRun(result);
+            return "\n💾 Analysis saved to database (ID: " + runId + ")";
+        } catch (Exception e) {
+            System.err.println("⚠️  Failed to save to database: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String writeJsonReport(AnalysisResult result) throws Exception {
         Path outputPath = outputFile != null
             ? outputFile.toPath()
             : projectDir.toPath().resolve("pragmite-report.json");
@@ -467,10 +828,10 @@ public class PragmiteCLI implements Callable<Integer> {
         JsonReportWriter writer = new JsonReportWriter();
         writer.write(result, outputPath);
 
-        System.out.println("\nJSON raporu yazıldı: " + outputPath.toAbsolutePath());
+        return "\nJSON raporu yazıldı: " + outputPath.toAbsolutePath();
     }
 
-    private void writeHtmlReport(AnalysisResult result, List<AIAnalysisResult> aiResults) throws Exception {
+    private String writeHtmlReport(AnalysisResult result, List<AIAnalysisResult> aiResults) throws Exception {
         Path outputPath = outputFile != null
             ? outputFile.toPath().resolveSibling(outputFile.getName().replace(".json", ".html"))
             : projectDir.toPath().resolve("pragmite-report.html");
@@ -478,11 +839,24 @@ public class PragmiteCLI implements Callable<Integer> {
         HtmlReportGenerator generator = new HtmlReportGenerator();
         generator.generate(result, aiResults, outputPath);
 
-        System.out.println("\n📊 HTML raporu yazıldı: " + outputPath.toAbsolutePath());
+        StringBuilder message = new StringBuilder("\n📊 HTML raporu yazıldı: ").append(outputPath.toAbsolutePath());
         if (aiResults != null && !aiResults.isEmpty()) {
-            System.out.println("   🤖 AI analysis section included with " + aiResults.size() + " detailed insights");
+            message.append("\n   🤖 AI analysis section included with ").append(aiResults.size()).append(" detailed insights");
         }
-        System.out.println("   Tarayıcınızda açmak için: file:///" + outputPath.toAbsolutePath().toString().replace("\\", "/"));
+        message.append("\n   Tarayıcınızda açmak için: file:///").append(outputPath.toAbsolutePath().toString().replace("\\", "/"));
+        return message.toString();
+    }
+
+    private String writePagedHtmlReport(AnalysisResult result) throws Exception {
+        Path outputDir = outputFile != null
+            ? outputFile.toPath().resolveSibling(outputFile.getName().replaceFirst("\\.[^.]+$", ""))
+            : projectDir.toPath().resolve("pragmite-report");
+
+        PagedHtmlReportGenerator generator = new PagedHtmlReportGenerator();
+        Path indexPath = generator.generate(result, outputDir);
+
+        return "\n📊 Paged HTML raporu yazıldı: " + outputDir.toAbsolutePath()
+            + "\n   Tarayıcınızda açmak için: file:///" + indexPath.toAbsolutePath().toString().replace("\\", "/");
     }
 
     /**
@@ -646,17 +1020,9 @@ public class PragmiteCLI implements Callable<Integer> {
                 System.out.println("Location: " + backupManager.getBackupDir());
                 System.out.println();
 
-                try (java.util.stream.Stream<Path> paths = java.nio.file.Files.list(backupManager.getBackupDir())) {
-                    java.util.List<Path> backups = paths
-                        .filter(p -> p.getFileName().toString().contains(".backup."))
-                        .sorted(java.util.Comparator.<Path, java.nio.file.attribute.FileTime>comparing(p -> {
-                            try {
-                                return java.nio.file.Files.getLastModifiedTime(p);
-                            } catch (java.io.IOException e) {
-                                return java.nio.file.attribute.FileTime.fromMillis(0);
-                            }
-                        }).reversed())
-                        .toList();
+                try {
+                    // v1.6.3 - Read from the backup index, newest first
+                    java.util.List<com.pragmite.autofix.Backup> backups = backupManager.listBackups();
 
                     if (backups.isEmpty()) {
                         System.out.println("No backups found.");
@@ -668,17 +1034,14 @@ public class PragmiteCLI implements Callable<Integer> {
                     System.out.printf("%-40s %-20s %-10s%n", "File", "Created", "Size");
                     System.out.println("─".repeat(75));
 
-                    for (Path backup : backups) {
-                        String fileName = backup.getFileName().toString();
-                        String originalFile = fileName.substring(0, fileName.indexOf(".backup."));
-                        java.nio.file.attribute.BasicFileAttributes attrs =
-                            java.nio.file.Files.readAttributes(backup, java.nio.file.attribute.BasicFileAttributes.class);
-                        long size = java.nio.file.Files.size(backup);
+                    for (com.pragmite.autofix.Backup backup : backups) {
+                        String originalFile = backup.getOriginalPath().getFileName().toString();
+                        long size = backup.getOriginalSize();
 
                         String timestamp = java.time.format.DateTimeFormatter
                             .ofPattern("yyyy-MM-dd HH:mm:ss")
                             .withZone(java.time.ZoneId.systemDefault())
-                            .format(attrs.creationTime().toInstant());
+                            .format(backup.getCreatedAt());
 
                         String sizeStr;
                         if (size < 1024) {
@@ -790,6 +1153,21 @@ public class PragmiteCLI implements Callable<Integer> {
                     apiConfig.setApiKey(claudeApiKey);
                     apiConfig.setEnabled(true);
                 }
+                if (aiConcurrency != null) {
+                    apiConfig.setMaxConcurrentRequests(aiConcurrency);
+                }
+                if (aiRateLimit != null) {
+                    apiConfig.setRequestsPerMinute(aiRateLimit);
+                }
+                if (aiBatchSize != null) {
+                    apiConfig.setMaxBatchSize(aiBatchSize);
+                }
+                if (noAiStream) {
+                    apiConfig.setStreaming(false);
+                }
+                if (noAiCache) {
+                    apiConfig.setCacheResults(false);
+                }
 
                 if (!apiConfig.isValid()) {
                     System.err.println("⚠️  Auto-refactor enabled but API key not found.");
@@ -799,6 +1177,9 @@ public class PragmiteCLI implements Callable<Integer> {
             }
 
             AnalysisEngine aiEngine = new AnalysisEngine();
+            if (aiContextTokens != null) {
+                aiEngine.setContextTokenBudget(aiContextTokens);
+            }
             List<AIAnalysisResult> aiResults = aiEngine.analyzeAll(
                 result.getCodeSmells(),
                 projectDir.toPath(),
@@ -874,13 +1255,24 @@ public class PragmiteCLI implements Callable<Integer> {
      * Handle auto-apply of refactored code (v1.5.0 Phase 3).
      */
     private void handleAutoApply(List<AIAnalysisResult> aiResults, AnalysisResult analysisResult) {
+        com.pragmite.validation.IncrementalCompiler incrementalCompiler = null;
         try {
             System.out.println("\n🔧 Applying AI-Generated Refactorings...");
 
             // Create CodeApplicator with settings from CLI flags
             boolean enableBackup = !noBackup;
+            com.pragmite.autofix.CompilationValidator validator = new com.pragmite.autofix.CompilationValidator(false);
+            if (strictValidation && !dryRun) {
+                // v1.6.3 - Compile the project once, then check each change against it
+                System.out.println("   ⏳ Compiling project for strict validation...");
+                incrementalCompiler = com.pragmite.validation.IncrementalCompiler.forProject(projectDir.toPath());
+                validator = new com.pragmite.autofix.CompilationValidator(incrementalCompiler);
+                System.out.println("   ✅ " + incrementalCompiler.getClassCount() + " classes ready for validation"
+                    + (incrementalCompiler.getUnavailableSources().isEmpty() ? ""
+                        : " (" + incrementalCompiler.getUnavailableSources().size() + " files do not compile)"));
+            }
             com.pragmite.autofix.CodeApplicator applicator =
-                new com.pragmite.autofix.CodeApplicator(dryRun, enableBackup);
+                new com.pragmite.autofix.CodeApplicator(dryRun, enableBackup, validator);
 
             if (dryRun) {
                 System.out.println("   DRY RUN MODE - No files will be modified\n");
@@ -959,6 +1351,11 @@ public class PragmiteCLI implements Callable<Integer> {
             if (verbose) {
                 e.printStackTrace();
             }
+        } finally {
+            // Also when applying fails midway
+            if (incrementalCompiler != null) {
+                incrementalCompiler.close();
+            }
         }
     }
 
@@ -111,6 +111,11 @@ public class ConfigLoader {
             config.setExcludePatterns(data.exclude);
         }
 
+        // Vendored paths
+        if (data.vendored != null) {
+            config.setVendoredPatterns(data.vendored);
+        }
+
         // Severity overrides
         if (data.severity != null) {
             config.setSeverityOverrides(data.severity);
@@ -158,6 +163,12 @@ public class ConfigLoader {
             if (data.analysis.maxCriticalIssues != null) {
                 options.setMaxCriticalIssues(data.analysis.maxCriticalIssues);
             }
+            if (data.analysis.generatedCode != null) {
+                options.setGeneratedCode(data.analysis.generatedCode);
+            }
+            if (data.analysis.level != null) {
+                options.setLevel(data.analysis.level);
+            }
             config.setAnalysisOptions(options);
         }
 
@@ -195,6 +206,22 @@ public class ConfigLoader {
             );
         }
 
+        // Validate generated code handling
+        String generatedCode = config.getAnalysisOptions().getGeneratedCode();
+        if (generatedCode == null || !generatedCode.matches("skip|metrics|analyze")) {
+            throw new ConfigurationException(
+                "Invalid generated code mode: " + generatedCode + " (must be: skip, metrics, or analyze)"
+            );
+        }
+
+        // Validate analysis level
+        String level = config.getAnalysisOptions().getLevel();
+        if (level == null || !level.matches("fast|standard|deep")) {
+            throw new ConfigurationException(
+                "Invalid analysis level: " + level + " (must be: fast, standard, or deep)"
+            );
+        }
+
         logger.debug("Configuration validated successfully");
     }
 
@@ -239,6 +266,14 @@ exclude:
   # - "**/generated/**"
   # - "**/vendor/**"
 
+# Vendored library paths (glob patterns), handled like generated code
+vendored:
+  - "**/vendor/**"
+  - "**/third_party/**"
+  - "**/third-party/**"
+  - "**/thirdparty/**"
+  - "**/generated-sources/**"
+
 # Severity overrides (default is based on code smell type)
 # Options: ERROR, WARNING, INFO
 severity:
@@ -259,6 +294,8 @@ analysis:
   parallel: true              # Enable parallel analysis
   maxThreads: 8               # Maximum threads for parallel analysis
   reportFormat: json          # Report format: json, html, pdf, both
+  generatedCode: metrics      # Generated/vendored files: skip, metrics (lines only), analyze
+  level: standard             # Depth: fast (pre-commit), standard, deep (cross-file clones)
 
   # CI/CD Quality Gate options
   failOnCritical: false       # Exit with code 1 if critical issues found
@@ -273,6 +310,7 @@ analysis:
     public static class ConfigData {
         public Map<String, Integer> thresholds;
         public List<String> exclude;
+        public List<String> vendored;
         public Map<String, String> severity;
         public QualityWeightsData qualityWeights;
         public AnalysisData analysis;
@@ -293,6 +331,8 @@ analysis:
         public Boolean failOnCritical;
         public Integer minQualityScore;
         public Integer maxCriticalIssues;
+        public String generatedCode;
+        public String level;
 
         // Setters for snake_case YAML compatibility (v1.6.3 - Config test fix)
         public void setIncrementalAnalysis(Boolean incremental) { this.incremental = incremental; }
@@ -302,6 +342,8 @@ analysis:
         public void setFailOnCritical(Boolean failOnCritical) { this.failOnCritical = failOnCritical; }
         public void setMinQualityScore(Integer minQualityScore) { this.minQualityScore = minQualityScore; }
         public void setMaxCriticalIssues(Integer maxCriticalIssues) { this.maxCriticalIssues = maxCriticalIssues; }
+        public void setGeneratedCode(String generatedCode) { this.generatedCode = generatedCode; }
+        public void setLevel(String level) { this.level = level; }
     }
 
     /**
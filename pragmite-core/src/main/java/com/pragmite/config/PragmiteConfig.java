@@ -1,6 +1,13 @@
 package com.pragmite.config;
 
+import com.pragmite.analyzer.GeneratedCodeDetector;
+import com.pragmite.scanner.GlobPattern;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Configuration model for Pragmite analysis.
@@ -9,6 +16,7 @@ import java.util.*;
  * Supports:
  * - Custom thresholds for detectors
  * - Exclude patterns (files/directories)
+ * - Vendored paths, which are treated like generated code
  * - Severity customization
  * - Quality score weights
  */
@@ -19,6 +27,13 @@ public class PragmiteConfig {
 
     // Exclude patterns (glob patterns)
     private List<String> excludePatterns = new ArrayList<>();
+    private transient volatile CompiledPatterns compiledExcludes;
+
+    // Vendored paths (glob patterns), treated like generated code
+    private List<String> vendoredPatterns = new ArrayList<>(GeneratedCodeDetector.DEFAULT_VENDORED_PATTERNS);
+
+    private record CompiledPatterns(List<String> source, Pattern pattern) {
+    }
 
     // Severity overrides (detector -> severity)
     private Map<String, String> severityOverrides = new HashMap<>();
@@ -86,6 +101,22 @@ public class PragmiteConfig {
         this.excludePatterns = excludePatterns;
     }
 
+    public List<String> getVendoredPatterns() {
+        return vendoredPatterns;
+    }
+
+    public void setVendoredPatterns(List<String> vendoredPatterns) {
+        this.vendoredPatterns = vendoredPatterns;
+    }
+
+    /**
+     * Detector for generated and vendored files, as configured.
+     */
+    public GeneratedCodeDetector createGeneratedCodeDetector() {
+        return new GeneratedCodeDetector(vendoredPatterns,
+            GeneratedCodeDetector.Mode.parse(analysisOptions.getGeneratedCode()));
+    }
+
     public Map<String, String> getSeverityOverrides() {
         return severityOverrides;
     }
@@ -112,6 +143,7 @@ public class PragmiteConfig {
 
     /**
      * Checks if a file path should be excluded based on patterns.
+     * The patterns are compiled into one regex, which is reused until they change.
      */
     public boolean isExcluded(String filePath) {
         if (filePath == null) return false;
@@ -119,34 +151,42 @@ public class PragmiteConfig {
         // Normalize path separators
         String normalizedPath = filePath.replace('\\', '/');
 
-        for (String pattern : excludePatterns) {
-            if (matchesGlobPattern(normalizedPath, pattern)) {
-                return true;
-            }
+        Pattern pattern = compiledExcludes();
+        return pattern != null && pattern.matcher(normalizedPath).matches();
+    }
+
+    private Pattern compiledExcludes() {
+        if (excludePatterns == null) {
+            return null;
+        }
+        // The pattern list is mutable, so compare with the patterns that were compiled
+        CompiledPatterns compiled = compiledExcludes;
+        if (compiled == null || !compiled.source().equals(excludePatterns)) {
+            List<String> source = List.copyOf(excludePatterns);
+            compiled = new CompiledPatterns(source, GlobPattern.compileAny(source));
+            compiledExcludes = compiled;
         }
-        return false;
+        return compiled.pattern();
     }
 
     /**
-     * Simple glob pattern matching.
-     * Supports: ** (any path), * (any name)
+     * Hash of the settings that decide per-file analysis results: level, generated code
+     * handling, vendored paths, thresholds and severity overrides. Results stored under another
+     * fingerprint must not be reused. Quality weights and report options only affect the
+     * project-wide result and are left out.
      */
-    private boolean matchesGlobPattern(String path, String pattern) {
-        // Normalize pattern
-        String normalizedPattern = pattern.replace('\\', '/');
-
-        // Convert glob to regex with proper handling
-        String regex = normalizedPattern
-            .replace(".", "\\.")                    // Escape dots
-            .replace("**/", "§DOUBLESTAR_SLASH§")   // Placeholder for **/
-            .replace("/**", "§SLASH_DOUBLESTAR§")   // Placeholder for /**
-            .replace("**", "§DOUBLESTAR§")          // Placeholder for **
-            .replace("*", "[^/]*")                  // * -> match anything except /
-            .replace("§DOUBLESTAR_SLASH§", "(.*/)?") // **/ -> optional prefix
-            .replace("§SLASH_DOUBLESTAR§", "(/.*)?") // /** -> optional suffix
-            .replace("§DOUBLESTAR§", ".*");          // ** -> match everything
-
-        return path.matches(regex);
+    public String analysisFingerprint() {
+        String settings = "level=" + analysisOptions.getLevel()
+            + ";generatedCode=" + analysisOptions.getGeneratedCode()
+            + ";vendored=" + vendoredPatterns
+            + ";thresholds=" + (thresholds == null ? "{}" : new TreeMap<>(thresholds))
+            + ";severity=" + (severityOverrides == null ? "{}" : new TreeMap<>(severityOverrides));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(settings.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -161,6 +201,15 @@ public class PragmiteConfig {
         // Merge exclude patterns (additive)
         this.excludePatterns.addAll(other.excludePatterns);
 
+        // Merge vendored patterns (additive)
+        if (other.vendoredPatterns != null) {
+            for (String pattern : other.vendoredPatterns) {
+                if (!this.vendoredPatterns.contains(pattern)) {
+                    this.vendoredPatterns.add(pattern);
+                }
+            }
+        }
+
         // Merge severity overrides
         this.severityOverrides.putAll(other.severityOverrides);
 
@@ -237,6 +286,8 @@ public class PragmiteConfig {
         private boolean failOnCritical = false;
         private int minQualityScore = 0;
         private int maxCriticalIssues = -1; // -1 means unlimited
+        private String generatedCode = "metrics"; // skip, metrics, analyze
+        private String level = "standard"; // fast, standard, deep
 
         public boolean isIncrementalAnalysis() {
             return incrementalAnalysis;
@@ -302,6 +353,22 @@ public class PragmiteConfig {
             this.maxCriticalIssues = maxCriticalIssues;
         }
 
+        public String getGeneratedCode() {
+            return generatedCode;
+        }
+
+        public void setGeneratedCode(String generatedCode) {
+            this.generatedCode = generatedCode;
+        }
+
+        public String getLevel() {
+            return level;
+        }
+
+        public void setLevel(String level) {
+            this.level = level;
+        }
+
         /**
          * Merges with another AnalysisOptions (other takes precedence).
          */
@@ -316,6 +383,8 @@ public class PragmiteConfig {
             this.failOnCritical = other.failOnCritical;
             this.minQualityScore = other.minQualityScore;
             this.maxCriticalIssues = other.maxCriticalIssues;
+            this.generatedCode = other.generatedCode;
+            this.level = other.level;
         }
     }
 
@@ -1,6 +1,7 @@
 package com.pragmite.database;
 
 import com.pragmite.model.AnalysisResult;
+import com.pragmite.util.PragmiteVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -146,7 +147,7 @@ public class DatabaseManager implements AutoCloseable {
                 pstmt.setNull(15, Types.INTEGER);
             }
 
-            pstmt.setString(16, "1.3.0");
+            pstmt.setString(16, PragmiteVersion.VERSION);
 
             pstmt.executeUpdate();
 
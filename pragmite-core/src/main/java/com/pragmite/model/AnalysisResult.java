@@ -6,6 +6,7 @@ import com.pragmite.refactoring.RefactoringSuggestion;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -22,6 +23,10 @@ public class AnalysisResult {
     private QualityScore qualityScore;
     private List<RefactoringSuggestion> suggestions;
 
+    // Generated and vendored files that were not parsed
+    private int generatedFiles;
+    private long skippedBytes;
+
     // Performance profiling results
     private ProfileReport profileReport;
     private BenchmarkResult benchmarkResult;
@@ -29,7 +34,7 @@ public class AnalysisResult {
     public AnalysisResult() {
         this.analyzedAt = LocalDateTime.now();
         this.fileAnalyses = new ArrayList<>();
-        this.codeSmells = new ArrayList<>();
+        this.codeSmells = new SmellTable();
         this.complexityInfos = new ArrayList<>();
         this.suggestions = new ArrayList<>();
     }
@@ -39,6 +44,30 @@ public class AnalysisResult {
         this.projectPath = projectPath;
     }
 
+    /**
+     * Returns a read-only copy for concurrent readers (e.g. report sinks).
+     * Collections are copied and unmodifiable; the contained elements are shared.
+     */
+    public AnalysisResult snapshot() {
+        AnalysisResult copy = new AnalysisResult(projectPath);
+        copy.analyzedAt = analyzedAt;
+        copy.totalFiles = totalFiles;
+        copy.totalLines = totalLines;
+        copy.fileAnalyses = Collections.unmodifiableList(new ArrayList<>(fileAnalyses));
+        copy.codeSmells = codeSmells instanceof SmellTable
+            ? ((SmellTable) codeSmells).slice(0, codeSmells.size())
+            : Collections.unmodifiableList(new ArrayList<>(codeSmells));
+        copy.complexityInfos = Collections.unmodifiableList(new ArrayList<>(complexityInfos));
+        copy.suggestions = Collections.unmodifiableList(new ArrayList<>(suggestions));
+        copy.qualityScore = qualityScore;
+        copy.profileReport = profileReport;
+        copy.benchmarkResult = benchmarkResult;
+        copy.analysisDurationMs = analysisDurationMs;
+        copy.generatedFiles = generatedFiles;
+        copy.skippedBytes = skippedBytes;
+        return copy;
+    }
+
     // Getters and Setters
     public String getProjectPath() { return projectPath; }
     public void setProjectPath(String projectPath) { this.projectPath = projectPath; }
@@ -61,6 +90,19 @@ public class AnalysisResult {
     public List<ComplexityInfo> getComplexityInfos() { return complexityInfos; }
     public void setComplexityInfos(List<ComplexityInfo> complexityInfos) { this.complexityInfos = complexityInfos; }
 
+    /**
+     * Number of generated or vendored files that were skipped or only counted.
+     */
+    public int getGeneratedFiles() { return generatedFiles; }
+    public void setGeneratedFiles(int generatedFiles) { this.generatedFiles = generatedFiles; }
+
+    /**
+     * Bytes of generated or vendored files that were skipped without being read in full.
+     * Files that only get a metrics pass are read and not included.
+     */
+    public long getSkippedBytes() { return skippedBytes; }
+    public void setSkippedBytes(long skippedBytes) { this.skippedBytes = skippedBytes; }
+
     public QualityScore getQualityScore() { return qualityScore; }
     public void setQualityScore(QualityScore qualityScore) { this.qualityScore = qualityScore; }
 
@@ -72,7 +114,26 @@ public class AnalysisResult {
         this.codeSmells.add(smell);
     }
 
+    /**
+     * Adds the smells of a file and points the file analysis at the stored copy,
+     * so each smell is kept once (in compact form) for the whole result.
+     */
+    public void addFileSmells(FileAnalysis analysis) {
+        if (!(codeSmells instanceof SmellTable)) {
+            analysis.getSmells().forEach(codeSmells::add);
+            return;
+        }
+        SmellTable table = (SmellTable) codeSmells;
+        int from = table.size();
+        analysis.getSmells().forEach(table::add);
+        analysis.setSmells(table.slice(from, table.size()));
+    }
+
     public void addComplexityInfo(ComplexityInfo info) {
+        if (codeSmells instanceof SmellTable) {
+            // Share one path instance per file with the smells
+            info.setFilePath(((SmellTable) codeSmells).getFiles().canonical(info.getFilePath()));
+        }
         this.complexityInfos.add(info);
     }
 
@@ -14,6 +14,9 @@ public class CodeSmell {
     private String affectedElement; // Sınıf veya metot adı
     private boolean autoFixAvailable;
 
+    // Set on smells rendered from a SmellTable, where changes would be lost
+    private transient boolean readOnly;
+
     public CodeSmell() {}
 
     public CodeSmell(CodeSmellType type, String filePath, int startLine, String description) {
@@ -26,37 +29,41 @@ public class CodeSmell {
 
     // Builder pattern for fluent API
     public CodeSmell withEndLine(int endLine) {
+        checkWritable();
         this.endLine = endLine;
         return this;
     }
 
     public CodeSmell withSuggestion(String suggestion) {
+        checkWritable();
         this.suggestion = suggestion;
         return this;
     }
 
     public CodeSmell withAffectedElement(String element) {
+        checkWritable();
         this.affectedElement = element;
         return this;
     }
 
     public CodeSmell withAutoFix(boolean available) {
+        checkWritable();
         this.autoFixAvailable = available;
         return this;
     }
 
     // Getters and Setters
     public CodeSmellType getType() { return type; }
-    public void setType(CodeSmellType type) { this.type = type; }
+    public void setType(CodeSmellType type) { checkWritable(); this.type = type; }
 
     public Severity getSeverity() { return severity; }
-    public void setSeverity(Severity severity) { this.severity = severity; }
+    public void setSeverity(Severity severity) { checkWritable(); this.severity = severity; }
 
     public String getFilePath() { return filePath; }
-    public void setFilePath(String filePath) { this.filePath = filePath; }
+    public void setFilePath(String filePath) { checkWritable(); this.filePath = filePath; }
 
     public int getStartLine() { return startLine; }
-    public void setStartLine(int startLine) { this.startLine = startLine; }
+    public void setStartLine(int startLine) { checkWritable(); this.startLine = startLine; }
 
     // Alias for getStartLine for convenience
     public int getLine() { return startLine; }
@@ -65,19 +72,33 @@ public class CodeSmell {
     public String getMessage() { return description; }
 
     public int getEndLine() { return endLine; }
-    public void setEndLine(int endLine) { this.endLine = endLine; }
+    public void setEndLine(int endLine) { checkWritable(); this.endLine = endLine; }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) { checkWritable(); this.description = description; }
 
     public String getSuggestion() { return suggestion; }
-    public void setSuggestion(String suggestion) { this.suggestion = suggestion; }
+    public void setSuggestion(String suggestion) { checkWritable(); this.suggestion = suggestion; }
 
     public String getAffectedElement() { return affectedElement; }
-    public void setAffectedElement(String affectedElement) { this.affectedElement = affectedElement; }
+    public void setAffectedElement(String affectedElement) { checkWritable(); this.affectedElement = affectedElement; }
 
     public boolean isAutoFixAvailable() { return autoFixAvailable; }
-    public void setAutoFixAvailable(boolean autoFixAvailable) { this.autoFixAvailable = autoFixAvailable; }
+    public void setAutoFixAvailable(boolean autoFixAvailable) { checkWritable(); this.autoFixAvailable = autoFixAvailable; }
+
+    /**
+     * Makes the setters throw: used for smells rendered from a {@link SmellTable} row.
+     */
+    void markReadOnly() {
+        this.readOnly = true;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(
+                "Smell is a read-only view of an analysis result; changes would be lost");
+        }
+    }
 
     @Override
     public String toString() {
@@ -17,6 +17,7 @@ public class FileAnalysis {
     private List<CodeSmell> smells;
     private List<ComplexityInfo> complexities;
     private CKMetrics ckMetrics;
+    private String generatedReason;
 
     public FileAnalysis() {
         this.methods = new ArrayList<>();
@@ -45,6 +46,10 @@ public class FileAnalysis {
     public List<MethodInfo> getMethods() { return methods; }
     public void setMethods(List<MethodInfo> methods) { this.methods = methods; }
 
+    /**
+     * Smells of the file. Once the file is added to an {@link AnalysisResult} this is a read-only
+     * view of the result's stored smells; adding to it or changing a smell throws.
+     */
     public List<CodeSmell> getSmells() { return smells; }
     public void setSmells(List<CodeSmell> smells) { this.smells = smells; }
 
@@ -65,4 +70,13 @@ public class FileAnalysis {
 
     public CKMetrics getCkMetrics() { return ckMetrics; }
     public void setCkMetrics(CKMetrics ckMetrics) { this.ckMetrics = ckMetrics; }
+
+    /**
+     * Why the file was recognized as generated or vendored (e.g. "@Generated", "vendored"),
+     * or null for regular sources. Such files are not parsed.
+     */
+    public String getGeneratedReason() { return generatedReason; }
+    public void setGeneratedReason(String generatedReason) { this.generatedReason = generatedReason; }
+
+    public boolean isGenerated() { return generatedReason != null; }
 }
@@ -0,0 +1,50 @@
+package com.pragmite.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File-id table: maps each distinct file path to a small int id.
+ * Results store the id instead of their own copy of the path.
+ */
+public class FileTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> paths = new ArrayList<>();
+
+    /**
+     * Returns the id of the path, registering it if needed. {@code null} maps to -1.
+     */
+    public int idOf(String path) {
+        if (path == null) {
+            return -1;
+        }
+        Integer id = ids.get(path);
+        if (id == null) {
+            id = paths.size();
+            ids.put(path, id);
+            paths.add(path);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the canonical path instance for an id, or {@code null} for -1.
+     */
+    public String path(int id) {
+        return id < 0 ? null : paths.get(id);
+    }
+
+    /**
+     * Returns the shared instance of an equal path, so callers can drop their own copy.
+     */
+    public String canonical(String path) {
+        return path(idOf(path));
+    }
+
+    public int size() {
+        return paths.size();
+    }
+}
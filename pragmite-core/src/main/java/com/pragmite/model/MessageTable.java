@@ -0,0 +1,139 @@
+package com.pragmite.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interned message storage for compact results.
+ *
+ * Detector messages are split into a template and its arguments: quoted names ({@code 'foo'})
+ * and numbers become arguments, the rest is the template. e.g.
+ * <pre>
+ * "Method 'process' is too long (45 lines)"  ->  "Method '\u0001' is too long (\u0001 lines)" + ["process", "45"]
+ * </pre>
+ * Templates and arguments are interned, so thousands of similar messages share a handful of
+ * strings. {@link #render} rebuilds the exact original text at output time.
+ */
+public class MessageTable {
+
+    /** Placeholder character used inside templates. */
+    static final char ARG = '\u0001';
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Interns a string and returns its id. {@code null} maps to -1.
+     */
+    public int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    public String get(int id) {
+        return id < 0 ? null : strings.get(id);
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * Splits a message into a template and arguments.
+     *
+     * @param message Message text
+     * @param args    Receives the extracted arguments
+     * @return Template with {@link #ARG} in place of each argument
+     */
+    static String toTemplate(String message, List<String> args) {
+        if (message.indexOf(ARG) >= 0) {
+            // Cannot be templated safely, keep the whole text as the only argument
+            args.add(message);
+            return String.valueOf(ARG);
+        }
+
+        StringBuilder template = new StringBuilder(message.length());
+        int i = 0;
+        int length = message.length();
+        while (i < length) {
+            char c = message.charAt(i);
+            if (c == '\'') {
+                int close = message.indexOf('\'', i + 1);
+                if (close > i) {
+                    args.add(message.substring(i + 1, close));
+                    template.append('\'').append(ARG).append('\'');
+                    i = close + 1;
+                    continue;
+                }
+            } else if (isDigit(c) && (i == 0 || (!isWordChar(message.charAt(i - 1)) && message.charAt(i - 1) != '.'))) {
+                int end = i;
+                while (end < length && isDigit(message.charAt(end))) {
+                    end++;
+                }
+                if (end + 1 < length && message.charAt(end) == '.' && isDigit(message.charAt(end + 1))) {
+                    end++;
+                    while (end < length && isDigit(message.charAt(end))) {
+                        end++;
+                    }
+                }
+                if (end == length || !isWordChar(message.charAt(end))) {
+                    args.add(message.substring(i, end));
+                    template.append(ARG);
+                    i = end;
+                    continue;
+                }
+            }
+            template.append(c);
+            i++;
+        }
+        return template.toString();
+    }
+
+    /**
+     * Replaces the placeholders of a template with the given arguments.
+     */
+    static String render(String template, String[] args) {
+        if (args.length == 0) {
+            return template;
+        }
+        StringBuilder out = new StringBuilder(template.length() + args.length * 8);
+        int arg = 0;
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == ARG && arg < args.length) {
+                out.append(args[arg++]);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    static int argCount(String template) {
+        int count = 0;
+        for (int i = 0; i < template.length(); i++) {
+            if (template.charAt(i) == ARG) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
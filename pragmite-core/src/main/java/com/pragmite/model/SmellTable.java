@@ -0,0 +1,214 @@
+package com.pragmite.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact, append-only storage for code smells.
+ *
+ * Each smell is one row of 8 ints in a single array instead of a {@link CodeSmell} object with
+ * its own strings: type and severity as codes, the file as an id from a {@link FileTable}, and
+ * description, element and suggestion as ids into a {@link MessageTable}. Descriptions are stored
+ * as an interned template plus interned arguments.
+ *
+ * The table is an append-only {@link List} view: {@link #get(int)} renders a fresh, read-only
+ * {@link CodeSmell} only when a report asks for it, and its setters throw instead of silently
+ * losing the change. Rows never move, so {@link #slice} views stay valid while more smells are
+ * appended; slices reject every modification.
+ */
+public class SmellTable extends AbstractList<CodeSmell> implements RandomAccess {
+
+    private static final int STRIDE = 8;
+    private static final int CODE = 0;
+    private static final int FILE = 1;
+    private static final int START_LINE = 2;
+    private static final int END_LINE = 3;
+    private static final int TEMPLATE = 4;
+    private static final int ARG_OFFSET = 5;
+    private static final int ELEMENT = 6;
+    private static final int SUGGESTION = 7;
+
+    // CODE column: type ordinal + 1 (8 bits) | severity ordinal + 1 (4 bits) | auto-fix (1 bit) | arg count
+    private static final int SEVERITY_SHIFT = 8;
+    private static final int AUTOFIX_BIT = 1 << 12;
+    private static final int ARG_COUNT_SHIFT = 13;
+
+    private static final CodeSmellType[] TYPES = CodeSmellType.values();
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    private final FileTable files;
+    private final MessageTable messages;
+
+    private int[] rows = new int[16 * STRIDE];
+    private int[] args = new int[32];
+    private int size;
+    private int argSize;
+
+    public SmellTable() {
+        this(new FileTable(), new MessageTable());
+    }
+
+    public SmellTable(FileTable files, MessageTable messages) {
+        this.files = files;
+        this.messages = messages;
+    }
+
+    /**
+     * Appends a smell in compact form. The given object is not retained.
+     */
+    @Override
+    public boolean add(CodeSmell smell) {
+        List<String> messageArgs = new ArrayList<>(4);
+        String template = smell.getDescription() != null
+            ? MessageTable.toTemplate(smell.getDescription(), messageArgs)
+            : null;
+
+        ensureCapacity(size + 1, argSize + messageArgs.size());
+        int row = size * STRIDE;
+        rows[row + CODE] = encode(smell, messageArgs.size());
+        rows[row + FILE] = files.idOf(smell.getFilePath());
+        rows[row + START_LINE] = smell.getStartLine();
+        rows[row + END_LINE] = smell.getEndLine();
+        rows[row + TEMPLATE] = messages.intern(template);
+        rows[row + ARG_OFFSET] = argSize;
+        rows[row + ELEMENT] = messages.intern(smell.getAffectedElement());
+        rows[row + SUGGESTION] = messages.intern(smell.getSuggestion());
+
+        for (String arg : messageArgs) {
+            args[argSize++] = messages.intern(arg);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Renders the smell at the given index as a read-only {@link CodeSmell}.
+     */
+    @Override
+    public CodeSmell get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int row = index * STRIDE;
+        int code = rows[row + CODE];
+
+        CodeSmell smell = new CodeSmell();
+        int type = code & 0xFF;
+        int severity = (code >>> SEVERITY_SHIFT) & 0xF;
+        smell.setType(type == 0 ? null : TYPES[type - 1]);
+        smell.setSeverity(severity == 0 ? null : SEVERITIES[severity - 1]);
+        smell.setAutoFixAvailable((code & AUTOFIX_BIT) != 0);
+        smell.setFilePath(files.path(rows[row + FILE]));
+        smell.setStartLine(rows[row + START_LINE]);
+        smell.setEndLine(rows[row + END_LINE]);
+        smell.setAffectedElement(messages.get(rows[row + ELEMENT]));
+        smell.setSuggestion(messages.get(rows[row + SUGGESTION]));
+
+        String template = messages.get(rows[row + TEMPLATE]);
+        if (template != null) {
+            String[] values = new String[code >>> ARG_COUNT_SHIFT];
+            int offset = rows[row + ARG_OFFSET];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = messages.get(args[offset + i]);
+            }
+            smell.setDescription(MessageTable.render(template, values));
+        }
+        smell.markReadOnly();
+        return smell;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type of the smell at the given index without rendering it.
+     */
+    public CodeSmellType getType(int index) {
+        int type = rows[index * STRIDE + CODE] & 0xFF;
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    /**
+     * Returns a read-only view of the rows {@code [from, to)}.
+     * Unlike {@link #subList}, the view stays valid when more rows are appended.
+     */
+    public List<CodeSmell> slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + size);
+        }
+        return new Slice(this, from, to);
+    }
+
+    public FileTable getFiles() {
+        return files;
+    }
+
+    public MessageTable getMessages() {
+        return messages;
+    }
+
+    /**
+     * Approximate bytes used by the row and argument arrays (excluding the shared string tables).
+     */
+    public long getRowBytes() {
+        return (long) rows.length * Integer.BYTES + (long) args.length * Integer.BYTES;
+    }
+
+    private static int encode(CodeSmell smell, int argCount) {
+        int code = smell.getType() != null ? smell.getType().ordinal() + 1 : 0;
+        if (smell.getSeverity() != null) {
+            code |= (smell.getSeverity().ordinal() + 1) << SEVERITY_SHIFT;
+        }
+        if (smell.isAutoFixAvailable()) {
+            code |= AUTOFIX_BIT;
+        }
+        return code | (argCount << ARG_COUNT_SHIFT);
+    }
+
+    private void ensureCapacity(int rowCount, int argCount) {
+        if (rowCount * STRIDE > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rowCount * STRIDE, rows.length + (rows.length >> 1)));
+        }
+        if (argCount > args.length) {
+            args = Arrays.copyOf(args, Math.max(argCount, args.length + (args.length >> 1)));
+        }
+    }
+
+    /**
+     * Fixed range view over a table, e.g. the smells of one file.
+     */
+    private static class Slice extends AbstractList<CodeSmell> implements RandomAccess {
+        private final SmellTable table;
+        private final int from;
+        private final int to;
+
+        Slice(SmellTable table, int from, int to) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public CodeSmell get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return table.get(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public void add(int index, CodeSmell element) {
+            throw new UnsupportedOperationException("Smells of an analyzed file are read-only");
+        }
+    }
+}
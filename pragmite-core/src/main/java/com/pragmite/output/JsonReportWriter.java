@@ -1,7 +1,9 @@
 package com.pragmite.output;
 
 import com.google.gson.*;
+import com.pragmite.analyzer.SamplingResult;
 import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.PragmaticPrinciple;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -40,6 +42,61 @@ public class JsonReportWriter {
         return gson.toJson(result);
     }
 
+    /**
+     * Örneklem tahminlerini JSON dosyasına yazar.
+     */
+    public void write(SamplingResult result, Path outputPath) throws IOException {
+        Files.writeString(outputPath, toJson(result));
+    }
+
+    /**
+     * Örneklem tahminlerini JSON string olarak döner; her tahmin %95 güven aralığıyla birlikte.
+     */
+    public String toJson(SamplingResult result) {
+        JsonObject json = new JsonObject();
+        json.addProperty("mode", "sample");
+        json.addProperty("populationFiles", result.getPopulationFiles());
+        json.addProperty("sampledFiles", result.getSampledFiles());
+        json.addProperty("strata", result.getStrata());
+        json.addProperty("rounds", result.getRounds());
+        json.addProperty("seed", result.getSeed());
+        json.addProperty("durationMs", result.getDurationMs());
+        json.addProperty("stopReason", result.getStopReason().name());
+        json.add("overallScore", estimate(result.getOverallScore()));
+        json.add("dryScore", estimate(result.getDryScore()));
+        json.add("orthogonalityScore", estimate(result.getOrthogonalityScore()));
+        json.add("correctnessScore", estimate(result.getCorrectnessScore()));
+        json.add("performanceScore", estimate(result.getPerformanceScore()));
+        json.add("totalSmells", estimate(result.getTotalSmells()));
+        json.add("totalLines", estimate(result.getTotalLines()));
+        json.add("smellsPerFile", estimate(result.getSmellsPerFile()));
+        json.add("smellsPerKloc", estimate(result.getSmellsPerKloc()));
+        JsonObject byPrinciple = new JsonObject();
+        for (PragmaticPrinciple principle : PragmaticPrinciple.values()) {
+            if (result.getSmellsPerKloc(principle) != null) {
+                byPrinciple.add(principle.name(), estimate(result.getSmellsPerKloc(principle)));
+            }
+        }
+        json.add("smellsPerKlocByPrinciple", byPrinciple);
+        return gson.toJson(json);
+    }
+
+    private static JsonElement estimate(SamplingResult.Estimate estimate) {
+        if (estimate == null) {
+            return JsonNull.INSTANCE;
+        }
+        JsonObject json = new JsonObject();
+        json.add("value", number(estimate.value()));
+        json.add("lower", number(estimate.lower()));
+        json.add("upper", number(estimate.upper()));
+        return json;
+    }
+
+    private static JsonElement number(double value) {
+        // JSON has no NaN or infinity, e.g. for the relative bounds of an empty sample
+        return Double.isFinite(value) ? new JsonPrimitive(value) : JsonNull.INSTANCE;
+    }
+
     /**
      * LocalDateTime için TypeAdapter.
      */
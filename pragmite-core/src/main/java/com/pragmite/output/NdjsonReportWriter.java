@@ -0,0 +1,148 @@
+package com.pragmite.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.pragmite.analyzer.AnalysisListener;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.FileAnalysis;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Newline-delimited JSON (NDJSON) event stream writer.
+ *
+ * Emits one compact JSON record per line while the analysis is running, so tools
+ * (e.g. the VS Code extension) can render diagnostics before the run finishes:
+ * <pre>
+ * {"type":"start","projectPath":"...","totalFiles":120}
+ * {"type":"file","completed":1,"total":120,"file":{...FileAnalysis...}}
+ * {"type":"progress","completed":1,"total":120,"percentage":0}
+ * {"type":"smells","filePath":"...","smells":[...]}
+ * {"type":"summary","totalFiles":120,"totalSmells":42,"qualityScore":{...},...}
+ * </pre>
+ * A {@code smells} record carries the smells of a file that were found after its {@code file}
+ * record, such as clones shared with other files, so the streamed smells add up to the summary.
+ */
+public class NdjsonReportWriter implements AnalysisListener {
+
+    private static final long DEFAULT_PROGRESS_INTERVAL_MS = 250;
+
+    private final PrintStream out;
+    private final Gson gson;
+    private final long progressIntervalMs;
+
+    private long lastProgressAt = 0;
+    private final Map<String, Integer> streamedSmells = new ConcurrentHashMap<>();  // Per file path
+
+    public NdjsonReportWriter(PrintStream out) {
+        this(out, DEFAULT_PROGRESS_INTERVAL_MS);
+    }
+
+    /**
+     * @param out Stream that receives the records (normally stdout)
+     * @param progressIntervalMs Minimum time between two progress records
+     */
+    public NdjsonReportWriter(PrintStream out, long progressIntervalMs) {
+        this.out = out;
+        this.progressIntervalMs = progressIntervalMs;
+        this.gson = new GsonBuilder()
+            .serializeSpecialFloatingPointValues()
+            .create();
+    }
+
+    @Override
+    public void onAnalysisStart(String projectPath, int totalFiles) {
+        JsonObject record = record("start");
+        record.addProperty("projectPath", projectPath);
+        record.addProperty("totalFiles", totalFiles);
+        emit(record);
+    }
+
+    @Override
+    public void onFileAnalyzed(FileAnalysis analysis, int completed, int total) {
+        JsonObject record = record("file");
+        record.addProperty("completed", completed);
+        record.addProperty("total", total);
+        record.add("file", gson.toJsonTree(analysis));
+        emit(record);
+        if (!analysis.getSmells().isEmpty()) {
+            streamedSmells.put(analysis.getFilePath(), analysis.getSmells().size());
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (completed < total && now - lastProgressAt < progressIntervalMs) {
+                return;
+            }
+            lastProgressAt = now;
+        }
+        JsonObject progress = record("progress");
+        progress.addProperty("completed", completed);
+        progress.addProperty("total", total);
+        progress.addProperty("percentage", total == 0 ? 100 : (int) (completed * 100L / total));
+        emit(progress);
+    }
+
+    @Override
+    public void onAnalysisComplete(AnalysisResult result) {
+        emitLateSmells(result);
+
+        JsonObject record = record("summary");
+        record.addProperty("projectPath", result.getProjectPath());
+        record.addProperty("totalFiles", result.getTotalFiles());
+        record.addProperty("totalLines", result.getTotalLines());
+        record.addProperty("totalSmells", result.getCodeSmells().size());
+        record.addProperty("totalSuggestions", result.getSuggestions().size());
+        record.addProperty("analysisDurationMs", result.getAnalysisDurationMs());
+        if (result.getQualityScore() != null) {
+            JsonObject score = gson.toJsonTree(result.getQualityScore()).getAsJsonObject();
+            score.addProperty("overallScore", result.getQualityScore().getOverallScore());
+            score.addProperty("grade", result.getQualityScore().getGrade());
+            record.add("qualityScore", score);
+        }
+        if (result.getProfileReport() != null) {
+            // Phase latency histograms and counters of the light profiling tier
+            record.add("phaseHistograms", gson.toJsonTree(result.getProfileReport().getPhaseHistograms()));
+            record.add("counters", gson.toJsonTree(result.getProfileReport().getCounters()));
+        }
+        emit(record);
+    }
+
+    /**
+     * Emits the smells added to files after their file record (cross-file clones are appended
+     * to each file's smells once all files have been analyzed).
+     */
+    private void emitLateSmells(AnalysisResult result) {
+        for (FileAnalysis analysis : result.getFileAnalyses()) {
+            List<CodeSmell> smells = analysis.getSmells();
+            int streamed = streamedSmells.getOrDefault(analysis.getFilePath(), 0);
+            if (smells.size() > streamed) {
+                JsonObject record = record("smells");
+                record.addProperty("filePath", analysis.getFilePath());
+                record.add("smells", gson.toJsonTree(smells.subList(streamed, smells.size())));
+                emit(record);
+            }
+        }
+        streamedSmells.clear();
+    }
+
+    private JsonObject record(String type) {
+        JsonObject record = new JsonObject();
+        record.addProperty("type", type);
+        record.addProperty("timestamp", System.currentTimeMillis());
+        return record;
+    }
+
+    /**
+     * Writes a single record as one line and flushes, so consumers see it immediately.
+     */
+    private synchronized void emit(JsonObject record) {
+        out.println(gson.toJson(record));
+        out.flush();
+    }
+}
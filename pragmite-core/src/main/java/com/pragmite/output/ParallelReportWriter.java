@@ -0,0 +1,146 @@
+package com.pragmite.output;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.util.ExecutorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs several report sinks (JSON, HTML, database, ...) concurrently from one analysis result.
+ *
+ * All sinks read the same immutable {@link AnalysisResult#snapshot()}. Background sinks run on the
+ * shared {@link ExecutorManager} I/O pool; the foreground sink (normally the console report) runs on
+ * the calling thread so its output is not interleaved. Messages returned by the sinks are printed
+ * after all of them have finished, in registration order.
+ */
+public class ParallelReportWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelReportWriter.class);
+
+    /**
+     * A single report output. Returns a message for the user, or {@code null}.
+     */
+    @FunctionalInterface
+    public interface ReportSink {
+        String write(AnalysisResult snapshot) throws Exception;
+    }
+
+    private final List<NamedSink> sinks = new ArrayList<>();
+    private NamedSink foregroundSink;
+
+    public ParallelReportWriter withSink(String name, ReportSink sink) {
+        sinks.add(new NamedSink(name, sink));
+        return this;
+    }
+
+    /**
+     * Sets the sink that runs on the calling thread (e.g. the console report).
+     */
+    public ParallelReportWriter withForegroundSink(String name, ReportSink sink) {
+        this.foregroundSink = new NamedSink(name, sink);
+        return this;
+    }
+
+    public int getSinkCount() {
+        return sinks.size() + (foregroundSink != null ? 1 : 0);
+    }
+
+    /**
+     * Runs all sinks and waits for them to finish.
+     *
+     * @param executorManager Shared executor, or {@code null} to run the sinks sequentially
+     * @return Per-sink outcomes in registration order (foreground sink first)
+     */
+    public List<SinkResult> writeAll(AnalysisResult result, ExecutorManager executorManager) {
+        AnalysisResult snapshot = result.snapshot();
+        List<SinkResult> results = new ArrayList<>();
+
+        boolean parallel = executorManager != null && getSinkCount() > 1;
+
+        List<Future<SinkResult>> futures = new ArrayList<>();
+        if (parallel) {
+            for (NamedSink sink : sinks) {
+                futures.add(executorManager.submitBackgroundTask(() -> sink.run(snapshot)));
+            }
+        }
+
+        if (foregroundSink != null) {
+            results.add(foregroundSink.run(snapshot));
+        }
+
+        if (parallel) {
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(futures.get(i), sinks.get(i).name));
+            }
+        } else {
+            for (NamedSink sink : sinks) {
+                results.add(sink.run(snapshot));
+            }
+        }
+
+        return results;
+    }
+
+    private SinkResult await(Future<SinkResult> future, String name) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SinkResult(name, 0, null, e);
+        } catch (ExecutionException e) {
+            return new SinkResult(name, 0, null, e.getCause());
+        }
+    }
+
+    private static class NamedSink {
+        final String name;
+        final ReportSink sink;
+
+        NamedSink(String name, ReportSink sink) {
+            this.name = name;
+            this.sink = sink;
+        }
+
+        SinkResult run(AnalysisResult snapshot) {
+            long start = System.nanoTime();
+            try {
+                String message = sink.write(snapshot);
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                logger.debug("Report sink '{}' finished in {} ms", name, durationMs);
+                return new SinkResult(name, durationMs, message, null);
+            } catch (Exception e) {
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                logger.warn("Report sink '{}' failed after {} ms: {}", name, durationMs, e.getMessage());
+                return new SinkResult(name, durationMs, null, e);
+            }
+        }
+    }
+
+    /**
+     * Outcome of one sink.
+     */
+    public static class SinkResult {
+        private final String name;
+        private final long durationMs;
+        private final String message;
+        private final Throwable error;
+
+        public SinkResult(String name, long durationMs, String message, Throwable error) {
+            this.name = name;
+            this.durationMs = durationMs;
+            this.message = message;
+            this.error = error;
+        }
+
+        public String getName() { return name; }
+        public long getDurationMs() { return durationMs; }
+        public String getMessage() { return message; }
+        public Throwable getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
+}
@@ -0,0 +1,134 @@
+package com.pragmite.output;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.profiling.LatencyHistogram;
+import com.pragmite.profiling.ProfileReport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Writes the pipeline metrics of an analysis in the Prometheus text exposition format.
+ *
+ * Phase histograms become summaries ({@code pragmite_phase_duration_seconds} with
+ * quantiles 0.5/0.9/0.99, plus max), counters become {@code pragmite_<name>_total} and report
+ * sinks become gauges. The file is replaced atomically, so it can be picked up by the
+ * node_exporter textfile collector after every run.
+ */
+public class PrometheusMetricsWriter {
+
+    private static final String PREFIX = "pragmite_";
+
+    /**
+     * Writes the metrics to a file, replacing it atomically where supported.
+     */
+    public void write(AnalysisResult result, Path outputPath) throws IOException {
+        Path target = outputPath.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            Files.writeString(temp, toText(result), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Metrics of an analysis in Prometheus text format.
+     */
+    public String toText(AnalysisResult result) {
+        StringBuilder sb = new StringBuilder();
+        header(sb, "analysis_duration_seconds", "gauge", "Wall time of the last analysis.");
+        sample(sb, "analysis_duration_seconds", "", result.getAnalysisDurationMs() / 1000.0);
+        header(sb, "analyzed_files", "gauge", "Java files in the last analysis.");
+        sample(sb, "analyzed_files", "", result.getTotalFiles());
+        header(sb, "code_smells", "gauge", "Code smells found by the last analysis.");
+        sample(sb, "code_smells", "", result.getCodeSmells().size());
+
+        ProfileReport report = result.getProfileReport();
+        if (report == null) {
+            return sb.toString();
+        }
+
+        if (!report.getPhaseHistograms().isEmpty()) {
+            header(sb, "phase_duration_seconds", "summary", "Duration of each run of an analysis phase.");
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : report.getPhaseHistograms().entrySet()) {
+                LatencyHistogram.Snapshot h = entry.getValue();
+                String phase = label("phase", entry.getKey());
+                sample(sb, "phase_duration_seconds", phase + ",quantile=\"0.5\"", h.p50Ms() / 1000.0);
+                sample(sb, "phase_duration_seconds", phase + ",quantile=\"0.9\"", h.p90Ms() / 1000.0);
+                sample(sb, "phase_duration_seconds", phase + ",quantile=\"0.99\"", h.p99Ms() / 1000.0);
+                sample(sb, "phase_duration_seconds_sum", phase, h.totalMs() / 1000.0);
+                sample(sb, "phase_duration_seconds_count", phase, h.count());
+            }
+            header(sb, "phase_duration_max_seconds", "gauge", "Longest run of an analysis phase.");
+            report.getPhaseHistograms().forEach((name, h) ->
+                sample(sb, "phase_duration_max_seconds", label("phase", name), h.maxMs() / 1000.0));
+        }
+
+        if (!report.getPhaseTimings().isEmpty()) {
+            header(sb, "phase_total_seconds", "gauge", "Total time spent in an analysis phase.");
+            report.getPhaseTimings().forEach((name, ms) ->
+                sample(sb, "phase_total_seconds", label("phase", name), ms / 1000.0));
+        }
+
+        if (!report.getReportTimings().isEmpty()) {
+            header(sb, "report_duration_seconds", "gauge", "Time to write a report sink.");
+            report.getReportTimings().forEach((sink, ms) ->
+                sample(sb, "report_duration_seconds", label("sink", sink), ms / 1000.0));
+        }
+
+        for (Map.Entry<String, Long> counter : report.getCounters().entrySet()) {
+            String name = metricName(counter.getKey()) + "_total";
+            header(sb, name, "counter", "Analysis counter " + counter.getKey() + ".");
+            sample(sb, name, "", counter.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Converts a camelCase name to a Prometheus metric name, e.g. bytesRead to bytes_read.
+     */
+    static String metricName(String name) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                sb.append('_').append(Character.toLowerCase(c));
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else {
+                sb.append('_');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String label(String name, String value) {
+        String escaped = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return name + "=\"" + escaped + "\"";
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value == Math.rint(value) && Math.abs(value) < 1e15
+            ? Long.toString((long) value) : Double.toString(value)).append('\n');
+    }
+}
@@ -0,0 +1,349 @@
+package com.pragmite.output;
+
+import com.google.gson.stream.JsonWriter;
+import com.pragmite.analyzer.AnalysisListener;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.Severity;
+import com.pragmite.util.PragmiteVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming SARIF 2.1.0 writer for code-scanning dashboards.
+ *
+ * Results are written as each file finishes, so the document is never built in memory:
+ * only the smells of the current file are kept for de-duplication, plus a count of streamed
+ * smells per file. Smells added to a file later (cross-file clones) are written when the
+ * analysis completes, before the results array is closed. Rules are taken from
+ * {@link CodeSmellType}, locations use URIs relative to the {@code SRCROOT} base id and
+ * every result carries a line-independent fingerprint so dashboards can track it across runs.
+ * <pre>
+ * {"version":"2.1.0","runs":[{"tool":{...rules...},"originalUriBaseIds":{...},
+ *   "results":[ ...one result per smell, streamed... ],
+ *   "invocations":[...],"properties":{...summary...}}]}
+ * </pre>
+ */
+public class SarifReportWriter implements AnalysisListener, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SarifReportWriter.class);
+
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String TOOL_NAME = "Pragmite";
+    private static final String TOOL_URI = "https://github.com/n0tnow/Pragmite";
+    private static final String SRCROOT = "SRCROOT";
+    static final String FINGERPRINT_KEY = "pragmite/v1";
+
+    private final JsonWriter json;
+    private final MessageDigest digest;
+
+    private Path projectRoot;
+    private final Map<String, Integer> streamedSmells = new HashMap<>();  // Per file path
+    private int resultCount;
+    private int duplicateCount;
+    private boolean started;
+    private boolean finished;
+    private IOException failure;
+
+    public SarifReportWriter(Writer out) {
+        this.json = new JsonWriter(out);
+        this.json.setHtmlSafe(false);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public synchronized void onAnalysisStart(String projectPath, int totalFiles) {
+        projectRoot = Path.of(projectPath).toAbsolutePath().normalize();
+        write(() -> {
+            json.beginObject();
+            json.name("version").value("2.1.0");
+            json.name("$schema").value(SCHEMA);
+            json.name("runs").beginArray();
+            json.beginObject();
+            writeTool();
+            json.name("originalUriBaseIds").beginObject();
+            json.name(SRCROOT).beginObject();
+            json.name("uri").value(projectRoot.toUri().toString());
+            json.endObject();
+            json.endObject();
+            json.name("columnKind").value("unicodeCodePoints");
+            json.name("results").beginArray();
+        });
+        started = true;
+    }
+
+    @Override
+    public synchronized void onFileAnalyzed(FileAnalysis analysis, int completed, int total) {
+        if (!started || analysis.getSmells().isEmpty()) {
+            return;
+        }
+        List<CodeSmell> smells = analysis.getSmells();
+        write(() -> {
+            writeResults(analysis.getFilePath(), smells, 0);
+            json.flush();
+        });
+        streamedSmells.put(analysis.getFilePath(), smells.size());
+    }
+
+    @Override
+    public synchronized void onAnalysisComplete(AnalysisResult result) {
+        if (!started || finished) {
+            return;
+        }
+        write(() -> {
+            // Smells added after the file was streamed, such as clones shared with other files
+            for (FileAnalysis analysis : result.getFileAnalyses()) {
+                List<CodeSmell> smells = analysis.getSmells();
+                int streamed = streamedSmells.getOrDefault(analysis.getFilePath(), 0);
+                if (smells.size() > streamed) {
+                    writeResults(analysis.getFilePath(), smells, streamed);
+                }
+            }
+            streamedSmells.clear();
+            json.endArray();
+
+            json.name("invocations").beginArray();
+            json.beginObject();
+            json.name("executionSuccessful").value(true);
+            json.endObject();
+            json.endArray();
+
+            json.name("properties").beginObject();
+            json.name("totalFiles").value(result.getTotalFiles());
+            json.name("totalLines").value(result.getTotalLines());
+            json.name("analysisDurationMs").value(result.getAnalysisDurationMs());
+            if (result.getQualityScore() != null) {
+                json.name("qualityScore").value(result.getQualityScore().getOverallScore());
+                json.name("qualityGrade").value(result.getQualityScore().getGrade());
+            }
+            json.endObject();
+
+            json.endObject();
+            json.endArray();
+            json.endObject();
+            json.flush();
+        });
+        finished = true;
+        logger.info("SARIF report written: {} results ({} duplicates skipped)", resultCount, duplicateCount);
+    }
+
+    /**
+     * Closes the underlying writer and reports the first write error, if any.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        json.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public synchronized int getResultCount() {
+        return resultCount;
+    }
+
+    public synchronized int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Writes the results of one file's smells from index {@code from} on. Earlier smells are
+     * only replayed into the per-file state, so identical smells are dropped and repeated ones
+     * get the same occurrence index as if the whole list had been written at once.
+     */
+    private void writeResults(String filePath, List<CodeSmell> smells, int from) throws IOException {
+        Set<String> seen = new HashSet<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < smells.size(); i++) {
+            CodeSmell smell = smells.get(i);
+            String uri = relativeUri(smell.getFilePath() != null ? smell.getFilePath() : filePath);
+            String baseFingerprint = fingerprint(smell, uri);
+            boolean written = i >= from;
+            if (!seen.add(baseFingerprint + "@" + smell.getStartLine() + "-" + smell.getEndLine())) {
+                if (written) {
+                    duplicateCount++;
+                }
+                continue;
+            }
+            int occurrence = occurrences.merge(baseFingerprint, 1, Integer::sum);
+            if (written) {
+                writeResult(smell, uri, baseFingerprint + ":" + occurrence);
+                resultCount++;
+            }
+        }
+    }
+
+    private void writeTool() throws IOException {
+        json.name("tool").beginObject();
+        json.name("driver").beginObject();
+        json.name("name").value(TOOL_NAME);
+        json.name("version").value(PragmiteVersion.VERSION);
+        json.name("informationUri").value(TOOL_URI);
+        json.name("rules").beginArray();
+        for (CodeSmellType type : CodeSmellType.values()) {
+            json.beginObject();
+            json.name("id").value(type.name());
+            json.name("name").value(type.getName().replaceAll("[^A-Za-z0-9]", ""));
+            json.name("shortDescription").beginObject().name("text").value(type.getName()).endObject();
+            json.name("fullDescription").beginObject().name("text").value(type.getDescription()).endObject();
+            json.name("defaultConfiguration").beginObject()
+                .name("level").value(level(type.getDefaultSeverity()))
+                .endObject();
+            json.name("properties").beginObject();
+            json.name("tags").beginArray().value(type.getPragmaticPrinciple().getName()).endArray();
+            json.name("severity").value(type.getDefaultSeverity().name());
+            json.endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.endObject();
+    }
+
+    private void writeResult(CodeSmell smell, String uri, String fingerprint) throws IOException {
+        CodeSmellType type = smell.getType();
+        Severity severity = smell.getSeverity() != null ? smell.getSeverity()
+            : type != null ? type.getDefaultSeverity() : Severity.INFO;
+
+        json.beginObject();
+        if (type != null) {
+            json.name("ruleId").value(type.name());
+            json.name("ruleIndex").value(type.ordinal());
+        }
+        json.name("level").value(level(severity));
+        json.name("message").beginObject().name("text").value(message(smell)).endObject();
+
+        json.name("locations").beginArray();
+        json.beginObject();
+        json.name("physicalLocation").beginObject();
+        json.name("artifactLocation").beginObject();
+        json.name("uri").value(uri);
+        json.name("uriBaseId").value(SRCROOT);
+        json.endObject();
+        if (smell.getStartLine() > 0) {
+            json.name("region").beginObject();
+            json.name("startLine").value(smell.getStartLine());
+            if (smell.getEndLine() >= smell.getStartLine()) {
+                json.name("endLine").value(smell.getEndLine());
+            }
+            json.endObject();
+        }
+        json.endObject();
+        if (smell.getAffectedElement() != null) {
+            json.name("logicalLocations").beginArray();
+            json.beginObject().name("name").value(smell.getAffectedElement()).endObject();
+            json.endArray();
+        }
+        json.endObject();
+        json.endArray();
+
+        json.name("partialFingerprints").beginObject();
+        json.name(FINGERPRINT_KEY).value(fingerprint);
+        json.endObject();
+
+        json.name("properties").beginObject();
+        json.name("severity").value(severity.name());
+        json.name("autoFixAvailable").value(smell.isAutoFixAvailable());
+        json.endObject();
+        json.endObject();
+    }
+
+    private static String message(CodeSmell smell) {
+        String description = smell.getDescription() != null ? smell.getDescription()
+            : smell.getType() != null ? smell.getType().getDescription() : "";
+        if (smell.getSuggestion() != null && !smell.getSuggestion().isBlank()) {
+            return description + " " + smell.getSuggestion();
+        }
+        return description;
+    }
+
+    /**
+     * Line-independent fingerprint: rule, file, element and message, so that results
+     * survive unrelated edits that only shift line numbers.
+     */
+    private String fingerprint(CodeSmell smell, String uri) {
+        digest.reset();
+        update(smell.getType() != null ? smell.getType().name() : "");
+        update(uri);
+        update(smell.getAffectedElement());
+        update(smell.getDescription());
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private void update(String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Returns the file path as a percent-encoded URI relative to the project root.
+     */
+    String relativeUri(String filePath) {
+        if (filePath == null) {
+            return "";
+        }
+        Path path = Path.of(filePath).toAbsolutePath().normalize();
+        String relative = path.startsWith(projectRoot)
+            ? projectRoot.relativize(path).toString()
+            : path.toString();
+        relative = relative.replace('\\', '/');
+        try {
+            return new URI(null, null, relative, null).getRawPath();
+        } catch (URISyntaxException e) {
+            return relative;
+        }
+    }
+
+    static String level(Severity severity) {
+        switch (severity) {
+            case BLOCKER:
+            case CRITICAL:
+                return "error";
+            case MAJOR:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+
+    private void write(JsonAction action) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (IOException e) {
+            failure = e;
+            logger.error("Failed to write SARIF report", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+package com.pragmite.performance;
+
+import com.pragmite.scanner.OptimizedFileScanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the parallel file scanner with the single-threaded walker it replaced on a
+ * generated tree of 200,000 entries (Java sources, resources, build output and files
+ * excluded by .gitignore).
+ *
+ * Run with {@code java -cp ... com.pragmite.performance.FileScannerBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class FileScannerBenchmark {
+
+    private static final int TREE_ENTRIES = 200_000;
+    private static final int FILES_PER_PACKAGE = 200;
+
+    @Param({"walkFileTree", "parallel"})
+    public String scanner;
+
+    private Path treeDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        treeDir = Files.createTempDirectory("pragmite-scanner-benchmark");
+        generateTree(treeDir, TREE_ENTRIES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(treeDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Benchmark: Find the Java files of the tree.
+     */
+    @Benchmark
+    public int benchmarkScan() throws IOException {
+        if ("parallel".equals(scanner)) {
+            return new OptimizedFileScanner().scanJavaFiles(treeDir).size();
+        }
+        return walkFileTree(treeDir).size();
+    }
+
+    /**
+     * The walker the parallel scanner replaced: single-threaded, without .gitignore support.
+     */
+    static List<Path> walkFileTree(Path rootPath) throws IOException {
+        List<Path> javaFiles = new ArrayList<>();
+
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String pathStr = file.toString();
+                if (pathStr.endsWith(".java") && !pathStr.contains("build") && !pathStr.contains("target")) {
+                    javaFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String dirName = dir.getFileName().toString();
+                if (dirName.startsWith(".") || dirName.equals("build") || dirName.equals("target") || dirName.equals("node_modules")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return javaFiles;
+    }
+
+    /**
+     * Writes a multi-module tree with about the given number of files and directories.
+     * Every package has Java sources, a resource and a generated source ignored by the
+     * root .gitignore; every module has build output in target/.
+     *
+     * @return Number of entries written
+     */
+    static int generateTree(Path root, int entries) throws IOException {
+        Files.writeString(root.resolve(".gitignore"), "*.gen.java\n/logs/\n");
+        int written = 1;
+        for (int module = 0; written < entries; module++) {
+            Path moduleDir = root.resolve("modules/module" + module);
+            Path target = Files.createDirectories(moduleDir.resolve("target/classes"));
+            for (int i = 0; i < FILES_PER_PACKAGE / 4 && written < entries; i++) {
+                Files.createFile(target.resolve("Out" + i + ".class"));
+                written++;
+            }
+            for (int pkg = 0; pkg < 10 && written < entries; pkg++) {
+                Path packageDir = Files.createDirectories(moduleDir.resolve("src/main/java/com/example/pkg" + pkg));
+                written++;
+                for (int i = 0; i < FILES_PER_PACKAGE && written < entries; i++) {
+                    String name = switch (i % 10) {
+                        case 8 -> "Generated" + i + ".gen.java";
+                        case 9 -> "messages" + i + ".properties";
+                        default -> "Service" + i + ".java";
+                    };
+                    Files.createFile(packageDir.resolve(name));
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(FileScannerBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
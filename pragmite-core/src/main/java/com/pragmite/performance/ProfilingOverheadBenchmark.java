@@ -0,0 +1,297 @@
+package com.pragmite.performance;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.profiling.LatencyHistogram;
+import com.pragmite.profiling.PhaseTimer;
+import com.pragmite.profiling.ProfileReport;
+import com.pragmite.profiling.ProfilingLevel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the overhead of each self-profiling tier and checks it against the tier's
+ * budget ({@link ProfilingLevel#getOverheadBudget()}).
+ *
+ * The JFR tiers are measured on a full project analysis. A run-to-run noise of 10-30% is
+ * usual there, so a tier counts as confirmed only if the noise is below its budget. The
+ * light tier adds nothing but phase timers and counters, which would be lost in that noise;
+ * its overhead is computed from the cost of one call ({@link Bookkeeping}) times the calls
+ * made by a light analysis of the same project.
+ *
+ * Run with {@code java -cp ... com.pragmite.performance.ProfilingOverheadBenchmark};
+ * exits with 1 if a tier exceeds its budget.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+// One analysis takes about two seconds; with fewer iterations the JIT is still warming up and results vary by ±100%
+@Warmup(iterations = 10, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ProfilingOverheadBenchmark {
+
+    private static final int PROJECT_FILES = 200;
+
+    @Param({"off", "light", "sampling", "deep"})
+    public String level;
+
+    private Path projectDir;
+    private ProjectAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("pragmite-profiling-benchmark");
+        generateProject(projectDir, PROJECT_FILES);
+        analyzer = new ProjectAnalyzer(projectDir).withProfilingLevel(ProfilingLevel.parse(level));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        deleteTree(projectDir);
+    }
+
+    /**
+     * Benchmark: Full project analysis at the profiling tier.
+     */
+    @Benchmark
+    public AnalysisResult benchmarkAnalysis() throws IOException {
+        return analyzer.analyze();
+    }
+
+    /**
+     * The light tier's bookkeeping on its own: a timed phase with a counter update, and
+     * the node count taken for each parsed file. One call takes nanoseconds, so its cost is
+     * measured far more precisely than the difference between two project analyses.
+     */
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @State(Scope.Benchmark)
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public static class Bookkeeping {
+
+        private final PhaseTimer enabled = new PhaseTimer(true);
+        private final PhaseTimer disabled = new PhaseTimer(false);
+        private CompilationUnit unit;
+        private int value;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            unit = new JavaParser().parse(generateClass(0)).getResult().orElseThrow();
+        }
+
+        @Benchmark
+        public int timedPhase() {
+            return phase(enabled);
+        }
+
+        @Benchmark
+        public int untimedPhase() {
+            return phase(disabled);
+        }
+
+        @Benchmark
+        public long countNodes() {
+            return unit.stream().count();
+        }
+
+        private int phase(PhaseTimer timer) {
+            int result = timer.time("phase", () -> value + 1);
+            timer.count("counter", 1);
+            return result;
+        }
+    }
+
+    /**
+     * Light tier overhead of one project analysis, from the cost of its bookkeeping.
+     *
+     * @param profile Profile of a light analysis of the project, for its phase and file counts
+     * @param phaseNs Cost of one timed phase with a counter update
+     * @param nodeCountNs Cost of counting the nodes of one file
+     */
+    public static double lightOverheadMs(ProfileReport profile, double phaseNs, double nodeCountNs) {
+        long phases = profile.getPhaseHistograms().values().stream()
+            .mapToLong(LatencyHistogram.Snapshot::count)
+            .sum();
+        long files = profile.getCounters().getOrDefault("files", 0L);
+        return (phases * phaseNs + files * nodeCountNs) / 1_000_000.0;
+    }
+
+    static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Writes a project of generated classes with a mix of long methods and branches.
+     */
+    static void generateProject(Path root, int fileCount) throws IOException {
+        Path sourceDir = Files.createDirectories(root.resolve("src/main/java/com/example/bench"));
+        for (int i = 0; i < fileCount; i++) {
+            Files.writeString(sourceDir.resolve("Service" + i + ".java"), generateClass(i));
+        }
+    }
+
+    private static String generateClass(int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.example.bench;\n\n");
+        sb.append("import java.util.*;\n\n");
+        sb.append("public class Service").append(i).append(" {\n");
+        sb.append("    private final List<String> items = new ArrayList<>();\n\n");
+        for (int m = 0; m < 8; m++) {
+            sb.append("    public int method").append(m).append("(int a, int b, String s) {\n");
+            sb.append("        int x = 0;\n");
+            sb.append("        for (int j = 0; j < a; j++) {\n");
+            sb.append("            if (j % 3 == 0 && b > j) {\n");
+            sb.append("                x += j * b;\n");
+            sb.append("            } else if (s != null) {\n");
+            sb.append("                items.add(s + j);\n");
+            sb.append("            } else {\n");
+            sb.append("                x -= j;\n");
+            sb.append("            }\n");
+            sb.append("        }\n");
+            sb.append("        return x;\n");
+            sb.append("    }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Compares each tier's average time with OFF.
+     *
+     * @param averageMs Average analysis time per tier; must contain OFF
+     * @return Budget violations, empty if every tier is within its budget
+     */
+    public static List<String> checkBudgets(Map<ProfilingLevel, Double> averageMs) {
+        Double baseline = averageMs.get(ProfilingLevel.OFF);
+        if (baseline == null || baseline <= 0) {
+            throw new IllegalArgumentException("Measurement for profiling level off is required");
+        }
+
+        List<String> violations = new ArrayList<>();
+        averageMs.forEach((level, ms) -> {
+            double overhead = ms / baseline - 1.0;
+            if (overhead > level.getOverheadBudget()) {
+                violations.add(String.format("%s: %.1f%% overhead exceeds budget of %.1f%% (%.1f ms vs %.1f ms)",
+                    level, overhead * 100, level.getOverheadBudget() * 100, ms, baseline));
+            }
+        });
+        return violations;
+    }
+
+    /**
+     * Runs the benchmarks and checks the overhead budgets.
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ProfilingOverheadBenchmark.class.getSimpleName())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<ProfilingLevel, Double> averageMs = new EnumMap<>(ProfilingLevel.class);
+        Map<ProfilingLevel, Double> errorMs = new EnumMap<>(ProfilingLevel.class);
+        Map<String, Double> bookkeepingNs = new HashMap<>();
+        Map<String, Double> bookkeepingErrorNs = new HashMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            if (benchmark.contains(".Bookkeeping.")) {
+                String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+                bookkeepingNs.put(method, result.getPrimaryResult().getScore());
+                bookkeepingErrorNs.put(method, result.getPrimaryResult().getScoreError());
+            } else {
+                ProfilingLevel level = ProfilingLevel.parse(result.getParams().getParam("level"));
+                averageMs.put(level, result.getPrimaryResult().getScore());
+                errorMs.put(level, result.getPrimaryResult().getScoreError());
+            }
+        }
+
+        // The light tier is judged by its bookkeeping cost, not by the end-to-end difference
+        double phaseNs = bookkeepingNs.get("timedPhase") - bookkeepingNs.get("untimedPhase");
+        double phaseErrorNs = bookkeepingErrorNs.get("timedPhase") + bookkeepingErrorNs.get("untimedPhase");
+        ProfileReport profile = lightProfile();
+        double baseline = averageMs.get(ProfilingLevel.OFF);
+        double lightMs = lightOverheadMs(profile, phaseNs, bookkeepingNs.get("countNodes"));
+        double lightErrorMs = lightOverheadMs(profile, phaseErrorNs, bookkeepingErrorNs.get("countNodes"));
+        Map<ProfilingLevel, Double> budgeted = new EnumMap<>(averageMs);
+        budgeted.put(ProfilingLevel.LIGHT, baseline + lightMs);
+        List<String> violations = checkBudgets(budgeted);
+
+        boolean conclusive = true;
+        for (Map.Entry<ProfilingLevel, Double> entry : averageMs.entrySet()) {
+            ProfilingLevel level = entry.getKey();
+            double budget = level == ProfilingLevel.LIGHT ? Double.NaN : level.getOverheadBudget();
+            conclusive &= printLine(level.toString(), entry.getValue(), errorMs.get(level),
+                baseline, errorMs.get(ProfilingLevel.OFF), budget);
+        }
+        // The baseline only scales the small overhead, so its noise hardly matters here
+        conclusive &= printLine("light*", baseline + lightMs, lightErrorMs, baseline, 0,
+            ProfilingLevel.LIGHT.getOverheadBudget());
+        System.out.printf("light* = off + %.0f ns per phase and %.0f ns per file for %d phases and %d files%n",
+            phaseNs, bookkeepingNs.get("countNodes"),
+            profile.getPhaseHistograms().values().stream().mapToLong(LatencyHistogram.Snapshot::count).sum(),
+            profile.getCounters().getOrDefault("files", 0L));
+
+        if (!violations.isEmpty()) {
+            violations.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println(conclusive
+            ? "All profiling levels are within their overhead budgets"
+            : "No budget exceeded, but the noise is too high to confirm every budget; rerun on a quieter machine");
+    }
+
+    /**
+     * Profile of a light analysis of the benchmark project.
+     */
+    private static ProfileReport lightProfile() throws IOException {
+        Path projectDir = Files.createTempDirectory("pragmite-profiling-benchmark");
+        try {
+            generateProject(projectDir, PROJECT_FILES);
+            return new ProjectAnalyzer(projectDir).withProfilingLevel(ProfilingLevel.LIGHT).analyze().getProfileReport();
+        } finally {
+            deleteTree(projectDir);
+        }
+    }
+
+    /**
+     * Prints one measurement against its baseline.
+     *
+     * @param budget Overhead budget the line is judged by, NaN if it is only informational
+     * @return Whether the noise is small enough to tell the overhead from the budget
+     */
+    private static boolean printLine(String label, double ms, double errorMs,
+                                     double baseline, double baselineErrorMs, double budget) {
+        // The 99.9% interval of both runs must be narrower than the budget to tell them apart
+        double noise = (errorMs + baselineErrorMs) / baseline;
+        boolean resolvable = Double.isNaN(budget) || budget == 0 || noise <= budget;
+        System.out.printf("%-10s %10.1f +/- %6.1f ms %+7.1f%%%s%s%n",
+            label, ms, errorMs, (ms / baseline - 1.0) * 100,
+            Double.isNaN(budget) ? " (end to end, judged as light*)" : String.format(" (budget +%.0f%%)", budget * 100),
+            resolvable ? "" : String.format(", noise +/-%.0f%% exceeds budget", noise * 100));
+        return resolvable;
+    }
+}
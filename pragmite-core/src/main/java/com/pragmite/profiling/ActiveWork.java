@@ -0,0 +1,75 @@
+package com.pragmite.profiling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What each thread is working on (e.g. the file being analyzed), so profilers can
+ * attribute CPU samples of a thread to that work.
+ *
+ * Usage:
+ * <pre>
+ * FileAnalysis analysis = ActiveWork.call(file.toString(), () -> analyze(file));
+ * </pre>
+ */
+public final class ActiveWork {
+
+    private static final Map<Long, String> WORK_BY_THREAD = new ConcurrentHashMap<>();
+
+    private ActiveWork() {
+    }
+
+    /**
+     * Restores the previous work of the thread when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Marks the current thread as working on the given item until the scope is closed.
+     * Prefer {@link #call} and {@link #run}, which need no unused try resource.
+     */
+    public static Scope begin(String work) {
+        long threadId = Thread.currentThread().threadId();
+        String previous = WORK_BY_THREAD.put(threadId, work);
+        return () -> {
+            if (previous != null) {
+                WORK_BY_THREAD.put(threadId, previous);
+            } else {
+                WORK_BY_THREAD.remove(threadId);
+            }
+        };
+    }
+
+    /**
+     * Runs the body as the given work and returns its result.
+     */
+    public static <T, E extends Exception> T call(String work, PhaseTimer.Timed<T, E> body) throws E {
+        Scope scope = begin(work);
+        try {
+            return body.get();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Runs the body as the given work.
+     */
+    public static <E extends Exception> void run(String work, PhaseTimer.TimedAction<E> body) throws E {
+        call(work, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Work of a thread, or null if it is not working on anything known.
+     */
+    public static String of(long threadId) {
+        return WORK_BY_THREAD.get(threadId);
+    }
+}
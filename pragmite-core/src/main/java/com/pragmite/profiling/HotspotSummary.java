@@ -0,0 +1,38 @@
+package com.pragmite.profiling;
+
+import java.util.List;
+
+/**
+ * Compact summary of one live profiling window: where CPU samples landed, GC pauses and
+ * allocation rate. Sent to dashboards while an analysis is running.
+ *
+ * @param windowStart Start of the window (epoch ms)
+ * @param windowMs Window length in ms
+ * @param cpuSamples Execution samples in the window
+ * @param topMethods Pragmite methods with the most samples (e.g. "GodClassDetector.detect")
+ * @param topFiles Files being worked on by the sampled threads
+ * @param gcCount Garbage collections in the window
+ * @param gcPauseMs Total GC pause time in ms
+ * @param allocationRateMBps Estimated allocation rate in MB/s
+ */
+public record HotspotSummary(
+    long windowStart,
+    long windowMs,
+    long cpuSamples,
+    List<Hotspot> topMethods,
+    List<Hotspot> topFiles,
+    int gcCount,
+    double gcPauseMs,
+    double allocationRateMBps
+) {
+
+    /**
+     * A method or file and its share of the window's execution samples.
+     *
+     * @param name Method or file name
+     * @param samples Execution samples
+     * @param percentage Share of all samples in the window (0-100)
+     */
+    public record Hotspot(String name, long samples, double percentage) {
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
@@ -15,6 +16,10 @@ import java.util.*;
  * Java Flight Recorder (JFR) integration for runtime performance profiling.
  * Captures CPU usage, memory allocation, method calls, and hotspots.
  *
+ * Records at one of two {@link ProfilingLevel} tiers: DEEP (10 ms execution samples and
+ * every TLAB allocation event, recording kept in the working directory) or SAMPLING
+ * (20 ms execution samples and throttled allocation samples, recording deleted after analysis).
+ *
  * Usage:
  * <pre>
  * JfrProfiler profiler = new JfrProfiler();
@@ -26,8 +31,12 @@ import java.util.*;
 public class JfrProfiler {
     private static final Logger logger = LoggerFactory.getLogger(JfrProfiler.class);
 
+    private static final long SAMPLING_PERIOD_MS = 20;
+    private static final int ALLOCATION_SAMPLES_PER_SECOND = 100;
+
     private Recording recording;
     private Path recordingFile;
+    private ProfilingLevel level = ProfilingLevel.DEEP;
 
     /**
      * Starts JFR recording with default settings.
@@ -40,22 +49,40 @@ public class JfrProfiler {
      * Starts JFR recording with specified max duration.
      */
     public void start(Duration maxDuration) throws IOException {
-        logger.info("Starting JFR recording...");
-
-        recording = new Recording();
+        start(ProfilingLevel.DEEP, maxDuration);
+    }
 
-        // Enable CPU profiling
-        recording.enable("jdk.CPULoad").withPeriod(Duration.ofSeconds(1));
-        recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+    /**
+     * Starts JFR recording for a profiling tier (SAMPLING or DEEP).
+     */
+    public void start(ProfilingLevel level, Duration maxDuration) throws IOException {
+        if (!level.usesJfr()) {
+            throw new IllegalArgumentException("Profiling level " + level + " does not use JFR");
+        }
+        logger.info("Starting JFR recording ({})...", level);
 
-        // Enable memory profiling
-        recording.enable("jdk.ObjectAllocationInNewTLAB");
-        recording.enable("jdk.ObjectAllocationOutsideTLAB");
-        recording.enable("jdk.GCHeapSummary");
+        this.level = level;
+        recording = new Recording();
 
-        // Enable method profiling
-        recording.enable("jdk.JavaMethodStatistics");
-        recording.enable("jdk.CompilerStatistics");
+        if (level == ProfilingLevel.DEEP) {
+            // Enable CPU profiling
+            recording.enable("jdk.CPULoad").withPeriod(Duration.ofSeconds(1));
+            recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+
+            // Enable memory profiling
+            recording.enable("jdk.ObjectAllocationInNewTLAB");
+            recording.enable("jdk.ObjectAllocationOutsideTLAB");
+            recording.enable("jdk.GCHeapSummary");
+
+            // Enable method profiling
+            recording.enable("jdk.JavaMethodStatistics");
+            recording.enable("jdk.CompilerStatistics");
+        } else {
+            // Coarse CPU sampling and a fixed number of allocation samples per second
+            recording.enable("jdk.CPULoad").withPeriod(Duration.ofSeconds(1));
+            recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(SAMPLING_PERIOD_MS));
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", ALLOCATION_SAMPLES_PER_SECOND + "/s");
+        }
 
         // Set max duration to prevent runaway recordings
         recording.setMaxAge(maxDuration);
@@ -77,15 +104,29 @@ public class JfrProfiler {
 
         logger.info("Stopping JFR recording...");
 
-        // Stop and dump to file
-        recordingFile = Path.of("pragmite-profile-" + System.currentTimeMillis() + ".jfr");
+        // Stop and dump to file; only deep recordings are kept for inspection (e.g. in JMC)
+        if (level == ProfilingLevel.DEEP) {
+            recordingFile = Path.of("pragmite-profile-" + System.currentTimeMillis() + ".jfr");
+        } else {
+            recordingFile = Files.createTempFile("pragmite-profile-", ".jfr");
+        }
         recording.dump(recordingFile);
         recording.close();
+        recording = null;
 
         logger.info("JFR recording saved to: {}", recordingFile);
 
         // Analyze the recording
-        return analyzeRecording(recordingFile);
+        try {
+            ProfileReport report = analyzeRecording(recordingFile);
+            report.setLevel(level);
+            return report;
+        } finally {
+            if (level != ProfilingLevel.DEEP) {
+                cleanup();
+                recordingFile = null;
+            }
+        }
     }
 
     /**
@@ -122,9 +163,11 @@ public class JfrProfiler {
 
                     case "jdk.ObjectAllocationInNewTLAB":
                     case "jdk.ObjectAllocationOutsideTLAB":
-                        // Memory allocation hotspot
-                        if (event.hasField("allocationSize")) {
-                            long size = event.getLong("allocationSize");
+                    case "jdk.ObjectAllocationSample":
+                        // Memory allocation hotspot (samples carry the bytes they stand for as weight)
+                        String sizeField = event.hasField("allocationSize") ? "allocationSize" : "weight";
+                        if (event.hasField(sizeField)) {
+                            long size = event.getLong(sizeField);
                             String stackTrace = event.getStackTrace() != null
                                 ? event.getStackTrace().toString()
                                 : "unknown";
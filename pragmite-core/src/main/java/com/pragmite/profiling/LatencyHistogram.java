@@ -0,0 +1,131 @@
+package com.pragmite.profiling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with nanosecond resolution.
+ *
+ * Values are counted in log-linear buckets: every power of two is split into 32 linear
+ * sub-buckets, so percentiles are exact below 32 ns and within about 3% above, from
+ * nanoseconds to days, in a fixed 15 KB array. Recording is one array increment and can be
+ * done from any number of threads; the maximum is kept exactly.
+ *
+ * Usage:
+ * <pre>
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * histogram.record(System.nanoTime() - start);
+ * LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+ * </pre>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Percentiles of a histogram at some point, in milliseconds.
+     *
+     * @param count Number of recorded values
+     * @param totalMs Sum of all values
+     * @param p50Ms Median
+     * @param p90Ms 90th percentile
+     * @param p99Ms 99th percentile
+     * @param maxMs Largest value
+     */
+    public record Snapshot(long count, double totalMs, double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+
+        public double meanMs() {
+            return count == 0 ? 0.0 : totalMs / count;
+        }
+    }
+
+    /**
+     * Records a duration in nanoseconds. Negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of all recorded values, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Value below which the given fraction of recorded values fall, in nanoseconds.
+     *
+     * @param fraction Between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return The percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1: " + fraction);
+        }
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(midpointOf(i), getMaxNanos());
+            }
+        }
+        // Values recorded while scanning
+        return getMaxNanos();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(getCount(), toMillis(getTotalNanos()), toMillis(percentile(0.50)),
+            toMillis(percentile(0.90)), toMillis(percentile(0.99)), toMillis(getMaxNanos()));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Middle of the value range counted in a bucket.
+     */
+    static long midpointOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,227 @@
+package com.pragmite.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Live JFR profiling with {@link RecordingStream}: hotspots are summarized while the
+ * analysis is running instead of after the recording is dumped.
+ *
+ * Execution samples, GC pauses and allocation samples are aggregated into fixed windows
+ * (default 2 s). At the end of each window a {@link HotspotSummary} with the top Pragmite
+ * methods, the files the sampled threads were working on ({@link ActiveWork}), GC pauses
+ * and the allocation rate is passed to the listener, e.g. a WebSocket broadcast.
+ *
+ * Events are handled on the stream's own thread, so the aggregation needs no locking.
+ *
+ * Usage:
+ * <pre>
+ * try (LiveProfiler profiler = new LiveProfiler(summary -> server.broadcastHotspots(summary))) {
+ *     profiler.start();
+ *     // ... run analysis ...
+ * }
+ * </pre>
+ */
+public class LiveProfiler implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LiveProfiler.class);
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(2);
+    private static final Duration SAMPLING_PERIOD = Duration.ofMillis(20);
+    private static final int ALLOCATION_SAMPLES_PER_SECOND = 100;
+    private static final int TOP_N = 5;
+    private static final int HISTORY_SIZE = 30;
+
+    private final Consumer<HotspotSummary> listener;
+    private final long windowMs;
+    private final Deque<HotspotSummary> history = new ArrayDeque<>();
+
+    private volatile RecordingStream stream;
+
+    // Current window (stream thread only)
+    private long windowStart;
+    private long samples;
+    private final Map<String, Long> methodSamples = new HashMap<>();
+    private final Map<String, Long> fileSamples = new HashMap<>();
+    private int gcCount;
+    private long gcPauseNanos;
+    private long allocatedBytes;
+
+    public LiveProfiler(Consumer<HotspotSummary> listener) {
+        this(listener, DEFAULT_WINDOW);
+    }
+
+    public LiveProfiler(Consumer<HotspotSummary> listener, Duration window) {
+        this.listener = listener;
+        this.windowMs = window.toMillis();
+    }
+
+    /**
+     * Starts streaming JFR events in the background.
+     */
+    public synchronized void start() {
+        if (stream != null) {
+            throw new IllegalStateException("Live profiling already started");
+        }
+
+        stream = new RecordingStream();
+        stream.enable("jdk.ExecutionSample").withPeriod(SAMPLING_PERIOD).withStackTrace();
+        stream.enable("jdk.GarbageCollection");
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", ALLOCATION_SAMPLES_PER_SECOND + "/s");
+        // Events are delivered about once per second; nothing older needs to be kept
+        stream.setMaxAge(Duration.ofSeconds(10));
+
+        stream.onEvent("jdk.ExecutionSample", this::onExecutionSample);
+        stream.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
+        stream.onEvent("jdk.ObjectAllocationSample", this::onAllocationSample);
+        stream.onFlush(this::onFlush);
+
+        windowStart = System.currentTimeMillis();
+        stream.startAsync();
+        logger.info("Live profiling started ({} ms windows)", windowMs);
+    }
+
+    /**
+     * Stops streaming and reports the last, partial window.
+     */
+    @Override
+    public void close() {
+        RecordingStream running;
+        synchronized (this) {
+            running = stream;
+            stream = null;
+        }
+        if (running == null) {
+            return;
+        }
+        // Not holding the lock: the stream thread may be reporting a window
+        running.close();
+        try {
+            running.awaitTermination(Duration.ofSeconds(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (samples > 0 || gcCount > 0 || allocatedBytes > 0) {
+            emit(System.currentTimeMillis());
+        }
+        logger.info("Live profiling stopped");
+    }
+
+    /**
+     * Summaries of the most recent windows, oldest first.
+     */
+    public synchronized List<HotspotSummary> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    void onExecutionSample(RecordedEvent event) {
+        samples++;
+        String method = topPragmiteMethod(event.getStackTrace());
+        if (method != null) {
+            methodSamples.merge(method, 1L, Long::sum);
+        }
+        RecordedThread thread = event.getThread("sampledThread");
+        if (thread != null) {
+            String work = ActiveWork.of(thread.getJavaThreadId());
+            if (work != null) {
+                fileSamples.merge(work, 1L, Long::sum);
+            }
+        }
+    }
+
+    void onGarbageCollection(RecordedEvent event) {
+        gcCount++;
+        gcPauseNanos += event.getDuration("sumOfPauses").toNanos();
+    }
+
+    void onAllocationSample(RecordedEvent event) {
+        // Each sample stands for "weight" bytes allocated since the previous sample
+        allocatedBytes += event.getLong("weight");
+    }
+
+    void onFlush() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= windowMs) {
+            emit(now);
+        }
+    }
+
+    /**
+     * Closes the current window, reports it and starts the next one.
+     */
+    private void emit(long now) {
+        long elapsedMs = Math.max(1, now - windowStart);
+        HotspotSummary summary = new HotspotSummary(
+            windowStart,
+            elapsedMs,
+            samples,
+            top(methodSamples, samples),
+            top(fileSamples, samples),
+            gcCount,
+            gcPauseNanos / 1_000_000.0,
+            allocatedBytes / (1024.0 * 1024.0) / (elapsedMs / 1000.0)
+        );
+
+        synchronized (this) {
+            history.addLast(summary);
+            if (history.size() > HISTORY_SIZE) {
+                history.removeFirst();
+            }
+        }
+
+        windowStart = now;
+        samples = 0;
+        methodSamples.clear();
+        fileSamples.clear();
+        gcCount = 0;
+        gcPauseNanos = 0;
+        allocatedBytes = 0;
+
+        try {
+            listener.accept(summary);
+        } catch (RuntimeException e) {
+            logger.warn("Hotspot listener failed", e);
+        }
+    }
+
+    /**
+     * Innermost Pragmite frame as "SimpleClass.method", or null.
+     */
+    static String topPragmiteMethod(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame() || frame.getMethod() == null) {
+                continue;
+            }
+            String className = frame.getMethod().getType().getName();
+            if (className.startsWith("com.pragmite.") && !className.startsWith("com.pragmite.profiling.")) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+            }
+        }
+        return null;
+    }
+
+    static List<HotspotSummary.Hotspot> top(Map<String, Long> counts, long total) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(TOP_N)
+            .map(e -> new HotspotSummary.Hotspot(e.getKey(), e.getValue(),
+                total == 0 ? 0.0 : Math.round(e.getValue() * 1000.0 / total) / 10.0))
+            .toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.pragmite.profiling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Phase timers and counters for the light profiling tier.
+ *
+ * Every run of a phase is recorded in a {@link LatencyHistogram}, so besides the total
+ * the report shows how the runs are distributed (p50/p90/p99/max). Costs a
+ * {@link System#nanoTime()} call and a histogram increment per phase and a
+ * {@link LongAdder} increment per count, so it can stay on in production. A disabled
+ * timer does nothing.
+ *
+ * Usage:
+ * <pre>
+ * PhaseTimer timer = new PhaseTimer(true);
+ * CompilationUnit cu = timer.time("parse", () -> parser.parse(source));
+ * timer.run("index", () -> index.add(cu));
+ * timer.count("files", 1);
+ * timer.writeTo(report);
+ * </pre>
+ */
+public class PhaseTimer {
+
+    private static final Phase NOOP = () -> { };
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, LatencyHistogram> phases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public PhaseTimer(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * A running phase; closing it adds its duration to the phase total.
+     */
+    @FunctionalInterface
+    public interface Phase extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Body of a timed phase that returns a value.
+     */
+    @FunctionalInterface
+    public interface Timed<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /**
+     * Body of a timed phase.
+     */
+    @FunctionalInterface
+    public interface TimedAction<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Starts timing a phase. Phases with the same name, also on different threads, add up.
+     * Prefer {@link #time} and {@link #run}, which need no unused try resource.
+     */
+    public Phase start(String name) {
+        if (!enabled) {
+            return NOOP;
+        }
+        long start = System.nanoTime();
+        return () -> record(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs a phase and returns its result; the time is recorded even if it throws.
+     */
+    public <T, E extends Exception> T time(String name, Timed<T, E> body) throws E {
+        if (!enabled) {
+            return body.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a phase; the time is recorded even if it throws.
+     */
+    public <E extends Exception> void run(String name, TimedAction<E> body) throws E {
+        time(name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records one run of a phase measured elsewhere.
+     */
+    public void record(String name, long nanos) {
+        if (enabled) {
+            phases.computeIfAbsent(name, k -> new LatencyHistogram()).record(nanos);
+        }
+    }
+
+    /**
+     * Adds to a counter.
+     */
+    public void count(String name, long delta) {
+        if (enabled) {
+            counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Copies phase times (total ms and distribution) and counters into a report.
+     */
+    public void writeTo(ProfileReport report) {
+        for (Map.Entry<String, LatencyHistogram> phase : phases.entrySet()) {
+            report.addPhaseTiming(phase.getKey(), phase.getValue().getTotalNanos() / 1_000_000);
+            report.addPhaseHistogram(phase.getKey(), phase.getValue().snapshot());
+        }
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            report.addCounter(counter.getKey(), counter.getValue().sum());
+        }
+    }
+}
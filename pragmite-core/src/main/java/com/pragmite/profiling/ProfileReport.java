@@ -1,6 +1,7 @@
 package com.pragmite.profiling;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +18,15 @@ public class ProfileReport {
     private long totalCpuSamples;
     private long totalAllocations;
 
+    // Report generation time per output sink (json, html, database, ...)
+    private Map<String, Long> reportTimings = new LinkedHashMap<>();
+
+    // Light profiling tier: time per analysis phase (ms) and counters
+    private ProfilingLevel level = ProfilingLevel.DEEP;
+    private Map<String, Long> phaseTimings = new LinkedHashMap<>();
+    private Map<String, LatencyHistogram.Snapshot> phaseHistograms = new LinkedHashMap<>();
+    private Map<String, Long> counters = new LinkedHashMap<>();
+
     public void setTopCpuMethods(List<Map.Entry<String, Long>> methods) {
         this.topCpuMethods = methods;
     }
@@ -37,6 +47,49 @@ public class ProfileReport {
         this.totalAllocations = total;
     }
 
+    public void addReportTiming(String sink, long durationMs) {
+        reportTimings.put(sink, durationMs);
+    }
+
+    public Map<String, Long> getReportTimings() {
+        return reportTimings;
+    }
+
+    public void setLevel(ProfilingLevel level) {
+        this.level = level;
+    }
+
+    public ProfilingLevel getLevel() {
+        return level;
+    }
+
+    public void addPhaseTiming(String phase, long durationMs) {
+        phaseTimings.put(phase, durationMs);
+    }
+
+    public Map<String, Long> getPhaseTimings() {
+        return phaseTimings;
+    }
+
+    public void addPhaseHistogram(String phase, LatencyHistogram.Snapshot histogram) {
+        phaseHistograms.put(phase, histogram);
+    }
+
+    /**
+     * Distribution of the runs of each phase; "file" is the whole analysis of one file.
+     */
+    public Map<String, LatencyHistogram.Snapshot> getPhaseHistograms() {
+        return phaseHistograms;
+    }
+
+    public void addCounter(String name, long value) {
+        counters.put(name, value);
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
     public List<Map.Entry<String, Long>> getTopCpuMethods() {
         return topCpuMethods;
     }
@@ -69,6 +122,33 @@ public class ProfileReport {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("\n=== Performance Profile Report ===\n\n");
+        sb.append("Profiling level: ").append(level).append("\n\n");
+
+        if (!phaseTimings.isEmpty()) {
+            sb.append("Analysis Phases:\n");
+            sb.append(String.format("  %-20s %9s %8s %9s %9s %9s %9s\n",
+                "", "total", "runs", "p50", "p90", "p99", "max"));
+            phaseTimings.forEach((phase, ms) -> {
+                LatencyHistogram.Snapshot h = phaseHistograms.get(phase);
+                if (h == null) {
+                    sb.append(String.format("  %-20s %6d ms\n", phase, ms));
+                } else {
+                    sb.append(String.format("  %-20s %6d ms %8d %6.2f ms %6.2f ms %6.2f ms %6.2f ms\n",
+                        phase, ms, h.count(), h.p50Ms(), h.p90Ms(), h.p99Ms(), h.maxMs()));
+                }
+            });
+            sb.append("\n");
+        }
+        if (!counters.isEmpty()) {
+            sb.append("Counters:\n");
+            counters.forEach((name, value) -> sb.append(String.format("  %-20s %,d\n", name, value)));
+            sb.append("\n");
+        }
+        if (!level.usesJfr()) {
+            appendReportTimings(sb);
+            sb.append("\n=================================\n");
+            return sb.toString();
+        }
 
         sb.append("CPU Metrics:\n");
         sb.append(String.format("  Total samples: %d\n", totalCpuSamples));
@@ -96,7 +176,16 @@ public class ProfileReport {
                 i + 1, entry.getKey(), mb, percentage));
         }
 
+        appendReportTimings(sb);
+
         sb.append("\n=================================\n");
         return sb.toString();
     }
+
+    private void appendReportTimings(StringBuilder sb) {
+        if (!reportTimings.isEmpty()) {
+            sb.append("\nReport Generation:\n");
+            reportTimings.forEach((sink, ms) -> sb.append(String.format("  %-20s %6d ms\n", sink, ms)));
+        }
+    }
 }
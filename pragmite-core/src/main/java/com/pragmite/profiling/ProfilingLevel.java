@@ -0,0 +1,95 @@
+package com.pragmite.profiling;
+
+import java.util.Locale;
+
+/**
+ * Self-profiling tiers, from no profiling to full JFR recording.
+ *
+ * Each tier has an overhead budget: the largest slowdown of an analysis, relative to
+ * {@link #OFF}, that the tier may cause. ProfilingOverheadBenchmark compares each tier
+ * with its budget; it reports a budget as confirmed only if the measurement noise is
+ * smaller than the budget, which on a busy machine may not be the case for the JFR tiers.
+ *
+ * The default is {@link #OFF} on CI servers and {@link #LIGHT} elsewhere. It can be
+ * overridden with the {@code pragmite.profiling} system property or the
+ * {@code PRAGMITE_PROFILING} environment variable.
+ */
+public enum ProfilingLevel {
+    /** No profiling. */
+    OFF(0.0),
+    /** Phase timers and counters only, no JFR. */
+    LIGHT(0.02),
+    /** JFR with coarse execution sampling and throttled allocation sampling. */
+    SAMPLING(0.10),
+    /** JFR with 10 ms execution sampling and every TLAB allocation event. */
+    DEEP(0.50);
+
+    private final double overheadBudget;
+
+    ProfilingLevel(double overheadBudget) {
+        this.overheadBudget = overheadBudget;
+    }
+
+    /**
+     * Maximum slowdown relative to OFF, e.g. 0.02 for 2%.
+     */
+    public double getOverheadBudget() {
+        return overheadBudget;
+    }
+
+    /**
+     * Whether phase timers and counters are collected.
+     */
+    public boolean collectsPhases() {
+        return this != OFF;
+    }
+
+    /**
+     * Whether a JFR recording is made.
+     */
+    public boolean usesJfr() {
+        return this == SAMPLING || this == DEEP;
+    }
+
+    /**
+     * Parses a tier name (case-insensitive).
+     *
+     * @throws IllegalArgumentException for unknown names
+     */
+    public static ProfilingLevel parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown profiling level: " + name + " (expected off, light, sampling or deep)");
+        }
+    }
+
+    /**
+     * Default tier for this process: configured, otherwise OFF on CI and LIGHT elsewhere.
+     */
+    public static ProfilingLevel defaultLevel() {
+        String configured = System.getProperty("pragmite.profiling", System.getenv("PRAGMITE_PROFILING"));
+        if (configured != null && !configured.isBlank()) {
+            return parse(configured);
+        }
+        return isCi() ? OFF : LIGHT;
+    }
+
+    /**
+     * Detects CI servers by the variables they set (GitHub Actions, GitLab, Jenkins, ...).
+     */
+    static boolean isCi() {
+        for (String variable : new String[]{"CI", "CONTINUOUS_INTEGRATION", "BUILD_NUMBER", "JENKINS_URL", "TF_BUILD"}) {
+            String value = System.getenv(variable);
+            if (value != null && !value.isBlank() && !value.equalsIgnoreCase("false")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,6 @@
 package com.pragmite.refactor;
 
+import com.pragmite.util.BackupStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,11 +10,17 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Manages file backups for safe refactoring rollback.
  * Creates timestamped backups before applying refactorings.
+ *
+ * v1.6.3 - Backups are kept in a content-addressed {@link BackupStore}: each backup ID is an
+ * operation in the store's index, and unchanged file contents are stored only once.
+ * Backups in the older one-directory-per-backup layout can still be restored.
  */
 public class BackupManager {
     private static final Logger logger = LoggerFactory.getLogger(BackupManager.class);
@@ -23,6 +30,7 @@ public class BackupManager {
         DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss-SSS");
 
     private final Path backupRoot;
+    private BackupStore store;      // Opened on first use
 
     public BackupManager() {
         this.backupRoot = Paths.get(BACKUP_DIR);
@@ -37,23 +45,14 @@ public class BackupManager {
      * @param filePath Path to the file to backup
      * @return Backup ID that can be used for restore
      */
-    public String createBackup(String filePath) throws IOException {
-        String backupId = generateBackupId();
-        Path backupDir = backupRoot.resolve(backupId);
-        Files.createDirectories(backupDir);
-
+    public synchronized String createBackup(String filePath) throws IOException {
         Path sourceFile = Paths.get(filePath);
         if (!Files.exists(sourceFile)) {
             throw new IOException("File not found: " + filePath);
         }
 
-        Path relativePath = getRelativePath(sourceFile);
-        Path backupFile = backupDir.resolve(relativePath);
-        Files.createDirectories(backupFile.getParent());
-        Files.copy(sourceFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
-
-        // Save path mapping for restore
-        savePathMapping(backupDir, backupFile, sourceFile);
+        String backupId = generateBackupId();
+        getStore().put(sourceFile, backupId);
 
         logger.info("Backup created: {} for file: {}", backupId, filePath);
         return backupId;
@@ -63,14 +62,13 @@ public class BackupManager {
      * Creates a backup for all files affected by the refactoring plan.
      * @return Backup ID that can be used for restore
      */
-    public String createBackup(RefactoringPlan plan) throws IOException {
+    public synchronized String createBackup(RefactoringPlan plan) throws IOException {
         String backupId = generateBackupId();
-        Path backupDir = backupRoot.resolve(backupId);
-        Files.createDirectories(backupDir);
 
         List<String> affectedFiles = plan.getAffectedFiles();
         logger.info("Creating backup for {} files", affectedFiles.size());
 
+        int backedUp = 0;
         for (String filePath : affectedFiles) {
             Path sourceFile = Paths.get(filePath);
             if (!Files.exists(sourceFile)) {
@@ -78,41 +76,46 @@ public class BackupManager {
                 continue;
             }
 
-            // Preserve directory structure in backup
-            Path relativePath = getRelativePath(sourceFile);
-            Path backupFile = backupDir.resolve(relativePath);
-
-            // Create parent directories
-            Files.createDirectories(backupFile.getParent());
+            BackupStore.Entry entry = getStore().put(sourceFile, backupId);
+            backedUp++;
 
-            // Copy file
-            Files.copy(sourceFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
-
-            // Save path mapping for restore
-            savePathMapping(backupDir, backupFile, sourceFile);
-
-            logger.debug("Backed up: {} -> {}", sourceFile, backupFile);
+            logger.debug("Backed up: {} -> {}", sourceFile, entry.hash());
         }
 
-        // Save backup metadata
-        saveBackupMetadata(backupDir, plan);
-
-        logger.info("Backup created: {}", backupId);
+        logger.info("Backup created: {} ({} files, plan: {})", backupId, backedUp, plan);
         return backupId;
     }
 
     /**
      * Restores files from a backup.
      */
-    public void restore(String backupId) throws IOException {
+    public synchronized void restore(String backupId) throws IOException {
+        List<BackupStore.Entry> entries = getStore().entriesForOperation(backupId);
         Path backupDir = backupRoot.resolve(backupId);
 
-        if (!Files.exists(backupDir)) {
+        if (entries.isEmpty() && !Files.isDirectory(backupDir)) {
             throw new IOException("Backup not found: " + backupId);
         }
 
         logger.info("Restoring from backup: {}", backupId);
 
+        if (entries.isEmpty()) {
+            restoreDirectory(backupDir);
+            return;
+        }
+
+        for (BackupStore.Entry entry : entries) {
+            getStore().restore(entry, entry.file());
+            logger.debug("Restored: {} -> {}", entry.hash(), entry.file());
+        }
+
+        logger.info("Restore complete: {}", backupId);
+    }
+
+    /**
+     * Restores a backup in the older one-directory-per-backup layout.
+     */
+    private void restoreDirectory(Path backupDir) throws IOException {
         // Read path mappings from metadata
         Path metadataFile = backupDir.resolve("backup-paths.txt");
         if (!Files.exists(metadataFile)) {
@@ -139,7 +142,7 @@ public class BackupManager {
             }
         }
 
-        logger.info("Restore complete: {}", backupId);
+        logger.info("Restore complete: {}", backupDir.getFileName());
     }
 
     /**
@@ -169,14 +172,15 @@ public class BackupManager {
     /**
      * Lists all available backups.
      */
-    public List<String> listBackups() throws IOException {
-        List<String> backups = new ArrayList<>();
-
+    public synchronized List<String> listBackups() throws IOException {
         if (!Files.exists(backupRoot)) {
-            return backups;
+            return new ArrayList<>();
         }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupRoot)) {
+        Set<String> backups = new HashSet<>(getStore().operations());
+
+        // Backups in the older directory layout
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupRoot, "backup-*")) {
             for (Path entry : stream) {
                 if (Files.isDirectory(entry)) {
                     backups.add(entry.getFileName().toString());
@@ -184,34 +188,38 @@ public class BackupManager {
             }
         }
 
-        backups.sort((a, b) -> b.compareTo(a)); // Sort descending (newest first)
-        return backups;
+        List<String> sorted = new ArrayList<>(backups);
+        sorted.sort((a, b) -> b.compareTo(a)); // Sort descending (newest first)
+        return sorted;
     }
 
     /**
-     * Deletes a backup.
+     * Deletes a backup. File contents still used by other backups are kept.
      */
-    public void deleteBackup(String backupId) throws IOException {
+    public synchronized void deleteBackup(String backupId) throws IOException {
+        int removed = Files.exists(backupRoot) ? getStore().removeOperation(backupId) : 0;
         Path backupDir = backupRoot.resolve(backupId);
 
-        if (!Files.exists(backupDir)) {
+        if (removed == 0 && !Files.isDirectory(backupDir)) {
             throw new IOException("Backup not found: " + backupId);
         }
 
-        // Delete directory recursively
-        Files.walkFileTree(backupDir, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.delete(file);
-                return FileVisitResult.CONTINUE;
-            }
+        if (Files.isDirectory(backupDir)) {
+            // Delete directory recursively
+            Files.walkFileTree(backupDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                Files.delete(dir);
-                return FileVisitResult.CONTINUE;
-            }
-        });
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
 
         logger.info("Deleted backup: {}", backupId);
     }
@@ -237,20 +245,25 @@ public class BackupManager {
     /**
      * Generates a unique backup ID based on timestamp.
      */
-    private String generateBackupId() {
-        return "backup-" + LocalDateTime.now().format(TIMESTAMP_FORMAT);
+    private String generateBackupId() throws IOException {
+        String backupId = "backup-" + LocalDateTime.now().format(TIMESTAMP_FORMAT);
+        // Several backups within the same millisecond get a suffix
+        Set<String> existing = new HashSet<>(getStore().operations());
+        String unique = backupId;
+        for (int i = 1; existing.contains(unique) || Files.exists(backupRoot.resolve(unique)); i++) {
+            unique = backupId + "-" + i;
+        }
+        return unique;
     }
 
     /**
-     * Gets relative path from absolute path (removes drive/root).
+     * Gets the backup store, creating it on first use.
      */
-    private Path getRelativePath(Path absolutePath) {
-        // For simplicity, use the last 3 path components
-        int nameCount = absolutePath.getNameCount();
-        if (nameCount > 3) {
-            return absolutePath.subpath(nameCount - 3, nameCount);
+    public synchronized BackupStore getStore() throws IOException {
+        if (store == null) {
+            store = new BackupStore(backupRoot);
         }
-        return absolutePath.getFileName();
+        return store;
     }
 
     /**
@@ -261,38 +274,4 @@ public class BackupManager {
         // In production, you'd want to store the original absolute paths in metadata
         return Paths.get(System.getProperty("user.dir")).resolve(relativePath);
     }
-
-    /**
-     * Saves backup metadata for auditing.
-     */
-    private void saveBackupMetadata(Path backupDir, RefactoringPlan plan) throws IOException {
-        Path metadataFile = backupDir.resolve("backup-metadata.txt");
-        StringBuilder metadata = new StringBuilder();
-
-        metadata.append("Backup created: ").append(LocalDateTime.now()).append("\n");
-        metadata.append("Refactoring plan: ").append(plan).append("\n");
-        metadata.append("Affected files:\n");
-
-        for (String file : plan.getAffectedFiles()) {
-            metadata.append("  - ").append(file).append("\n");
-        }
-
-        Files.writeString(metadataFile, metadata.toString());
-    }
-
-    /**
-     * Saves path mapping for restore operations.
-     */
-    private void savePathMapping(Path backupDir, Path backupFile, Path sourceFile) throws IOException {
-        Path pathsFile = backupDir.resolve("backup-paths.txt");
-
-        String mapping = backupFile.toString() + " -> " + sourceFile.toString() + "\n";
-
-        // Append to file
-        if (Files.exists(pathsFile)) {
-            Files.writeString(pathsFile, Files.readString(pathsFile) + mapping);
-        } else {
-            Files.writeString(pathsFile, mapping);
-        }
-    }
 }
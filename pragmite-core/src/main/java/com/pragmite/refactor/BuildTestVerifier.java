@@ -10,22 +10,38 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Verifies that refactored code still builds and passes tests.
  * Executes Maven/Gradle build and test commands.
+ *
+ * With the changed files known, only the tests that reference them (transitively) are run,
+ * through the build tool's test filter. See {@link TestImpactAnalyzer}.
  */
 public class BuildTestVerifier {
     private static final Logger logger = LoggerFactory.getLogger(BuildTestVerifier.class);
 
     private static final int DEFAULT_TIMEOUT_SECONDS = 300; // 5 minutes
     private static final int MAX_TIMEOUT_SECONDS = 3600; // 1 hour max
+    private static final int MAX_SELECTED_TESTS = 300;   // Beyond this the command line gets too long
+    static final String GRADLE_INIT_SCRIPT = """
+        allprojects {
+            tasks.withType(Test).configureEach {
+                filter.failOnNoMatchingTests = false
+            }
+        }
+        """;
 
     private final Path projectRoot;
     private BuildTool buildTool;
     private int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+    private TestImpactAnalyzer impactAnalyzer; // Created on first impacted test run
+    private Path gradleInitScript;             // Written on first filtered Gradle run
 
     public BuildTestVerifier() {
         this(Paths.get(System.getProperty("user.dir")));
@@ -79,6 +95,99 @@ public class BuildTestVerifier {
         return executeCommand("Test", command);
     }
 
+    /**
+     * Runs the given test classes only, via the build tool's test filter.
+     *
+     * @param testClasses Fully qualified test class names; if empty, no tests are run
+     */
+    public VerificationResult runTests(Collection<String> testClasses) throws IOException, InterruptedException {
+        if (testClasses.isEmpty()) {
+            logger.info("No tests to run");
+            VerificationResult result = new VerificationResult();
+            result.setPhase("Test");
+            result.setSuccess(true);
+            result.setExitCode(0);
+            result.setOutput(new ArrayList<>(List.of("No tests reference the changed classes")));
+            return result;
+        }
+
+        logger.info("Running {} selected test classes...", testClasses.size());
+        return executeCommand("Test", testCommand(testClasses));
+    }
+
+    /**
+     * Runs the tests affected by the changed files, or the full suite if they cannot be determined.
+     *
+     * @param changedFiles Files changed by the refactoring
+     */
+    public VerificationResult runImpactedTests(Collection<Path> changedFiles) throws IOException, InterruptedException {
+        if (impactAnalyzer == null) {
+            impactAnalyzer = new TestImpactAnalyzer(projectRoot);
+        }
+
+        Optional<Set<String>> selected;
+        try {
+            selected = impactAnalyzer.selectTests(changedFiles);
+        } catch (IOException e) {
+            logger.warn("Test impact analysis failed, running the full suite: {}", e.getMessage());
+            selected = Optional.empty();
+        }
+
+        if (selected.isEmpty() || selected.get().size() > MAX_SELECTED_TESTS) {
+            return runTests();
+        }
+        return runTests(selected.get());
+    }
+
+    /**
+     * Builds the test command with a filter for the given test classes.
+     */
+    String[] testCommand(Collection<String> testClasses) throws IOException {
+        List<String> command = new ArrayList<>();
+        if (buildTool == BuildTool.MAVEN) {
+            command.addAll(List.of("mvn", "test", "-q", "-Dtest=" + String.join(",", testClasses),
+                // Modules without any of the selected tests must not fail
+                "-Dsurefire.failIfNoSpecifiedTests=false", "-DfailIfNoTests=false"));
+        } else {
+            // Subprojects without any of the selected tests must not fail either
+            command.addAll(List.of("gradle", "test", "-q", "--init-script", gradleInitScript().toString()));
+            for (String testClass : testClasses) {
+                command.add("--tests");
+                command.add(testClass);
+            }
+        }
+        return command.toArray(new String[0]);
+    }
+
+    /**
+     * Init script that lets Gradle test tasks pass when the filter matches none of their tests,
+     * written once per verifier.
+     */
+    private Path gradleInitScript() throws IOException {
+        if (gradleInitScript == null) {
+            Path script = Files.createTempFile("pragmite-test-filter", ".gradle");
+            script.toFile().deleteOnExit();
+            Files.writeString(script, GRADLE_INIT_SCRIPT);
+            gradleInitScript = script;
+        }
+        return gradleInitScript;
+    }
+
+    /**
+     * Runs the build, then only the tests affected by the changed files.
+     *
+     * @param changedFiles Files changed by the refactoring
+     */
+    public VerificationResult runBuildAndTest(Collection<Path> changedFiles) throws IOException, InterruptedException {
+        logger.info("Running build and impacted test verification...");
+
+        VerificationResult buildResult = runBuild();
+        if (!buildResult.isSuccess()) {
+            return buildResult;
+        }
+        return combine(buildResult, runImpactedTests(changedFiles));
+    }
+
     /**
      * Runs both build and tests.
      */
@@ -94,7 +203,13 @@ public class BuildTestVerifier {
         // Then run tests
         VerificationResult testResult = runTests();
 
-        // Combine results
+        return combine(buildResult, testResult);
+    }
+
+    /**
+     * Combines build and test results.
+     */
+    private VerificationResult combine(VerificationResult buildResult, VerificationResult testResult) {
         VerificationResult combined = new VerificationResult();
         combined.setPhase("Build & Test");
         combined.setSuccess(buildResult.isSuccess() && testResult.isSuccess());
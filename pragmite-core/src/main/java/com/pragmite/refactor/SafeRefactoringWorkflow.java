@@ -6,7 +6,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Safe refactoring workflow with automatic build/test verification and rollback.
@@ -16,7 +18,7 @@ import java.util.List;
  * 2. Create backup
  * 3. Apply refactorings
  * 4. Run build verification
- * 5. Run test verification
+ * 5. Run test verification (only tests affected by the changed files, when they can be determined)
  * 6. If any step fails -> automatic rollback
  *
  * Usage:
@@ -38,6 +40,7 @@ public class SafeRefactoringWorkflow {
 
     private boolean runTests = true;
     private boolean autoRollback = true;
+    private boolean testImpactSelection = true;
 
     public SafeRefactoringWorkflow(Path projectRoot) {
         this.projectRoot = projectRoot;
@@ -103,8 +106,17 @@ public class SafeRefactoringWorkflow {
 
             // Step 4: Run tests (if enabled)
             if (runTests) {
-                logger.info("Step 4: Running tests...");
-                VerificationResult testResult = verifier.runTests();
+                VerificationResult testResult;
+                if (testImpactSelection) {
+                    logger.info("Step 4: Running tests affected by the changes...");
+                    List<Path> changedFiles = plan.getAffectedFiles().stream()
+                        .map(file -> Paths.get(file).toAbsolutePath())
+                        .collect(Collectors.toList());
+                    testResult = verifier.runImpactedTests(changedFiles);
+                } else {
+                    logger.info("Step 4: Running tests...");
+                    testResult = verifier.runTests();
+                }
                 workflowResult.setTestResult(testResult);
 
                 if (!testResult.isSuccess()) {
@@ -202,6 +214,14 @@ public class SafeRefactoringWorkflow {
         return this;
     }
 
+    /**
+     * Run only the tests affected by the changed files (default) or always the full suite.
+     */
+    public SafeRefactoringWorkflow withTestImpactSelection(boolean testImpactSelection) {
+        this.testImpactSelection = testImpactSelection;
+        return this;
+    }
+
     public SafeRefactoringWorkflow withTimeout(int seconds) {
         this.verifier.setTimeoutSeconds(seconds);
         return this;
@@ -0,0 +1,324 @@
+package com.pragmite.refactor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Selects the tests affected by a change.
+ *
+ * Indexes every Java file of the project by its package, imports, declared types and the
+ * type names it uses, then follows references backwards from the changed files, transitively,
+ * until it reaches test classes. A file references a type when it imports it (explicitly,
+ * by wildcard or statically), uses it from the same package, or names it fully qualified.
+ *
+ * The index is lexical (comments and literals removed, no symbol resolution), which is fast
+ * and errs on the side of selecting more tests. It is brought up to date on every selection:
+ * new and modified files, and the changed files themselves, are scanned again. When the impact cannot be determined, e.g.
+ * a changed file is not Java or is unknown, no selection is returned and callers should run
+ * the full suite.
+ *
+ * Usage:
+ * <pre>
+ * TestImpactAnalyzer analyzer = new TestImpactAnalyzer(projectRoot);
+ * Optional&lt;Set&lt;String&gt;&gt; tests = analyzer.selectTests(changedFiles);
+ * </pre>
+ */
+public class TestImpactAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(TestImpactAnalyzer.class);
+
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of("target", "build", "out", ".git", ".pragmite", "node_modules");
+    private static final Pattern PACKAGE = Pattern.compile("\\bpackage\\s+([\\w.]+)\\s*;");
+    private static final Pattern IMPORT = Pattern.compile("\\bimport\\s+(static\\s+)?([\\w.]+?)(\\.\\*)?\\s*;");
+    private static final Pattern DECLARATION = Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern TYPE_NAME = Pattern.compile("\\b([A-Z][\\w$]*)");
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("\\b([a-z_][\\w$]*(?:\\.[\\w$]+)+)");
+    // Maven Surefire and Gradle default test class names
+    private static final Pattern TEST_CLASS_NAME = Pattern.compile("Test\\w*|\\w*Test|\\w*Tests|\\w*TestCase");
+
+    private final Path projectRoot;
+    private final Map<Path, SourceEntry> entries = new HashMap<>();
+    private Map<String, Set<Path>> dependents = Map.of(); // Type FQN -> files referencing it
+
+    public TestImpactAnalyzer(Path projectRoot) {
+        this.projectRoot = projectRoot.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Selects the test classes affected by changes to the given files.
+     *
+     * @param changedFiles Changed files (absolute or relative to the project root)
+     * @return Fully qualified names of affected test classes (possibly empty),
+     *         or empty if the impact cannot be determined and the full suite should run
+     */
+    public Optional<Set<String>> selectTests(Collection<Path> changedFiles) throws IOException {
+        if (changedFiles.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<Path> rescan = new HashSet<>();
+        for (Path path : changedFiles) {
+            rescan.add(resolve(path));
+        }
+        updateIndex(rescan);
+
+        Set<Path> visited = new HashSet<>();
+        ArrayDeque<Path> queue = new ArrayDeque<>();
+        for (Path changed : changedFiles) {
+            Path file = resolve(changed);
+            if (!file.toString().endsWith(".java") || !entries.containsKey(file)) {
+                logger.info("Cannot map {} to tests, running the full suite", changed);
+                return Optional.empty();
+            }
+            if (visited.add(file)) {
+                queue.add(file);
+            }
+        }
+
+        // Follow references backwards: changed file -> its types -> files using them -> ...
+        while (!queue.isEmpty()) {
+            SourceEntry entry = entries.get(queue.poll());
+            for (String type : entry.declaredTypes) {
+                for (Path dependent : dependents.getOrDefault(type, Set.of())) {
+                    if (visited.add(dependent)) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+
+        Set<String> tests = new TreeSet<>();
+        for (Path file : visited) {
+            SourceEntry entry = entries.get(file);
+            if (entry.test && TEST_CLASS_NAME.matcher(entry.fileType).matches()) {
+                tests.add(entry.qualify(entry.fileType));
+            }
+        }
+        logger.info("{} changed files affect {} of {} files, {} test classes",
+            changedFiles.size(), visited.size(), entries.size(), tests.size());
+        return Optional.of(tests);
+    }
+
+    private Path resolve(Path path) {
+        return projectRoot.resolve(path).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Brings the index up to date: new and modified files are scanned, removed ones dropped,
+     * and the given files scanned again even if their timestamp did not change.
+     */
+    private void updateIndex(Set<Path> rescan) throws IOException {
+        long start = System.nanoTime();
+
+        List<Path> sources = findSources();
+        int before = entries.size();
+        entries.keySet().retainAll(new HashSet<>(sources));
+        boolean removed = entries.size() != before;
+        int scannedFiles = 0;
+        for (Path file : sources) {
+            SourceEntry entry = entries.get(file);
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (entry == null || rescan.contains(file)
+                || !entry.lastModified.equals(attributes.lastModifiedTime()) || entry.size != attributes.size()) {
+                entries.put(file, scan(file, attributes.lastModifiedTime(), attributes.size()));
+                scannedFiles++;
+            }
+        }
+        if (scannedFiles == 0 && !removed) {
+            return;
+        }
+        Collection<SourceEntry> scanned = entries.values();
+
+        Map<String, Set<String>> typesBySimpleName = new HashMap<>();
+        for (SourceEntry entry : scanned) {
+            for (String type : entry.declaredTypes) {
+                typesBySimpleName.computeIfAbsent(simpleName(type), k -> new HashSet<>()).add(type);
+            }
+        }
+
+        Map<String, Set<Path>> reverse = new HashMap<>();
+        for (SourceEntry entry : scanned) {
+            for (String type : entry.referencedTypes(typesBySimpleName)) {
+                reverse.computeIfAbsent(type, k -> new HashSet<>()).add(entry.file);
+            }
+        }
+
+        this.dependents = reverse;
+        logger.debug("Scanned {} of {} source files in {} ms", scannedFiles, scanned.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<Path> findSources() throws IOException {
+        try (Stream<Path> files = Files.walk(projectRoot)) {
+            return files
+                .filter(p -> p.toString().endsWith(".java"))
+                .filter(p -> {
+                    for (Path part : projectRoot.relativize(p)) {
+                        if (SKIPPED_DIRECTORIES.contains(part.toString())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .filter(Files::isRegularFile)
+                .map(p -> p.toAbsolutePath().normalize())
+                .collect(Collectors.toList());
+        }
+    }
+
+    private SourceEntry scan(Path file, FileTime lastModified, long size) throws IOException {
+        String code = stripCommentsAndLiterals(Files.readString(file, StandardCharsets.UTF_8));
+        String fileName = file.getFileName().toString();
+        String relative = projectRoot.relativize(file).toString().replace('\\', '/');
+
+        SourceEntry entry = new SourceEntry(file, fileName.substring(0, fileName.length() - ".java".length()),
+            relative.contains("src/test/"), lastModified, size);
+
+        Matcher pkg = PACKAGE.matcher(code);
+        if (pkg.find()) {
+            entry.packageName = pkg.group(1);
+        }
+        Matcher imports = IMPORT.matcher(code);
+        while (imports.find()) {
+            String name = imports.group(2);
+            if (imports.group(3) != null) {
+                entry.wildcardImports.add(name);
+            } else if (imports.group(1) != null) {
+                // Static import of a member: the type is the qualifier
+                int dot = name.lastIndexOf('.');
+                entry.explicitImports.add(dot < 0 ? name : name.substring(0, dot));
+            } else {
+                entry.explicitImports.add(name);
+            }
+        }
+        Matcher declarations = DECLARATION.matcher(code);
+        while (declarations.find()) {
+            entry.declaredTypes.add(entry.qualify(declarations.group(1)));
+        }
+        Matcher names = TYPE_NAME.matcher(code);
+        while (names.find()) {
+            entry.usedNames.add(names.group(1));
+        }
+        Matcher qualified = QUALIFIED_NAME.matcher(code);
+        while (qualified.find()) {
+            entry.qualifiedNames.add(qualified.group(1));
+        }
+        return entry;
+    }
+
+    /**
+     * Blanks comments, string/char literals and text blocks so their words are not taken as references.
+     */
+    static String stripCommentsAndLiterals(String code) {
+        StringBuilder result = new StringBuilder(code.length());
+        int i = 0;
+        int length = code.length();
+        while (i < length) {
+            char c = code.charAt(i);
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                while (i < length && code.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                int end = code.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                result.append(' ');
+            } else if (code.startsWith("\"\"\"", i)) {
+                int end = code.indexOf("\"\"\"", i + 3);
+                i = end < 0 ? length : end + 3;
+                result.append("\"\"");
+            } else if (c == '"' || c == '\'') {
+                i++;
+                while (i < length && code.charAt(i) != c && code.charAt(i) != '\n') {
+                    i += code.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+                result.append(c).append(c);
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return result.toString();
+    }
+
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private static String packageOf(String qualifiedName) {
+        int dot = qualifiedName.lastIndexOf('.');
+        return dot < 0 ? "" : qualifiedName.substring(0, dot);
+    }
+
+    /**
+     * Lexical summary of one source file.
+     */
+    private static final class SourceEntry {
+        final Path file;
+        final String fileType;      // Type named after the file
+        final boolean test;
+        final FileTime lastModified;
+        final long size;
+        String packageName = "";
+        final Set<String> explicitImports = new HashSet<>();
+        final Set<String> wildcardImports = new HashSet<>();
+        final Set<String> declaredTypes = new HashSet<>();
+        final Set<String> usedNames = new HashSet<>();
+        final Set<String> qualifiedNames = new HashSet<>();
+
+        SourceEntry(Path file, String fileType, boolean test, FileTime lastModified, long size) {
+            this.file = file;
+            this.fileType = fileType;
+            this.test = test;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        String qualify(String simpleName) {
+            return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        }
+
+        /**
+         * Project types this file references.
+         */
+        Set<String> referencedTypes(Map<String, Set<String>> typesBySimpleName) {
+            Set<String> referenced = new HashSet<>(explicitImports);
+            for (String name : usedNames) {
+                for (String type : typesBySimpleName.getOrDefault(name, Set.of())) {
+                    String typePackage = packageOf(type);
+                    if (typePackage.equals(packageName) || wildcardImports.contains(typePackage)
+                        || explicitImports.contains(type)) {
+                        referenced.add(type);
+                    }
+                }
+            }
+            for (String qualified : qualifiedNames) {
+                // "com.example.Type.member": every prefix may name a type
+                for (int dot = qualified.indexOf('.'); dot > 0; dot = qualified.indexOf('.', dot + 1)) {
+                    referenced.add(qualified.substring(0, dot));
+                }
+                referenced.add(qualified);
+            }
+            referenced.removeAll(declaredTypes);
+            return referenced;
+        }
+    }
+}
@@ -66,25 +66,19 @@ public class HtmlReportGenerator {
     }
 
     /**
-     * Replaces placeholders in the template with actual data.
+     * Replaces placeholders in the template with actual data in a single pass.
      */
     private String replacePlaceholders(String template, AnalysisResult result, List<AIAnalysisResult> aiResults) {
         Map<String, String> placeholders = buildPlaceholders(result);
 
-        String html = template;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            html = html.replace("{{" + entry.getKey() + "}}", entry.getValue());
-        }
-
         // Add AI analysis section if available
         if (aiResults != null && !aiResults.isEmpty()) {
-            String aiSection = buildAiAnalysisSection(aiResults);
-            html = html.replace("{{AI_ANALYSIS_SECTION}}", aiSection);
+            placeholders.put("AI_ANALYSIS_SECTION", buildAiAnalysisSection(aiResults));
         } else {
-            html = html.replace("{{AI_ANALYSIS_SECTION}}", "");
+            placeholders.put("AI_ANALYSIS_SECTION", "");
         }
 
-        return html;
+        return TemplateRenderer.render(template, placeholders);
     }
 
     /**
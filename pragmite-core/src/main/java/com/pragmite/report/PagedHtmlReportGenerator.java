@@ -0,0 +1,289 @@
+package com.pragmite.report;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.QualityScore;
+import com.pragmite.model.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates a scalable HTML report for large result sets.
+ *
+ * Instead of inlining every smell into one page, the report is a directory with a small
+ * {@code index.html} shell plus gzip-compressed JSON chunks split per package:
+ * <pre>
+ * report/
+ *   index.html             (summary + package manifest, ~KBs)
+ *   data/p12-0.js          (package #12, smells 0..CHUNK_SIZE-1)
+ *   data/p12-1.js
+ * </pre>
+ * Chunks are wrapped as {@code PragmiteReport.chunk(id, base64Gzip)} scripts so they can be
+ * loaded lazily even from {@code file://}, where browsers block {@code fetch}. The page
+ * inflates them with {@code DecompressionStream} and shows them with pagination and search.
+ *
+ * Generation is a single streaming pass over the smells: at most one partially filled chunk
+ * per package is held in memory, full chunks are compressed and written immediately.
+ */
+public class PagedHtmlReportGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PagedHtmlReportGenerator.class);
+    private static final String TEMPLATE_PATH = "/templates/paged-report-template.html";
+    private static final String DATA_DIR = "data";
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final int chunkSize;
+    private final Gson gson = new Gson();
+
+    public PagedHtmlReportGenerator() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public PagedHtmlReportGenerator(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Generates the report into the given directory and returns the path of the HTML shell.
+     */
+    public Path generate(AnalysisResult result, Path outputDir) throws IOException {
+        logger.info("Generating paged HTML report: {}", outputDir);
+
+        Path dataDir = outputDir.resolve(DATA_DIR);
+        Files.createDirectories(dataDir);
+
+        Path projectRoot = result.getProjectPath() != null ? Path.of(result.getProjectPath()) : null;
+        Map<String, PackageChunks> packages = new LinkedHashMap<>();
+        Map<Severity, Integer> severityTotals = new EnumMap<>(Severity.class);
+        long bytesWritten = 0;
+
+        // Single pass: route each smell into its package's open chunk, flush full chunks
+        for (CodeSmell smell : result.getCodeSmells()) {
+            String relativePath = relativize(projectRoot, smell.getFilePath());
+            String packageName = packageOf(relativePath);
+            PackageChunks chunks = packages.computeIfAbsent(packageName,
+                name -> new PackageChunks("p" + packages.size(), name));
+
+            chunks.add(smell, relativePath);
+            if (smell.getSeverity() != null) {
+                severityTotals.merge(smell.getSeverity(), 1, Integer::sum);
+            }
+            if (chunks.pending.size() >= chunkSize) {
+                bytesWritten += flushChunk(chunks, dataDir);
+            }
+        }
+        for (PackageChunks chunks : packages.values()) {
+            if (!chunks.pending.isEmpty()) {
+                bytesWritten += flushChunk(chunks, dataDir);
+            }
+        }
+
+        Path indexPath = outputDir.resolve("index.html");
+        try (Writer writer = Files.newBufferedWriter(indexPath, StandardCharsets.UTF_8)) {
+            TemplateRenderer.render(loadTemplate(), buildPlaceholders(result, packages, severityTotals), writer);
+        }
+
+        logger.info("Paged HTML report generated: {} packages, {} smells, {} KB of chunk data",
+            packages.size(), result.getCodeSmells().size(), bytesWritten / 1024);
+        return indexPath;
+    }
+
+    /**
+     * Compresses the pending smells of a package and writes them as the next chunk.
+     */
+    private long flushChunk(PackageChunks chunks, Path dataDir) throws IOException {
+        String chunkId = chunks.id + "-" + chunks.chunkCount;
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(
+                new GZIPOutputStream(compressed), StandardCharsets.UTF_8))) {
+            json.beginArray();
+            for (ChunkRow row : chunks.pending) {
+                row.write(json);
+            }
+            json.endArray();
+        }
+
+        String script = "PragmiteReport.chunk(\"" + chunkId + "\",\""
+            + Base64.getEncoder().encodeToString(compressed.toByteArray()) + "\");\n";
+        Files.writeString(dataDir.resolve(chunkId + ".js"), script, StandardCharsets.UTF_8);
+
+        chunks.chunkCount++;
+        chunks.pending.clear();
+        return script.length();
+    }
+
+    private Map<String, String> buildPlaceholders(AnalysisResult result, Map<String, PackageChunks> packages,
+                                                  Map<Severity, Integer> severityTotals) {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("PROJECT_NAME", escapeHtml(result.getProjectName()));
+        placeholders.put("TIMESTAMP", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+
+        QualityScore score = result.getQualityScore();
+        placeholders.put("QUALITY_SCORE", score != null ? String.valueOf((int) score.getOverallScore()) : "N/A");
+        placeholders.put("QUALITY_GRADE", score != null ? score.getGrade() : "-");
+        placeholders.put("TOTAL_ISSUES", String.valueOf(result.getCodeSmells().size()));
+        placeholders.put("FILES_ANALYZED", String.valueOf(result.getTotalFiles()));
+        placeholders.put("LINES_OF_CODE", String.format("%,d", result.getTotalLines()));
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("chunkSize", chunkSize);
+        JsonObject severities = new JsonObject();
+        severityTotals.forEach((severity, count) -> severities.addProperty(severity.name(), count));
+        manifest.add("severities", severities);
+        JsonArray packageArray = new JsonArray();
+        for (PackageChunks chunks : packages.values()) {
+            JsonObject pkg = new JsonObject();
+            pkg.addProperty("id", chunks.id);
+            pkg.addProperty("name", chunks.name);
+            pkg.addProperty("count", chunks.total);
+            pkg.addProperty("chunks", chunks.chunkCount);
+            pkg.addProperty("worst", chunks.worst != null ? chunks.worst.name() : Severity.INFO.name());
+            packageArray.add(pkg);
+        }
+        manifest.add("packages", packageArray);
+        // Manifest is embedded in a <script> block, so keep "</" out of it
+        placeholders.put("MANIFEST_JSON", gson.toJson(manifest).replace("</", "<\\/"));
+
+        return placeholders;
+    }
+
+    private String loadTemplate() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(TEMPLATE_PATH)) {
+            if (is == null) {
+                throw new IOException("Template not found: " + TEMPLATE_PATH);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the path relative to the project root, using forward slashes.
+     */
+    static String relativize(Path projectRoot, String filePath) {
+        if (filePath == null) {
+            return "";
+        }
+        String relative = filePath;
+        if (projectRoot != null) {
+            try {
+                Path path = Path.of(filePath);
+                if (path.isAbsolute() == projectRoot.isAbsolute() && path.startsWith(projectRoot)) {
+                    relative = projectRoot.relativize(path).toString();
+                }
+            } catch (IllegalArgumentException e) {
+                // Keep the original path
+            }
+        }
+        return relative.replace('\\', '/');
+    }
+
+    /**
+     * Derives a Java package name from a source path
+     * (e.g. {@code src/main/java/com/acme/Foo.java -> com.acme}).
+     */
+    static String packageOf(String relativePath) {
+        int lastSlash = relativePath.lastIndexOf('/');
+        if (lastSlash < 0) {
+            return "(default)";
+        }
+        // Trailing slash so that ".../java" (default package) matches the source root too
+        String dir = "/" + relativePath.substring(0, lastSlash + 1);
+        int javaRoot = dir.lastIndexOf("/java/");
+        if (javaRoot >= 0) {
+            dir = dir.substring(javaRoot + "/java/".length());
+        } else {
+            dir = dir.substring(1);
+        }
+        dir = dir.endsWith("/") ? dir.substring(0, dir.length() - 1) : dir;
+        return dir.isEmpty() ? "(default)" : dir.replace('/', '.');
+    }
+
+    private static String escapeHtml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;")
+                   .replace("'", "&#39;");
+    }
+
+    /**
+     * Open chunk state for one package.
+     */
+    private static class PackageChunks {
+        final String id;
+        final String name;
+        final List<ChunkRow> pending = new ArrayList<>();
+        int chunkCount;
+        int total;
+        Severity worst;
+
+        PackageChunks(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        void add(CodeSmell smell, String relativePath) {
+            pending.add(new ChunkRow(smell, relativePath));
+            total++;
+            Severity severity = smell.getSeverity();
+            if (severity != null && (worst == null || severity.getWeight() > worst.getWeight())) {
+                worst = severity;
+            }
+        }
+    }
+
+    /**
+     * Compact row written to a chunk: short keys keep the payload small.
+     */
+    private static class ChunkRow {
+        final CodeSmell smell;
+        final String relativePath;
+
+        ChunkRow(CodeSmell smell, String relativePath) {
+            this.smell = smell;
+            this.relativePath = relativePath;
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.beginObject();
+            json.name("t").value(smell.getType() != null ? smell.getType().getName() : "Unknown");
+            json.name("s").value(smell.getSeverity() != null ? smell.getSeverity().name() : Severity.INFO.name());
+            json.name("f").value(relativePath);
+            json.name("l").value(smell.getStartLine());
+            if (smell.getAffectedElement() != null) {
+                json.name("e").value(smell.getAffectedElement());
+            }
+            json.name("m").value(smell.getDescription());
+            json.endObject();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pragmite.report;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Single-pass renderer for {{PLACEHOLDER}} style HTML templates.
+ * Scans the template once and appends literal text and values directly to the output,
+ * instead of rebuilding the whole page for every placeholder.
+ * Unknown placeholders are written through unchanged.
+ */
+public final class TemplateRenderer {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private TemplateRenderer() {
+    }
+
+    /**
+     * Renders the template into the given output.
+     */
+    public static void render(String template, Map<String, String> values, Appendable out) throws IOException {
+        int pos = 0;
+        while (pos < template.length()) {
+            int start = template.indexOf(OPEN, pos);
+            if (start < 0) {
+                break;
+            }
+            int end = template.indexOf(CLOSE, start + OPEN.length());
+            if (end < 0) {
+                break;
+            }
+
+            out.append(template, pos, start);
+            String key = template.substring(start + OPEN.length(), end);
+            String value = values.get(key);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append(template, start, end + CLOSE.length());
+            }
+            pos = end + CLOSE.length();
+        }
+        out.append(template, pos, template.length());
+    }
+
+    /**
+     * Renders the template to a string.
+     */
+    public static String render(String template, Map<String, String> values) {
+        StringBuilder out = new StringBuilder(template.length() + 1024);
+        try {
+            render(template, values, out);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+}
@@ -6,6 +6,7 @@ import com.pragmite.rules.smells.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Tüm kod kokusu kurallarını çalıştıran motor.
@@ -91,6 +92,13 @@ public class RuleEngine {
         detectors.add(detector);
     }
 
+    /**
+     * Keeps only the detectors accepted by the filter, e.g. those of an analysis level.
+     */
+    public void retainDetectors(Predicate<SmellDetector> filter) {
+        detectors.removeIf(filter.negate());
+    }
+
     /**
      * Kayıtlı tüm dedektörleri döndürür.
      */
@@ -19,7 +19,7 @@ import java.util.stream.Collectors;
  */
 public class DuplicateCodeDetector implements SmellDetector {
 
-    private static final int MIN_CLONE_STATEMENTS = 6;
+    public static final int MIN_CLONE_STATEMENTS = 6;
     private static final double SIMILARITY_THRESHOLD = 0.85; // 85% similarity
 
     @Override
@@ -91,8 +91,9 @@ public class DuplicateCodeDetector implements SmellDetector {
     /**
      * Normalizes a code block by removing variable names and literals.
      * This allows detection of Type-2 clones (syntactically similar with renamed identifiers).
+     * The result for a block is the concatenation of the results for its statements.
      */
-    private String normalizeBlock(List<Statement> statements) {
+    public static String normalizeBlock(List<Statement> statements) {
         StringBuilder normalized = new StringBuilder();
 
         for (Statement stmt : statements) {
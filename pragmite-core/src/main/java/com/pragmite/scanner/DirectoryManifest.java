@@ -0,0 +1,287 @@
+package com.pragmite.scanner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persisted state of the scanned tree for near-instant change detection.
+ *
+ * For every scanned directory the manifest stores its modification time and its entries; for
+ * every scanned file it stores size and modification time. A directory's modification time
+ * only changes when entries are added, removed or renamed, so when it is unchanged the
+ * scanner reuses the stored entries instead of listing the directory and stats only its
+ * subdirectories and scanned files. Files whose size and modification time are unchanged are
+ * not reported to the scanner's consumer, only to the optional consumer of unchanged files, e.g.
+ * to reuse their results from a {@link com.pragmite.cache.FileResultCache}.
+ *
+ * Timestamps within {@link #RACY_WINDOW_MS} of the scan start are not trusted, because a
+ * change in the same clock tick would go unnoticed; such entries are checked again next time.
+ *
+ * Usage:
+ * <pre>
+ * DirectoryManifest manifest = DirectoryManifest.forProject(projectRoot);
+ * new OptimizedFileScanner().withManifest(manifest).scan(projectRoot, changedFiles::add);
+ * // ... analyze the changed files ...
+ * manifest.save();
+ * </pre>
+ */
+public class DirectoryManifest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryManifest.class);
+
+    public static final String MANIFEST_FILE = ".pragmite/scan-manifest.bin";
+
+    /**
+     * Timestamps this close to the scan start are not trusted
+     */
+    public static final long RACY_WINDOW_MS = 2000;
+
+    private static final int MAGIC = 0x50474D46;  // "PGMF"
+    private static final int FORMAT_VERSION = 1;
+    private static final long UNTRUSTED = -1;
+
+    enum Kind { DIRECTORY, FILE, SCANNED_FILE }
+
+    /**
+     * Entry of a directory. Size and modification time are only kept for scanned files.
+     */
+    record Child(String name, Kind kind, long size, long modifiedMillis) {
+
+        boolean isDirectory() {
+            return kind == Kind.DIRECTORY;
+        }
+    }
+
+    record DirectoryEntry(long modifiedMillis, List<Child> children) {
+    }
+
+    private final Path manifestFile;
+    private final Map<String, DirectoryEntry> previous;
+    private final Map<String, DirectoryEntry> current = new ConcurrentHashMap<>();
+
+    private final LongAdder listedDirectories = new LongAdder();
+    private final LongAdder reusedDirectories = new LongAdder();
+    private final LongAdder scannedFiles = new LongAdder();
+    private final LongAdder changedFiles = new LongAdder();
+    private volatile long scanStartedMillis;
+
+    private DirectoryManifest(Path manifestFile, Map<String, DirectoryEntry> previous) {
+        this.manifestFile = manifestFile;
+        this.previous = previous;
+    }
+
+    /**
+     * Manifest stored in the project's {@code .pragmite} directory.
+     */
+    public static DirectoryManifest forProject(Path projectRoot) {
+        return load(projectRoot.resolve(MANIFEST_FILE));
+    }
+
+    /**
+     * Loads a manifest. A missing, outdated or unreadable file gives an empty manifest,
+     * so every file is reported as changed.
+     */
+    public static DirectoryManifest load(Path manifestFile) {
+        Map<String, DirectoryEntry> directories = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.info("Ignoring scan manifest of another format: {}", manifestFile);
+                return new DirectoryManifest(manifestFile, Map.of());
+            }
+            int directoryCount = in.readInt();
+            for (int i = 0; i < directoryCount; i++) {
+                String path = in.readUTF();
+                long modified = in.readLong();
+                int childCount = in.readInt();
+                List<Child> children = new ArrayList<>(childCount);
+                for (int c = 0; c < childCount; c++) {
+                    String name = in.readUTF();
+                    Kind kind = Kind.values()[in.readByte()];
+                    if (kind == Kind.SCANNED_FILE) {
+                        children.add(new Child(name, kind, in.readLong(), in.readLong()));
+                    } else {
+                        children.add(new Child(name, kind, 0, 0));
+                    }
+                }
+                directories.put(path, new DirectoryEntry(modified, children));
+            }
+            logger.debug("Loaded scan manifest with {} directories", directories.size());
+        } catch (NoSuchFileException e) {
+            logger.debug("No scan manifest yet: {}", manifestFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable scan manifest {}: {}", manifestFile, e.getMessage());
+            directories.clear();
+        }
+        return new DirectoryManifest(manifestFile, directories);
+    }
+
+    /**
+     * Writes the state of the last scan, replacing the file atomically where supported.
+     */
+    public void save() throws IOException {
+        Path target = manifestFile.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(current.size());
+                for (Map.Entry<String, DirectoryEntry> directory : current.entrySet()) {
+                    out.writeUTF(directory.getKey());
+                    out.writeLong(directory.getValue().modifiedMillis());
+                    List<Child> children = directory.getValue().children();
+                    out.writeInt(children.size());
+                    for (Child child : children) {
+                        out.writeUTF(child.name());
+                        out.writeByte(child.kind().ordinal());
+                        if (child.kind() == Kind.SCANNED_FILE) {
+                            out.writeLong(child.size());
+                            out.writeLong(child.modifiedMillis());
+                        }
+                    }
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Saved scan manifest with {} directories", current.size());
+    }
+
+    // Scanner hooks
+
+    void beginScan() {
+        scanStartedMillis = System.currentTimeMillis();
+        current.clear();
+    }
+
+    /**
+     * The previous state of a directory, or null if it was not scanned before.
+     */
+    DirectoryEntry previous(String relativePath) {
+        return previous.get(relativePath);
+    }
+
+    /**
+     * Whether the stored entries of a directory are still valid.
+     */
+    boolean isUnchanged(DirectoryEntry entry, long modifiedMillis) {
+        return entry != null && entry.modifiedMillis() != UNTRUSTED && entry.modifiedMillis() == modifiedMillis;
+    }
+
+    void recordDirectory(String relativePath, long modifiedMillis, List<Child> children, boolean listed) {
+        (listed ? listedDirectories : reusedDirectories).increment();
+        current.put(relativePath, new DirectoryEntry(trusted(modifiedMillis), children));
+    }
+
+    /**
+     * Records a scanned file.
+     *
+     * @param previousChild The file's entry in the previous scan, or null
+     * @return The entry to store; {@link #isChanged} tells whether the file changed
+     */
+    Child recordFile(String name, Child previousChild, long size, long modifiedMillis) {
+        scannedFiles.increment();
+        Child recorded = new Child(name, Kind.SCANNED_FILE, size, trusted(modifiedMillis));
+        if (isChanged(previousChild, size, modifiedMillis)) {
+            changedFiles.increment();
+        }
+        return recorded;
+    }
+
+    static boolean isChanged(Child previousChild, long size, long modifiedMillis) {
+        return previousChild == null
+            || previousChild.kind() != Kind.SCANNED_FILE
+            || previousChild.modifiedMillis() == UNTRUSTED
+            || previousChild.modifiedMillis() != modifiedMillis
+            || previousChild.size() != size;
+    }
+
+    private long trusted(long modifiedMillis) {
+        return modifiedMillis >= scanStartedMillis - RACY_WINDOW_MS ? UNTRUSTED : modifiedMillis;
+    }
+
+    // Results of the last scan
+
+    /**
+     * Files of the previous scan that were not found by the last one, relative to the scan root.
+     */
+    public List<String> getRemovedFiles() {
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, DirectoryEntry> directory : previous.entrySet()) {
+            DirectoryEntry now = current.get(directory.getKey());
+            Map<String, Child> nowByName = now == null ? Map.of() : byName(now.children());
+            for (Child child : directory.getValue().children()) {
+                Child nowChild = nowByName.get(child.name());
+                if (child.kind() == Kind.SCANNED_FILE && (nowChild == null || nowChild.kind() != Kind.SCANNED_FILE)) {
+                    removed.add(directory.getKey().isEmpty() ? child.name() : directory.getKey() + "/" + child.name());
+                }
+            }
+        }
+        Collections.sort(removed);
+        return removed;
+    }
+
+    static Map<String, Child> byName(List<Child> children) {
+        Map<String, Child> map = new HashMap<>(children.size() * 2);
+        for (Child child : children) {
+            map.put(child.name(), child);
+        }
+        return map;
+    }
+
+    /**
+     * Whether the manifest had no previous state, so every file was reported.
+     */
+    public boolean isEmpty() {
+        return previous.isEmpty();
+    }
+
+    public long getScannedFileCount() {
+        return scannedFiles.sum();
+    }
+
+    /**
+     * Number of new or changed files reported by the last scan
+     */
+    public long getChangedFileCount() {
+        return changedFiles.sum();
+    }
+
+    /**
+     * Number of directories that had to be listed
+     */
+    public long getListedDirectoryCount() {
+        return listedDirectories.sum();
+    }
+
+    /**
+     * Number of directories whose stored entries were reused
+     */
+    public long getReusedDirectoryCount() {
+        return reusedDirectories.sum();
+    }
+}
@@ -0,0 +1,203 @@
+package com.pragmite.scanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled rules of one .gitignore file.
+ *
+ * Follows the gitignore format: comments, blank lines, negation with '!', directory-only rules
+ * with a trailing '/', and rules anchored to the file's directory when they contain a '/'.
+ * Rules are compiled once; unanchored rules only look at the file name, and files without
+ * negations are matched with one combined pattern for names and one for paths.
+ *
+ * Rules of nested directories are combined with {@link Chain}, where the deepest .gitignore
+ * that has a matching rule decides, as in git.
+ */
+public final class GitignoreRules {
+
+    /**
+     * @param nameOnly Unanchored rule, matched against the file name
+     */
+    private record Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean nameOnly) {
+
+        boolean matches(String name, String relativePath) {
+            return pattern.matcher(nameOnly ? name : relativePath).matches();
+        }
+    }
+
+    private final List<Rule> rules;
+    private final boolean hasNegation;
+    private final Pattern anyName;
+    private final Pattern anyPath;
+    private final Pattern directoryName;
+    private final Pattern directoryPath;
+
+    private GitignoreRules(List<Rule> rules) {
+        this.rules = rules;
+        this.hasNegation = rules.stream().anyMatch(Rule::negated);
+        this.anyName = combine(rules, false, true);
+        this.anyPath = combine(rules, false, false);
+        this.directoryName = combine(rules, true, true);
+        this.directoryPath = combine(rules, true, false);
+    }
+
+    /**
+     * Parses the lines of a .gitignore file.
+     */
+    public static GitignoreRules parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = parseLine(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return new GitignoreRules(rules);
+    }
+
+    private static Rule parseLine(String line) {
+        String pattern = stripTrailingSpaces(line);
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return null;
+        }
+
+        boolean negated = false;
+        if (pattern.startsWith("!")) {
+            negated = true;
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\#") || pattern.startsWith("\\!")) {
+            pattern = pattern.substring(1);
+        }
+
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.isEmpty()) {
+            return null;
+        }
+
+        // A slash at the start or in the middle anchors the rule to the .gitignore directory
+        boolean anchored = pattern.indexOf('/') >= 0;
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+
+        // "dir/**" matches everything inside dir, but not dir itself
+        String regex = pattern.endsWith("/**")
+            ? GlobPattern.toRegex(pattern.substring(0, pattern.length() - 3)) + "/.*"
+            : GlobPattern.toRegex(pattern);
+        return new Rule(Pattern.compile(regex), negated, directoryOnly, !anchored);
+    }
+
+    private static String stripTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+            end--;
+        }
+        return line.substring(0, end).replace("\\ ", " ");
+    }
+
+    private static Pattern combine(List<Rule> rules, boolean directoryOnly, boolean nameOnly) {
+        StringBuilder regex = new StringBuilder();
+        for (Rule rule : rules) {
+            if (rule.directoryOnly() == directoryOnly && rule.nameOnly() == nameOnly) {
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append("(?:").append(rule.pattern().pattern()).append(')');
+            }
+        }
+        return regex.length() == 0 ? null : Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Decision of these rules for a path.
+     *
+     * @param name File name
+     * @param relativePath Path relative to the .gitignore directory, with '/' separators
+     * @param directory Whether the path is a directory
+     * @return TRUE if ignored, FALSE if re-included by a negation, null if no rule matches
+     */
+    public Boolean match(String name, String relativePath, boolean directory) {
+        if (!hasNegation) {
+            if (matches(anyName, name) || matches(anyPath, relativePath)
+                || (directory && (matches(directoryName, name) || matches(directoryPath, relativePath)))) {
+                return Boolean.TRUE;
+            }
+            return null;
+        }
+
+        // The last matching rule wins
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Rule rule = rules.get(i);
+            if ((directory || !rule.directoryOnly()) && rule.matches(name, relativePath)) {
+                return !rule.negated();
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(Pattern pattern, String value) {
+        return pattern != null && pattern.matcher(value).matches();
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * The .gitignore rules in effect for a directory: its own and those of its parents.
+     * Immutable, so it can be shared by the tasks scanning subdirectories.
+     */
+    public static final class Chain {
+
+        /**
+         * No rules
+         */
+        public static final Chain EMPTY = new Chain(null, "", null);
+
+        private final Chain parent;
+        private final String base;
+        private final GitignoreRules rules;
+
+        private Chain(Chain parent, String base, GitignoreRules rules) {
+            this.parent = parent;
+            this.base = base;
+            this.rules = rules;
+        }
+
+        /**
+         * Adds the rules of a subdirectory.
+         *
+         * @param directory Directory of the .gitignore file, relative to the scan root
+         */
+        public Chain with(String directory, GitignoreRules directoryRules) {
+            if (directoryRules.isEmpty()) {
+                return this;
+            }
+            return new Chain(this, directory.isEmpty() ? "" : directory + "/", directoryRules);
+        }
+
+        /**
+         * Whether a path is ignored.
+         *
+         * @param name File name
+         * @param relativePath Path relative to the scan root, with '/' separators
+         */
+        public boolean isIgnored(String name, String relativePath, boolean directory) {
+            for (Chain chain = this; chain != null; chain = chain.parent) {
+                if (chain.rules == null) {
+                    continue;
+                }
+                Boolean decision = chain.rules.match(name, relativePath.substring(chain.base.length()), directory);
+                if (decision != null) {
+                    return decision;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.pragmite.scanner;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles glob patterns to regular expressions.
+ *
+ * Paths are matched with '/' separators. Supported syntax:
+ * - {@code **}/ any number of leading directories, including none
+ * - /{@code **} anything below a directory, including the directory itself
+ * - {@code **} anything, across directories
+ * - {@code *} anything within one path segment
+ * - {@code ?} one character within a path segment
+ * - {@code [abc]}, {@code [a-z]}, {@code [[:digit:]]} one character of a set, never '/';
+ *   {@code [!abc]} or {@code [^abc]} one character not in the set
+ *
+ * All other characters, including a '[' without a closing ']', match literally.
+ */
+public final class GlobPattern {
+
+    // POSIX classes allowed inside brackets, as in git's wildmatch
+    private static final Map<String, String> POSIX_CLASSES = Map.ofEntries(
+        Map.entry("alnum", "\\p{Alnum}"), Map.entry("alpha", "\\p{Alpha}"), Map.entry("blank", "\\p{Blank}"),
+        Map.entry("cntrl", "\\p{Cntrl}"), Map.entry("digit", "\\p{Digit}"), Map.entry("graph", "\\p{Graph}"),
+        Map.entry("lower", "\\p{Lower}"), Map.entry("print", "\\p{Print}"), Map.entry("punct", "\\p{Punct}"),
+        Map.entry("space", "\\p{Space}"), Map.entry("upper", "\\p{Upper}"), Map.entry("xdigit", "\\p{XDigit}"));
+
+    private GlobPattern() {
+    }
+
+    /**
+     * Regular expression matching the same paths as a glob.
+     */
+    public static String toRegex(String glob) {
+        String pattern = glob.replace('\\', '/');
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        int end;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (pattern.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+            } else if (pattern.startsWith("/**", i) && i + 3 == pattern.length()) {
+                regex.append("(?:/.*)?");
+                i += 3;
+            } else if (pattern.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+                i++;
+            } else if (c == '?') {
+                regex.append("[^/]");
+                i++;
+            } else if (c == '[' && (end = appendCharClass(pattern, i, regex)) > 0) {
+                i = end;
+            } else {
+                if ("\\.[]{}()<>+-=!^$|".indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+                i++;
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Appends the bracket expression starting at {@code start} as a regex character class.
+     *
+     * @return Index after the closing ']', or -1 if the bracket is not closed in the same
+     *         path segment (then nothing is appended and the '[' is literal)
+     * @throws IllegalArgumentException for an unknown POSIX class such as [[:foo:]]
+     */
+    private static int appendCharClass(String glob, int start, StringBuilder regex) {
+        StringBuilder set = new StringBuilder();
+        int i = start + 1;
+        boolean negated = i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^');
+        if (negated) {
+            i++;
+        }
+        int first = i;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == ']' && i > first) {
+                regex.append(negated ? "[^/" + set + "]" : "[" + set + "&&[^/]]");
+                return i + 1;
+            }
+            if (c == '/') {
+                return -1;
+            }
+            if (glob.startsWith("[:", i)) {
+                int close = glob.indexOf(":]", i + 2);
+                if (close > 0) {
+                    String name = glob.substring(i + 2, close);
+                    String posix = POSIX_CLASSES.get(name);
+                    if (posix == null) {
+                        throw new IllegalArgumentException("Unknown character class [:" + name + ":] in " + glob);
+                    }
+                    set.append(posix);
+                    i = close + 2;
+                    continue;
+                }
+            }
+            // '-' between two characters is a range, as in regex; everything else is literal
+            if ("\\[]&^".indexOf(c) >= 0) {
+                set.append('\\');
+            }
+            set.append(c);
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Compiles a glob.
+     */
+    public static Pattern compile(String glob) {
+        return Pattern.compile(toRegex(glob));
+    }
+
+    /**
+     * Compiles globs into one pattern matching a path if any of them does.
+     *
+     * @return The pattern, or null if there are no globs
+     */
+    public static Pattern compileAny(Collection<String> globs) {
+        if (globs == null || globs.isEmpty()) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String glob : globs) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(toRegex(glob)).append(')');
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,73 @@
+package com.pragmite.scanner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Glob patterns compiled into one name matcher and one path matcher.
+ *
+ * Globs that only constrain the file name are matched against the name, which is much cheaper
+ * than matching the whole path: {@code **}/*.java becomes *.java, and {@code **}/target/{@code **}
+ * becomes target. The latter relies on directories being checked before their contents, as the
+ * scanner does, so the set must not be used on files of unchecked directories.
+ * All other globs are matched against the path relative to the scan root.
+ */
+public final class GlobSet {
+
+    private final Pattern namePattern;
+    private final Pattern pathPattern;
+
+    private GlobSet(Pattern namePattern, Pattern pathPattern) {
+        this.namePattern = namePattern;
+        this.pathPattern = pathPattern;
+    }
+
+    /**
+     * Compiles globs.
+     *
+     * @return The set, or null if there are no globs
+     */
+    public static GlobSet compile(Collection<String> globs) {
+        if (globs == null || globs.isEmpty()) {
+            return null;
+        }
+        List<String> nameGlobs = new ArrayList<>();
+        List<String> pathGlobs = new ArrayList<>();
+        for (String glob : globs) {
+            String name = nameGlob(glob.replace('\\', '/'));
+            if (name != null) {
+                nameGlobs.add(name);
+            } else {
+                pathGlobs.add(glob);
+            }
+        }
+        return new GlobSet(GlobPattern.compileAny(nameGlobs), GlobPattern.compileAny(pathGlobs));
+    }
+
+    /**
+     * The name glob equivalent to a glob, or null if it constrains the directories.
+     */
+    private static String nameGlob(String glob) {
+        if (!glob.startsWith("**/")) {
+            return null;
+        }
+        String name = glob.substring(3);
+        if (name.endsWith("/**")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.isEmpty() || name.contains("/") || name.contains("**") ? null : name;
+    }
+
+    /**
+     * Whether a file or directory matches any of the globs.
+     *
+     * @param name File name
+     * @param relativePath Path relative to the scan root, with '/' separators
+     */
+    public boolean matches(String name, String relativePath) {
+        return (namePattern != null && namePattern.matcher(name).matches())
+            || (pathPattern != null && pathPattern.matcher(relativePath).matches());
+    }
+}
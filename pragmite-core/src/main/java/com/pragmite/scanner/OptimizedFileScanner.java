@@ -4,38 +4,124 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
- * Optimized file scanner with intelligent filtering.
- * Uses NIO2 for efficient directory traversal and parallel streams.
+ * Parallel file scanner with compiled include/exclude and .gitignore matching.
+ *
+ * Directories are listed in parallel on a fork/join pool, one task per directory. Include and
+ * exclude globs (relative to the scan root, e.g. {@code **}/generated/{@code **}) are compiled
+ * once into a {@link GlobSet} each, and every .gitignore file is compiled once when its
+ * directory is entered. Excluded and ignored directories are pruned without being listed.
  *
  * Features:
- * - Respects .gitignore patterns
- * - Skips common build/dependency directories
+ * - Respects .gitignore files of the root and all subdirectories
+ * - Skips hidden directories and build/dependency directories (target, build, node_modules)
  * - Parallel file discovery
- * - Memory-efficient streaming
+ * - Streams matching files to a consumer as they are found
+ * - Optional {@link DirectoryManifest} to report only changed files, without listing unchanged directories;
+ *   unchanged files can be passed to a second consumer
+ *
+ * Usage:
+ * <pre>
+ * OptimizedFileScanner scanner = new OptimizedFileScanner()
+ *     .withExcludes(List.of("**&#47;generated/**"));
+ * scanner.scan(root, file -> executor.submit(() -> analyze(file)));   // Streaming
+ * List&lt;Path&gt; files = scanner.scanJavaFiles(root);                    // Sorted list
+ * </pre>
  */
 public class OptimizedFileScanner {
     private static final Logger logger = LoggerFactory.getLogger(OptimizedFileScanner.class);
 
-    private static final Set<String> EXCLUDED_DIRS = Set.of(
-        "target", "build", "node_modules", ".git", ".svn",
-        "out", "bin", "dist", ".idea", ".vscode", ".gradle"
-    );
+    private static final Set<String> EXCLUDED_DIRS = Set.of("target", "build", "node_modules");
+
+    /**
+     * Default include pattern
+     */
+    public static final String DEFAULT_INCLUDE = "**/*.java";
 
     private static final int MAX_DEPTH = 50; // Prevent infinite recursion
+    private static final String GITIGNORE = ".gitignore";
+
+    private GlobSet includes = GlobSet.compile(List.of(DEFAULT_INCLUDE));
+    private GlobSet excludes;
+    private boolean respectGitignore = true;
+    private int parallelism = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private DirectoryManifest manifest;
 
     /**
-     * Scans directory for Java files using optimized traversal.
+     * Files to scan, as globs relative to the scan root. Defaults to all Java files.
      */
-    public List<Path> scanJavaFiles(Path rootDir) throws IOException {
+    public OptimizedFileScanner withIncludes(Collection<String> includeGlobs) {
+        this.includes = includeGlobs == null || includeGlobs.isEmpty()
+            ? GlobSet.compile(List.of(DEFAULT_INCLUDE)) : GlobSet.compile(includeGlobs);
+        return this;
+    }
+
+    /**
+     * Files and directories to skip, as globs relative to the scan root.
+     */
+    public OptimizedFileScanner withExcludes(Collection<String> excludeGlobs) {
+        this.excludes = GlobSet.compile(excludeGlobs);
+        return this;
+    }
+
+    public OptimizedFileScanner withGitignore(boolean respectGitignore) {
+        this.respectGitignore = respectGitignore;
+        return this;
+    }
+
+    /**
+     * Detects changes with a manifest of the previous scan: unchanged directories are not
+     * listed again, and only new or changed files are passed to the consumer. The manifest is
+     * updated to the scanned state and should be saved once the files have been processed.
+     */
+    public OptimizedFileScanner withManifest(DirectoryManifest manifest) {
+        this.manifest = manifest;
+        return this;
+    }
+
+    /**
+     * Number of threads listing directories.
+     */
+    public OptimizedFileScanner withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Scans a directory and passes every matching file to the consumer as soon as it is found.
+     * The consumer is called concurrently from the scanning threads.
+     *
+     * @return Number of matching files
+     */
+    public int scan(Path rootDir, Consumer<Path> consumer) throws IOException {
+        return scan(rootDir, consumer, file -> { });
+    }
+
+    /**
+     * Scans a directory like {@link #scan(Path, Consumer)}, but with a manifest passes the
+     * files that did not change since the previous scan to {@code unchanged} instead of
+     * dropping them. Without a manifest every file is passed to {@code changed}.
+     *
+     * @return Number of new or changed files
+     */
+    public int scan(Path rootDir, Consumer<Path> changed, Consumer<Path> unchanged) throws IOException {
         if (!Files.exists(rootDir)) {
             throw new IOException("Directory does not exist: " + rootDir);
         }
@@ -44,78 +130,193 @@ public class OptimizedFileScanner {
             throw new IOException("Not a directory: " + rootDir);
         }
 
-        logger.info("Scanning Java files in: {}", rootDir);
-        List<Path> javaFiles = new ArrayList<>();
+        logger.info("Scanning files in: {}", rootDir);
+        if (manifest != null) {
+            manifest.beginScan();
+        }
+        long rootModified = Files.getLastModifiedTime(rootDir).toMillis();
+        LongAdder found = new LongAdder();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(rootDir, "", 0, rootModified, GitignoreRules.Chain.EMPTY, file -> {
+                found.increment();
+                changed.accept(file);
+            }, unchanged));
+        } finally {
+            pool.shutdown();
+        }
 
-        Files.walkFileTree(rootDir, new HashSet<>(), MAX_DEPTH, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                String dirName = dir.getFileName().toString();
+        if (manifest != null) {
+            logger.info("Found {} changed of {} files ({} directories listed, {} unchanged)", found.sum(),
+                manifest.getScannedFileCount(), manifest.getListedDirectoryCount(), manifest.getReusedDirectoryCount());
+        } else {
+            logger.info("Found {} files", found.sum());
+        }
+        return found.intValue();
+    }
 
-                // Skip excluded directories
-                if (EXCLUDED_DIRS.contains(dirName)) {
-                    logger.debug("Skipping excluded directory: {}", dir);
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
+    /**
+     * Scans a directory for matching files.
+     *
+     * @return The files, sorted by path
+     */
+    public List<Path> scanJavaFiles(Path rootDir) throws IOException {
+        ConcurrentLinkedQueue<Path> files = new ConcurrentLinkedQueue<>();
+        scan(rootDir, files::add);
+        List<Path> sorted = new ArrayList<>(files);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    /**
+     * Entry of a directory, with its attributes if it was just listed.
+     */
+    private record Entry(DirectoryManifest.Child child, BasicFileAttributes attrs) {
+    }
+
+    /**
+     * Lists one directory, forking a task for each subdirectory.
+     */
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks are never serialized
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path dir;
+        private final String relativePath;
+        private final int depth;
+        private final long modifiedMillis;
+        private final GitignoreRules.Chain gitignore;
+        private final Consumer<Path> consumer;
+        private final Consumer<Path> unchanged;
+
+        DirectoryTask(Path dir, String relativePath, int depth, long modifiedMillis,
+                      GitignoreRules.Chain gitignore, Consumer<Path> consumer, Consumer<Path> unchanged) {
+            this.dir = dir;
+            this.relativePath = relativePath;
+            this.depth = depth;
+            this.modifiedMillis = modifiedMillis;
+            this.gitignore = gitignore;
+            this.consumer = consumer;
+            this.unchanged = unchanged;
+        }
 
-                // Skip hidden directories
-                if (dirName.startsWith(".")) {
-                    logger.debug("Skipping hidden directory: {}", dir);
-                    return FileVisitResult.SKIP_SUBTREE;
+        @Override
+        protected void compute() {
+            // An unchanged directory has the same entries as in the manifest, no need to list it
+            DirectoryManifest.DirectoryEntry previous = manifest != null ? manifest.previous(relativePath) : null;
+            boolean reuse = manifest != null && manifest.isUnchanged(previous, modifiedMillis);
+            List<Entry> entries;
+            if (reuse) {
+                entries = new ArrayList<>(previous.children().size());
+                for (DirectoryManifest.Child child : previous.children()) {
+                    entries.add(new Entry(child, null));
                 }
+            } else {
+                entries = list();
+                if (entries == null) {
+                    return;
+                }
+            }
+            Map<String, DirectoryManifest.Child> previousByName = previous != null && !reuse
+                ? DirectoryManifest.byName(previous.children()) : Map.of();
 
-                return FileVisitResult.CONTINUE;
+            GitignoreRules.Chain rules = gitignore;
+            if (respectGitignore && entries.stream().anyMatch(e -> e.child().name().equals(GITIGNORE) && !e.child().isDirectory())) {
+                rules = withGitignoreOf(dir, relativePath, gitignore);
             }
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (file.toString().endsWith(".java")) {
-                    // Skip test files if desired
-                    if (!file.toString().contains("Test.java")) {
-                        javaFiles.add(file);
+            List<DirectoryManifest.Child> recorded = new ArrayList<>(entries.size());
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            for (Entry entry : entries) {
+                DirectoryManifest.Child child = entry.child();
+                String name = child.name();
+                String path = relativePath.isEmpty() ? name : relativePath + "/" + name;
+                Path file = dir.resolve(name);
+
+                if (child.isDirectory()) {
+                    recorded.add(child);
+                    if (depth < MAX_DEPTH && !isExcludedDirectory(name, path, rules)) {
+                        BasicFileAttributes attrs = entry.attrs() != null ? entry.attrs() : stat(file);
+                        if (attrs != null && attrs.isDirectory()) {
+                            subdirectories.add(new DirectoryTask(file, path, depth + 1,
+                                attrs.lastModifiedTime().toMillis(), rules, consumer, unchanged));
+                        }
+                    } else {
+                        logger.debug("Skipping excluded directory: {}", file);
+                    }
+                } else if (includes.matches(name, path)
+                    && (excludes == null || !excludes.matches(name, path))
+                    && !rules.isIgnored(name, path, false)) {
+                    if (manifest == null) {
+                        consumer.accept(file);
+                        continue;
                     }
+                    // Unchanged files only go to the unchanged consumer
+                    BasicFileAttributes attrs = entry.attrs() != null ? entry.attrs() : stat(file);
+                    if (attrs == null) {
+                        continue;
+                    }
+                    DirectoryManifest.Child before = reuse ? child : previousByName.get(name);
+                    long size = attrs.size();
+                    long modified = attrs.lastModifiedTime().toMillis();
+                    recorded.add(manifest.recordFile(name, before, size, modified));
+                    if (DirectoryManifest.isChanged(before, size, modified)) {
+                        consumer.accept(file);
+                    } else {
+                        unchanged.accept(file);
+                    }
+                } else {
+                    recorded.add(child.kind() == DirectoryManifest.Kind.FILE
+                        ? child : new DirectoryManifest.Child(name, DirectoryManifest.Kind.FILE, 0, 0));
                 }
-                return FileVisitResult.CONTINUE;
             }
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                logger.warn("Failed to access: {}", file, exc);
-                return FileVisitResult.CONTINUE;
+            if (manifest != null) {
+                manifest.recordDirectory(relativePath, modifiedMillis, recorded, !reuse);
             }
-        });
+            invokeAll(subdirectories);
+        }
 
-        logger.info("Found {} Java files", javaFiles.size());
-        return javaFiles;
+        private List<Entry> list() {
+            List<Entry> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    BasicFileAttributes attrs = stat(file);
+                    if (attrs != null) {
+                        DirectoryManifest.Kind kind = attrs.isDirectory() ? DirectoryManifest.Kind.DIRECTORY : DirectoryManifest.Kind.FILE;
+                        entries.add(new Entry(new DirectoryManifest.Child(file.getFileName().toString(), kind, 0, 0), attrs));
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                logger.warn("Failed to access: {}", dir, e);
+                return null;
+            }
+            return entries;
+        }
     }
 
-    /**
-     * Scans directory for Java files including tests.
-     */
-    public List<Path> scanAllJavaFiles(Path rootDir) throws IOException {
-        logger.info("Scanning all Java files (including tests) in: {}", rootDir);
-        List<Path> javaFiles = new ArrayList<>();
-
-        try (Stream<Path> paths = Files.walk(rootDir, MAX_DEPTH)) {
-            paths.parallel()
-                .filter(Files::isRegularFile)
-                .filter(p -> p.toString().endsWith(".java"))
-                .filter(p -> !isInExcludedDir(p))
-                .forEach(javaFiles::add);
+    private static BasicFileAttributes stat(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            logger.warn("Failed to access: {}", file, e);
+            return null;
         }
+    }
 
-        logger.info("Found {} Java files", javaFiles.size());
-        return javaFiles;
+    private boolean isExcludedDirectory(String name, String path, GitignoreRules.Chain rules) {
+        return EXCLUDED_DIRS.contains(name)
+            || name.startsWith(".")
+            || (excludes != null && excludes.matches(name, path))
+            || rules.isIgnored(name, path, true);
     }
 
-    private boolean isInExcludedDir(Path file) {
-        for (Path component : file) {
-            String name = component.toString();
-            if (EXCLUDED_DIRS.contains(name) || name.startsWith(".")) {
-                return true;
-            }
+    private static GitignoreRules.Chain withGitignoreOf(Path dir, String relativePath, GitignoreRules.Chain parent) {
+        Path gitignore = dir.resolve(GITIGNORE);
+        try {
+            return parent.with(relativePath, GitignoreRules.parse(Files.readAllLines(gitignore, StandardCharsets.UTF_8)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read {}: {}", gitignore, e.getMessage());
+            return parent;
         }
-        return false;
     }
 
     /**
@@ -4,6 +4,7 @@ import com.pragmite.model.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -14,6 +15,12 @@ public class ScoreCalculator {
 
     private static final double MAX_SCORE = 100.0;
 
+    // Score points lost per violation
+    private static final double DRY_PENALTY = 10;
+    private static final double ORTHOGONALITY_PENALTY = 8;
+    private static final double CORRECTNESS_PENALTY = 15;
+    private static final double PERFORMANCE_PENALTY = 12;
+
     /**
      * Analiz sonuçlarından genel kalite skorunu hesaplar.
      */
@@ -26,6 +33,70 @@ public class ScoreCalculator {
         return new QualityScore(dryScore, orthogonalityScore, correctnessScore, performanceScore);
     }
 
+    /**
+     * Calculates the score of a project from weighted files, e.g. a sample in which each file
+     * stands for the given number of files of the project. Violations are counted with the
+     * weight of their file, so the score estimates the one of the whole project.
+     *
+     * @param weight Number of project files a file stands for (1 for every file: same score as
+     *               {@link #calculate} with the smells of the files)
+     */
+    public QualityScore calculateWeighted(List<FileAnalysis> fileAnalyses, ToDoubleFunction<FileAnalysis> weight) {
+        double dry = 0;
+        double orthogonality = 0;
+        double correctness = 0;
+        double performance = 0;
+        double highComplexity = 0;
+        for (FileAnalysis fileAnalysis : fileAnalyses) {
+            double w = weight.applyAsDouble(fileAnalysis);
+            dry += w * countViolations(fileAnalysis.getSmells(), PragmaticPrinciple.DRY);
+            orthogonality += w * countViolations(fileAnalysis.getSmells(), PragmaticPrinciple.ORTHOGONALITY);
+            correctness += w * countViolations(fileAnalysis.getSmells(), PragmaticPrinciple.CORRECTNESS);
+            performance += w * countViolations(fileAnalysis.getSmells(), PragmaticPrinciple.PERFORMANCE);
+            highComplexity += w * highComplexityMethods(fileAnalysis);
+        }
+        return calculateFromViolations(dry, orthogonality, correctness, performanceViolations(performance, highComplexity));
+    }
+
+    /**
+     * Calculates the score from (possibly estimated) violation counts per principle.
+     *
+     * @param performance Performance violations, see {@link #performanceViolations(double, double)}
+     */
+    public QualityScore calculateFromViolations(double dry, double orthogonality, double correctness, double performance) {
+        return new QualityScore(
+            calculateScoreFromViolations(dry, DRY_PENALTY),
+            calculateScoreFromViolations(orthogonality, ORTHOGONALITY_PENALTY),
+            calculateScoreFromViolations(correctness, CORRECTNESS_PENALTY),
+            calculateScoreFromViolations(performance, PERFORMANCE_PENALTY));
+    }
+
+    /**
+     * Number of smells of a file violating a principle.
+     */
+    public static long countViolations(List<CodeSmell> smells, PragmaticPrinciple principle) {
+        return smells.stream()
+            .filter(s -> s.getType().getPragmaticPrinciple() == principle)
+            .count();
+    }
+
+    /**
+     * Performance violations: performance smells plus every second method of O(n²) or worse,
+     * counted over the whole project (or an estimate of it).
+     */
+    public static double performanceViolations(double performanceSmells, double highComplexityMethods) {
+        return performanceSmells + Math.floor(highComplexityMethods / 2);
+    }
+
+    /**
+     * Number of methods of a file with O(n²) or worse complexity.
+     */
+    public static long highComplexityMethods(FileAnalysis fileAnalysis) {
+        return fileAnalysis.getMethods().stream()
+            .filter(m -> m.getBigOComplexity().ordinal() >= BigOComplexity.O_N_SQUARED.ordinal())
+            .count();
+    }
+
     /**
      * DRY (Don't Repeat Yourself) skoru.
      * Duplicate code, copy-paste gibi tekrar eden kod kokularını değerlendirir.
@@ -35,7 +106,7 @@ public class ScoreCalculator {
             .filter(s -> s.getType().getPragmaticPrinciple() == PragmaticPrinciple.DRY)
             .count();
 
-        return calculateScoreFromViolations(dryViolations, 10);
+        return calculateScoreFromViolations(dryViolations, DRY_PENALTY);
     }
 
     /**
@@ -47,7 +118,7 @@ public class ScoreCalculator {
             .filter(s -> s.getType().getPragmaticPrinciple() == PragmaticPrinciple.ORTHOGONALITY)
             .count();
 
-        return calculateScoreFromViolations(orthogonalityViolations, 8);
+        return calculateScoreFromViolations(orthogonalityViolations, ORTHOGONALITY_PENALTY);
     }
 
     /**
@@ -59,7 +130,7 @@ public class ScoreCalculator {
             .filter(s -> s.getType().getPragmaticPrinciple() == PragmaticPrinciple.CORRECTNESS)
             .count();
 
-        return calculateScoreFromViolations(correctnessViolations, 15);
+        return calculateScoreFromViolations(correctnessViolations, CORRECTNESS_PENALTY);
     }
 
     /**
@@ -78,16 +149,16 @@ public class ScoreCalculator {
             .filter(m -> m.getBigOComplexity().ordinal() >= BigOComplexity.O_N_SQUARED.ordinal())
             .count();
 
-        long totalViolations = performanceViolations + (highComplexityMethods / 2);
+        double totalViolations = performanceViolations(performanceViolations, highComplexityMethods);
 
-        return calculateScoreFromViolations(totalViolations, 12);
+        return calculateScoreFromViolations(totalViolations, PERFORMANCE_PENALTY);
     }
 
     /**
      * İhlal sayısından skor hesaplar.
      * Her ihlal skoru düşürür, ancak minimum 0'a iner.
      */
-    private double calculateScoreFromViolations(long violations, double penaltyPerViolation) {
+    private double calculateScoreFromViolations(double violations, double penaltyPerViolation) {
         double score = MAX_SCORE - (violations * penaltyPerViolation);
         return Math.max(0, Math.min(MAX_SCORE, score));
     }
@@ -0,0 +1,128 @@
+package com.pragmite.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts with AIMD (additive increase, multiplicative decrease).
+ *
+ * Every fast, successful call grows the limit by {@code 1/limit} (about +1 per round of calls);
+ * a throttled call (429/5xx, timeout) or one slower than the latency target halves it. Calls that
+ * started before the last decrease cannot trigger another one, so a single congestion event is
+ * only punished once.
+ * <pre>
+ * long permit = limiter.acquire();
+ * try { ... } finally { limiter.release(permit, outcome, latencyNanos); }
+ * </pre>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome { SUCCESS, THROTTLED, IGNORED }
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int peakInFlight;
+    private long lastDecrease;
+    private int decreaseCount;
+
+    /**
+     * @param initialLimit Starting limit
+     * @param maxLimit Upper bound for the limit
+     * @param latencyTargetMillis Calls slower than this count as congestion (0 = ignore latency)
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, long latencyTargetMillis) {
+        this.minLimit = 1;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(initialLimit, this.maxLimit));
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * Waits until a call may start.
+     *
+     * @return Permit (start timestamp) to pass to {@link #release}
+     */
+    public long acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+            peakInFlight = Math.max(peakInFlight, inFlight);
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call and adjusts the limit.
+     */
+    public void release(long permit, Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            boolean slow = latencyTargetNanos > 0 && latencyNanos > latencyTargetNanos;
+            if (outcome == Outcome.THROTTLED || (outcome == Outcome.SUCCESS && slow)) {
+                if (permit - lastDecrease >= 0) {
+                    limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+                    lastDecrease = System.nanoTime();
+                    decreaseCount++;
+                }
+            } else if (outcome == Outcome.SUCCESS) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPeakInFlight() {
+        lock.lock();
+        try {
+            return peakInFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getDecreaseCount() {
+        lock.lock();
+        try {
+            return decreaseCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
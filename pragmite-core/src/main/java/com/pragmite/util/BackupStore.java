@@ -0,0 +1,493 @@
+package com.pragmite.util;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed, deduplicated store for file backups.
+ *
+ * File contents are stored once as compressed blobs named by their SHA-256 hash
+ * ({@code objects/ab/cdef....gz}), so backing up an unchanged file again only adds an
+ * index entry. A small append-only index ({@code index.jsonl}) maps each backup
+ * (file, operation, time) to its blob and is kept in memory, so listing and restoring
+ * backups are lookups instead of directory scans.
+ *
+ * Pruning rewrites the index and deletes blobs no entry refers to any more.
+ *
+ * Several stores, in this or other processes, may share a directory: every change is made
+ * under a lock file ({@code index.lock}) after reloading the index, so pruning never drops
+ * another process's entries or deletes blobs they refer to. Reads reload the index when it
+ * changed on disk.
+ *
+ * Version: 1.6.3
+ *
+ * Usage:
+ * <pre>
+ * BackupStore store = new BackupStore(backupDir);
+ * BackupStore.Entry entry = store.put(file, "auto-apply");
+ * store.restore(entry, file);
+ * </pre>
+ */
+public class BackupStore {
+    private static final Logger logger = LoggerFactory.getLogger(BackupStore.class);
+
+    private static final String INDEX_FILE = "index.jsonl";
+    private static final String OBJECTS_DIR = "objects";
+    private static final String BLOB_EXTENSION = ".gz";
+    private static final String LOCK_FILE = "index.lock";
+
+    // File locks are held per JVM, so stores of one directory in this JVM also share a monitor
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final Gson gson = new Gson();
+    private final Path root;
+    private final Path indexFile;
+    private final List<Entry> entries = new ArrayList<>();    // Oldest first, as in the index
+    private final Object monitor;
+    private IndexVersion loadedVersion;                        // Index file state entries were read from
+
+    /**
+     * Open or create a store.
+     *
+     * @param root Store directory
+     */
+    public BackupStore(Path root) throws IOException {
+        this.root = root;
+        this.indexFile = root.resolve(INDEX_FILE);
+        this.monitor = MONITORS.computeIfAbsent(root.toAbsolutePath().normalize(), k -> new Object());
+        Files.createDirectories(root.resolve(OBJECTS_DIR));
+        refresh();
+    }
+
+    /**
+     * A backup: the content of a file at some time, stored as a blob.
+     *
+     * @param id Unique backup ID
+     * @param file Absolute path of the backed up file
+     * @param operation Operation that created the backup (e.g. a backup ID shared by several files)
+     * @param createdAt Creation time
+     * @param hash SHA-256 of the content, also the blob name
+     * @param size Uncompressed size in bytes
+     */
+    public record Entry(String id, Path file, String operation, Instant createdAt, String hash, long size) {
+    }
+
+    /**
+     * Back up a file. The content is written only if no backup has the same content.
+     */
+    public Entry put(Path file, String operation) throws IOException {
+        return put(file, Files.readAllBytes(file), operation);
+    }
+
+    /**
+     * Back up the given content of a file.
+     */
+    public synchronized Entry put(Path file, byte[] content, String operation) throws IOException {
+        String hash = hash(content);
+        Path blob = blobPath(hash);
+        Entry entry = new Entry(UUID.randomUUID().toString(), file.toAbsolutePath().normalize(), operation,
+            Instant.now(), hash, content.length);
+
+        // Under the lock, so a concurrent prune cannot delete the blob before the entry is indexed
+        withIndexLock(() -> {
+            if (!Files.exists(blob)) {
+                writeBlob(blob, content);
+            }
+            appendToIndex(entry);
+            return null;
+        });
+        logger.debug("Backed up {} as {} ({} bytes)", entry.file().getFileName(), hash, content.length);
+        return entry;
+    }
+
+    /**
+     * Content of a stored blob.
+     */
+    public byte[] read(String hash) throws IOException {
+        Path blob = blobPath(hash);
+        if (!Files.exists(blob)) {
+            throw new IOException("Backup content not found: " + hash);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(blob))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Write a backup's content to a file, replacing it atomically where supported.
+     */
+    public void restore(Entry entry, Path target) throws IOException {
+        restore(entry.hash(), target);
+    }
+
+    /**
+     * Write a blob's content to a file, replacing it atomically where supported.
+     */
+    public void restore(String hash, Path target) throws IOException {
+        byte[] content = read(hash);
+        if (!hash.equals(hash(content))) {
+            throw new IOException("Backup content is corrupted: " + hash);
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "." + target.getFileName(), ".restore");
+        try {
+            Files.write(temp, content);
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Backups of a file, newest first.
+     */
+    public synchronized List<Entry> entriesFor(Path file) {
+        refreshQuietly();
+        Path normalized = file.toAbsolutePath().normalize();
+        return select(e -> e.file().equals(normalized));
+    }
+
+    /**
+     * Backups of files with the given name in any directory, newest first.
+     */
+    public synchronized List<Entry> entriesNamed(String fileName) {
+        refreshQuietly();
+        return select(e -> e.file().getFileName().toString().equals(fileName));
+    }
+
+    /**
+     * Backups created by an operation, oldest first.
+     */
+    public synchronized List<Entry> entriesForOperation(String operation) {
+        refreshQuietly();
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.operation().equals(operation)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All backups, newest first.
+     */
+    public synchronized List<Entry> entries() {
+        refreshQuietly();
+        return select(e -> true);
+    }
+
+    /**
+     * Operations that have backups, newest first.
+     */
+    public synchronized List<String> operations() {
+        refreshQuietly();
+        Set<String> operations = new LinkedHashSet<>();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            operations.add(entries.get(i).operation());
+        }
+        return new ArrayList<>(operations);
+    }
+
+    /**
+     * Path of the blob holding a backup's content (compressed).
+     */
+    public Path blobPath(String hash) {
+        return root.resolve(OBJECTS_DIR).resolve(hash.substring(0, 2)).resolve(hash.substring(2) + BLOB_EXTENSION);
+    }
+
+    /**
+     * Hash of the blob at the given path, if the path is a blob of this store.
+     */
+    public Optional<String> hashOf(Path blob) {
+        Path objects = root.resolve(OBJECTS_DIR).toAbsolutePath().normalize();
+        Path path = blob.toAbsolutePath().normalize();
+        String name = path.getFileName().toString();
+        if (!path.startsWith(objects) || path.getNameCount() != objects.getNameCount() + 2
+            || !name.endsWith(BLOB_EXTENSION)) {
+            return Optional.empty();
+        }
+        return Optional.of(path.getParent().getFileName() + name.substring(0, name.length() - BLOB_EXTENSION.length()));
+    }
+
+    /**
+     * Keep only the newest backups of a file.
+     *
+     * @return Number of removed backups
+     */
+    public synchronized int retainLatest(Path file, int keep) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        return remove(current -> {
+            List<Entry> backups = select(e -> e.file().equals(normalized)); // Newest first
+            return backups.size() <= keep ? List.of() : backups.subList(keep, backups.size());
+        });
+    }
+
+    /**
+     * Remove all backups of an operation.
+     *
+     * @return Number of removed backups
+     */
+    public synchronized int removeOperation(String operation) throws IOException {
+        return remove(current -> current.stream().filter(e -> e.operation().equals(operation)).toList());
+    }
+
+    /**
+     * Remove backups created before the given time.
+     *
+     * @return Number of removed backups
+     */
+    public synchronized int removeOlderThan(Instant cutoff) throws IOException {
+        return remove(current -> current.stream().filter(e -> e.createdAt().isBefore(cutoff)).toList());
+    }
+
+    /**
+     * Store directory
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Under the index lock, reload the index, remove the selected entries, rewrite the index
+     * and delete blobs no longer referenced.
+     *
+     * @param selector Picks the entries to remove from the current (reloaded) entries
+     */
+    private int remove(Function<List<Entry>, List<Entry>> selector) throws IOException {
+        int count = withIndexLock(() -> {
+            Set<String> removedIds = new HashSet<>();
+            selector.apply(entries).forEach(e -> removedIds.add(e.id()));
+            if (removedIds.isEmpty()) {
+                return 0;
+            }
+            List<Entry> removed = entries.stream().filter(e -> removedIds.contains(e.id())).toList();
+            entries.removeAll(removed);
+            rewriteIndex();
+
+            Set<String> live = new HashSet<>();
+            entries.forEach(e -> live.add(e.hash()));
+            for (Entry entry : removed) {
+                if (!live.contains(entry.hash())) {
+                    Files.deleteIfExists(blobPath(entry.hash()));
+                }
+            }
+            return removed.size();
+        });
+        if (count > 0) {
+            logger.debug("Removed {} backups", count);
+        }
+        return count;
+    }
+
+    /**
+     * Run an action holding the store's in-process monitor and its lock file, with the
+     * entries reloaded first if another store changed the index. Afterwards the entries
+     * match the index file.
+     */
+    private <T> T withIndexLock(IndexAction<T> action) throws IOException {
+        synchronized (monitor) {
+            try (FileChannel channel = FileChannel.open(root.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.lock(); // Released when the channel is closed
+                refresh();
+                T result;
+                try {
+                    result = action.run();
+                } catch (IOException | RuntimeException e) {
+                    loadedVersion = null; // Entries may no longer match the file: reload next time
+                    throw e;
+                }
+                loadedVersion = IndexVersion.of(indexFile);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Reload the entries if the index file changed since they were read.
+     */
+    private void refresh() throws IOException {
+        IndexVersion current = IndexVersion.of(indexFile);
+        if (loadedVersion != null && loadedVersion.equals(current)) {
+            return;
+        }
+        entries.clear();
+        loadIndex();
+        loadedVersion = current;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException e) {
+            logger.warn("Could not reload backup index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    private List<Entry> select(Predicate<Entry> filter) {
+        return entries.stream()
+            .filter(filter)
+            .sorted(Comparator.comparing(Entry::createdAt).reversed())
+            .toList();
+    }
+
+    private void writeBlob(Path blob, byte[] content) throws IOException {
+        Files.createDirectories(blob.getParent());
+        Path temp = Files.createTempFile(blob.getParent(), blob.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(content);
+            }
+            // A concurrent writer of the same content produces the same blob
+            move(temp, blob);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        int skipped = 0;
+        for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                IndexLine indexLine = gson.fromJson(line, IndexLine.class);
+                entries.add(indexLine.toEntry());
+            } catch (RuntimeException e) {
+                // A partially written last line after a crash
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} unreadable backup index entries in {}", skipped, indexFile);
+        }
+        entries.sort(Comparator.comparing(Entry::createdAt));
+    }
+
+    private void appendToIndex(Entry entry) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(gson.toJson(IndexLine.of(entry)));
+            writer.newLine();
+        }
+        entries.add(entry);
+    }
+
+    private void rewriteIndex() throws IOException {
+        Path temp = Files.createTempFile(root, INDEX_FILE, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Entry entry : entries) {
+                    writer.write(gson.toJson(IndexLine.of(entry)));
+                    writer.newLine();
+                }
+            }
+            move(temp, indexFile);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * SHA-256 of content, as lowercase hex.
+     */
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every Java platform
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Identity of the index file's content: rewriting replaces the file, appending changes its size.
+     */
+    private record IndexVersion(Object fileKey, long size, long modified) {
+        static IndexVersion of(Path indexFile) throws IOException {
+            if (!Files.exists(indexFile)) {
+                return new IndexVersion(null, -1, -1);
+            }
+            BasicFileAttributes attributes = Files.readAttributes(indexFile, BasicFileAttributes.class);
+            return new IndexVersion(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+    }
+
+    /**
+     * Index line as stored in index.jsonl.
+     */
+    private static final class IndexLine {
+        String id;
+        String file;
+        String operation;
+        String createdAt;
+        String hash;
+        long size;
+
+        static IndexLine of(Entry entry) {
+            IndexLine line = new IndexLine();
+            line.id = entry.id();
+            line.file = entry.file().toString();
+            line.operation = entry.operation();
+            line.createdAt = entry.createdAt().toString();
+            line.hash = entry.hash();
+            line.size = entry.size();
+            return line;
+        }
+
+        Entry toEntry() {
+            return new Entry(id, Path.of(file), operation, Instant.parse(createdAt), hash, size);
+        }
+    }
+}
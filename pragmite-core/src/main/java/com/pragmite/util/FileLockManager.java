@@ -7,8 +7,16 @@ import java.io.IOException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,11 +24,37 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Manages file locks to prevent concurrent edits during refactoring.
  * Thread-safe implementation using file system locks.
+ *
+ * By default the file itself is locked. A manager created with a lock directory locks a sidecar
+ * file there instead, named after the file's path: that lock stays valid when the file is
+ * replaced by renaming a new file over it, and does not keep other readers (e.g. backups on
+ * Windows) from opening the file. Sidecar files are deleted when their lock is released.
  */
 public class FileLockManager {
     private static final Logger logger = LoggerFactory.getLogger(FileLockManager.class);
 
     private final Map<String, LockInfo> locks = new ConcurrentHashMap<>();
+    private final Path lockDirectory;
+
+    public FileLockManager() {
+        this(null);
+    }
+
+    /**
+     * @param lockDirectory Directory of the sidecar lock files, or null to lock the files themselves
+     */
+    public FileLockManager(Path lockDirectory) {
+        this.lockDirectory = lockDirectory;
+    }
+
+    /**
+     * Directory for sidecar locks in the user's home, so all Pragmite processes of the user lock
+     * the same files. A shared directory such as the temp directory would be owned by whichever
+     * user created it first and be unwritable for the others.
+     */
+    public static Path defaultLockDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".pragmite", "locks");
+    }
 
     /**
      * Acquires an exclusive lock on a file.
@@ -40,21 +74,11 @@ public class FileLockManager {
         }
 
         try {
-            // Open file for reading and writing to get a FileChannel
-            FileChannel channel = FileChannel.open(
-                filePath,
-                StandardOpenOption.READ,
-                StandardOpenOption.WRITE
-            );
-
-            // Try to acquire exclusive lock
-            FileLock lock = channel.lock();
-
-            String lockToken = generateLockToken(absolutePath);
-            locks.put(absolutePath, new LockInfo(lockToken, lock, channel));
+            LockInfo lockInfo = lock(filePath, true);
+            locks.put(absolutePath, lockInfo);
 
             logger.debug("Acquired lock on file: {}", absolutePath);
-            return lockToken;
+            return lockInfo.token;
 
         } catch (OverlappingFileLockException e) {
             logger.error("File is locked by another process: {}", absolutePath);
@@ -77,25 +101,14 @@ public class FileLockManager {
         }
 
         try {
-            FileChannel channel = FileChannel.open(
-                filePath,
-                StandardOpenOption.READ,
-                StandardOpenOption.WRITE
-            );
-
-            // Try to acquire lock without blocking
-            FileLock lock = channel.tryLock();
-
-            if (lock == null) {
-                channel.close();
+            LockInfo lockInfo = lock(filePath, false);
+            if (lockInfo == null) {
                 return null; // Could not acquire lock
             }
-
-            String lockToken = generateLockToken(absolutePath);
-            locks.put(absolutePath, new LockInfo(lockToken, lock, channel));
+            locks.put(absolutePath, lockInfo);
 
             logger.debug("Acquired lock on file: {}", absolutePath);
-            return lockToken;
+            return lockInfo.token;
 
         } catch (OverlappingFileLockException e) {
             return null; // File is locked
@@ -124,8 +137,7 @@ public class FileLockManager {
         }
 
         try {
-            lockInfo.lock.release();
-            lockInfo.channel.close();
+            unlock(lockInfo);
             locks.remove(absolutePath);
 
             logger.debug("Released lock on file: {}", absolutePath);
@@ -153,8 +165,7 @@ public class FileLockManager {
 
         for (Map.Entry<String, LockInfo> entry : locks.entrySet()) {
             try {
-                entry.getValue().lock.release();
-                entry.getValue().channel.close();
+                unlock(entry.getValue());
                 logger.debug("Released lock on: {}", entry.getKey());
             } catch (IOException e) {
                 logger.error("Error releasing lock on: {}", entry.getKey(), e);
@@ -171,6 +182,103 @@ public class FileLockManager {
         return locks.size();
     }
 
+    /**
+     * Locks the file itself, or its sidecar lock file.
+     *
+     * @param block Whether to wait for the lock
+     * @return The held lock, or null if it is taken and block is false
+     */
+    private LockInfo lock(Path filePath, boolean block) throws IOException {
+        String token = generateLockToken(filePath.toAbsolutePath().toString());
+        if (lockDirectory == null) {
+            // Open file for reading and writing to get a FileChannel
+            FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock lock = acquire(channel, block);
+            return lock == null ? null : new LockInfo(token, lock, channel, null);
+        }
+
+        Path sidecar = lockDirectory.resolve(sidecarName(filePath));
+        while (true) {
+            Files.createDirectories(lockDirectory);
+            FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            Object fileKey;
+            try {
+                fileKey = Files.readAttributes(sidecar, BasicFileAttributes.class).fileKey();
+            } catch (NoSuchFileException e) {
+                channel.close();
+                continue; // Deleted by the previous holder in the meantime
+            }
+            FileLock lock = acquire(channel, block);
+            if (lock == null) {
+                return null;
+            }
+            // The previous holder deletes the sidecar on release; a lock on the deleted file protects nothing
+            if (isCurrentSidecar(sidecar, fileKey)) {
+                return new LockInfo(token, lock, channel, sidecar);
+            }
+            lock.release();
+            channel.close();
+        }
+    }
+
+    /**
+     * Locks the channel; closes it if the lock is not acquired.
+     */
+    private static FileLock acquire(FileChannel channel, boolean block) throws IOException {
+        try {
+            FileLock lock = block ? channel.lock() : channel.tryLock();
+            if (lock == null) {
+                channel.close();
+            }
+            return lock;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the sidecar path still names the file that was opened.
+     */
+    private static boolean isCurrentSidecar(Path sidecar, Object fileKey) throws IOException {
+        try {
+            Object current = Files.readAttributes(sidecar, BasicFileAttributes.class).fileKey();
+            // Without file keys (Windows) an open file cannot be deleted, so existing is enough
+            return fileKey == null || fileKey.equals(current);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Releases a held lock and deletes its sidecar file.
+     */
+    private static void unlock(LockInfo lockInfo) throws IOException {
+        try {
+            if (lockInfo.sidecar != null) {
+                // Deleted while still locked, so waiters can tell they must lock a new sidecar
+                try {
+                    Files.deleteIfExists(lockInfo.sidecar);
+                } catch (IOException e) {
+                    logger.debug("Could not delete lock file {}: {}", lockInfo.sidecar, e.getMessage());
+                }
+            }
+            lockInfo.lock.release();
+        } finally {
+            lockInfo.channel.close();
+        }
+    }
+
+    private static String sidecarName(Path filePath) {
+        String path = filePath.toAbsolutePath().normalize().toString();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + ".lock";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Generates a unique lock token.
      */
@@ -186,11 +294,13 @@ public class FileLockManager {
         final String token;
         final FileLock lock;
         final FileChannel channel;
+        final Path sidecar;     // Null if the file itself is locked
 
-        LockInfo(String token, FileLock lock, FileChannel channel) {
+        LockInfo(String token, FileLock lock, FileChannel channel, Path sidecar) {
             this.token = token;
             this.lock = lock;
             this.channel = channel;
+            this.sidecar = sidecar;
         }
     }
 }
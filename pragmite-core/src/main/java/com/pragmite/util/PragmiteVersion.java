@@ -0,0 +1,13 @@
+package com.pragmite.util;
+
+/**
+ * The Pragmite release, as reported by the CLI, in SARIF reports and in stored analysis runs.
+ * Kept equal to the project version in pom.xml (checked by PragmiteVersionTest).
+ */
+public final class PragmiteVersion {
+
+    public static final String VERSION = "1.6.3";
+
+    private PragmiteVersion() {
+    }
+}
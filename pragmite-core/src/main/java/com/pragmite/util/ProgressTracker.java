@@ -3,9 +3,18 @@ package com.pragmite.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Tracks progress of long-running operations with ETA calculation.
  * Thread-safe implementation supporting nested operations.
+ *
+ * Lock-free: progress is a {@link LongAdder}, so many workers can report completed
+ * items without contending on a lock. The listener is notified once per whole percent
+ * instead of on every update, so tracking 50,000 files produces at most about 100
+ * notifications.
  */
 public class ProgressTracker {
     private static final Logger logger = LoggerFactory.getLogger(ProgressTracker.class);
@@ -14,11 +23,12 @@ public class ProgressTracker {
     private final long total;
     private final ProgressListener listener;
 
-    private long current = 0;
-    private long startTimeMs;
-    private long lastUpdateTimeMs;
-    private boolean started = false;
-    private boolean completed = false;
+    private final LongAdder progress = new LongAdder();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicInteger lastNotifiedPercent = new AtomicInteger(-1);
+    private volatile long startTimeMs;
+    private volatile long lastUpdateTimeMs;
 
     // For nested operations
     private ProgressTracker parentTracker;
@@ -33,13 +43,12 @@ public class ProgressTracker {
     /**
      * Starts tracking progress.
      */
-    public synchronized void start() {
-        if (started) {
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
             logger.warn("Progress tracker for '{}' already started", operationName);
             return;
         }
 
-        this.started = true;
         this.startTimeMs = System.currentTimeMillis();
         this.lastUpdateTimeMs = startTimeMs;
 
@@ -49,77 +58,100 @@ public class ProgressTracker {
 
     /**
      * Updates progress with a specific value.
+     * Concurrent updates with absolute values may interleave; use {@link #increment(String)}
+     * from parallel workers.
      *
      * @param current Current progress value
      * @param message Descriptive message
      */
-    public synchronized void update(long current, String message) {
-        if (!started) {
-            logger.warn("Progress tracker for '{}' not started", operationName);
+    public void update(long current, String message) {
+        if (!checkActive()) {
             return;
         }
+        progress.add(Math.min(current, total) - progress.sum());
+        progressed(message);
+    }
 
-        if (completed) {
-            logger.warn("Progress tracker for '{}' already completed", operationName);
+    /**
+     * Increments progress by 1.
+     *
+     * @param message Descriptive message
+     */
+    public void increment(String message) {
+        incrementBy(1, message);
+    }
+
+    /**
+     * Increments progress by a specific amount.
+     *
+     * @param amount Amount to increment
+     * @param message Descriptive message
+     */
+    public void incrementBy(long amount, String message) {
+        if (!checkActive()) {
             return;
         }
+        progress.add(amount);
+        progressed(message);
+    }
+
+    private boolean checkActive() {
+        if (!started.get()) {
+            logger.warn("Progress tracker for '{}' not started", operationName);
+            return false;
+        }
+        if (completed.get()) {
+            logger.warn("Progress tracker for '{}' already completed", operationName);
+            return false;
+        }
+        return true;
+    }
 
-        this.current = Math.min(current, total);
+    /**
+     * Notifies the listener and parent when progress reached a new whole percent.
+     */
+    private void progressed(String message) {
         this.lastUpdateTimeMs = System.currentTimeMillis();
 
-        listener.onProgress(this.current, total, message);
+        long current = getCurrent();
+        int percent = total == 0 ? 100 : (int) (current * 100 / total);
+        int notified = lastNotifiedPercent.get();
+        if (percent <= notified || !lastNotifiedPercent.compareAndSet(notified, percent)) {
+            // Already reported by this or another thread
+            return;
+        }
+
+        listener.onProgress(current, total, message);
 
         // Update parent tracker if exists
         if (parentTracker != null) {
-            double progressPercentage = getProgressPercentage();
-            double parentProgress = progressPercentage * parentProgressContribution;
+            double parentProgress = getProgressPercentage() * parentProgressContribution;
             parentTracker.updateFromChild(parentProgress);
         }
 
         // Log progress at 10% intervals
-        double percentage = getProgressPercentage();
-        if (percentage % 10 < 0.1 || this.current == total) {
+        if (percent / 10 > notified / 10 || current == total) {
             logger.info("Progress for '{}': {}% ({}/{}) - {} - ETA: {}",
                        operationName,
-                       String.format("%.1f", percentage),
-                       this.current,
+                       String.format("%.1f", getProgressPercentage()),
+                       current,
                        total,
                        message,
                        getFormattedETA());
         }
     }
 
-    /**
-     * Increments progress by 1.
-     *
-     * @param message Descriptive message
-     */
-    public synchronized void increment(String message) {
-        update(current + 1, message);
-    }
-
-    /**
-     * Increments progress by a specific amount.
-     *
-     * @param amount Amount to increment
-     * @param message Descriptive message
-     */
-    public synchronized void incrementBy(long amount, String message) {
-        update(current + amount, message);
-    }
-
     /**
      * Marks the operation as complete.
      *
      * @param success Whether the operation succeeded
      */
-    public synchronized void complete(boolean success) {
-        if (completed) {
+    public void complete(boolean success) {
+        if (!completed.compareAndSet(false, true)) {
             return;
         }
 
-        this.completed = true;
-        this.current = total;
+        progress.add(total - progress.sum());
 
         listener.onComplete(operationName, success);
 
@@ -133,18 +165,19 @@ public class ProgressTracker {
     /**
      * Gets current progress percentage (0-100).
      */
-    public synchronized double getProgressPercentage() {
+    public double getProgressPercentage() {
         if (total == 0) {
             return 0.0;
         }
-        return (double) current / total * 100.0;
+        return (double) getCurrent() / total * 100.0;
     }
 
     /**
      * Gets estimated time remaining in milliseconds.
      * Returns -1 if ETA cannot be calculated.
      */
-    public synchronized long getETAMillis() {
+    public long getETAMillis() {
+        long current = getCurrent();
         if (current == 0 || total == 0) {
             return -1;
         }
@@ -164,7 +197,7 @@ public class ProgressTracker {
     /**
      * Gets formatted ETA string.
      */
-    public synchronized String getFormattedETA() {
+    public String getFormattedETA() {
         long etaMs = getETAMillis();
         if (etaMs < 0) {
             return "calculating...";
@@ -175,8 +208,8 @@ public class ProgressTracker {
     /**
      * Gets elapsed time in milliseconds.
      */
-    public synchronized long getElapsedMillis() {
-        if (!started) {
+    public long getElapsedMillis() {
+        if (!started.get()) {
             return 0;
         }
         return System.currentTimeMillis() - startTimeMs;
@@ -202,13 +235,13 @@ public class ProgressTracker {
     /**
      * Updates progress from a child tracker.
      */
-    private synchronized void updateFromChild(double childProgress) {
+    private void updateFromChild(double childProgress) {
         // Child progress is already weighted by parentProgressContribution
         long childContributionAbsolute = (long) (childProgress / 100.0 * total);
 
         // Don't let child updates decrease overall progress
-        if (current + childContributionAbsolute > current) {
-            update(current + childContributionAbsolute, "Processing subtask");
+        if (childContributionAbsolute > 0) {
+            incrementBy(childContributionAbsolute, "Processing subtask");
         }
     }
 
@@ -234,14 +267,14 @@ public class ProgressTracker {
     /**
      * Gets current progress value.
      */
-    public synchronized long getCurrent() {
-        return current;
+    public long getCurrent() {
+        return Math.min(progress.sum(), total);
     }
 
     /**
      * Gets total progress value.
      */
-    public synchronized long getTotal() {
+    public long getTotal() {
         return total;
     }
 
@@ -255,14 +288,14 @@ public class ProgressTracker {
     /**
      * Checks if tracker has been started.
      */
-    public synchronized boolean isStarted() {
-        return started;
+    public boolean isStarted() {
+        return started.get();
     }
 
     /**
      * Checks if tracker has been completed.
      */
-    public synchronized boolean isCompleted() {
-        return completed;
+    public boolean isCompleted() {
+        return completed.get();
     }
 }
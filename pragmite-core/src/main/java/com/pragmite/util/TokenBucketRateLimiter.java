@@ -0,0 +1,92 @@
+package com.pragmite.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter.
+ *
+ * Tokens refill continuously at {@code permitsPerSecond} up to {@code burst}. A caller that finds
+ * the bucket empty reserves the next token and sleeps until it is due, so concurrent callers are
+ * spaced out evenly instead of waking up together. {@link #pauseFor} blocks everybody for a while,
+ * e.g. when a server answers with Retry-After.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param permitsPerSecond Sustained rate, must be positive
+     * @param burst Maximum number of permits that can be taken back to back
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Creates a limiter for a per-minute budget, allowing a small burst.
+     */
+    public static TokenBucketRateLimiter perMinute(int permitsPerMinute) {
+        return new TokenBucketRateLimiter(permitsPerMinute / 60.0, Math.max(1, permitsPerMinute / 10));
+    }
+
+    /**
+     * Takes one permit, waiting until it is available.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes one permit only if it is available right now.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        refill(now);
+        if (now < pausedUntil || tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Blocks all permits for the given time (does not shorten an existing pause).
+     */
+    public synchronized void pauseFor(long duration, TimeUnit unit) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * Reserves a permit and returns how long the caller has to wait for it.
+     * Tokens may go negative: each reservation pushes the next one further out.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= 1;
+        long tokenWait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        return Math.max(tokenWait, pausedUntil - now);
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.pragmite.validation;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * File manager that keeps compiler output in memory.
+ *
+ * Wraps a long-lived {@link StandardJavaFileManager}, so the opened platform modules and
+ * classpath archives are reused by every compilation instead of being read again per file.
+ * Class files are captured in memory rather than written next to the sources, and sources
+ * can be given as strings via {@link #source(String, String)}.
+ *
+ * Previously compiled classes can be served back to the compiler on the classpath
+ * ({@link #setClassInputs(Map)}), so a changed file is compiled against the rest of the
+ * project without recompiling it.
+ *
+ * Not thread-safe: use one compilation at a time.
+ *
+ * Version: 1.6.3
+ */
+public class InMemoryJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<String, ClassOutput> classes = new LinkedHashMap<>();
+    private Map<String, List<ClassInput>> classInputsByPackage = Map.of();
+    private Set<String> hiddenClassInputs = Set.of();
+
+    public InMemoryJavaFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    /**
+     * Creates an in-memory source file for a class.
+     *
+     * @param className Fully qualified class name (e.g., "com.example.MyClass")
+     * @param sourceCode Java source code
+     */
+    public static JavaFileObject source(String className, String sourceCode) {
+        return new SourceInput(className, sourceCode);
+    }
+
+    /**
+     * Creates an in-memory source file with the contents of a file that may not be saved yet.
+     */
+    public static JavaFileObject source(Path file, String sourceCode) {
+        return new SourceInput(file.toAbsolutePath().toUri(), sourceCode);
+    }
+
+    /**
+     * Serves compiled classes on the classpath, ahead of the classpath entries.
+     *
+     * @param classInputs Class files by binary name
+     */
+    public void setClassInputs(Map<String, byte[]> classInputs) {
+        Map<String, List<ClassInput>> byPackage = new HashMap<>();
+        classInputs.forEach((name, bytes) -> {
+            int dot = name.lastIndexOf('.');
+            String packageName = dot < 0 ? "" : name.substring(0, dot);
+            byPackage.computeIfAbsent(packageName, k -> new ArrayList<>()).add(new ClassInput(name, bytes));
+        });
+        this.classInputsByPackage = byPackage;
+    }
+
+    /**
+     * Hides class inputs, e.g. the old classes of the files being recompiled.
+     *
+     * @param binaryNames Binary names to hide, empty to show all
+     */
+    public void setHiddenClassInputs(Set<String> binaryNames) {
+        this.hiddenClassInputs = binaryNames;
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName,
+                                         Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+        Iterable<JavaFileObject> listed = super.list(location, packageName, kinds, recurse);
+        if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)
+            || classInputsByPackage.isEmpty()) {
+            return listed;
+        }
+
+        List<JavaFileObject> result = new ArrayList<>();
+        classInputsByPackage.forEach((inputPackage, inputs) -> {
+            if (inputPackage.equals(packageName)
+                || (recurse && (packageName.isEmpty() || inputPackage.startsWith(packageName + ".")))) {
+                for (ClassInput input : inputs) {
+                    if (!hiddenClassInputs.contains(input.binaryName)) {
+                        result.add(input);
+                    }
+                }
+            }
+        });
+        listed.forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        if (file instanceof ClassInput input) {
+            return input.binaryName;
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                               JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+        if (kind == JavaFileObject.Kind.CLASS && location == StandardLocation.CLASS_OUTPUT) {
+            ClassOutput output = new ClassOutput(className, sibling != null ? sibling.toUri() : null);
+            classes.put(className, output);
+            return output;
+        }
+        return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+
+    /**
+     * Underlying file manager, e.g. to set the classpath once for all compilations.
+     */
+    public StandardJavaFileManager getStandardFileManager() {
+        return fileManager;
+    }
+
+    /**
+     * Class files produced since the last {@link #clearClasses()}, by binary name.
+     */
+    public Map<String, byte[]> getCompiledClasses() {
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        classes.forEach((name, output) -> result.put(name, output.bytes.toByteArray()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Source file each captured class was compiled from, by binary name.
+     */
+    public Map<String, URI> getCompiledClassSources() {
+        Map<String, URI> result = new LinkedHashMap<>();
+        classes.forEach((name, output) -> result.put(name, output.source));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Drops captured class files so memory does not grow across compilations.
+     */
+    public void clearClasses() {
+        classes.clear();
+    }
+
+    /**
+     * Source file held in memory.
+     */
+    private static final class SourceInput extends SimpleJavaFileObject {
+        private final String sourceCode;
+
+        SourceInput(String className, String sourceCode) {
+            this(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), sourceCode);
+        }
+
+        SourceInput(URI uri, String sourceCode) {
+            super(uri, Kind.SOURCE);
+            this.sourceCode = sourceCode;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return sourceCode;
+        }
+    }
+
+    /**
+     * Class file written to memory.
+     */
+    private static final class ClassOutput extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final URI source;
+
+        ClassOutput(String className, URI source) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.source = source;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            bytes.reset();
+            return bytes;
+        }
+    }
+
+    /**
+     * Compiled class served from memory.
+     */
+    private static final class ClassInput extends SimpleJavaFileObject {
+        private final String binaryName;
+        private final byte[] bytes;
+
+        ClassInput(String binaryName, byte[] bytes) {
+            super(URI.create("mem:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+}
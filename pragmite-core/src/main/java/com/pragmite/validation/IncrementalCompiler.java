@@ -0,0 +1,300 @@
+package com.pragmite.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Semantic validation of changed files against a warm, in-memory build of the project.
+ *
+ * {@link #warmUp(List)} compiles the project's sources once and keeps the class files in
+ * memory. After that, {@link #validate(Map)} compiles only the changed compilation units
+ * against those classes, so each check sees the real project types at a cost that does not
+ * grow with the project size. Files that do not compile during warm-up are left out of the
+ * cache and reported by {@link #getUnavailableSources()}. Other files that use a changed
+ * type are not rechecked.
+ *
+ * Version: 1.6.3
+ *
+ * Usage:
+ * <pre>
+ * IncrementalCompiler compiler = IncrementalCompiler.forProject(projectRoot);
+ * ValidationResult result = compiler.validate(Map.of(file, newContent)).get(file);
+ * if (result.isValid()) {
+ *     compiler.update(Map.of(file, newContent)); // after the change is saved
+ * }
+ * </pre>
+ */
+public class IncrementalCompiler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalCompiler.class);
+
+    private static final int MAX_WARM_UP_PASSES = 5;
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of("target", "build", "out", ".git", ".pragmite", "node_modules");
+
+    private final JavaCompiler compiler;
+    private final InMemoryJavaFileManager fileManager;
+    private final List<String> compilerOptions;
+
+    private final Map<String, byte[]> classes = new HashMap<>();           // Binary name -> class file
+    private final Map<Path, Set<String>> classesBySource = new HashMap<>();
+    private final Set<Path> unavailableSources = new LinkedHashSet<>();
+
+    /**
+     * Create an incremental compiler
+     *
+     * @param classpath External classpath entries (libraries), without the project's own output
+     */
+    public IncrementalCompiler(List<String> classpath) {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException(
+                "No Java compiler available. Make sure you're running with JDK (not JRE)"
+            );
+        }
+
+        this.fileManager = new InMemoryJavaFileManager(
+            compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
+        try {
+            List<File> entries = new ArrayList<>();
+            for (String entry : classpath) {
+                entries.add(new File(entry));
+            }
+            // Set explicitly so javac does not fall back to this tool's own classpath
+            fileManager.getStandardFileManager().setLocation(StandardLocation.CLASS_PATH, entries);
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid classpath: " + e.getMessage(), e);
+        }
+
+        this.compilerOptions = List.of(
+            "-encoding", "UTF-8",
+            "-proc:none",
+            "-g:none",                          // Classes are only read back for their symbols
+            "-XDshould-stop.ifError=FLOW",      // Report errors of every file in a batch
+            "-Xmaxerrs", "100000"
+        );
+    }
+
+    /**
+     * Create an incremental compiler for a project and compile its sources once.
+     * Uses src/main/java when present, otherwise all sources below the project root.
+     */
+    public static IncrementalCompiler forProject(Path projectRoot) throws IOException {
+        List<String> classpath = new ArrayList<>();
+        try (JavacValidator detector = new JavacValidator()) {
+            for (String entry : detector.detectClasspath(projectRoot)) {
+                // The project's own output would shadow the sources being changed
+                Path path = Path.of(entry);
+                if (!path.endsWith(Path.of("target", "classes")) && !path.endsWith(Path.of("build", "classes", "java", "main"))) {
+                    classpath.add(entry);
+                }
+            }
+        }
+
+        Path sourceRoot = projectRoot.resolve("src/main/java");
+        if (!Files.isDirectory(sourceRoot)) {
+            sourceRoot = projectRoot;
+        }
+
+        IncrementalCompiler incremental = new IncrementalCompiler(classpath);
+        incremental.warmUp(findSources(sourceRoot));
+        return incremental;
+    }
+
+    private static List<Path> findSources(Path sourceRoot) throws IOException {
+        try (Stream<Path> files = Files.walk(sourceRoot)) {
+            return files
+                .filter(p -> p.toString().endsWith(".java"))
+                .filter(p -> Files.isRegularFile(p))
+                .filter(p -> {
+                    for (Path part : sourceRoot.relativize(p)) {
+                        if (SKIPPED_DIRECTORIES.contains(part.toString())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compile the given sources into the class cache, replacing its contents.
+     * Sources with errors, and sources depending on them, are left out.
+     *
+     * @return Number of classes in the cache
+     */
+    public synchronized int warmUp(List<Path> sourceFiles) throws IOException {
+        long start = System.nanoTime();
+        classes.clear();
+        classesBySource.clear();
+        unavailableSources.clear();
+
+        Map<Path, String> sources = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            sources.put(sourceFile.toAbsolutePath(), Files.readString(sourceFile, StandardCharsets.UTF_8));
+        }
+
+        // Class files are generated only when the whole batch compiles, so drop failing files and retry
+        for (int pass = 1; pass <= MAX_WARM_UP_PASSES && !sources.isEmpty(); pass++) {
+            Map<Path, ValidationResult> results = compile(sources, true);
+            List<Path> failed = results.entrySet().stream()
+                .filter(e -> !e.getValue().isValid())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            if (failed.isEmpty()) {
+                break;
+            }
+            logger.debug("Warm-up pass {}: {} files do not compile", pass, failed.size());
+            failed.forEach(sources::remove);
+            unavailableSources.addAll(failed);
+        }
+        if (classes.isEmpty() && !sources.isEmpty()) {
+            unavailableSources.addAll(sources.keySet());
+        }
+        fileManager.setClassInputs(classes);
+
+        logger.info("Class cache warmed up: {} classes from {} files in {} ms ({} files unavailable)",
+            classes.size(), classesBySource.size(), (System.nanoTime() - start) / 1_000_000, unavailableSources.size());
+        return classes.size();
+    }
+
+    /**
+     * Compile changed files against the class cache without changing it.
+     *
+     * @param changedSources New content by file
+     * @return ValidationResult per file, in the order given
+     */
+    public synchronized Map<Path, ValidationResult> validate(Map<Path, String> changedSources) {
+        return compile(absolute(changedSources), false);
+    }
+
+    /**
+     * Compile changed files and, if they compile, replace their classes in the cache.
+     * Call after the changes are saved so later validations see them.
+     *
+     * @return ValidationResult per file, in the order given
+     */
+    public synchronized Map<Path, ValidationResult> update(Map<Path, String> changedSources) {
+        Map<Path, String> sources = absolute(changedSources);
+        Map<Path, ValidationResult> results = compile(sources, true);
+        if (results.values().stream().allMatch(ValidationResult::isValid)) {
+            sources.keySet().forEach(unavailableSources::remove);
+            fileManager.setClassInputs(classes);
+        }
+        return results;
+    }
+
+    /**
+     * Compile sources in one task, hiding their previous classes from the cache.
+     *
+     * @param store Whether to put the produced classes into the cache (only when all compile)
+     */
+    private Map<Path, ValidationResult> compile(Map<Path, String> sources, boolean store) {
+        Map<URI, Path> files = new HashMap<>();
+        List<JavaFileObject> compilationUnits = new ArrayList<>(sources.size());
+        for (Map.Entry<Path, String> entry : sources.entrySet()) {
+            JavaFileObject unit = InMemoryJavaFileManager.source(entry.getKey(), entry.getValue());
+            compilationUnits.add(unit);
+            files.put(unit.toUri(), entry.getKey());
+        }
+        if (compilationUnits.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        // The old classes of changed files must not satisfy references to removed types
+        Set<String> hidden = new HashSet<>();
+        for (Path file : sources.keySet()) {
+            hidden.addAll(classesBySource.getOrDefault(file, Set.of()));
+        }
+        fileManager.setHiddenClassInputs(hidden);
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try {
+            boolean success = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, compilationUnits)
+                .call();
+            Map<Path, ValidationResult> results = JavacValidator.toResults(sources.keySet(), files, success,
+                diagnostics.getDiagnostics());
+
+            if (store && success) {
+                for (Path file : sources.keySet()) {
+                    classesBySource.getOrDefault(file, Set.of()).forEach(classes::remove);
+                    classesBySource.remove(file);
+                }
+                Map<String, URI> classSources = fileManager.getCompiledClassSources();
+                fileManager.getCompiledClasses().forEach((name, bytes) -> {
+                    classes.put(name, bytes);
+                    Path file = files.get(classSources.get(name));
+                    if (file != null) {
+                        classesBySource.computeIfAbsent(file, k -> new HashSet<>()).add(name);
+                    }
+                });
+            }
+            return results;
+        } catch (RuntimeException e) {
+            logger.error("Incremental compilation failed", e);
+            Map<Path, ValidationResult> results = new LinkedHashMap<>();
+            sources.keySet().forEach(file -> results.put(file,
+                ValidationResult.createError("Compiler error during validation: " + e.getMessage())));
+            return results;
+        } finally {
+            fileManager.clearClasses();
+            fileManager.setHiddenClassInputs(Set.of());
+        }
+    }
+
+    private static Map<Path, String> absolute(Map<Path, String> sources) {
+        Map<Path, String> result = new LinkedHashMap<>();
+        sources.forEach((file, content) -> result.put(Objects.requireNonNull(file).toAbsolutePath(),
+            Objects.requireNonNull(content, "Source code cannot be null")));
+        return result;
+    }
+
+    /**
+     * Number of classes in the cache
+     */
+    public synchronized int getClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * Sources that did not compile during warm-up; references to their types fail validation
+     */
+    public synchronized Set<Path> getUnavailableSources() {
+        return Set.copyOf(unavailableSources);
+    }
+
+    /**
+     * Close file manager resources
+     */
+    @Override
+    public void close() {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close file manager", e);
+        }
+    }
+}
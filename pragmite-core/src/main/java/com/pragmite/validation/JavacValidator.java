@@ -7,11 +7,13 @@ import javax.tools.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Javac-based strict validation for refactored code.
@@ -26,7 +28,8 @@ import java.util.stream.Collectors;
  * - Automatic classpath detection
  * - Detailed compilation error reporting
  * - Support for Java 21 language features
- * - Temporary file compilation for validation
+ * - In-memory compilation: no temporary files, file manager and classpath reused across calls
+ * - Batch validation of many files in a single compilation task
  *
  * Usage:
  * <pre>
@@ -41,12 +44,13 @@ import java.util.stream.Collectors;
  * @version 1.6.3
  * @since 2025-12-28
  */
-public class JavacValidator {
+public class JavacValidator implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(JavacValidator.class);
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
 
     private final JavaCompiler compiler;
-    private final StandardJavaFileManager fileManager;
+    private final InMemoryJavaFileManager fileManager;
     private final List<String> compilerOptions;
 
     /**
@@ -61,7 +65,8 @@ public class JavacValidator {
             );
         }
 
-        this.fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        this.fileManager = new InMemoryJavaFileManager(
+            compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
         this.compilerOptions = new ArrayList<>();
 
         // Default compiler options for Java 21
@@ -71,6 +76,12 @@ public class JavacValidator {
         compilerOptions.add("21");
         compilerOptions.add("-encoding");
         compilerOptions.add("UTF-8");
+        // Validation only: no annotation processor discovery on the classpath
+        compilerOptions.add("-proc:none");
+        // Keep checking the other files of a batch after the first error
+        compilerOptions.add("-XDshould-stop.ifError=FLOW");
+        compilerOptions.add("-Xmaxerrs");
+        compilerOptions.add("10000");
 
         logger.debug("JavacValidator initialized with Java 21 compiler");
     }
@@ -87,44 +98,53 @@ public class JavacValidator {
         Objects.requireNonNull(className, "Class name cannot be null");
 
         logger.debug("Validating class: {}", className);
+        return validateAll(Map.of(className, sourceCode)).get(className);
+    }
 
-        Path tempDir = null;
-        try {
-            // Create temporary directory for compilation
-            tempDir = Files.createTempDirectory("pragmite-validation-");
-
-            // Write source file
-            Path sourceFile = createSourceFile(tempDir, className, sourceCode);
-
-            // Compile
-            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-            boolean success = compile(sourceFile, diagnostics);
-
-            // Collect errors
-            List<ValidationError> errors = diagnostics.getDiagnostics().stream()
-                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
-                .map(this::convertDiagnostic)
-                .collect(Collectors.toList());
-
-            // Collect warnings
-            List<ValidationError> warnings = diagnostics.getDiagnostics().stream()
-                .filter(d -> d.getKind() == Diagnostic.Kind.WARNING)
-                .map(this::convertDiagnostic)
-                .collect(Collectors.toList());
-
-            logger.debug("Validation complete: {} errors, {} warnings", errors.size(), warnings.size());
+    /**
+     * Validate many classes in a single compilation task.
+     * Classes of a batch are compiled together, so they may reference each other.
+     *
+     * @param sources Source code by fully qualified class name
+     * @return ValidationResult per class name, in the order of the given map
+     */
+    public synchronized Map<String, ValidationResult> validateAll(Map<String, String> sources) {
+        Objects.requireNonNull(sources, "Sources cannot be null");
+
+        Map<URI, String> classNames = new HashMap<>();
+        List<JavaFileObject> compilationUnits = new ArrayList<>(sources.size());
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            JavaFileObject source = InMemoryJavaFileManager.source(
+                Objects.requireNonNull(entry.getKey(), "Class name cannot be null"),
+                Objects.requireNonNull(entry.getValue(), "Source code cannot be null"));
+            compilationUnits.add(source);
+            classNames.put(source.toUri(), entry.getKey());
+        }
 
-            return new ValidationResult(success, errors, warnings);
+        Map<String, ValidationResult> results = new LinkedHashMap<>();
+        if (compilationUnits.isEmpty()) {
+            return results;
+        }
 
-        } catch (IOException e) {
-            logger.error("Validation failed with I/O error", e);
-            return ValidationResult.createError("I/O error during validation: " + e.getMessage());
+        long start = System.nanoTime();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean success;
+        try {
+            success = compile(compilationUnits, diagnostics);
+        } catch (RuntimeException e) {
+            logger.error("Validation failed with compiler error", e);
+            sources.keySet().forEach(name -> results.put(name,
+                ValidationResult.createError("Compiler error during validation: " + e.getMessage())));
+            return results;
         } finally {
-            // Cleanup temporary files
-            if (tempDir != null) {
-                deleteRecursively(tempDir.toFile());
-            }
+            fileManager.clearClasses();
         }
+
+        results.putAll(toResults(sources.keySet(), classNames, success, diagnostics.getDiagnostics()));
+
+        logger.debug("Validated {} classes in {} ms: {} with errors", sources.size(),
+            (System.nanoTime() - start) / 1_000_000, results.values().stream().filter(r -> !r.isValid()).count());
+        return results;
     }
 
     /**
@@ -138,7 +158,7 @@ public class JavacValidator {
 
         try {
             String sourceCode = Files.readString(sourceFile, StandardCharsets.UTF_8);
-            String className = extractClassName(sourceFile);
+            String className = extractClassName(sourceFile, sourceCode);
             return validate(sourceCode, className);
         } catch (IOException e) {
             logger.error("Failed to read source file: {}", sourceFile, e);
@@ -147,16 +167,57 @@ public class JavacValidator {
     }
 
     /**
-     * Set classpath for compilation
+     * Validate Java source files in a single compilation task
+     *
+     * @param sourceFiles Paths to Java source files
+     * @return ValidationResult per file, in the order given
+     */
+    public Map<Path, ValidationResult> validateFiles(List<Path> sourceFiles) {
+        Objects.requireNonNull(sourceFiles, "Source files cannot be null");
+
+        Map<String, String> sources = new LinkedHashMap<>();
+        Map<Path, String> classNames = new HashMap<>();
+        Map<Path, ValidationResult> readErrors = new HashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            try {
+                String sourceCode = Files.readString(sourceFile, StandardCharsets.UTF_8);
+                String className = extractClassName(sourceFile, sourceCode);
+                sources.put(className, sourceCode);
+                classNames.put(sourceFile, className);
+            } catch (IOException e) {
+                logger.error("Failed to read source file: {}", sourceFile, e);
+                readErrors.put(sourceFile, ValidationResult.createError("Failed to read file: " + e.getMessage()));
+            }
+        }
+
+        Map<String, ValidationResult> byClass = validateAll(sources);
+        Map<Path, ValidationResult> results = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            String className = classNames.get(sourceFile);
+            results.put(sourceFile, className != null ? byClass.get(className) : readErrors.get(sourceFile));
+        }
+        return results;
+    }
+
+    /**
+     * Set classpath for compilation.
+     * The classpath is set on the shared file manager once, so its archives stay open
+     * and indexed for every later compilation.
      *
      * @param classpath Classpath entries
      */
-    public void setClasspath(List<String> classpath) {
+    public synchronized void setClasspath(List<String> classpath) {
         if (classpath != null && !classpath.isEmpty()) {
-            String classpathString = String.join(File.pathSeparator, classpath);
-            compilerOptions.add("-classpath");
-            compilerOptions.add(classpathString);
-            logger.debug("Classpath set: {}", classpathString);
+            List<File> entries = new ArrayList<>(classpath.size());
+            for (String entry : classpath) {
+                entries.add(new File(entry));
+            }
+            try {
+                fileManager.getStandardFileManager().setLocation(StandardLocation.CLASS_PATH, entries);
+                logger.debug("Classpath set: {}", String.join(File.pathSeparator, classpath));
+            } catch (IOException e) {
+                logger.warn("Failed to set classpath", e);
+            }
         }
     }
 
@@ -202,30 +263,9 @@ public class JavacValidator {
     }
 
     /**
-     * Create temporary source file
+     * Compile source files in memory
      */
-    private Path createSourceFile(Path tempDir, String className, String sourceCode) throws IOException {
-        // Convert class name to file path
-        String filePath = className.replace('.', '/') + ".java";
-        Path sourceFile = tempDir.resolve(filePath);
-
-        // Create parent directories
-        Files.createDirectories(sourceFile.getParent());
-
-        // Write source code
-        Files.writeString(sourceFile, sourceCode, StandardCharsets.UTF_8);
-
-        logger.debug("Created source file: {}", sourceFile);
-        return sourceFile;
-    }
-
-    /**
-     * Compile source file
-     */
-    private boolean compile(Path sourceFile, DiagnosticCollector<JavaFileObject> diagnostics) {
-        Iterable<? extends JavaFileObject> compilationUnits =
-            fileManager.getJavaFileObjects(sourceFile.toFile());
-
+    private boolean compile(List<JavaFileObject> compilationUnits, DiagnosticCollector<JavaFileObject> diagnostics) {
         StringWriter output = new StringWriter();
         JavaCompiler.CompilationTask task = compiler.getTask(
             output,
@@ -245,10 +285,47 @@ public class JavacValidator {
         return success;
     }
 
+    /**
+     * Attribute diagnostics of a batch to their source files.
+     * Errors without a source (e.g. invalid options) apply to every file of the batch.
+     *
+     * @param keys Files of the batch, in result order
+     * @param keysByUri File of each compilation unit URI
+     */
+    static <K> Map<K, ValidationResult> toResults(Collection<K> keys, Map<URI, K> keysByUri, boolean success,
+                                                  List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        Map<K, List<ValidationError>> errors = new HashMap<>();
+        Map<K, List<ValidationError>> warnings = new HashMap<>();
+        List<ValidationError> generalErrors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            K key = diagnostic.getSource() != null ? keysByUri.get(diagnostic.getSource().toUri()) : null;
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                if (key != null) {
+                    errors.computeIfAbsent(key, k -> new ArrayList<>()).add(convertDiagnostic(diagnostic));
+                } else {
+                    generalErrors.add(convertDiagnostic(diagnostic));
+                }
+            } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING && key != null) {
+                warnings.computeIfAbsent(key, k -> new ArrayList<>()).add(convertDiagnostic(diagnostic));
+            }
+        }
+        if (!success && errors.isEmpty() && generalErrors.isEmpty()) {
+            generalErrors.add(new ValidationError("ERROR", "Compilation failed", -1, -1, null));
+        }
+
+        Map<K, ValidationResult> results = new LinkedHashMap<>();
+        for (K key : keys) {
+            List<ValidationError> keyErrors = new ArrayList<>(generalErrors);
+            keyErrors.addAll(errors.getOrDefault(key, List.of()));
+            results.put(key, new ValidationResult(keyErrors.isEmpty(), keyErrors, warnings.getOrDefault(key, List.of())));
+        }
+        return results;
+    }
+
     /**
      * Convert diagnostic to validation error
      */
-    private ValidationError convertDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+    private static ValidationError convertDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
         return new ValidationError(
             diagnostic.getKind().toString(),
             diagnostic.getMessage(Locale.ENGLISH),
@@ -259,31 +336,19 @@ public class JavacValidator {
     }
 
     /**
-     * Extract class name from file path
+     * Extract class name from file path and package declaration
      */
-    private String extractClassName(Path sourceFile) {
+    private String extractClassName(Path sourceFile, String sourceCode) {
         String fileName = sourceFile.getFileName().toString();
-        return fileName.substring(0, fileName.lastIndexOf('.'));
-    }
-
-    /**
-     * Delete directory recursively
-     */
-    private void deleteRecursively(File file) {
-        if (file.isDirectory()) {
-            File[] files = file.listFiles();
-            if (files != null) {
-                for (File child : files) {
-                    deleteRecursively(child);
-                }
-            }
-        }
-        file.delete();
+        String simpleName = fileName.substring(0, fileName.lastIndexOf('.'));
+        Matcher pkg = PACKAGE.matcher(sourceCode);
+        return pkg.find() ? pkg.group(1) + "." + simpleName : simpleName;
     }
 
     /**
      * Close file manager resources
      */
+    @Override
     public void close() {
         try {
             fileManager.close();
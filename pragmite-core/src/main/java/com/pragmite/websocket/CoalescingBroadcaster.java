@@ -0,0 +1,234 @@
+package com.pragmite.websocket;
+
+import com.google.gson.Gson;
+import org.java_websocket.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Publishes state updates to WebSocket clients at a bounded frame rate.
+ *
+ * Publishing only replaces the latest message of a channel (e.g. a progress stage), so
+ * producers never serialize or touch sockets. A single scheduler thread publishes at most
+ * N frames per second per channel with the newest state: each frame is serialized once and
+ * handed to all clients together, so the WebSocket framing is shared as well. A client that
+ * still has unsent data gets no new frame; the latest frame it missed is kept for it and sent
+ * once it has caught up, unless a newer one replaces it first. Slow clients never build up a
+ * queue of stale updates, and still always end up with the final state of every channel.
+ *
+ * Version: 1.6.3
+ *
+ * Usage:
+ * <pre>
+ * CoalescingBroadcaster broadcaster = new CoalescingBroadcaster(10, server::getConnections, server::broadcast);
+ * broadcaster.start();
+ * broadcaster.publish("analysis", message);   // From any thread
+ * broadcaster.close();                        // Publishes pending messages
+ * </pre>
+ */
+public class CoalescingBroadcaster implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingBroadcaster.class);
+    private static final Gson gson = new Gson();
+
+    /**
+     * Default maximum frames per second and channel
+     */
+    public static final int DEFAULT_MAX_FRAMES_PER_SECOND = 10;
+
+    private final long intervalMs;
+    private final Supplier<? extends Collection<WebSocket>> clients;
+    private final BiConsumer<String, Collection<WebSocket>> sender;
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+
+    // Latest frame of each channel that some slow clients have not received yet (scheduler thread only)
+    private final Map<String, Deferred> deferred = new HashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param maxFramesPerSecond Maximum frames per second and channel
+     * @param clients Current clients
+     * @param sender Sends one serialized message to the given clients
+     */
+    public CoalescingBroadcaster(int maxFramesPerSecond,
+                                 Supplier<? extends Collection<WebSocket>> clients,
+                                 BiConsumer<String, Collection<WebSocket>> sender) {
+        if (maxFramesPerSecond <= 0) {
+            throw new IllegalArgumentException("maxFramesPerSecond must be positive: " + maxFramesPerSecond);
+        }
+        this.intervalMs = Math.max(1, 1000 / maxFramesPerSecond);
+        this.clients = clients;
+        this.sender = sender;
+    }
+
+    /**
+     * Starts publishing pending messages periodically.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pragmite-ws-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replaces the pending message of a channel. Never blocks.
+     */
+    public void publish(String channel, Object message) {
+        published.increment();
+        if (pending.put(channel, message) != null) {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Sends the pending message of every channel now, and the latest missed frame to slow
+     * clients that have caught up.
+     */
+    public synchronized void flush() {
+        Set<String> channels = new TreeSet<>(pending.keySet());
+        channels.addAll(deferred.keySet());
+        for (String channel : channels) {
+            Object message = pending.remove(channel);
+            if (message != null) {
+                sendFrame(channel, gson.toJson(message));
+            } else {
+                sendDeferred(channel);
+            }
+        }
+    }
+
+    private void sendFrame(String channel, String json) {
+        List<WebSocket> ready = new ArrayList<>();
+        Set<WebSocket> waiting = new HashSet<>();
+        for (WebSocket client : clients.get()) {
+            if (!client.isOpen()) {
+                continue;
+            }
+            if (client.hasBufferedData()) {
+                // Backpressure: the client gets this frame, or a newer one, once it has caught up
+                dropped.increment();
+                waiting.add(client);
+            } else {
+                ready.add(client);
+            }
+        }
+        if (waiting.isEmpty()) {
+            deferred.remove(channel);
+        } else {
+            deferred.put(channel, new Deferred(json, waiting));
+        }
+        if (!ready.isEmpty()) {
+            sender.accept(json, ready);
+            frames.increment();
+        }
+    }
+
+    private void sendDeferred(String channel) {
+        Deferred frame = deferred.get(channel);
+        List<WebSocket> ready = new ArrayList<>();
+        for (Iterator<WebSocket> it = frame.clients().iterator(); it.hasNext(); ) {
+            WebSocket client = it.next();
+            if (!client.isOpen()) {
+                it.remove();
+            } else if (!client.hasBufferedData()) {
+                ready.add(client);
+                it.remove();
+            }
+        }
+        if (frame.clients().isEmpty()) {
+            deferred.remove(channel);
+        }
+        if (!ready.isEmpty()) {
+            sender.accept(frame.json(), ready);
+            frames.increment();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive, the next frame carries the latest state anyway
+            logger.warn("Failed to broadcast progress: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the scheduler and sends pending messages.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        flushQuietly();
+        logger.debug("Progress broadcast: {} updates, {} coalesced, {} frames, {} dropped for slow clients",
+            published.sum(), coalesced.sum(), frames.sum(), dropped.sum());
+    }
+
+    /**
+     * Number of messages published
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * Number of published messages replaced by a newer one before they were sent
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of frames sent (each to all ready clients)
+     */
+    public long getFrameCount() {
+        return frames.sum();
+    }
+
+    /**
+     * Number of frames held back for clients with unsent data
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Latest frame of a channel and the slow clients that still need it
+     */
+    private record Deferred(String json, Set<WebSocket> clients) {
+    }
+}
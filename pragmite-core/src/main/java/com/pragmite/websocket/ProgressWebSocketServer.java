@@ -1,13 +1,28 @@
 package com.pragmite.websocket;
 
+import com.pragmite.analyzer.AnalysisListener;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.Severity;
+import com.pragmite.profiling.HotspotSummary;
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -24,6 +39,10 @@ import java.util.concurrent.CopyOnWriteArraySet;
  * - Connection management
  * - Auto-reconnection support
  * - JSON message protocol
+ * - Live profiling hotspots (v1.6.3)
+ * - Progress coalesced to a bounded frame rate (v1.6.3)
+ * - Per-file results streamed during analysis, filtered per client (v1.6.3)
+ * - Optional permessage-deflate compression (v1.6.3)
  *
  * Usage:
  * <pre>
@@ -37,7 +56,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
  * @version 1.6.2
  * @since 2025-12-28
  */
-public class ProgressWebSocketServer extends WebSocketServer {
+public final class ProgressWebSocketServer extends WebSocketServer implements AnalysisListener {
 
     private static final Logger logger = LoggerFactory.getLogger(ProgressWebSocketServer.class);
     private static final Gson gson = new Gson();
@@ -52,6 +71,16 @@ public class ProgressWebSocketServer extends WebSocketServer {
      */
     private final Map<WebSocket, ClientSession> sessions = new ConcurrentHashMap<>();
 
+    /**
+     * Progress updates, sent at most N times per second with the latest state
+     */
+    private final CoalescingBroadcaster progressBroadcaster;
+
+    /**
+     * Project of the running analysis, for relative path subscriptions
+     */
+    private volatile String projectPath;
+
     /**
      * Default port for WebSocket server
      */
@@ -70,8 +99,34 @@ public class ProgressWebSocketServer extends WebSocketServer {
      * @param port Port number to listen on
      */
     public ProgressWebSocketServer(int port) {
-        super(new InetSocketAddress(port));
-        logger.info("ProgressWebSocketServer initialized on port {}", port);
+        this(port, CoalescingBroadcaster.DEFAULT_MAX_FRAMES_PER_SECOND);
+    }
+
+    /**
+     * Create WebSocket server with custom port and progress frame rate
+     *
+     * @param port Port number to listen on
+     * @param maxProgressFramesPerSecond Maximum progress frames per second and stage
+     */
+    public ProgressWebSocketServer(int port, int maxProgressFramesPerSecond) {
+        this(port, maxProgressFramesPerSecond, false);
+    }
+
+    /**
+     * Create WebSocket server with custom port, progress frame rate and compression
+     *
+     * @param port Port number to listen on
+     * @param maxProgressFramesPerSecond Maximum progress frames per second and stage
+     * @param compression Offer permessage-deflate; clients that do not request it get uncompressed frames
+     */
+    public ProgressWebSocketServer(int port, int maxProgressFramesPerSecond, boolean compression) {
+        super(new InetSocketAddress(port), drafts(compression));
+        this.progressBroadcaster = new CoalescingBroadcaster(maxProgressFramesPerSecond, () -> clients, this::broadcast);
+        logger.info("ProgressWebSocketServer initialized on port {}{}", port, compression ? " (permessage-deflate)" : "");
+    }
+
+    private static List<Draft> drafts(boolean compression) {
+        return List.of(compression ? new Draft_6455(new PerMessageDeflateExtension()) : new Draft_6455());
     }
 
     @Override
@@ -115,6 +170,43 @@ public class ProgressWebSocketServer extends WebSocketServer {
         // Handle ping/pong for keep-alive
         if ("ping".equals(message)) {
             send(conn, new ProgressMessage("pong", "pong", 0, 0, 0));
+            return;
+        }
+
+        if (message.startsWith("{")) {
+            handleCommand(conn, message);
+        }
+    }
+
+    /**
+     * Handle a JSON command: subscribe or unsubscribe
+     */
+    private void handleCommand(WebSocket conn, String message) {
+        ClientSession session = sessions.get(conn);
+        if (session == null) {
+            return;
+        }
+        try {
+            JsonObject command = gson.fromJson(message, JsonObject.class);
+            String type = command.has("type") ? command.get("type").getAsString() : "";
+            switch (type) {
+                case "subscribe" -> {
+                    String pathPrefix = command.has("pathPrefix") ? command.get("pathPrefix").getAsString() : null;
+                    Severity minSeverity = command.has("minSeverity")
+                        ? Severity.valueOf(command.get("minSeverity").getAsString().trim().toUpperCase(Locale.ROOT))
+                        : null;
+                    session.subscription = new Subscription(pathPrefix, minSeverity);
+                }
+                case "unsubscribe" -> session.subscription = Subscription.ALL;
+                default -> {
+                    send(conn, new ErrorMessage("error", "Unknown command: " + type));
+                    return;
+                }
+            }
+            logger.debug("Client {} subscribed to {}", session.clientId, session.subscription);
+            send(conn, new SubscribedMessage("subscribed", session.subscription));
+        } catch (JsonParseException | IllegalArgumentException | IllegalStateException | UnsupportedOperationException e) {
+            send(conn, new ErrorMessage("error", "Invalid command: " + e.getMessage()));
         }
     }
 
@@ -129,10 +221,20 @@ public class ProgressWebSocketServer extends WebSocketServer {
     public void onStart() {
         logger.info("ProgressWebSocketServer started successfully on port {}", getPort());
         setConnectionLostTimeout(30); // 30 seconds timeout
+        progressBroadcaster.start();
+    }
+
+    @Override
+    public void stop(int timeout, String closeMessage) throws InterruptedException {
+        // Deliver the final progress state before closing the connections
+        progressBroadcaster.close();
+        super.stop(timeout, closeMessage);
     }
 
     /**
-     * Broadcast progress update to all connected clients
+     * Broadcast progress update to all connected clients.
+     * Updates are coalesced: clients receive the latest state of each stage
+     * at most N times per second.
      *
      * @param stage Current stage name (e.g., "analysis", "refactoring")
      * @param current Current progress value
@@ -140,6 +242,9 @@ public class ProgressWebSocketServer extends WebSocketServer {
      * @param message Progress message
      */
     public void broadcastProgress(String stage, int current, int total, String message) {
+        if (!hasActiveClients()) {
+            return;
+        }
         ProgressMessage progress = new ProgressMessage(
             "progress",
             message,
@@ -149,7 +254,7 @@ public class ProgressWebSocketServer extends WebSocketServer {
             calculatePercentage(current, total)
         );
 
-        broadcast(progress);
+        progressBroadcaster.publish(stage != null ? stage : "", progress);
     }
 
     /**
@@ -203,6 +308,79 @@ public class ProgressWebSocketServer extends WebSocketServer {
         broadcast(event);
     }
 
+    /**
+     * Broadcast a live profiling window: CPU hotspots by method and file, GC and allocation rate
+     *
+     * @param summary Hotspot summary of one window
+     */
+    public void broadcastHotspots(HotspotSummary summary) {
+        if (!hasActiveClients()) {
+            return;
+        }
+        broadcast(new HotspotEvent("hotspots", summary, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void onAnalysisStart(String projectPath, int totalFiles) {
+        this.projectPath = projectPath;
+        broadcastProgress("analysis", 0, totalFiles, "Analysis started");
+    }
+
+    @Override
+    public void onFileAnalyzed(FileAnalysis analysis, int completed, int total) {
+        broadcastFileResult(analysis, completed, total);
+        broadcastProgress("analysis", completed, total, analysis.getFilePath());
+    }
+
+    @Override
+    public void onAnalysisComplete(AnalysisResult result) {
+        if (!hasActiveClients()) {
+            return;
+        }
+        broadcast(new AnalysisSummaryEvent("analysis_summary", result, System.currentTimeMillis()));
+    }
+
+    /**
+     * Send a file's smells and metrics as soon as it has been analyzed.
+     * Clients with the same subscription share one serialized message; clients whose
+     * subscription excludes the file receive nothing.
+     *
+     * @param analysis Result for the file
+     * @param completed Number of files finished so far
+     * @param total Total number of files
+     */
+    public void broadcastFileResult(FileAnalysis analysis, int completed, int total) {
+        if (!hasActiveClients()) {
+            return;
+        }
+
+        Map<Subscription, List<WebSocket>> groups = new HashMap<>();
+        for (WebSocket client : clients) {
+            ClientSession session = sessions.get(client);
+            Subscription subscription = session != null ? session.subscription : Subscription.ALL;
+            groups.computeIfAbsent(subscription, k -> new ArrayList<>()).add(client);
+        }
+
+        String root = projectPath;
+        for (Map.Entry<Subscription, List<WebSocket>> group : groups.entrySet()) {
+            Subscription subscription = group.getKey();
+            if (!subscription.matchesPath(analysis.getFilePath(), root)) {
+                continue;
+            }
+            FileResultEvent event;
+            if (subscription.filtersSeverity()) {
+                List<CodeSmell> smells = subscription.filter(analysis.getSmells());
+                if (smells.isEmpty()) {
+                    continue;
+                }
+                event = new FileResultEvent("file_result", analysis, smells, completed, total);
+            } else {
+                event = new FileResultEvent("file_result", analysis, completed, total);
+            }
+            broadcast(gson.toJson(event), group.getValue());
+        }
+    }
+
     /**
      * Send message to specific client
      */
@@ -214,20 +392,26 @@ public class ProgressWebSocketServer extends WebSocketServer {
     }
 
     /**
-     * Broadcast message to all connected clients
+     * Broadcast message to all connected clients.
+     * Pending progress is sent first so clients see events in order.
      */
     private void broadcast(Object message) {
+        progressBroadcaster.flush();
         String json = gson.toJson(message);
 
-        for (WebSocket client : clients) {
-            if (client.isOpen()) {
-                client.send(json);
-            }
-        }
+        // Serialized and framed once for all clients
+        broadcast(json, clients);
 
         logger.debug("Broadcast message to {} clients: {}", clients.size(), json);
     }
 
+    /**
+     * Progress broadcast statistics (published, coalesced, sent and dropped frames)
+     */
+    public CoalescingBroadcaster getProgressBroadcaster() {
+        return progressBroadcaster;
+    }
+
     /**
      * Calculate percentage
      */
@@ -322,12 +506,137 @@ public class ProgressWebSocketServer extends WebSocketServer {
         }
     }
 
+    /**
+     * Live profiling window format
+     */
+    public static class HotspotEvent {
+        private final String type;
+        private final long windowStart;
+        private final long windowMs;
+        private final long cpuSamples;
+        private final List<HotspotSummary.Hotspot> topMethods;
+        private final List<HotspotSummary.Hotspot> topFiles;
+        private final int gcCount;
+        private final double gcPauseMs;
+        private final double allocationRateMBps;
+        private final long timestamp;
+
+        public HotspotEvent(String type, HotspotSummary summary, long timestamp) {
+            this.type = type;
+            this.windowStart = summary.windowStart();
+            this.windowMs = summary.windowMs();
+            this.cpuSamples = summary.cpuSamples();
+            this.topMethods = summary.topMethods();
+            this.topFiles = summary.topFiles();
+            this.gcCount = summary.gcCount();
+            this.gcPauseMs = summary.gcPauseMs();
+            this.allocationRateMBps = summary.allocationRateMBps();
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Streamed file result format; the file has the same shape as in the JSON report
+     */
+    public static class FileResultEvent {
+        private final String type;
+        private final int completed;
+        private final int total;
+        private final FileAnalysis file;
+        private final long timestamp;
+
+        public FileResultEvent(String type, FileAnalysis analysis, int completed, int total) {
+            this.type = type;
+            this.completed = completed;
+            this.total = total;
+            this.file = analysis;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        /**
+         * Event for a copy of the file that carries only the given (filtered) smells
+         */
+        public FileResultEvent(String type, FileAnalysis analysis, List<CodeSmell> smells, int completed, int total) {
+            this.type = type;
+            this.completed = completed;
+            this.total = total;
+            this.file = withSmells(analysis, smells);
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        private static FileAnalysis withSmells(FileAnalysis analysis, List<CodeSmell> smells) {
+            FileAnalysis copy = new FileAnalysis(analysis.getFilePath());
+            copy.setClassName(analysis.getClassName());
+            copy.setLineCount(analysis.getLineCount());
+            copy.setMethodCount(analysis.getMethodCount());
+            copy.setMethods(analysis.getMethods());
+            copy.setComplexities(analysis.getComplexities());
+            copy.setCkMetrics(analysis.getCkMetrics());
+            copy.setSmells(smells);
+            return copy;
+        }
+    }
+
+    /**
+     * Analysis summary format, sent once the whole project has been analyzed
+     */
+    public static class AnalysisSummaryEvent {
+        private final String type;
+        private final int totalFiles;
+        private final int totalLines;
+        private final int totalSmells;
+        private final long analysisDurationMs;
+        private final double overallScore;
+        private final String grade;
+        private final long timestamp;
+
+        public AnalysisSummaryEvent(String type, AnalysisResult result, long timestamp) {
+            this.type = type;
+            this.totalFiles = result.getTotalFiles();
+            this.totalLines = result.getTotalLines();
+            this.totalSmells = result.getCodeSmells().size();
+            this.analysisDurationMs = result.getAnalysisDurationMs();
+            this.overallScore = result.getQualityScore() != null ? result.getQualityScore().getOverallScore() : 0;
+            this.grade = result.getQualityScore() != null ? result.getQualityScore().getGrade() : null;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Subscription confirmation format
+     */
+    public static class SubscribedMessage {
+        private final String type;
+        private final String pathPrefix;
+        private final Severity minSeverity;
+
+        public SubscribedMessage(String type, Subscription subscription) {
+            this.type = type;
+            this.pathPrefix = subscription.pathPrefix();
+            this.minSeverity = subscription.minSeverity();
+        }
+    }
+
+    /**
+     * Error reply format
+     */
+    public static class ErrorMessage {
+        private final String type;
+        private final String message;
+
+        public ErrorMessage(String type, String message) {
+            this.type = type;
+            this.message = message;
+        }
+    }
+
     /**
      * Client session metadata
      */
     private static class ClientSession {
         final String clientId;
         final long connectedAt;
+        volatile Subscription subscription = Subscription.ALL;
 
         ClientSession(String clientId, long connectedAt) {
             this.clientId = clientId;
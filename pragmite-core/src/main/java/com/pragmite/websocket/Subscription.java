@@ -0,0 +1,92 @@
+package com.pragmite.websocket;
+
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.Severity;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Filter of a WebSocket client for streamed file results.
+ *
+ * A client subscribes with
+ * {@code {"type": "subscribe", "pathPrefix": "src/main/java/com/acme", "minSeverity": "MAJOR"}};
+ * both fields are optional. The path prefix matches absolute paths or paths relative to the
+ * analyzed project, with either separator, on whole path segments: {@code src/main} covers
+ * {@code src/main/A.java} but not {@code src/mainframe/A.java}. With a minimum severity, only smells at least that
+ * severe are sent and files without such smells are skipped.
+ *
+ * @param pathPrefix Path prefix of files to receive, or null for all files
+ * @param minSeverity Minimum smell severity, or null for all smells
+ */
+public record Subscription(String pathPrefix, Severity minSeverity) {
+
+    /**
+     * Everything, the default for new clients
+     */
+    public static final Subscription ALL = new Subscription(null, null);
+
+    public Subscription {
+        if (pathPrefix != null) {
+            pathPrefix = normalize(pathPrefix);
+            if (pathPrefix.isEmpty()) {
+                pathPrefix = null;
+            }
+        }
+    }
+
+    /**
+     * Whether a file is covered by the path prefix.
+     *
+     * @param filePath Path of the analyzed file
+     * @param projectRoot Analyzed project, or null if unknown
+     */
+    public boolean matchesPath(String filePath, String projectRoot) {
+        if (pathPrefix == null) {
+            return true;
+        }
+        String path = normalize(filePath);
+        if (covers(path)) {
+            return true;
+        }
+        if (projectRoot != null) {
+            Path root = Path.of(projectRoot).toAbsolutePath().normalize();
+            Path file = Path.of(filePath).toAbsolutePath().normalize();
+            if (file.startsWith(root)) {
+                return covers(normalize(root.relativize(file).toString()));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Smells at or above the minimum severity.
+     */
+    public List<CodeSmell> filter(List<CodeSmell> smells) {
+        if (minSeverity == null) {
+            return smells;
+        }
+        return smells.stream()
+            .filter(s -> s.getSeverity() != null && s.getSeverity().getWeight() >= minSeverity.getWeight())
+            .toList();
+    }
+
+    /**
+     * Whether files without matching smells are skipped.
+     */
+    public boolean filtersSeverity() {
+        return minSeverity != null;
+    }
+
+    private boolean covers(String path) {
+        return path.startsWith(pathPrefix)
+            && (path.length() == pathPrefix.length()
+                || pathPrefix.endsWith("/")
+                || path.charAt(pathPrefix.length()) == '/');
+    }
+
+    private static String normalize(String path) {
+        String normalized = path.replace('\\', '/');
+        return normalized.startsWith("./") ? normalized.substring(2) : normalized;
+    }
+}
@@ -0,0 +1,237 @@
+package com.pragmite.ai;
+
+import com.google.gson.JsonObject;
+import com.pragmite.autofix.CompilationResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaudeApiClientTest {
+
+    private static final long HOLD_BACK_SECONDS = 30;
+
+    private final ClaudeApiClient client = new ClaudeApiClient(new ApiConfig());
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Starts a stub that streams the given text deltas as Messages API events. If
+     * {@code beforeLast} is given, the last delta is held back until it is counted down
+     * (for at most {@link #HOLD_BACK_SECONDS}); {@code releasedEarly} tells whether it was.
+     */
+    private void startSseStub(List<String> deltas, CountDownLatch beforeLast, AtomicBoolean releasedEarly,
+                              String errorType) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/messages", exchange -> streamEvents(exchange, deltas, beforeLast, releasedEarly, errorType));
+        server.start();
+    }
+
+    private void startSseStub(List<String> deltas, String errorType) throws IOException {
+        startSseStub(deltas, null, null, errorType);
+    }
+
+    private static void streamEvents(HttpExchange exchange, List<String> deltas, CountDownLatch beforeLast,
+                                     AtomicBoolean releasedEarly, String errorType) throws IOException {
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(request.contains("\"stream\":true"));
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            sendEvent(out, "message_start", "{\"type\":\"message_start\",\"message\":{\"id\":\"msg_1\"}}");
+            sendEvent(out, "content_block_start", "{\"type\":\"content_block_start\",\"index\":0}");
+            out.write(": keep-alive comment\n\n".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < deltas.size(); i++) {
+                if (i == deltas.size() - 1 && beforeLast != null) {
+                    releasedEarly.set(beforeLast.await(HOLD_BACK_SECONDS, TimeUnit.SECONDS));
+                }
+                JsonObject delta = new JsonObject();
+                delta.addProperty("type", "text_delta");
+                delta.addProperty("text", deltas.get(i));
+                JsonObject event = new JsonObject();
+                event.addProperty("type", "content_block_delta");
+                event.addProperty("index", 0);
+                event.add("delta", delta);
+                sendEvent(out, "content_block_delta", event.toString());
+            }
+            if (errorType != null) {
+                sendEvent(out, "error", "{\"type\":\"error\",\"error\":{\"type\":\"" + errorType + "\",\"message\":\"Overloaded\"}}");
+            } else {
+                sendEvent(out, "content_block_stop", "{\"type\":\"content_block_stop\",\"index\":0}");
+                sendEvent(out, "message_stop", "{\"type\":\"message_stop\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sendEvent(OutputStream out, String name, String data) throws IOException {
+        out.write(("event: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private ApiConfig streamingConfig() {
+        ApiConfig config = new ApiConfig();
+        config.setApiKey("test-key");
+        config.setEnabled(true);
+        config.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages");
+        return config;
+    }
+
+    @Test
+    void testStreamingValidatesCodeBeforeExplanationArrives() throws IOException {
+        // The explanation's last delta is only sent once the code block has been checked
+        CountDownLatch syntaxChecked = new CountDownLatch(1);
+        AtomicBoolean checkedBeforeLastDelta = new AtomicBoolean();
+        startSseStub(List.of(
+            "## Refactored Code\n``",
+            "`ja",
+            "va\nclass A {\n    void m() {}\n",
+            "}\n``",
+            "`\n\n## Explanation\nExtracted ",
+            "the method.\n\n## Why This is Better\nShorter\n\n## Changes Made\n- Extract method\n"),
+            syntaxChecked, checkedBeforeLastDelta, null);
+
+        List<String> blocks = new ArrayList<>();
+        ClaudeApiClient streamingClient = new ClaudeApiClient(streamingConfig())
+            .withStreamListener(new ClaudeApiClient.StreamListener() {
+                @Override
+                public void onCodeBlock(String code) {
+                    blocks.add(code);
+                }
+
+                @Override
+                public void onSyntaxChecked(String code, CompilationResult result) {
+                    syntaxChecked.countDown();
+                }
+            });
+
+        RefactoredCode result = streamingClient.generateRefactoring("Refactor", "class A {}");
+
+        assertTrue(result.isSuccessful(), result.getErrorMessage());
+        assertEquals("class A {\n    void m() {}\n}", result.getRefactoredCode());
+        assertEquals("Extracted the method.", result.getExplanation());
+        assertEquals(List.of("Extract method"), result.getChanges());
+        assertEquals(List.of(result.getRefactoredCode()), blocks);
+        assertEquals(Boolean.TRUE, result.getSyntaxValid());
+        assertTrue(checkedBeforeLastDelta.get(),
+            "Syntax check should finish while the explanation is still streaming");
+    }
+
+    @Test
+    void testStreamingReportsSyntaxErrors() throws IOException {
+        startSseStub(List.of("## Refactored Code\n```java\nvoid m( {\n```\n## Explanation\nBroken"), null);
+
+        RefactoredCode result = new ClaudeApiClient(streamingConfig()).generateRefactoring("Refactor", "class A {}");
+
+        assertTrue(result.isSuccessful());
+        assertEquals(Boolean.FALSE, result.getSyntaxValid());
+        assertFalse(result.getSyntaxErrors().isEmpty());
+    }
+
+    @Test
+    void testStreamErrorEventIsThrottling() throws IOException {
+        startSseStub(List.of("## Refactored Code\n"), "overloaded_error");
+
+        ClaudeApiClient.ApiAttempt attempt = new ClaudeApiClient(streamingConfig()).attempt("Refactor", "class A {}", 1);
+
+        assertEquals(529, attempt.getStatusCode());
+        assertTrue(attempt.isThrottled());
+        assertFalse(attempt.getResult().isSuccessful());
+        assertTrue(attempt.getResult().getErrorMessage().contains("overloaded_error"));
+    }
+
+    @Test
+    void testAssemblerReportsBlocksSplitAcrossDeltas() {
+        List<String> blocks = new ArrayList<>();
+        StreamingResponseAssembler assembler = new StreamingResponseAssembler(blocks::add);
+        String text = "## Issue 1\n```java\nint a = 1;\n```\n## Issue 2\n```\n```\n## Issue 3\n```java\nint c = 3;\n```\ntail";
+        for (char c : text.toCharArray()) {
+            assembler.append(String.valueOf(c));
+        }
+
+        assertEquals(List.of("int a = 1;", "", "int c = 3;"), blocks);
+        assertEquals(text, assembler.getText());
+    }
+
+    @Test
+    void testParseBatchResponse() {
+        String text = """
+            Here are the refactorings.
+
+            ## Issue 2
+            ### Refactored Code
+            ```java
+            int second = 2;
+            ```
+            ### Explanation
+            Named the constant
+
+            ## Issue 1
+            ### Refactored Code
+            ```java
+            int first = 1;
+            ```
+            ### Explanation
+            Extracted a constant
+            ### Why This is Better
+            Readable
+            ### Changes Made
+            - Added FIRST constant
+            - Replaced literal
+            """;
+
+        List<RefactoredCode> results = client.parseBatchResponse(text, "class A {}", 3);
+
+        assertEquals(3, results.size());
+        assertEquals("int first = 1;", results.get(0).getRefactoredCode());
+        assertEquals("Extracted a constant", results.get(0).getExplanation());
+        assertEquals("Readable", results.get(0).getWhyBetter());
+        assertEquals(List.of("Added FIRST constant", "Replaced literal"), results.get(0).getChanges());
+        assertEquals("class A {}", results.get(0).getOriginalCode());
+        assertEquals("int second = 2;", results.get(1).getRefactoredCode());
+        assertEquals("Named the constant", results.get(1).getExplanation());
+        assertFalse(results.get(2).isSuccessful());
+        assertEquals("No refactoring returned for issue 3", results.get(2).getErrorMessage());
+    }
+
+    @Test
+    void testBatchPromptSendsSharedSnippetOnce() {
+        PromptGenerator generator = new PromptGenerator();
+        List<CodeSmell> smells = List.of(
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, "A.java", 3, "Magic number 42"),
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, "A.java", 3, "Magic number 7"),
+            new CodeSmell(CodeSmellType.LONG_METHOD, "A.java", 10, "Method 'run' is too long"));
+        String shared = "   3 | int x = 42 * 7;";
+        String prompt = generator.generateBatchPrompt("A.java", smells,
+            List.of(List.of(shared), List.of(shared), List.of("  10 | void run() {")));
+
+        assertTrue(prompt.contains("fix 3 code smells found in A.java"));
+        assertTrue(prompt.contains("## Issue 1: MAGIC_NUMBER (line 3"));
+        assertTrue(prompt.contains("## Issue 3: LONG_METHOD (line 10"));
+        assertEquals(prompt.indexOf(shared), prompt.lastIndexOf(shared), "Shared snippet is sent once");
+        assertTrue(prompt.contains("Code: same as Issue 1"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.pragmite.ai;
+
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextExtractorTest {
+
+    private static final String SOURCE = String.join("\n",
+        "package demo;",                                   // 1
+        "",                                                // 2
+        "import java.util.List;",                          // 3
+        "",                                                // 4
+        "public class OrderService {",                     // 5
+        "    private final List<String> orders;",          // 6
+        "    private int unusedCounter;",                  // 7
+        "",                                                // 8
+        "    public OrderService(List<String> orders) {",  // 9
+        "        this.orders = orders;",                   // 10
+        "    }",                                           // 11
+        "",                                                // 12
+        "    public int process(String order) {",          // 13
+        "        if (order == null) {",                    // 14
+        "            return -1;",                          // 15
+        "        }",                                       // 16
+        "        orders.add(order);",                      // 17
+        "        return validate(order);",                 // 18
+        "    }",                                           // 19
+        "",                                                // 20
+        "    private int validate(String order) {",        // 21
+        "        return order.length() * 42;",             // 22
+        "    }",                                           // 23
+        "",                                                // 24
+        "    public void unrelated() {",                   // 25
+        "        System.out.println(\"unrelated\");",      // 26
+        "    }",                                           // 27
+        "}");                                              // 28
+
+    private static CodeSmell smell(CodeSmellType type, int line) {
+        return new CodeSmell(type, "OrderService.java", line, "test");
+    }
+
+    @Test
+    void testIndexFindsMembersFromAst() {
+        FileStructureIndex index = FileStructureIndex.build(SOURCE).orElseThrow();
+
+        FileStructureIndex.Member process = index.memberAt(15).orElseThrow();
+        assertEquals("process", process.name());
+        assertEquals(13, process.begin());
+        assertEquals(19, process.end());
+        assertEquals("OrderService", index.typeAt(15).orElseThrow().name());
+        assertEquals(1, index.methodsNamed(index.typeAt(15).orElseThrow(), "validate").size());
+        assertTrue(FileStructureIndex.build("class {").isEmpty());
+    }
+
+    @Test
+    void testMethodSmellIncludesMemberTypeHeaderAndUsedMembers() {
+        FileStructureIndex index = FileStructureIndex.build(SOURCE).orElseThrow();
+        String snippet = new ContextExtractor()
+            .extractContext(smell(CodeSmellType.LONG_METHOD, 14), SOURCE.split("\n"), index).get(0);
+
+        assertTrue(snippet.contains(">>>   14 |"), snippet);
+        assertTrue(snippet.contains("public int process(String order)"), snippet);
+        assertTrue(snippet.contains("public class OrderService"), snippet);
+        assertTrue(snippet.contains("private final List<String> orders;"), "Used field: " + snippet);
+        assertTrue(snippet.contains("return order.length() * 42;"), "Called method: " + snippet);
+        assertFalse(snippet.contains("unusedCounter"), snippet);
+        assertFalse(snippet.contains("unrelated"), snippet);
+        assertFalse(snippet.contains("import java.util.List"), snippet);
+    }
+
+    @Test
+    void testSnippetStaysWithinTokenBudget() {
+        StringBuilder source = new StringBuilder("public class Big {\n    public void huge() {\n");
+        for (int i = 0; i < 500; i++) {
+            source.append("        int value").append(i).append(" = compute(").append(i).append(", \"label\");\n");
+        }
+        source.append("    }\n    int compute(int a, String b) { return a; }\n}\n");
+        String code = source.toString();
+
+        ContextExtractor extractor = new ContextExtractor(300);
+        List<String> snippets = extractor.extractContext(smell(CodeSmellType.LONG_METHOD, 250), code);
+        String snippet = snippets.get(0);
+
+        assertTrue(TokenEstimator.estimate(snippet) <= 300, "Estimated " + TokenEstimator.estimate(snippet));
+        assertTrue(snippet.contains(">>>  250 |"), "Window keeps the smell line");
+        assertTrue(snippet.contains("public void huge()"), "Signature of a truncated member is kept");
+        assertTrue(snippet.split("\n").length < 100, "Window instead of the 500 line method");
+    }
+
+    @Test
+    void testClassSmellGetsOutline() {
+        String snippet = new ContextExtractor()
+            .extractContext(smell(CodeSmellType.GOD_CLASS, 5), SOURCE).get(0);
+
+        assertTrue(snippet.contains(">>>    5 | public class OrderService {"), snippet);
+        assertTrue(snippet.contains("public void unrelated()"), snippet);
+        assertFalse(snippet.contains("System.out.println"), "Bodies are left out of the outline: " + snippet);
+    }
+
+    @Test
+    void testUnparsableSourceFallsBackToLineScanning() {
+        String broken = SOURCE.replace("public int process(String order) {", "public int process(String order) {{");
+        List<String> snippets = new ContextExtractor().extractContext(smell(CodeSmellType.MAGIC_NUMBER, 22), broken);
+
+        assertFalse(snippets.isEmpty());
+        assertTrue(snippets.get(0).contains(">>>   22 |"));
+    }
+
+    @Test
+    void testTokenEstimate() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(3, TokenEstimator.estimate("int x;"));
+        // Roughly the common four characters per token on ordinary code
+        String code = SOURCE.repeat(10);
+        int estimate = TokenEstimator.estimate(code);
+        assertTrue(estimate > code.length() / 8 && estimate < code.length() / 2, "Estimate " + estimate);
+    }
+}
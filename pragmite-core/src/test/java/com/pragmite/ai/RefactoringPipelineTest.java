@@ -0,0 +1,233 @@
+package com.pragmite.ai;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the pipeline against a local stub of the Messages API that adds latency and
+ * answers 429 when too many requests are in flight.
+ */
+class RefactoringPipelineTest {
+
+    private static final String RESPONSE = "{\"content\":[{\"type\":\"text\",\"text\":"
+        + "\"## Refactored Code\\n```java\\nclass A {}\\n```\\n## Explanation\\nok\"}]}";
+
+    private static final Pattern BATCH = Pattern.compile("answer every issue \\(1 to (\\d+)\\)");
+
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakAccepted = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    private volatile long latencyMs = 50;
+    private volatile int serverCapacity = Integer.MAX_VALUE;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/messages", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Matcher batch = BATCH.matcher(request);
+        int current = inFlight.incrementAndGet();
+        try {
+            if (current > serverCapacity) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().add("retry-after", "0.05");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            peakAccepted.accumulateAndGet(current, Math::max);
+            Thread.sleep(latencyMs);
+            accepted.incrementAndGet();
+            byte[] body = (batch.find() ? batchResponse(Integer.parseInt(batch.group(1))) : RESPONSE)
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static String batchResponse(int issues) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= issues; i++) {
+            text.append("## Issue ").append(i).append("\\n### Refactored Code\\n```java\\nclass A").append(i)
+                .append(" {}\\n```\\n### Explanation\\nfixed ").append(i).append("\\n\\n");
+        }
+        return "{\"content\":[{\"type\":\"text\",\"text\":\"" + text + "\"}]}";
+    }
+
+    private ApiConfig config(int maxConcurrent, int requestsPerMinute) {
+        ApiConfig config = new ApiConfig();
+        config.setApiKey("test-key");
+        config.setEnabled(true);
+        config.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages");
+        config.setMaxConcurrentRequests(maxConcurrent);
+        config.setRequestsPerMinute(requestsPerMinute);
+        config.setMaxRetries(10);
+        return config;
+    }
+
+    private static List<RefactoringPipeline.Request> requests(int count) {
+        List<RefactoringPipeline.Request> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new RefactoringPipeline.Request("Refactor #" + i, "class A { void m" + i + "() {} }"));
+        }
+        return requests;
+    }
+
+    @Test
+    void testRunsConcurrentlyWithinLimit() {
+        RefactoringPipeline pipeline = new RefactoringPipeline(config(8, 0));
+        AtomicInteger callbacks = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<RefactoredCode> results = pipeline.process(requests(40), (index, result) -> callbacks.incrementAndGet());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(40, results.size());
+        assertTrue(results.stream().allMatch(RefactoredCode::isSuccessful));
+        assertEquals("class A {}", results.get(0).getRefactoredCode());
+        assertEquals(40, callbacks.get());
+        assertTrue(pipeline.getPeakConcurrency() > 1, "Requests should overlap");
+        assertTrue(peakAccepted.get() <= 8, "Never more than the configured maximum in flight: " + peakAccepted.get());
+        // Sequential would take 40 * 50ms = 2s
+        assertTrue(elapsedMs < 1500, "Concurrent run took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testBacksOffWhenThrottled() {
+        serverCapacity = 2;
+        RefactoringPipeline pipeline = new RefactoringPipeline(config(8, 0));
+
+        List<RefactoredCode> results = pipeline.process(requests(30), null);
+
+        assertTrue(results.stream().allMatch(RefactoredCode::isSuccessful), "Throttled requests are retried");
+        assertEquals(30, accepted.get());
+        assertTrue(throttled.get() > 0, "Stub should have throttled");
+        assertEquals(throttled.get(), pipeline.getThrottledCount());
+        assertTrue(pipeline.getRetryCount() >= pipeline.getThrottledCount());
+        assertTrue(pipeline.getConcurrencyLimit() < 8, "AIMD should settle below the maximum");
+    }
+
+    @Test
+    void testRespectsRateLimit() {
+        ApiConfig config = config(8, 120); // 2/s, burst 12
+        latencyMs = 1;
+        RefactoringPipeline pipeline = new RefactoringPipeline(config);
+
+        long start = System.nanoTime();
+        List<RefactoredCode> results = pipeline.process(requests(16), null);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(results.stream().allMatch(RefactoredCode::isSuccessful));
+        // 12 from the burst, 4 more at 2/s => at least ~2s
+        assertTrue(elapsedMs >= 1800, "Rate limit should spread requests, took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() {
+        ApiConfig config = config(4, 0);
+        config.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/missing");
+        RefactoringPipeline pipeline = new RefactoringPipeline(config);
+
+        List<RefactoredCode> results = pipeline.process(requests(3), null);
+
+        assertEquals(3, results.size());
+        assertFalse(results.get(0).isSuccessful());
+        assertEquals("API error: HTTP 404", results.get(0).getErrorMessage());
+        assertEquals(0, pipeline.getRetryCount());
+    }
+
+    @Test
+    void testSecondRunIsServedFromCache(@TempDir Path projectDir) throws IOException {
+        Path source = projectDir.resolve("A.java");
+        Files.writeString(source, "class A {\n    void a() {\n        int x = 42;\n    }\n}\n");
+        List<CodeSmell> smells = List.of(
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, source.toString(), 3, "Magic number 42"),
+            new CodeSmell(CodeSmellType.LONG_METHOD, source.toString(), 2, "Method 'a' is too long"));
+
+        List<AIAnalysisResult> first = new AnalysisEngine().analyzeAll(smells, projectDir, config(4, 0));
+        assertEquals(1, accepted.get(), "Both smells of the file go in one batched request");
+        assertTrue(first.get(0).getRefactoredCode().isSuccessful());
+
+        List<AIAnalysisResult> second = new AnalysisEngine().analyzeAll(smells, projectDir, config(4, 0));
+        assertEquals(1, accepted.get(), "Unchanged code must not call the API again");
+        assertEquals("class A2 {}", second.get(1).getRefactoredCode().getRefactoredCode());
+
+        // Changed code misses the cache
+        Files.writeString(source, "class A {\n    void a() {\n        int x = 43;\n    }\n}\n");
+        new AnalysisEngine().analyzeAll(smells, projectDir, config(4, 0));
+        assertEquals(2, accepted.get());
+    }
+
+    @Test
+    void testSmellsAreBatchedPerFile(@TempDir Path projectDir) throws IOException {
+        Path a = projectDir.resolve("A.java");
+        Path b = projectDir.resolve("B.java");
+        Files.writeString(a, "class A {\n    int x = 1;\n    int y = 2;\n    int z = 3;\n}\n");
+        Files.writeString(b, "class B {\n    int x = 1;\n}\n");
+        List<CodeSmell> smells = List.of(
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, a.toString(), 2, "Magic number 1"),
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, b.toString(), 2, "Magic number 1"),
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, a.toString(), 3, "Magic number 2"),
+            new CodeSmell(CodeSmellType.MAGIC_NUMBER, a.toString(), 4, "Magic number 3"));
+        ApiConfig config = config(4, 0);
+        config.setCacheResults(false);
+
+        List<AIAnalysisResult> results = new AnalysisEngine().analyzeAll(smells, projectDir, config);
+
+        assertEquals(2, accepted.get(), "One request per file");
+        assertEquals(4, results.size());
+        // Results stay in smell order and map to their issue in the batch
+        assertEquals(b.toString(), results.get(1).getOriginalSmell().getFilePath());
+        assertEquals("class A {}", results.get(1).getRefactoredCode().getRefactoredCode());
+        assertEquals("class A1 {}", results.get(0).getRefactoredCode().getRefactoredCode());
+        assertEquals("class A2 {}", results.get(2).getRefactoredCode().getRefactoredCode());
+        assertEquals("class A3 {}", results.get(3).getRefactoredCode().getRefactoredCode());
+        assertEquals("fixed 3", results.get(3).getRefactoredCode().getExplanation());
+
+        // Batching disabled: one request per smell
+        config.setMaxBatchSize(1);
+        new AnalysisEngine().analyzeAll(smells, projectDir, config);
+        assertEquals(6, accepted.get());
+    }
+}
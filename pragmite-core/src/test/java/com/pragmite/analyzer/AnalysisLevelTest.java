@@ -0,0 +1,63 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.rules.RuleEngine;
+import com.pragmite.rules.smells.DuplicateCodeDetector;
+import com.pragmite.rules.smells.LongMethodDetector;
+import com.pragmite.rules.smells.SmellDetector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisLevelTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testFastRunsOnlySyntaxLocalDetectors() {
+        assertTrue(AnalysisLevel.FAST.includes(new LongMethodDetector()));
+        assertFalse(AnalysisLevel.FAST.includes(new DuplicateCodeDetector()));
+
+        RuleEngine engine = new RuleEngine();
+        int all = engine.getDetectors().size();
+        engine.retainDetectors(AnalysisLevel.FAST::includes);
+        assertTrue(engine.getDetectors().size() < all);
+        for (SmellDetector detector : new RuleEngine().getDetectors()) {
+            assertTrue(AnalysisLevel.STANDARD.includes(detector));
+            assertTrue(AnalysisLevel.DEEP.includes(detector));
+        }
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(AnalysisLevel.DEEP, AnalysisLevel.parse(" Deep "));
+        assertThrows(IllegalArgumentException.class, () -> AnalysisLevel.parse("thorough"));
+    }
+
+    @Test
+    void testFastSkipsMetricsAndSuggestions() throws IOException {
+        StringBuilder source = new StringBuilder("class Service {\n    int run(int a) {\n");
+        for (int i = 0; i < 60; i++) {
+            source.append("        a = a + ").append(i).append(";\n");
+        }
+        source.append("        return a;\n    }\n}\n");
+        Files.writeString(root.resolve("Service.java"), source);
+
+        AnalysisResult fast = new ProjectAnalyzer(root).withAnalysisLevel(AnalysisLevel.FAST).analyze();
+        AnalysisResult standard = new ProjectAnalyzer(root).withAnalysisLevel(AnalysisLevel.STANDARD).analyze();
+
+        assertFalse(fast.getCodeSmells().isEmpty());
+        assertTrue(fast.getSuggestions().isEmpty());
+        assertNull(fast.getFileAnalyses().get(0).getCkMetrics());
+        assertTrue(fast.getComplexityInfos().isEmpty());
+
+        assertNotNull(standard.getFileAnalyses().get(0).getCkMetrics());
+        assertTrue(standard.getCodeSmells().size() >= fast.getCodeSmells().size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.pragmite.analyzer;
+
+import com.github.javaparser.StaticJavaParser;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossFileCloneIndexTest {
+
+    @TempDir
+    Path root;
+
+    private static String classWithBlock(String className, String prefix, int statements) {
+        StringBuilder source = new StringBuilder("class ").append(className).append(" {\n    int total(int start) {\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("        int ").append(prefix).append(i).append(" = start * ").append(i + 2).append(";\n");
+        }
+        source.append("        return start;\n    }\n}\n");
+        return source.toString();
+    }
+
+    @Test
+    void testFindsRenamedCloneInAnotherFile() {
+        CrossFileCloneIndex index = new CrossFileCloneIndex();
+        index.add(StaticJavaParser.parse(classWithBlock("A", "x", 8)), "A.java");
+        index.add(StaticJavaParser.parse(classWithBlock("B", "y", 8)), "B.java");
+
+        Map<String, List<CodeSmell>> clones = index.findClones();
+
+        // One smell per method and other file, even though the clone spans several windows
+        assertEquals(1, clones.get("A.java").size());
+        assertEquals(1, clones.get("B.java").size());
+        CodeSmell smell = clones.get("A.java").get(0);
+        assertEquals(CodeSmellType.DUPLICATED_CODE, smell.getType());
+        assertEquals(3, smell.getStartLine());
+        assertTrue(smell.getDescription().contains("B.java"), smell.getDescription());
+    }
+
+    @Test
+    void testIgnoresClonesWithinOneFileAndShortMethods() {
+        CrossFileCloneIndex index = new CrossFileCloneIndex();
+        index.add(StaticJavaParser.parse(classWithBlock("A", "x", 8)), "A.java");
+        index.add(StaticJavaParser.parse(classWithBlock("A2", "z", 8)), "A.java");
+        index.add(StaticJavaParser.parse(classWithBlock("C", "x", 4)), "C.java");
+
+        assertTrue(index.findClones().isEmpty());
+    }
+
+    @Test
+    void testDeepLevelReportsCrossFileClones() throws IOException {
+        Files.writeString(root.resolve("A.java"), classWithBlock("A", "x", 8));
+        Files.writeString(root.resolve("B.java"), classWithBlock("B", "y", 8));
+
+        AnalysisResult standard = new ProjectAnalyzer(root).withAnalysisLevel(AnalysisLevel.STANDARD).analyze();
+        AnalysisResult deep = new ProjectAnalyzer(root).withAnalysisLevel(AnalysisLevel.DEEP).analyze();
+
+        assertEquals(0, countCrossFile(standard));
+        assertEquals(2, countCrossFile(deep));
+    }
+
+    private static long countCrossFile(AnalysisResult result) {
+        return result.getCodeSmells().stream()
+            .filter(smell -> smell.getDescription().contains("another file"))
+            .count();
+    }
+}
@@ -0,0 +1,170 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.config.AnalysisConfig;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.FileAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedCodeDetectorTest {
+
+    private final GeneratedCodeDetector detector = GeneratedCodeDetector.defaults();
+
+    @TempDir
+    Path root;
+
+    private String detect(String source) {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return detector.detectHeader(bytes, bytes.length);
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testDetectsGeneratorSignatures() {
+        assertEquals("protoc", detect("// Generated by the protocol buffer compiler.  DO NOT EDIT!\npackage a;"));
+        assertEquals("jaxb", detect("// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation\n"));
+        assertEquals("antlr", detect("// Generated from Expr.g4 by ANTLR 4.13.1\npackage a;"));
+        assertEquals("javacc", detect("/* Generated By:JavaCC: Do not edit this line. Parser.java */\n"));
+        assertEquals("@Generated", detect("import javax.annotation.processing.Generated;\n\n@Generated(\"dagger\")\nclass A {}"));
+        assertEquals("@Generated", detect("@jakarta.annotation.Generated(\"openapi\")\nclass A {}"));
+        assertEquals("@generated", detect("/**\n * @generated\n */\nclass A {}"));
+        assertEquals("DO NOT EDIT", detect("// Code generated by mockgen. DO NOT EDIT.\nclass A {}"));
+        assertEquals("generated banner", detect("/*\n * This class is auto generated by OpenAPI Generator.\n */\nclass A {}"));
+    }
+
+    @Test
+    void testRegularSourcesAreNotGenerated() {
+        assertNull(detect("package a;\n\npublic class Service {\n    // The id is generated by the database\n}\n"));
+        assertNull(detect("class A {\n    String banner = \"DO NOT EDIT\";\n}\n"));
+        assertNull(detect("class A {\n    @GeneratedValue\n    Long id;\n}\n"));
+    }
+
+    @Test
+    void testOnlyTheHeaderIsInspected() {
+        String source = "class A {\n" + "    int x;\n".repeat(GeneratedCodeDetector.HEADER_BYTES / 10) + "}\n// DO NOT EDIT\n";
+        assertNull(detect(source));
+    }
+
+    @Test
+    void testVendoredPaths() {
+        assertEquals("vendored", detector.detectPath("lib/vendor/json/Json.java"));
+        assertEquals("vendored", detector.detectPath("third_party\\guava\\Lists.java"));
+        assertNull(detector.detectPath("src/main/java/com/example/VendorService.java"));
+        assertNull(new GeneratedCodeDetector(List.of(), GeneratedCodeDetector.Mode.SKIP).detectPath("vendor/A.java"));
+    }
+
+    @Test
+    void testParseMode() {
+        assertEquals(GeneratedCodeDetector.Mode.SKIP, GeneratedCodeDetector.Mode.parse(" Skip "));
+        assertThrows(IllegalArgumentException.class, () -> GeneratedCodeDetector.Mode.parse("sometimes"));
+    }
+
+    @Test
+    void testMetricsOnlyPassCountsLinesWithoutParsing() throws IOException {
+        Path generated = write("src/Parser.java", "// Generated from Expr.g4 by ANTLR 4.13.1\nclass Parser {\n    void parse() {}\n}\n");
+
+        ProjectAnalyzer analyzer = new ProjectAnalyzer(root);
+        FileAnalysis analysis = analyzer.analyzeFile(generated);
+
+        assertEquals("antlr", analysis.getGeneratedReason());
+        assertEquals(4, analysis.getLineCount());
+        assertEquals(0, analysis.getMethodCount());
+    }
+
+    @Test
+    void testSkippedFilesAreCountedButNotReported() throws IOException {
+        write("src/Service.java", "class Service {\n    void run() {}\n}\n");
+        Path generated = write("src/Model.java", "@Generated(\"jaxb\")\nclass Model {}\n");
+        Path vendored = write("vendor/lib/Lib.java", "class Lib {}\n");
+
+        AnalysisResult result = new ProjectAnalyzer(root)
+            .withGeneratedCodeDetector(new GeneratedCodeDetector(List.of("vendor/**"), GeneratedCodeDetector.Mode.SKIP))
+            .analyze();
+
+        assertEquals(1, result.getTotalFiles());
+        assertEquals(List.of(root.resolve("src/Service.java").toString()),
+            result.getFileAnalyses().stream().map(FileAnalysis::getFilePath).toList());
+        assertEquals(2, result.getGeneratedFiles());
+        assertEquals(Files.size(generated) + Files.size(vendored), result.getSkippedBytes());
+    }
+
+    @Test
+    void testSkippedFilesAreNotStreamedToListeners() throws IOException {
+        write("src/Service.java", "class Service {\n    void run() {}\n}\n");
+        write("src/Model.java", "@Generated(\"jaxb\")\nclass Model {}\n");
+        write("vendor/lib/Lib.java", "class Lib {}\n");
+
+        for (boolean parallel : new boolean[]{true, false}) {
+            AnalysisConfig config = AnalysisConfig.defaultConfig();
+            config.setEnableParallelAnalysis(parallel);
+            AtomicInteger startTotal = new AtomicInteger(-1);
+            List<String> streamed = Collections.synchronizedList(new ArrayList<>());
+            List<Integer> totals = Collections.synchronizedList(new ArrayList<>());
+            AnalysisListener listener = new AnalysisListener() {
+                @Override
+                public void onAnalysisStart(String projectPath, int totalFiles) {
+                    startTotal.set(totalFiles);
+                }
+
+                @Override
+                public void onFileAnalyzed(FileAnalysis analysis, int completed, int total) {
+                    streamed.add(root.relativize(Path.of(analysis.getFilePath())).toString());
+                    totals.add(total);
+                }
+            };
+
+            AnalysisResult result = new ProjectAnalyzer(root, config)
+                .withGeneratedCodeDetector(new GeneratedCodeDetector(List.of("vendor/**"), GeneratedCodeDetector.Mode.SKIP))
+                .withAnalysisListener(listener)
+                .analyze();
+
+            assertEquals(List.of(Path.of("src/Service.java").toString()), streamed, "parallel=" + parallel);
+            assertEquals(result.getTotalFiles(), startTotal.get());
+            assertEquals(List.of(1), totals);
+            assertEquals(2, result.getGeneratedFiles());
+        }
+    }
+
+    @Test
+    void testMetricsOnlyFilesAreNotSkippedBytes() throws IOException {
+        write("src/Service.java", "class Service {\n    void run() {}\n}\n");
+        write("src/Model.java", "@Generated(\"jaxb\")\nclass Model {}\n");
+
+        AnalysisResult result = new ProjectAnalyzer(root)
+            .withGeneratedCodeDetector(new GeneratedCodeDetector(List.of(), GeneratedCodeDetector.Mode.METRICS))
+            .analyze();
+
+        assertEquals(2, result.getTotalFiles());
+        assertEquals(1, result.getGeneratedFiles());
+        assertEquals(0, result.getSkippedBytes());
+    }
+
+    @Test
+    void testAnalyzeModeParsesGeneratedFiles() throws IOException {
+        write("src/Model.java", "@Generated(\"jaxb\")\nclass Model {\n    void get() {}\n}\n");
+
+        AnalysisResult result = new ProjectAnalyzer(root)
+            .withGeneratedCodeDetector(new GeneratedCodeDetector(List.of(), GeneratedCodeDetector.Mode.ANALYZE))
+            .analyze();
+
+        assertEquals(0, result.getGeneratedFiles());
+        assertEquals(1, result.getFileAnalyses().get(0).getMethodCount());
+    }
+}
@@ -0,0 +1,161 @@
+package com.pragmite.analyzer;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.FileAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingAnalyzerTest {
+
+    @TempDir
+    Path root;
+
+    private void writeProject(int packages, int filesPerPackage) throws IOException {
+        for (int p = 0; p < packages; p++) {
+            Path dir = Files.createDirectories(root.resolve("src/pkg" + p));
+            for (int f = 0; f < filesPerPackage; f++) {
+                StringBuilder source = new StringBuilder("package pkg" + p + ";\n\nclass C" + f + " {\n");
+                // Every third file has an empty catch block, larger files have more methods
+                for (int m = 0; m <= f % 4; m++) {
+                    source.append("    void m").append(m).append("() {\n");
+                    if (f % 3 == 0) {
+                        source.append("        try { run(); } catch (Exception e) { }\n");
+                    }
+                    source.append("    }\n");
+                }
+                source.append("    void run() {}\n}\n");
+                Files.writeString(dir.resolve("C" + f + ".java"), source.toString());
+            }
+        }
+    }
+
+    private SamplingAnalyzer sampler() {
+        return new SamplingAnalyzer(new ProjectAnalyzer(root)).withSeed(42).withThreads(2);
+    }
+
+    @Test
+    void testSmallProjectIsAnalyzedCompletely() throws IOException {
+        writeProject(2, 5);
+
+        SamplingResult result = sampler().withInitialSampleSize(100).analyze(root);
+        AnalysisResult full = new ProjectAnalyzer(root).analyze();
+
+        assertEquals(SamplingResult.StopReason.EXHAUSTED, result.getStopReason());
+        assertEquals(10, result.getPopulationFiles());
+        assertEquals(10, result.getSampledFiles());
+        // Every file analyzed: the estimates are exact
+        assertEquals(full.getCodeSmells().size(), result.getTotalSmells().value(), 1e-9);
+        assertEquals(0, result.getTotalSmells().halfWidth(), 1e-9);
+        assertEquals(full.getQualityScore().getOverallScore(), result.getOverallScore().value(), 1e-9);
+        assertEquals(full.getQualityScore().getCorrectnessScore(), result.getCorrectnessScore().value(), 1e-9);
+    }
+
+    @Test
+    void testEstimatesCoverTheFullAnalysis() throws IOException {
+        writeProject(6, 40);
+
+        SamplingResult result = sampler().withInitialSampleSize(40).withTargetError(0.5).analyze(root);
+        AnalysisResult full = new ProjectAnalyzer(root).analyze();
+
+        assertEquals(240, result.getPopulationFiles());
+        assertTrue(result.getSampledFiles() < 240);
+        SamplingResult.Estimate smells = result.getTotalSmells();
+        assertTrue(smells.lower() <= full.getCodeSmells().size() && full.getCodeSmells().size() <= smells.upper(),
+            "interval " + smells + " should contain " + full.getCodeSmells().size());
+        assertTrue(result.getOverallScore().lower() <= result.getOverallScore().value());
+        assertTrue(result.getOverallScore().value() <= result.getOverallScore().upper());
+        assertTrue(result.getSmellsPerKloc().value() > 0);
+    }
+
+    @Test
+    void testRefinesUntilTargetError() throws IOException {
+        writeProject(4, 50);
+
+        SamplingResult result = sampler().withInitialSampleSize(10).withTargetError(0.1).analyze(root);
+
+        assertTrue(result.getRounds() > 1);
+        if (result.getStopReason() == SamplingResult.StopReason.TARGET_ERROR) {
+            assertTrue(result.getTotalSmells().relativeError() <= 0.1);
+        } else {
+            assertEquals(SamplingResult.StopReason.EXHAUSTED, result.getStopReason());
+        }
+    }
+
+    @Test
+    void testTimeBudgetStopsAfterFirstRound() throws IOException {
+        writeProject(4, 50);
+
+        SamplingResult result = sampler().withInitialSampleSize(10).withTargetError(0.0001)
+            .withTimeBudget(Duration.ZERO).analyze(root);
+
+        assertEquals(SamplingResult.StopReason.TIME_BUDGET, result.getStopReason());
+        assertEquals(1, result.getRounds());
+        assertTrue(result.getSampledFiles() >= 10);
+    }
+
+    @Test
+    void testLastRoundCutByTimeBudgetIsNotACensus() throws IOException {
+        // Same size class and package: one stratum, all files drawn by the third round
+        Path dir = Files.createDirectories(root.resolve("src"));
+        for (int f = 0; f < 8; f++) {
+            Files.writeString(dir.resolve("C" + f + ".java"), "class C" + f + " {\n"
+                + "    void m() { try { run(); } catch (Exception e) { } }\n".repeat(f % 3) + "    void run() {}\n}\n");
+        }
+        ProjectAnalyzer slowAnalyzer = new ProjectAnalyzer(root) {
+            @Override
+            public FileAnalysis analyzeFile(Path filePath) throws IOException {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted", e);
+                }
+                return super.analyzeFile(filePath);
+            }
+        };
+
+        // Rounds of 2, 2 and 4 files at 100 ms each; the third round passes the 500 ms budget
+        SamplingResult result = new SamplingAnalyzer(slowAnalyzer).withSeed(42).withThreads(1)
+            .withInitialSampleSize(2).withTargetError(1e-9).withTimeBudget(Duration.ofMillis(500))
+            .analyze(root);
+
+        assertEquals(SamplingResult.StopReason.TIME_BUDGET, result.getStopReason());
+        assertTrue(result.getSampledFiles() < 8);
+        assertTrue(result.getTotalSmells().halfWidth() > 0);
+    }
+
+    @Test
+    void testSameSeedSelectsSameFiles() throws IOException {
+        writeProject(3, 30);
+
+        SamplingResult first = sampler().withInitialSampleSize(12).withTimeBudget(Duration.ZERO).analyze(root);
+        SamplingResult second = sampler().withInitialSampleSize(12).withTimeBudget(Duration.ZERO).analyze(root);
+
+        assertEquals(first.getSample().stream().map(FileAnalysis::getFilePath).sorted().toList(),
+            second.getSample().stream().map(FileAnalysis::getFilePath).sorted().toList());
+    }
+
+    @Test
+    void testSizeClasses() {
+        assertEquals(0, SamplingAnalyzer.sizeClass(100));
+        assertEquals(1, SamplingAnalyzer.sizeClass(2048));
+        assertEquals(2, SamplingAnalyzer.sizeClass(10_000));
+        assertEquals(3, SamplingAnalyzer.sizeClass(1_000_000));
+    }
+
+    @Test
+    void testEmptyProject() throws IOException {
+        SamplingResult result = sampler().analyze(root);
+
+        assertEquals(0, result.getPopulationFiles());
+        assertEquals(SamplingResult.StopReason.EXHAUSTED, result.getStopReason());
+        assertEquals(100, result.getOverallScore().value(), 1e-9);
+    }
+}
@@ -0,0 +1,139 @@
+package com.pragmite.autofix;
+
+import com.pragmite.ai.RefactoredCode;
+import com.pragmite.util.FileLockManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CodeApplicator transactional batches
+ */
+class CodeApplicatorTest {
+
+    private static final String REPOSITORY = "public class Repository { public int count() { return 0; } }";
+    private static final String SERVICE = "public class Service { int n(Repository r) { return r.count(); } }";
+
+    @TempDir
+    Path sourceDir;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = sourceDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static RefactoredCode refactored(String original, String code) {
+        return RefactoredCode.builder()
+            .originalCode(original)
+            .refactoredCode(code)
+            .successful(true)
+            .build();
+    }
+
+    private void assertNoStagedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(sourceDir)) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().endsWith(".pragmite-tmp")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply all files of a batch that compiles")
+    void testBatchCommitsAllFiles() throws IOException {
+        Path repository = write("Repository.java", REPOSITORY);
+        Path service = write("Service.java", SERVICE);
+        String newRepository = "public class Repository { public int total() { return 0; } }";
+        String newService = "public class Service { int n(Repository r) { return r.total(); } }";
+
+        Map<Path, RefactoredCode> batch = new LinkedHashMap<>();
+        batch.put(repository, refactored(REPOSITORY, newRepository));
+        batch.put(service, refactored(SERVICE, newService));
+
+        CodeApplicator applicator = new CodeApplicator(false, false, new CompilationValidator(true));
+        List<ApplicationResult> results = applicator.applyBatchTransactional(batch);
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(ApplicationResult::isSuccess), results.toString());
+        assertTrue(Files.readString(repository).contains("total()"));
+        assertTrue(Files.readString(service).contains("r.total()"));
+        assertNoStagedFiles();
+    }
+
+    @Test
+    @DisplayName("Should roll back every file when one file of the batch does not compile")
+    void testCompilationFailureRollsBackBatch() throws IOException {
+        Path repository = write("Repository.java", REPOSITORY);
+        Path service = write("Service.java", SERVICE);
+        // Renames the method but the other file still calls the old name
+        String newRepository = "public class Repository { public int total() { return 0; } }";
+        String newService = "public class Service { int n(Repository r) { return r.count() + 1; } }";
+
+        Map<Path, RefactoredCode> batch = new LinkedHashMap<>();
+        batch.put(repository, refactored(REPOSITORY, newRepository));
+        batch.put(service, refactored(SERVICE, newService));
+
+        CodeApplicator applicator = new CodeApplicator(false, false, new CompilationValidator(true));
+        List<ApplicationResult> results = applicator.applyBatchTransactional(batch);
+
+        assertTrue(results.stream().noneMatch(ApplicationResult::isSuccess));
+        assertTrue(results.get(0).wasRolledBack());
+        assertEquals(ApplicationResult.ResultType.COMPILATION_FAILED, results.get(1).getType());
+        assertEquals(REPOSITORY, Files.readString(repository));
+        assertEquals(SERVICE, Files.readString(service));
+        assertNoStagedFiles();
+    }
+
+    @Test
+    @DisplayName("Should write nothing when a file of the batch cannot be prepared")
+    void testPreparationFailureWritesNothing() throws IOException {
+        Path repository = write("Repository.java", REPOSITORY);
+        Path service = write("Service.java", SERVICE);
+
+        Map<Path, RefactoredCode> batch = new LinkedHashMap<>();
+        batch.put(repository, refactored(REPOSITORY, "public class Repository { public int total() { return 0; } }"));
+        batch.put(service, refactored(SERVICE, "public class Service { int n( {"));
+
+        CodeApplicator applicator = new CodeApplicator(false, false);
+        List<ApplicationResult> results = applicator.applyBatchTransactional(batch);
+
+        assertTrue(results.get(0).wasRolledBack());
+        assertEquals(ApplicationResult.ResultType.FAILED, results.get(1).getType());
+        assertEquals(REPOSITORY, Files.readString(repository));
+        assertEquals(SERVICE, Files.readString(service));
+    }
+
+    @Test
+    @DisplayName("Should write nothing while another operation holds a file's lock")
+    void testLockedFileWritesNothing() throws IOException {
+        Path repository = write("Repository.java", REPOSITORY);
+        Path service = write("Service.java", SERVICE);
+
+        Map<Path, RefactoredCode> batch = new LinkedHashMap<>();
+        batch.put(repository, refactored(REPOSITORY, "public class Repository { public int total() { return 0; } }"));
+        batch.put(service, refactored(SERVICE, "public class Service { int n(Repository r) { return 1; } }"));
+
+        FileLockManager otherProcess = new FileLockManager(FileLockManager.defaultLockDirectory());
+        String token = otherProcess.tryAcquireLock(service);
+        assertNotNull(token);
+        try {
+            List<ApplicationResult> results = new CodeApplicator(false, false).applyBatchTransactional(batch);
+
+            assertTrue(results.stream().noneMatch(ApplicationResult::isSuccess));
+            assertTrue(results.get(1).getErrors().get(0).contains("locked"), results.get(1).getErrors().toString());
+            assertEquals(REPOSITORY, Files.readString(repository));
+            assertEquals(SERVICE, Files.readString(service));
+        } finally {
+            otherProcess.releaseLock(service, token);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.pragmite.cache;
+
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.config.AnalysisConfig;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.scanner.DirectoryManifest;
+import com.pragmite.scanner.OptimizedFileScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileResultCacheTest {
+
+    @TempDir
+    Path root;
+
+    private long time = System.currentTimeMillis() - 3_600_000;
+    private FileResultCache lastCache;
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    /**
+     * Moves recent timestamps out of the manifest's racy window, as if written an hour ago.
+     */
+    private void age() throws IOException {
+        time += 1000;
+        long recent = System.currentTimeMillis() - 600_000;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.getLastModifiedTime(path).toMillis() > recent) {
+                    Files.setLastModifiedTime(path, FileTime.fromMillis(time));
+                }
+            }
+        }
+    }
+
+    /**
+     * One incremental run as the CLI does it: cache and manifest are saved afterwards.
+     */
+    private AnalysisResult analyzeIncrementally(boolean parallel, String fingerprint) throws IOException {
+        AnalysisConfig config = AnalysisConfig.defaultConfig();
+        config.setEnableParallelAnalysis(parallel);
+        DirectoryManifest manifest = DirectoryManifest.forProject(root);
+        lastCache = FileResultCache.forProject(root, fingerprint);
+        AnalysisResult result = new ProjectAnalyzer(root, config)
+            .withFileScanner(new OptimizedFileScanner().withManifest(manifest))
+            .withResultCache(lastCache)
+            .analyze();
+        lastCache.save();
+        manifest.save();
+        return result;
+    }
+
+    private static String serviceWithMagicNumbers(String className, int count) {
+        StringBuilder source = new StringBuilder("class ").append(className).append(" {\n    int total(int start) {\n");
+        for (int i = 0; i < count; i++) {
+            source.append("        start += start * ").append(100 + i).append(";\n");
+        }
+        source.append("        return start;\n    }\n}\n");
+        return source.toString();
+    }
+
+    @Test
+    void testUnchangedRerunKeepsTheProjectWideResult() throws IOException {
+        assertUnchangedRerunKeepsTheResult(false);
+    }
+
+    @Test
+    void testUnchangedParallelRerunKeepsTheProjectWideResult() throws IOException {
+        assertUnchangedRerunKeepsTheResult(true);
+    }
+
+    private void assertUnchangedRerunKeepsTheResult(boolean parallel) throws IOException {
+        write("src/A.java", serviceWithMagicNumbers("A", 3));
+        write("src/b/B.java", serviceWithMagicNumbers("B", 40));
+        write("src/b/C.java", "class C {}");
+        age();
+
+        AnalysisResult first = analyzeIncrementally(parallel, "standard");
+        AnalysisResult second = analyzeIncrementally(parallel, "standard");
+
+        assertEquals(3, lastCache.getHitCount(), "Nothing was parsed again");
+        assertEquals(first.getTotalFiles(), second.getTotalFiles());
+        assertEquals(first.getTotalLines(), second.getTotalLines());
+        assertEquals(first.getCodeSmells().size(), second.getCodeSmells().size());
+        assertFalse(second.getCodeSmells().isEmpty());
+        assertEquals(first.getQualityScore().getOverallScore(), second.getQualityScore().getOverallScore(), 1e-9);
+        assertTrue(second.getQualityScore().getOverallScore() < 100);
+    }
+
+    @Test
+    void testChangedAndRemovedFilesAreAnalyzedAgain() throws IOException {
+        write("src/A.java", serviceWithMagicNumbers("A", 3));
+        write("src/B.java", serviceWithMagicNumbers("B", 5));
+        write("src/Gone.java", serviceWithMagicNumbers("Gone", 2));
+        age();
+        analyzeIncrementally(false, "standard");
+
+        write("src/A.java", "class A {}");
+        Files.delete(root.resolve("src/Gone.java"));
+        age();
+        AnalysisResult result = analyzeIncrementally(false, "standard");
+
+        assertEquals(1, lastCache.getHitCount());
+        assertEquals(2, result.getTotalFiles());
+        List<String> files = result.getCodeSmells().stream()
+            .filter(smell -> smell.getType() == CodeSmellType.MAGIC_NUMBER)
+            .map(CodeSmell::getFilePath)
+            .distinct()
+            .toList();
+        assertEquals(List.of(root.resolve("src/B.java").toString()), files, "A was analyzed again, Gone is dropped");
+
+        // Nothing of other settings is reused
+        analyzeIncrementally(false, "deep");
+        assertEquals(0, lastCache.getHitCount());
+    }
+
+    @Test
+    void testUnreadableCacheStartsOver() throws IOException {
+        Files.createDirectories(root.resolve(".pragmite"));
+        Files.writeString(root.resolve(FileResultCache.CACHE_FILE), "{not json");
+
+        FileResultCache cache = FileResultCache.forProject(root, "standard");
+        assertNull(cache.get(root.resolve("src/A.java")));
+        assertEquals(1, cache.getMissCount());
+    }
+}
@@ -0,0 +1,123 @@
+package com.pragmite.cache;
+
+import com.pragmite.ai.RefactoredCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefactoringCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static RefactoredCode sample(String code) {
+        return RefactoredCode.builder()
+            .originalCode("class A { void longMethod() {} }")
+            .refactoredCode(code)
+            .explanation("Extracted method")
+            .whyBetter("Shorter")
+            .addChange("Extract method")
+            .addBeforeMetric("lines", "45")
+            .addAfterMetric("lines", "12")
+            .build();
+    }
+
+    @Test
+    void testRoundTrip() {
+        RefactoringCache cache = RefactoringCache.forProject(tempDir, Duration.ofDays(1), 1024 * 1024);
+        String key = RefactoringCache.key("claude-sonnet-4-5", "1", "prompt", "class A {}");
+
+        assertNull(cache.get(key, "class A {}"));
+        cache.put(key, sample("class A { void a() {} }"));
+
+        // A new instance (next run) reads it back from disk
+        RefactoringCache reopened = RefactoringCache.forProject(tempDir, Duration.ofDays(1), 1024 * 1024);
+        RefactoredCode cached = reopened.get(key, "class A {}");
+        assertNotNull(cached);
+        assertTrue(cached.isSuccessful());
+        assertEquals("class A { void a() {} }", cached.getRefactoredCode());
+        assertEquals("class A {}", cached.getOriginalCode());
+        assertEquals("Extracted method", cached.getExplanation());
+        assertEquals("12", cached.getAfterMetrics().get("lines"));
+        assertEquals(1, cached.getChanges().size());
+        assertEquals(1, reopened.getHits());
+    }
+
+    @Test
+    void testKeyCoversModelTemplateVersionPromptAndCode() {
+        String base = RefactoringCache.key("m", "1", "prompt", "code");
+        assertEquals(base, RefactoringCache.key("m", "1", "prompt", "code"));
+        assertNotEquals(base, RefactoringCache.key("m2", "1", "prompt", "code"));
+        assertNotEquals(base, RefactoringCache.key("m", "2", "prompt", "code"));
+        assertNotEquals(base, RefactoringCache.key("m", "1", "prompt!", "code"));
+        assertNotEquals(base, RefactoringCache.key("m", "1", "prompt", "code!"));
+        // Field boundaries matter
+        assertNotEquals(RefactoringCache.key("m", "1", "ab", "c"), RefactoringCache.key("m", "1", "a", "bc"));
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        RefactoringCache cache = RefactoringCache.forProject(tempDir, Duration.ofDays(1), 1024 * 1024);
+        String key = RefactoringCache.key("m", "1", "p", "c");
+        cache.put(key, RefactoredCode.builder().successful(false).errorMessage("API error: HTTP 500").build());
+
+        assertNull(cache.get(key, "c"));
+        assertEquals(0, cache.currentSize());
+    }
+
+    @Test
+    void testExpiredEntriesAreMisses() throws Exception {
+        RefactoringCache cache = RefactoringCache.forProject(tempDir, Duration.ofMillis(50), 1024 * 1024);
+        String key = RefactoringCache.key("m", "1", "p", "c");
+        cache.put(key, sample("x"));
+        assertNotNull(cache.get(key, "c"));
+
+        Thread.sleep(100);
+        assertNull(cache.get(key, "c"));
+        assertEquals(0, countEntries(), "Expired entry is deleted");
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenOverSize() throws Exception {
+        String large = "x".repeat(1000);
+        RefactoringCache cache = RefactoringCache.forProject(tempDir, Duration.ofDays(1), 5_000);
+
+        String[] keys = new String[4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RefactoringCache.key("m", "1", "p" + i, "c");
+            cache.put(keys[i], sample(large + i));
+            // Distinct, increasing access times
+            Path entry = cache.getCacheDir().resolve(keys[i].substring(0, 2)).resolve(keys[i] + ".json");
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - (10 - i) * 1000L));
+        }
+        // Touch the oldest so it becomes most recently used
+        assertNotNull(cache.get(keys[0], "c"));
+
+        for (int i = 4; i < 8; i++) {
+            cache.put(RefactoringCache.key("m", "1", "p" + i, "c"), sample(large + i));
+        }
+
+        assertTrue(cache.currentSize() <= 5_000, "Size bound kept: " + cache.currentSize());
+        assertTrue(cache.getEvictions() > 0);
+        assertNotNull(cache.get(keys[0], "c"), "Recently used entry survives");
+        assertNull(cache.get(keys[1], "c"), "Least recently used entry is evicted");
+    }
+
+    private long countEntries() throws IOException {
+        Path dir = tempDir.resolve(RefactoringCache.CACHE_DIR);
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.toString().endsWith(".json")).count();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.pragmite.cli;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pragmite.cache.FileResultCache;
+import com.pragmite.util.PragmiteVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAnalysisTest {
+
+    @TempDir
+    Path project;
+
+    @TempDir
+    Path reports;
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    /**
+     * Moves the timestamps out of the manifest's racy window, as if written an hour ago.
+     */
+    private void age() throws IOException {
+        FileTime hourAgo = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        try (Stream<Path> paths = Files.walk(project)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.setLastModifiedTime(path, hourAgo);
+            }
+        }
+    }
+
+    private int run(String report) {
+        return new CommandLine(new PragmiteCLI()).execute(project.toString(), "--incremental",
+            "--min-quality-score", "100", "-f", "json", "-o", reports.resolve(report).toString());
+    }
+
+    private JsonObject report(String report) throws IOException {
+        return JsonParser.parseString(Files.readString(reports.resolve(report))).getAsJsonObject();
+    }
+
+    @Test
+    void testUnchangedRerunHasTheSameScoreAndGate() throws IOException {
+        StringBuilder source = new StringBuilder("class Service {\n    int total(int start) {\n");
+        for (int i = 0; i < 20; i++) {
+            source.append("        start += start * ").append(100 + i).append(";\n");
+        }
+        source.append("        return start;\n    }\n}\n");
+        write("src/Service.java", source.toString());
+        write("src/Empty.java", "class Empty {}");
+        age();
+
+        int firstExit = run("first.json");
+        int secondExit = run("second.json");
+
+        JsonObject first = report("first.json");
+        JsonObject second = report("second.json");
+        assertEquals(1, firstExit, "Quality gate fails below the minimum score");
+        assertEquals(firstExit, secondExit, "A no-op rerun must not pass the gate");
+        assertEquals(first.get("totalFiles").getAsInt(), second.get("totalFiles").getAsInt());
+        assertEquals(first.getAsJsonArray("codeSmells").size(), second.getAsJsonArray("codeSmells").size());
+        assertEquals(first.getAsJsonObject("qualityScore").get("pragmaticScore").getAsDouble(),
+            second.getAsJsonObject("qualityScore").get("pragmaticScore").getAsDouble(), 1e-9);
+    }
+
+    @Test
+    void testChangedThresholdDoesNotReuseStoredResults() throws IOException {
+        write("src/Service.java", "class Service { int total(int a) { return a * 100; } }");
+        age();
+
+        run("first.json");
+        String first = storedFingerprint();
+        run("second.json");
+        assertEquals(first, storedFingerprint(), "Unchanged settings keep the stored results");
+        assertTrue(first.startsWith(PragmiteVersion.VERSION + "/"), first);
+
+        Files.writeString(project.resolve(".pragmite.yaml"), "thresholds:\n  longMethod: 10\n");
+        run("third.json");
+        assertNotEquals(first, storedFingerprint(), "Results of the old threshold are not reused");
+    }
+
+    private String storedFingerprint() throws IOException {
+        String cache = Files.readString(project.resolve(FileResultCache.CACHE_FILE));
+        return JsonParser.parseString(cache).getAsJsonObject().get("fingerprint").getAsString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.pragmite.cli;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingCliTest {
+
+    @TempDir
+    Path project;
+
+    @TempDir
+    Path reports;
+
+    private void writeProject() throws IOException {
+        Path sources = Files.createDirectories(project.resolve("src/main/java/shop"));
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(sources.resolve("Service" + i + ".java"),
+                "package shop;\nclass Service" + i + " {\n    int total(int a) {\n        return a * " + (100 + i) + ";\n    }\n}\n");
+        }
+    }
+
+    private int run(String... args) {
+        String[] all = new String[args.length + 2];
+        all[0] = project.toString();
+        all[1] = "--sample";
+        System.arraycopy(args, 0, all, 2, args.length);
+        return new CommandLine(new PragmiteCLI()).execute(all);
+    }
+
+    @Test
+    void testSampleIsWrittenAsJson() throws IOException {
+        writeProject();
+        Path report = reports.resolve("sample.json");
+
+        assertEquals(0, run("-f", "json", "-o", report.toString()));
+
+        JsonObject json = JsonParser.parseString(Files.readString(report)).getAsJsonObject();
+        assertEquals("sample", json.get("mode").getAsString());
+        assertEquals(5, json.get("populationFiles").getAsInt());
+        JsonObject score = json.getAsJsonObject("overallScore");
+        assertTrue(score.get("lower").getAsDouble() <= score.get("value").getAsDouble());
+        assertTrue(score.get("value").getAsDouble() <= score.get("upper").getAsDouble());
+        assertTrue(json.has("smellsPerKlocByPrinciple"));
+    }
+
+    @Test
+    void testSampleRejectsFormatsWithoutEstimates() throws IOException {
+        writeProject();
+        Path sarif = reports.resolve("sample.sarif");
+
+        assertEquals(1, run("-f", "ndjson"), "An empty stream must not look like success");
+        assertEquals(1, run("-f", "sarif", "-o", sarif.toString()));
+        assertFalse(Files.exists(sarif));
+    }
+}
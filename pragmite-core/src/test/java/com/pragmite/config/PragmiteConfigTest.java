@@ -143,4 +143,22 @@ class PragmiteConfigTest {
         // Non-existing threshold with default
         assertEquals(999, config.getThreshold("nonExistent", 999));
     }
+
+    @Test
+    void testAnalysisFingerprintFollowsAnalysisSettings() {
+        PragmiteConfig config = new PragmiteConfig();
+        String fingerprint = config.analysisFingerprint();
+        assertEquals(fingerprint, new PragmiteConfig().analysisFingerprint(), "Same settings, same fingerprint");
+
+        config.getQualityWeights().setDryWeight(0.4);
+        config.getAnalysisOptions().setMinQualityScore(80);
+        assertEquals(fingerprint, config.analysisFingerprint(), "Project-wide settings do not matter");
+
+        config.getThresholds().put("longMethod", 80);
+        String changedThreshold = config.analysisFingerprint();
+        assertNotEquals(fingerprint, changedThreshold);
+
+        config.getSeverityOverrides().put("LONG_METHOD", "CRITICAL");
+        assertNotEquals(changedThreshold, config.analysisFingerprint());
+    }
 }
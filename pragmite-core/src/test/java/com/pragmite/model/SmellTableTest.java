@@ -0,0 +1,169 @@
+package com.pragmite.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmellTableTest {
+
+    private static final int FOOTPRINT_SMELLS = 200_000;
+
+    @Test
+    void testRoundTrip() {
+        CodeSmell original = new CodeSmell(CodeSmellType.LONG_METHOD, "/project/src/Foo.java", 12,
+            "Method 'process' is too long (45 lines, threshold: 30)")
+            .withEndLine(57)
+            .withAffectedElement("process")
+            .withSuggestion("Extract smaller methods")
+            .withAutoFix(true);
+        original.setSeverity(Severity.CRITICAL);
+
+        SmellTable table = new SmellTable();
+        table.add(original);
+        table.add(new CodeSmell());
+        CodeSmell rendered = table.get(0);
+
+        assertEquals(CodeSmellType.LONG_METHOD, rendered.getType());
+        assertEquals(Severity.CRITICAL, rendered.getSeverity());
+        assertEquals("/project/src/Foo.java", rendered.getFilePath());
+        assertEquals(12, rendered.getStartLine());
+        assertEquals(57, rendered.getEndLine());
+        assertEquals(original.getDescription(), rendered.getDescription());
+        assertEquals("process", rendered.getAffectedElement());
+        assertEquals("Extract smaller methods", rendered.getSuggestion());
+        assertTrue(rendered.isAutoFixAvailable());
+
+        CodeSmell empty = table.get(1);
+        assertNull(empty.getType());
+        assertNull(empty.getDescription());
+        assertNull(empty.getFilePath());
+    }
+
+    @Test
+    void testMessagesAreTemplated() {
+        List<String> args = new ArrayList<>();
+        String template = MessageTable.toTemplate("Method 'run' has 12 parameters (max 4.5), see v1.2 and x2", args);
+
+        assertEquals(List.of("run", "12", "4.5"), args);
+        assertEquals("Method '\u0001' has \u0001 parameters (max \u0001), see v1.2 and x2", template);
+        assertEquals("Method 'run' has 12 parameters (max 4.5), see v1.2 and x2",
+            MessageTable.render(template, args.toArray(new String[0])));
+
+        // Similar messages share one template and one file entry
+        SmellTable table = new SmellTable();
+        for (int i = 0; i < 100; i++) {
+            table.add(new CodeSmell(CodeSmellType.MAGIC_NUMBER, "/project/src/Foo.java", i, "Magic number " + (i % 5) + " found"));
+        }
+        assertEquals(1, table.getFiles().size());
+        assertEquals(6, table.getMessages().size()); // 1 template + 5 distinct numbers
+        assertEquals("Magic number 3 found", table.get(8).getDescription());
+    }
+
+    @Test
+    void testSliceStaysValidWhileAppending() {
+        SmellTable table = new SmellTable();
+        table.add(new CodeSmell(CodeSmellType.DEAD_CODE, "A.java", 1, "a"));
+        List<CodeSmell> slice = table.slice(0, 1);
+        for (int i = 0; i < 50; i++) {
+            table.add(new CodeSmell(CodeSmellType.DEAD_CODE, "B.java", i, "b"));
+        }
+
+        assertEquals(1, slice.size());
+        assertEquals("A.java", slice.get(0).getFilePath());
+        assertThrows(UnsupportedOperationException.class, () -> slice.remove(0));
+    }
+
+    @Test
+    void testAnalysisResultKeepsFileSmellsOnce() {
+        AnalysisResult result = new AnalysisResult("/project");
+        FileAnalysis file = new FileAnalysis("/project/A.java");
+        file.addSmell(new CodeSmell(CodeSmellType.DEAD_CODE, "/project/A.java", 3, "Unused method 'foo'"));
+        file.addSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, "/project/A.java", 9, "Magic number 7"));
+        result.addFileSmells(file);
+
+        assertEquals(2, result.getCodeSmells().size());
+        assertEquals(2, file.getSmells().size());
+        assertEquals("Magic number 7", file.getSmells().get(1).getDescription());
+        assertSame(file.getSmells().get(0).getFilePath(), result.getCodeSmells().get(1).getFilePath());
+    }
+
+    @Test
+    void testStoredSmellsRejectChanges() {
+        AnalysisResult result = new AnalysisResult("/project");
+        FileAnalysis file = new FileAnalysis("/project/A.java");
+        file.addSmell(new CodeSmell(CodeSmellType.DEAD_CODE, "/project/A.java", 3, "Unused method 'foo'"));
+        result.addFileSmells(file);
+
+        CodeSmell stored = result.getCodeSmells().get(0);
+        assertThrows(UnsupportedOperationException.class, () -> stored.setSuggestion("Remove it"));
+        assertThrows(UnsupportedOperationException.class, () -> stored.withEndLine(5));
+        assertThrows(UnsupportedOperationException.class, () -> file.getSmells().get(0).setSeverity(Severity.INFO));
+        assertThrows(UnsupportedOperationException.class, () -> file.addSmell(new CodeSmell()));
+        assertThrows(UnsupportedOperationException.class, () -> file.getSmells().add(new CodeSmell()));
+        assertNull(result.getCodeSmells().get(0).getSuggestion());
+
+        // New smells can still be appended to the result
+        result.addCodeSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, "/project/B.java", 1, "Magic number 7"));
+        assertEquals(2, result.getCodeSmells().size());
+    }
+
+    /**
+     * Measures the retained heap per smell with a class histogram (forces a full GC),
+     * comparing the compact table against a list of {@link CodeSmell} objects.
+     */
+    @Test
+    void testPerSmellFootprint() throws Exception {
+        long baseline = liveHeapBytes();
+        List<CodeSmell> objects = new ArrayList<>(FOOTPRINT_SMELLS);
+        for (int i = 0; i < FOOTPRINT_SMELLS; i++) {
+            objects.add(sampleSmell(i));
+        }
+        long objectBytes = liveHeapBytes() - baseline;
+        Reference.reachabilityFence(objects);
+        objects = null;
+
+        baseline = liveHeapBytes();
+        SmellTable table = new SmellTable();
+        for (int i = 0; i < FOOTPRINT_SMELLS; i++) {
+            table.add(sampleSmell(i));
+        }
+        long tableBytes = liveHeapBytes() - baseline;
+        Reference.reachabilityFence(table);
+
+        double objectPerSmell = (double) objectBytes / FOOTPRINT_SMELLS;
+        double tablePerSmell = (double) tableBytes / FOOTPRINT_SMELLS;
+        assertTrue(tablePerSmell < 64, "Compact smell should take < 64 bytes, was " + tablePerSmell);
+        assertTrue(tablePerSmell * 4 < objectPerSmell,
+            "Compact model should be at least 4x smaller: " + tablePerSmell + " vs " + objectPerSmell);
+    }
+
+    private static CodeSmell sampleSmell(int i) {
+        // Realistic shape: ~2k files, a few hundred methods, messages built with String.format
+        String file = "/home/ci/workspace/project/src/main/java/com/acme/module" + (i % 40)
+            + "/service/SomeService" + (i % 2000) + ".java";
+        String method = "handleRequest" + (i % 300);
+        return new CodeSmell(CodeSmellType.values()[i % CodeSmellType.values().length], file, i % 900,
+            String.format("Method '%s' is too long (%d lines, threshold: %d)", method, 30 + i % 70, 30))
+            .withEndLine(i % 900 + 40)
+            .withAffectedElement(method)
+            .withSuggestion("Extract Method refactoring can be applied");
+    }
+
+    private static long liveHeapBytes() throws Exception {
+        String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+            new ObjectName("com.sun.management:type=DiagnosticCommand"),
+            "gcClassHistogram",
+            new Object[]{new String[0]},
+            new String[]{String[].class.getName()});
+        // Last line: "Total   <instances>   <bytes>"
+        String[] lines = histogram.trim().split("\n");
+        String[] total = lines[lines.length - 1].trim().split("\\s+");
+        return Long.parseLong(total[2]);
+    }
+}
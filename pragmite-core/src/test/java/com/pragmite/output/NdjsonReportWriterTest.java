@@ -0,0 +1,123 @@
+package com.pragmite.output;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pragmite.analyzer.AnalysisLevel;
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.model.FileAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonReportWriterTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testStreamsOneRecordPerLine() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NdjsonReportWriter writer = new NdjsonReportWriter(new PrintStream(bytes, true, StandardCharsets.UTF_8), 0);
+
+        FileAnalysis a = new FileAnalysis(root.resolve("A.java").toString());
+        a.addSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, a.getFilePath(), 4, "Magic number 42"));
+        FileAnalysis b = new FileAnalysis(root.resolve("B.java").toString());
+
+        AnalysisResult result = new AnalysisResult(root.toString());
+        writer.onAnalysisStart(root.toString(), 2);
+        writer.onFileAnalyzed(a, 1, 2);
+        writer.onFileAnalyzed(b, 2, 2);
+        result.addFileAnalysis(a);
+        result.addFileSmells(a);
+        result.addFileAnalysis(b);
+        result.addFileSmells(b);
+        writer.onAnalysisComplete(result);
+
+        List<JsonObject> records = parse(bytes);
+        assertEquals(List.of("start", "file", "progress", "file", "progress", "summary"), types(records));
+        assertEquals(2, records.get(0).get("totalFiles").getAsInt());
+        JsonObject file = records.get(1).getAsJsonObject("file");
+        assertEquals(a.getFilePath(), file.get("filePath").getAsString());
+        assertEquals("Magic number 42", file.getAsJsonArray("smells").get(0).getAsJsonObject()
+            .get("description").getAsString());
+        assertEquals(100, records.get(4).get("percentage").getAsInt());
+        assertEquals(1, records.get(5).get("totalSmells").getAsInt());
+    }
+
+    @Test
+    void testDeepRunStreamsCrossFileClones() throws Exception {
+        Files.writeString(root.resolve("A.java"), classWithBlock("A", "x"));
+        Files.writeString(root.resolve("B.java"), classWithBlock("B", "y"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NdjsonReportWriter writer = new NdjsonReportWriter(new PrintStream(bytes, true, StandardCharsets.UTF_8), 0);
+        AnalysisResult result = new ProjectAnalyzer(root)
+            .withAnalysisLevel(AnalysisLevel.DEEP)
+            .withAnalysisListener(writer)
+            .analyze();
+
+        List<JsonObject> records = parse(bytes);
+        assertEquals("start", records.get(0).get("type").getAsString());
+        JsonObject summary = records.get(records.size() - 1);
+        assertEquals("summary", summary.get("type").getAsString());
+        assertEquals(result.getTotalFiles(), summary.get("totalFiles").getAsInt());
+
+        // Smells of file records plus late smells records add up to the summary
+        int fileRecords = 0;
+        List<String> streamed = new ArrayList<>();
+        for (JsonObject record : records) {
+            switch (record.get("type").getAsString()) {
+                case "file" -> {
+                    fileRecords++;
+                    record.getAsJsonObject("file").getAsJsonArray("smells")
+                        .forEach(s -> streamed.add(description(s)));
+                }
+                case "smells" -> record.getAsJsonArray("smells").forEach(s -> streamed.add(description(s)));
+                default -> { }
+            }
+        }
+        assertEquals(2, fileRecords);
+        assertEquals(summary.get("totalSmells").getAsInt(), streamed.size());
+        assertEquals(2, streamed.stream().filter(d -> d.contains("another file")).count(), streamed.toString());
+        assertTrue(types(records).contains("smells"));
+    }
+
+    private static String classWithBlock(String className, String prefix) {
+        StringBuilder source = new StringBuilder("class ").append(className).append(" {\n    int total(int start) {\n");
+        for (int i = 0; i < 8; i++) {
+            source.append("        int ").append(prefix).append(i).append(" = start * ").append(i + 2).append(";\n");
+        }
+        source.append("        return start;\n    }\n}\n");
+        return source.toString();
+    }
+
+    private static String description(JsonElement smell) {
+        return smell.getAsJsonObject().get("description").getAsString();
+    }
+
+    private static List<JsonObject> parse(ByteArrayOutputStream bytes) {
+        List<JsonObject> records = new ArrayList<>();
+        for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+            assertFalse(line.isBlank(), "Blank line in stream");
+            records.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        return records;
+    }
+
+    private static List<String> types(List<JsonObject> records) {
+        return records.stream().map(r -> r.get("type").getAsString()).toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.pragmite.output;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.util.ExecutorManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelReportWriterTest {
+
+    private ExecutorManager executorManager;
+
+    @BeforeEach
+    void setUp() {
+        executorManager = new ExecutorManager(2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorManager.shutdownNow();
+    }
+
+    @Test
+    void testSinksRunConcurrently() {
+        // Each sink waits for the other one: only completes if both run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ParallelReportWriter.ReportSink sink = snapshot -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "Sinks did not overlap");
+            return Thread.currentThread().getName();
+        };
+
+        List<ParallelReportWriter.SinkResult> results = new ParallelReportWriter()
+            .withForegroundSink("console", sink)
+            .withSink("json", sink)
+            .writeAll(new AnalysisResult("/tmp/project"), executorManager);
+
+        assertEquals(2, results.size());
+        assertEquals("console", results.get(0).getName());
+        assertEquals(Thread.currentThread().getName(), results.get(0).getMessage());
+        assertEquals("json", results.get(1).getName());
+        assertTrue(results.get(1).getMessage().startsWith("pragmite-background"));
+        assertTrue(results.stream().allMatch(ParallelReportWriter.SinkResult::isSuccess));
+    }
+
+    @Test
+    void testSinksReadImmutableSnapshot() {
+        AnalysisResult result = new AnalysisResult("/tmp/project");
+        result.addCodeSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, "/tmp/project/A.java", 1, "Magic number"));
+
+        List<ParallelReportWriter.SinkResult> results = new ParallelReportWriter()
+            .withSink("reader", snapshot -> String.valueOf(snapshot.getCodeSmells().size()))
+            .withSink("writer", snapshot -> {
+                snapshot.getCodeSmells().clear();
+                return "cleared";
+            })
+            .writeAll(result, executorManager);
+
+        assertEquals("1", results.get(0).getMessage());
+        assertFalse(results.get(1).isSuccess());
+        assertInstanceOf(UnsupportedOperationException.class, results.get(1).getError());
+        assertEquals(1, result.getCodeSmells().size(), "Original result must not be modified");
+    }
+
+    @Test
+    void testSequentialWithoutExecutor() {
+        List<ParallelReportWriter.SinkResult> results = new ParallelReportWriter()
+            .withSink("a", snapshot -> Thread.currentThread().getName())
+            .withSink("b", snapshot -> {
+                throw new IllegalStateException("disk full");
+            })
+            .writeAll(new AnalysisResult("/tmp/project"), null);
+
+        assertEquals(Thread.currentThread().getName(), results.get(0).getMessage());
+        assertEquals("disk full", results.get(1).getError().getMessage());
+        assertTrue(results.get(1).getDurationMs() >= 0);
+    }
+}
@@ -0,0 +1,68 @@
+package com.pragmite.output;
+
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.profiling.ProfilingLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrometheusMetricsWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AnalysisResult analyze() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("project/src"));
+        Files.writeString(source.resolve("Sample.java"),
+            "public class Sample { int twice(int x) { if (x > 0) { return x * 2; } return 0; } }");
+        Files.writeString(source.resolve("Other.java"), "public class Other { }");
+        return new ProjectAnalyzer(tempDir.resolve("project"))
+            .withProfilingLevel(ProfilingLevel.LIGHT)
+            .analyze();
+    }
+
+    @Test
+    void testPhaseHistogramsAndCountersAreExported() throws IOException {
+        AnalysisResult result = analyze();
+
+        String text = new PrometheusMetricsWriter().toText(result);
+
+        assertTrue(text.contains("# TYPE pragmite_phase_duration_seconds summary"), text);
+        assertTrue(text.contains("pragmite_phase_duration_seconds{phase=\"parse\",quantile=\"0.99\"}"), text);
+        assertTrue(text.contains("pragmite_phase_duration_seconds_count{phase=\"file\"} 2"), text);
+        assertTrue(text.contains("# TYPE pragmite_bytes_read_total counter"), text);
+        assertTrue(text.contains("pragmite_files_total 2"), text);
+        assertTrue(text.contains("pragmite_nodes_visited_total "), text);
+        for (String line : text.split("\n")) {
+            assertTrue(line.startsWith("# ") || line.matches("pragmite_\\w+(\\{[^}]*\\})? \\S+"), line);
+        }
+    }
+
+    @Test
+    void testJsonAndFileOutput() throws IOException {
+        AnalysisResult result = analyze();
+        long bytes = Files.size(tempDir.resolve("project/src/Sample.java")) + Files.size(tempDir.resolve("project/src/Other.java"));
+        assertEquals(bytes, (long) result.getProfileReport().getCounters().get("bytesRead"));
+
+        String json = new JsonReportWriter().toJson(result);
+        assertTrue(json.contains("\"phaseHistograms\""), json);
+        assertTrue(json.contains("\"p99Ms\""), json);
+
+        Path metrics = tempDir.resolve("metrics/pragmite.prom");
+        new PrometheusMetricsWriter().write(result, metrics);
+        assertTrue(Files.readString(metrics).contains("pragmite_analysis_duration_seconds"));
+    }
+
+    @Test
+    void testMetricNames() {
+        assertEquals("bytes_read", PrometheusMetricsWriter.metricName("bytesRead"));
+        assertEquals("parse_failures", PrometheusMetricsWriter.metricName("parseFailures"));
+        assertEquals("files", PrometheusMetricsWriter.metricName("files"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.pragmite.output;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pragmite.analyzer.AnalysisLevel;
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.Severity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SarifReportWriterTest {
+
+    @Test
+    void testStreamsValidSarifDocument(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("src/main/java/com/acme/My Service.java");
+        FileAnalysis analysis = new FileAnalysis(file.toString());
+        analysis.addSmell(new CodeSmell(CodeSmellType.GOD_CLASS, file.toString(), 3, "God class")
+            .withEndLine(90).withAffectedElement("MyService"));
+        analysis.addSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, file.toString(), 10, "Magic number 42"));
+        // Exact duplicate (same smell reported twice) is dropped
+        analysis.addSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, file.toString(), 10, "Magic number 42"));
+        // Same smell on another line is kept with its own occurrence index
+        analysis.addSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER, file.toString(), 20, "Magic number 42"));
+
+        StringWriter out = new StringWriter();
+        SarifReportWriter writer = new SarifReportWriter(out);
+        writer.onAnalysisStart(tempDir.toString(), 1);
+        writer.onFileAnalyzed(analysis, 1, 1);
+        writer.onFileAnalyzed(new FileAnalysis(tempDir.resolve("Empty.java").toString()), 1, 1);
+        writer.onAnalysisComplete(new AnalysisResult(tempDir.toString()));
+        writer.close();
+
+        JsonObject sarif = JsonParser.parseString(out.toString()).getAsJsonObject();
+        assertEquals("2.1.0", sarif.get("version").getAsString());
+        JsonObject run = sarif.getAsJsonArray("runs").get(0).getAsJsonObject();
+
+        JsonArray rules = run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules");
+        assertEquals(CodeSmellType.values().length, rules.size());
+        JsonObject godClassRule = rules.get(CodeSmellType.GOD_CLASS.ordinal()).getAsJsonObject();
+        assertEquals("GOD_CLASS", godClassRule.get("id").getAsString());
+        assertEquals("error", godClassRule.getAsJsonObject("defaultConfiguration").get("level").getAsString());
+
+        JsonArray results = run.getAsJsonArray("results");
+        assertEquals(3, results.size());
+        assertEquals(1, writer.getDuplicateCount());
+
+        JsonObject first = results.get(0).getAsJsonObject();
+        assertEquals("GOD_CLASS", first.get("ruleId").getAsString());
+        JsonObject location = first.getAsJsonArray("locations").get(0).getAsJsonObject()
+            .getAsJsonObject("physicalLocation");
+        assertEquals("src/main/java/com/acme/My%20Service.java",
+            location.getAsJsonObject("artifactLocation").get("uri").getAsString());
+        assertEquals("SRCROOT", location.getAsJsonObject("artifactLocation").get("uriBaseId").getAsString());
+        assertEquals(90, location.getAsJsonObject("region").get("endLine").getAsInt());
+
+        String magic1 = fingerprint(results.get(1).getAsJsonObject());
+        String magic2 = fingerprint(results.get(2).getAsJsonObject());
+        assertTrue(magic1.endsWith(":1"));
+        assertTrue(magic2.endsWith(":2"));
+        assertEquals(magic1.substring(0, magic1.indexOf(':')), magic2.substring(0, magic2.indexOf(':')));
+    }
+
+    @Test
+    void testDeepRunIncludesCrossFileClones(@TempDir Path tempDir) throws Exception {
+        Files.writeString(tempDir.resolve("A.java"), classWithBlock("A", "x"));
+        Files.writeString(tempDir.resolve("B.java"), classWithBlock("B", "y"));
+
+        StringWriter out = new StringWriter();
+        AnalysisResult result;
+        try (SarifReportWriter writer = new SarifReportWriter(out)) {
+            result = new ProjectAnalyzer(tempDir)
+                .withAnalysisLevel(AnalysisLevel.DEEP)
+                .withAnalysisListener(writer)
+                .analyze();
+        }
+
+        JsonArray results = JsonParser.parseString(out.toString()).getAsJsonObject()
+            .getAsJsonArray("runs").get(0).getAsJsonObject().getAsJsonArray("results");
+        assertEquals(result.getCodeSmells().size(), results.size());
+        int clones = 0;
+        for (int i = 0; i < results.size(); i++) {
+            JsonObject sarifResult = results.get(i).getAsJsonObject();
+            if (sarifResult.getAsJsonObject("message").get("text").getAsString().contains("another file")) {
+                assertEquals(CodeSmellType.DUPLICATED_CODE.name(), sarifResult.get("ruleId").getAsString());
+                clones++;
+            }
+        }
+        assertEquals(2, clones);
+    }
+
+    @Test
+    void testFingerprintIgnoresLineShifts(@TempDir Path tempDir) throws Exception {
+        String before = fingerprintOf(tempDir, 10);
+        String after = fingerprintOf(tempDir, 25);
+        assertEquals(before, after);
+    }
+
+    @Test
+    void testSeverityLevels() {
+        assertEquals("error", SarifReportWriter.level(Severity.BLOCKER));
+        assertEquals("error", SarifReportWriter.level(Severity.CRITICAL));
+        assertEquals("warning", SarifReportWriter.level(Severity.MAJOR));
+        assertEquals("note", SarifReportWriter.level(Severity.MINOR));
+        assertEquals("note", SarifReportWriter.level(Severity.INFO));
+    }
+
+    private String fingerprintOf(Path root, int line) throws Exception {
+        String file = root.resolve("Foo.java").toString();
+        FileAnalysis analysis = new FileAnalysis(file);
+        analysis.addSmell(new CodeSmell(CodeSmellType.LONG_METHOD, file, line, "Method is too long")
+            .withAffectedElement("process"));
+
+        StringWriter out = new StringWriter();
+        try (SarifReportWriter writer = new SarifReportWriter(out)) {
+            writer.onAnalysisStart(root.toString(), 1);
+            writer.onFileAnalyzed(analysis, 1, 1);
+            writer.onAnalysisComplete(new AnalysisResult(root.toString()));
+        }
+        JsonObject run = JsonParser.parseString(out.toString()).getAsJsonObject()
+            .getAsJsonArray("runs").get(0).getAsJsonObject();
+        return fingerprint(run.getAsJsonArray("results").get(0).getAsJsonObject());
+    }
+
+    private static String classWithBlock(String className, String prefix) {
+        StringBuilder source = new StringBuilder("class ").append(className).append(" {\n    int total(int start) {\n");
+        for (int i = 0; i < 8; i++) {
+            source.append("        int ").append(prefix).append(i).append(" = start * ").append(i + 2).append(";\n");
+        }
+        source.append("        return start;\n    }\n}\n");
+        return source.toString();
+    }
+
+    private String fingerprint(JsonObject result) {
+        return result.getAsJsonObject("partialFingerprints").get(SarifReportWriter.FINGERPRINT_KEY).getAsString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.pragmite.performance;
+
+import com.pragmite.scanner.OptimizedFileScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FileScannerBenchmark.
+ * Note: These validate the generated tree; the timings are measured by running the
+ * benchmark's main method.
+ */
+class FileScannerBenchmarkTest {
+
+    @TempDir
+    Path treeDir;
+
+    @Test
+    void testGeneratedTreeSize() throws IOException {
+        assertEquals(1000, FileScannerBenchmark.generateTree(treeDir, 1000));
+    }
+
+    @Test
+    void testParallelScannerAlsoAppliesGitignore() throws IOException {
+        FileScannerBenchmark.generateTree(treeDir, 1000);
+
+        List<Path> walked = FileScannerBenchmark.walkFileTree(treeDir);
+        List<Path> scanned = new OptimizedFileScanner().scanJavaFiles(treeDir);
+
+        assertFalse(scanned.isEmpty());
+        assertTrue(walked.containsAll(scanned));
+        assertTrue(walked.stream().anyMatch(p -> p.toString().endsWith(".gen.java")));
+        assertTrue(scanned.stream().noneMatch(p -> p.toString().endsWith(".gen.java")));
+        assertEquals(walked.size() - scanned.size(), walked.stream().filter(p -> p.toString().endsWith(".gen.java")).count());
+    }
+}
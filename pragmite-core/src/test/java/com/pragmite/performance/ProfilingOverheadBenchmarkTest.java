@@ -0,0 +1,97 @@
+package com.pragmite.performance;
+
+import com.pragmite.analyzer.ProjectAnalyzer;
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.profiling.LatencyHistogram;
+import com.pragmite.profiling.ProfileReport;
+import com.pragmite.profiling.ProfilingLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProfilingOverheadBenchmark.
+ * Note: These validate the benchmark setup and budget check; the overhead itself is
+ * measured by running the benchmark's main method.
+ */
+class ProfilingOverheadBenchmarkTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void testGeneratedProjectIsAnalyzed() throws IOException {
+        ProfilingOverheadBenchmark.generateProject(projectDir, 12);
+
+        AnalysisResult result = new ProjectAnalyzer(projectDir)
+            .withProfilingLevel(ProfilingLevel.LIGHT)
+            .analyze();
+
+        assertEquals(12, result.getTotalFiles());
+        assertNotNull(result.getProfileReport());
+        assertEquals(ProfilingLevel.LIGHT, result.getProfileReport().getLevel());
+        assertEquals(12, (long) result.getProfileReport().getCounters().get("files"));
+        assertTrue(result.getProfileReport().getPhaseTimings().containsKey("parse"));
+        assertEquals(0, result.getProfileReport().getTotalCpuSamples(), "Light tier does not record JFR");
+    }
+
+    @Test
+    void testOffLevelProducesNoProfile() throws IOException {
+        ProfilingOverheadBenchmark.generateProject(projectDir, 2);
+
+        AnalysisResult result = new ProjectAnalyzer(projectDir)
+            .withProfilingLevel(ProfilingLevel.OFF)
+            .analyze();
+
+        assertNull(result.getProfileReport());
+    }
+
+    @Test
+    void testLightOverheadCountsPhasesAndFiles() throws IOException {
+        ProfilingOverheadBenchmark.generateProject(projectDir, 3);
+        ProfileReport profile = new ProjectAnalyzer(projectDir)
+            .withProfilingLevel(ProfilingLevel.LIGHT)
+            .analyze()
+            .getProfileReport();
+        long phases = profile.getPhaseHistograms().values().stream()
+            .mapToLong(LatencyHistogram.Snapshot::count)
+            .sum();
+        assertTrue(phases > 3 * 3, "Each file runs several phases: " + phases);
+
+        assertEquals(phases / 1_000_000.0, ProfilingOverheadBenchmark.lightOverheadMs(profile, 1, 0), 1e-12);
+        assertEquals(3 / 1_000_000.0, ProfilingOverheadBenchmark.lightOverheadMs(profile, 0, 1), 1e-12);
+    }
+
+    @Test
+    void testBookkeepingBenchmarks() {
+        ProfilingOverheadBenchmark.Bookkeeping bookkeeping = new ProfilingOverheadBenchmark.Bookkeeping();
+        bookkeeping.setUp();
+
+        assertEquals(bookkeeping.timedPhase(), bookkeeping.untimedPhase());
+        assertTrue(bookkeeping.countNodes() > 100);
+    }
+
+    @Test
+    void testCheckBudgets() {
+        List<String> withinBudget = ProfilingOverheadBenchmark.checkBudgets(Map.of(
+            ProfilingLevel.OFF, 100.0,
+            ProfilingLevel.LIGHT, 101.0,
+            ProfilingLevel.SAMPLING, 108.0));
+        assertTrue(withinBudget.isEmpty(), withinBudget.toString());
+
+        List<String> overBudget = ProfilingOverheadBenchmark.checkBudgets(Map.of(
+            ProfilingLevel.OFF, 100.0,
+            ProfilingLevel.LIGHT, 110.0));
+        assertEquals(1, overBudget.size());
+        assertTrue(overBudget.get(0).startsWith("light"));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> ProfilingOverheadBenchmark.checkBudgets(Map.of(ProfilingLevel.LIGHT, 1.0)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.pragmite.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_000, histogram.percentile(0.50), 500_000 * 0.04);
+        assertEquals(900_000, histogram.percentile(0.90), 900_000 * 0.04);
+        assertEquals(990_000, histogram.percentile(0.99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.percentile(1.0));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1.0, snapshot.maxMs(), 1e-9);
+        assertEquals(500.5, snapshot.totalMs(), 1e-9);
+        assertEquals(0.5005, snapshot.meanMs(), 1e-9);
+    }
+
+    @Test
+    void testSmallAndLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.percentile(0.0));
+        assertEquals(7, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.getMaxNanos());
+        assertTrue(histogram.percentile(1.0) > Long.MAX_VALUE / 2);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(1.5));
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(4L * (9_999L * 10_000 / 2), histogram.getTotalNanos());
+        assertEquals(9_999, histogram.getMaxNanos());
+    }
+}
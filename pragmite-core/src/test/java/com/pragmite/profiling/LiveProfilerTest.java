@@ -0,0 +1,71 @@
+package com.pragmite.profiling;
+
+import com.pragmite.ai.TokenEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveProfilerTest {
+
+    @Test
+    void testHotspotsAttributedToActiveWork() {
+        List<HotspotSummary> summaries = new CopyOnWriteArrayList<>();
+        String text = "public int estimate(String value) { return value.length() * 31 + 7; }\n".repeat(2000);
+
+        try (LiveProfiler profiler = new LiveProfiler(summaries::add, Duration.ofMillis(500))) {
+            profiler.start();
+            long end = System.currentTimeMillis() + 2500;
+            ActiveWork.run("Busy.java", () -> {
+                while (System.currentTimeMillis() < end) {
+                    TokenEstimator.estimate(text);
+                }
+            });
+        }
+
+        assertFalse(summaries.isEmpty(), "Windows are reported while running");
+        long samples = summaries.stream().mapToLong(HotspotSummary::cpuSamples).sum();
+        assertTrue(samples > 0);
+        assertTrue(summaries.stream()
+                .flatMap(s -> s.topFiles().stream())
+                .anyMatch(h -> h.name().equals("Busy.java")),
+            summaries.toString());
+        assertTrue(summaries.stream()
+                .flatMap(s -> s.topMethods().stream())
+                .anyMatch(h -> h.name().startsWith("TokenEstimator.")),
+            summaries.toString());
+    }
+
+    @Test
+    void testTopHotspotsAreRankedWithShares() {
+        List<HotspotSummary.Hotspot> top = LiveProfiler.top(Map.of("a", 1L, "b", 6L, "c", 3L), 10);
+
+        assertEquals("b", top.get(0).name());
+        assertEquals(60.0, top.get(0).percentage(), 0.001);
+        assertEquals(List.of("b", "c", "a"), top.stream().map(HotspotSummary.Hotspot::name).toList());
+    }
+
+    @Test
+    void testActiveWorkScopesNest() {
+        long threadId = Thread.currentThread().threadId();
+        ActiveWork.run("Outer.java", () -> {
+            ActiveWork.run("Inner.java", () -> assertEquals("Inner.java", ActiveWork.of(threadId)));
+            assertEquals("Outer.java", ActiveWork.of(threadId));
+        });
+        assertNull(ActiveWork.of(threadId));
+    }
+
+    @Test
+    void testActiveWorkEndsWhenTheBodyThrows() {
+        long threadId = Thread.currentThread().threadId();
+
+        assertThrows(IllegalStateException.class, () -> ActiveWork.call("Broken.java", () -> {
+            throw new IllegalStateException("parse failed");
+        }));
+        assertNull(ActiveWork.of(threadId));
+    }
+}
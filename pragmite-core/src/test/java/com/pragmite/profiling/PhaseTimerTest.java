@@ -0,0 +1,54 @@
+package com.pragmite.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseTimerTest {
+
+    @Test
+    void testPhasesAndCountersAddUp() throws InterruptedException {
+        PhaseTimer timer = new PhaseTimer(true);
+        for (int i = 0; i < 2; i++) {
+            timer.run("parse", () -> Thread.sleep(5));
+        }
+        timer.count("files", 2);
+        timer.count("files", 3);
+
+        ProfileReport report = new ProfileReport();
+        timer.writeTo(report);
+
+        assertTrue(report.getPhaseTimings().get("parse") >= 10, report.getPhaseTimings().toString());
+        assertEquals(5, (long) report.getCounters().get("files"));
+
+        LatencyHistogram.Snapshot parse = report.getPhaseHistograms().get("parse");
+        assertEquals(2, parse.count());
+        assertTrue(parse.p50Ms() >= 5 && parse.maxMs() >= parse.p50Ms(), parse.toString());
+    }
+
+    @Test
+    void testDisabledTimerRecordsNothing() {
+        PhaseTimer timer = new PhaseTimer(false);
+        timer.run("parse", () -> timer.count("files", 1));
+
+        ProfileReport report = new ProfileReport();
+        timer.writeTo(report);
+
+        assertTrue(report.getPhaseTimings().isEmpty());
+        assertTrue(report.getPhaseHistograms().isEmpty());
+        assertTrue(report.getCounters().isEmpty());
+    }
+
+    @Test
+    void testProfilingLevels() {
+        assertEquals(ProfilingLevel.SAMPLING, ProfilingLevel.parse(" Sampling "));
+        assertThrows(IllegalArgumentException.class, () -> ProfilingLevel.parse("verbose"));
+
+        assertFalse(ProfilingLevel.OFF.collectsPhases());
+        assertTrue(ProfilingLevel.LIGHT.collectsPhases());
+        assertFalse(ProfilingLevel.LIGHT.usesJfr());
+        assertTrue(ProfilingLevel.SAMPLING.usesJfr());
+        assertTrue(ProfilingLevel.LIGHT.getOverheadBudget() < ProfilingLevel.SAMPLING.getOverheadBudget());
+        assertTrue(ProfilingLevel.SAMPLING.getOverheadBudget() < ProfilingLevel.DEEP.getOverheadBudget());
+    }
+}
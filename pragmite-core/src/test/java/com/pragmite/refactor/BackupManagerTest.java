@@ -1,5 +1,6 @@
 package com.pragmite.refactor;
 
+import com.pragmite.util.BackupStore;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -44,19 +45,10 @@ class BackupManagerTest {
         assertNotNull(backupId);
         assertTrue(backupId.startsWith("backup-"));
 
-        // Verify backup directory was created
-        Path backupDir = backupRoot.resolve(backupId);
-        assertTrue(Files.exists(backupDir));
-        assertTrue(Files.isDirectory(backupDir));
-
-        // Verify file was backed up (excluding metadata files)
-        List<Path> backedUpFiles = new ArrayList<>();
-        Files.walk(backupDir)
-            .filter(Files::isRegularFile)
-            .filter(p -> !p.getFileName().toString().equals("backup-paths.txt"))
-            .forEach(backedUpFiles::add);
-
-        assertEquals(1, backedUpFiles.size());
+        // Verify file was backed up
+        List<BackupStore.Entry> entries = backupManager.getStore().entriesForOperation(backupId);
+        assertEquals(1, entries.size());
+        assertEquals(testFile.toAbsolutePath(), entries.get(0).file());
     }
 
     @Test
@@ -91,24 +83,8 @@ class BackupManagerTest {
         assertNotNull(backupId);
 
         // Verify both files were backed up
-        Path backupDir = backupRoot.resolve(backupId);
-        assertTrue(Files.exists(backupDir));
-
-        List<Path> backedUpFiles = new ArrayList<>();
-        Files.walk(backupDir)
-            .filter(Files::isRegularFile)
-            .filter(p -> !p.getFileName().toString().equals("backup-metadata.txt"))
-            .filter(p -> !p.getFileName().toString().equals("backup-paths.txt"))
-            .forEach(backedUpFiles::add);
-
-        assertEquals(2, backedUpFiles.size());
-
-        // Verify metadata file was created
-        Path metadataFile = backupDir.resolve("backup-metadata.txt");
-        assertTrue(Files.exists(metadataFile));
-        String metadata = Files.readString(metadataFile);
-        assertTrue(metadata.contains("Backup created:"));
-        assertTrue(metadata.contains("Affected files:"));
+        assertEquals(2, backupManager.getStore().entriesForOperation(backupId).size());
+        assertEquals(List.of(backupId), backupManager.listBackups());
     }
 
     @Test
@@ -296,15 +272,41 @@ class BackupManagerTest {
         assertNotNull(backupId);
 
         // Verify only the existing file was backed up
-        Path backupDir = backupRoot.resolve(backupId);
-        List<Path> backedUpFiles = new ArrayList<>();
-        Files.walk(backupDir)
-            .filter(Files::isRegularFile)
-            .filter(p -> !p.getFileName().toString().equals("backup-metadata.txt"))
-            .filter(p -> !p.getFileName().toString().equals("backup-paths.txt"))
-            .forEach(backedUpFiles::add);
-
-        assertEquals(1, backedUpFiles.size());
+        List<BackupStore.Entry> entries = backupManager.getStore().entriesForOperation(backupId);
+        assertEquals(1, entries.size());
+        assertEquals(existingFile.toAbsolutePath(), entries.get(0).file());
+    }
+
+    @Test
+    void testUnchangedContentIsStoredOnce() throws IOException {
+        String backupId1 = backupManager.createBackup(testFile.toString());
+        String backupId2 = backupManager.createBackup(testFile.toString());
+
+        assertNotEquals(backupId1, backupId2);
+        BackupStore.Entry first = backupManager.getStore().entriesForOperation(backupId1).get(0);
+        BackupStore.Entry second = backupManager.getStore().entriesForOperation(backupId2).get(0);
+        assertEquals(first.hash(), second.hash());
+
+        // Deleting one backup keeps the content the other still uses
+        backupManager.deleteBackup(backupId1);
+        Files.writeString(testFile, "modified");
+        backupManager.restore(backupId2);
+        assertEquals("public class Test { }", Files.readString(testFile));
+    }
+
+    @Test
+    void testRestoreBackupInDirectoryLayout() throws IOException {
+        // Backup written by earlier versions: one directory with a copy and a path mapping
+        Path backupDir = backupRoot.resolve("backup-2024-01-01T00-00-00-000");
+        Files.createDirectories(backupDir);
+        Path copy = backupDir.resolve("test.java");
+        Files.writeString(copy, "public class Old { }");
+        Files.writeString(backupDir.resolve("backup-paths.txt"), copy + " -> " + testFile + "\n");
+
+        assertTrue(backupManager.listBackups().contains("backup-2024-01-01T00-00-00-000"));
+        backupManager.restore("backup-2024-01-01T00-00-00-000");
+
+        assertEquals("public class Old { }", Files.readString(testFile));
     }
 
     /**
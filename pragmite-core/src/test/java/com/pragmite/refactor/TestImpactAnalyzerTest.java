@@ -0,0 +1,116 @@
+package com.pragmite.refactor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestImpactAnalyzerTest {
+
+    @TempDir
+    Path projectRoot;
+
+    private Path write(String relative, String content) throws IOException {
+        Path file = projectRoot.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("pom.xml", "<project/>");
+        write("src/main/java/shop/model/Price.java", "package shop.model; public class Price { }");
+        write("src/main/java/shop/service/Cart.java",
+            "package shop.service;\nimport shop.model.Price;\npublic class Cart { Price total; }");
+        write("src/main/java/shop/service/Checkout.java",
+            "package shop.service;\npublic class Checkout { Cart cart; }");
+        write("src/main/java/shop/util/Strings.java",
+            "package shop.util;\n// Mentions Price only in a comment\npublic class Strings { String s = \"Price\"; }");
+
+        write("src/test/java/shop/model/PriceTest.java", "package shop.model; class PriceTest { Price p; }");
+        write("src/test/java/shop/service/CheckoutTest.java",
+            "package shop.service;\nimport shop.testing.*;\nclass CheckoutTest { Fixtures f; }");
+        write("src/test/java/shop/testing/Fixtures.java",
+            "package shop.testing;\npublic class Fixtures { shop.service.Checkout checkout; }");
+        write("src/test/java/shop/util/StringsTest.java", "package shop.util; class StringsTest { Strings s; }");
+    }
+
+    @Test
+    void testSelectsTransitivelyDependentTests() throws IOException {
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer(projectRoot);
+
+        // Price <- Cart <- Checkout <- Fixtures (helper, not a test) <- CheckoutTest
+        Optional<Set<String>> tests = analyzer.selectTests(List.of(Path.of("src/main/java/shop/model/Price.java")));
+
+        assertTrue(tests.isPresent());
+        assertEquals(Set.of("shop.model.PriceTest", "shop.service.CheckoutTest"), tests.get());
+    }
+
+    @Test
+    void testCommentsAndStringsAreNotReferences() throws IOException {
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer(projectRoot);
+
+        Optional<Set<String>> tests = analyzer.selectTests(List.of(projectRoot.resolve("src/main/java/shop/util/Strings.java")));
+
+        assertEquals(Set.of("shop.util.StringsTest"), tests.orElseThrow());
+    }
+
+    @Test
+    void testFallsBackWhenImpactIsUnknown() throws IOException {
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer(projectRoot);
+
+        assertTrue(analyzer.selectTests(List.of(Path.of("pom.xml"))).isEmpty(), "Build files affect everything");
+        assertTrue(analyzer.selectTests(List.of(Path.of("src/main/java/shop/Missing.java"))).isEmpty());
+        assertTrue(analyzer.selectTests(List.of()).isEmpty());
+    }
+
+    @Test
+    void testIndexFollowsChangesBetweenSelections() throws IOException {
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer(projectRoot);
+        List<Path> strings = List.of(Path.of("src/main/java/shop/util/Strings.java"));
+        assertEquals(Set.of("shop.util.StringsTest"), analyzer.selectTests(strings).orElseThrow());
+
+        // A new test and an edited one start using Strings
+        write("src/test/java/shop/util/FormatTest.java", "package shop.util; class FormatTest { Strings s; }");
+        write("src/test/java/shop/model/PriceTest.java",
+            "package shop.model;\nimport shop.util.Strings;\nclass PriceTest { Price p; Strings s; }");
+        Files.delete(projectRoot.resolve("src/test/java/shop/util/StringsTest.java"));
+
+        assertEquals(Set.of("shop.util.FormatTest", "shop.model.PriceTest"), analyzer.selectTests(strings).orElseThrow());
+    }
+
+    @Test
+    void testFilteredTestCommand() throws IOException {
+        BuildTestVerifier verifier = new BuildTestVerifier(projectRoot);
+
+        String[] maven = verifier.testCommand(List.of("shop.model.PriceTest", "shop.service.CheckoutTest"));
+        assertTrue(List.of(maven).contains("-Dtest=shop.model.PriceTest,shop.service.CheckoutTest"));
+
+        verifier.setBuildTool(BuildTestVerifier.BuildTool.GRADLE);
+        List<String> gradle = List.of(verifier.testCommand(List.of("shop.model.PriceTest")));
+        assertEquals(List.of("gradle", "test", "-q", "--init-script"), gradle.subList(0, 4));
+        assertEquals(List.of("--tests", "shop.model.PriceTest"), gradle.subList(5, 7));
+        // Subprojects without the selected tests do not fail the run
+        assertEquals(BuildTestVerifier.GRADLE_INIT_SCRIPT, Files.readString(Path.of(gradle.get(4))));
+        assertTrue(BuildTestVerifier.GRADLE_INIT_SCRIPT.contains("filter.failOnNoMatchingTests = false"));
+    }
+
+    @Test
+    void testNoAffectedTestsSkipsTestRun() throws Exception {
+        BuildTestVerifier verifier = new BuildTestVerifier(projectRoot);
+
+        VerificationResult result = verifier.runTests(Set.of());
+
+        assertTrue(result.isSuccess());
+        assertEquals(0, result.getExitCode());
+    }
+}
@@ -0,0 +1,77 @@
+package com.pragmite.report;
+
+import com.pragmite.model.AnalysisResult;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedHtmlReportGeneratorTest {
+
+    @Test
+    void testChunksAreSplitPerPackage(@TempDir Path tempDir) throws Exception {
+        Path project = tempDir.resolve("project");
+        AnalysisResult result = new AnalysisResult(project.toString());
+        for (int i = 0; i < 5; i++) {
+            result.addCodeSmell(new CodeSmell(CodeSmellType.MAGIC_NUMBER,
+                project.resolve("src/main/java/com/acme/Foo.java").toString(), i + 1, "Magic number " + i));
+        }
+        result.addCodeSmell(new CodeSmell(CodeSmellType.GOD_CLASS,
+            project.resolve("src/main/java/com/acme/util/Bar.java").toString(), 1, "God class"));
+
+        Path reportDir = tempDir.resolve("report");
+        Path index = new PagedHtmlReportGenerator(2).generate(result, reportDir);
+
+        // 5 smells in com.acme -> 3 chunks of size 2, 1 smell in com.acme.util -> 1 chunk
+        assertTrue(Files.exists(reportDir.resolve("data/p0-0.js")));
+        assertTrue(Files.exists(reportDir.resolve("data/p0-2.js")));
+        assertFalse(Files.exists(reportDir.resolve("data/p0-3.js")));
+        assertTrue(Files.exists(reportDir.resolve("data/p1-0.js")));
+
+        String html = Files.readString(index);
+        assertTrue(html.contains("\"name\":\"com.acme\",\"count\":5,\"chunks\":3"));
+        assertTrue(html.contains("\"name\":\"com.acme.util\",\"count\":1,\"chunks\":1"));
+        assertFalse(html.contains("Magic number 0"), "Smells must not be inlined into the shell");
+
+        String lastChunk = decodeChunk(reportDir.resolve("data/p0-2.js"));
+        assertTrue(lastChunk.contains("\"f\":\"src/main/java/com/acme/Foo.java\""));
+        assertTrue(lastChunk.contains("Magic number 4"));
+        assertFalse(lastChunk.contains("Magic number 3"));
+    }
+
+    @Test
+    void testPackageOf() {
+        assertEquals("com.acme", PagedHtmlReportGenerator.packageOf("src/main/java/com/acme/Foo.java"));
+        assertEquals("com.acme", PagedHtmlReportGenerator.packageOf("module/src/test/java/com/acme/FooTest.java"));
+        assertEquals("scripts", PagedHtmlReportGenerator.packageOf("scripts/Tool.java"));
+        assertEquals("(default)", PagedHtmlReportGenerator.packageOf("Main.java"));
+        assertEquals("(default)", PagedHtmlReportGenerator.packageOf("src/main/java/Main.java"));
+    }
+
+    @Test
+    void testTemplateRendererSinglePass() {
+        String rendered = TemplateRenderer.render("<h1>{{TITLE}}</h1>{{UNKNOWN}}<p>{{BODY}}</p>",
+            Map.of("TITLE", "{{BODY}}", "BODY", "text"));
+
+        // Values are not re-scanned for placeholders, unknown keys are kept
+        assertEquals("<h1>{{BODY}}</h1>{{UNKNOWN}}<p>text</p>", rendered);
+    }
+
+    private String decodeChunk(Path chunk) throws Exception {
+        String script = Files.readString(chunk);
+        String base64 = script.substring(script.indexOf(",\"") + 2, script.lastIndexOf("\")"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(base64)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pragmite.scanner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryManifestTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path manifestDir;
+
+    private long time = System.currentTimeMillis() - 3_600_000;
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    /**
+     * Moves recent timestamps out of the racy window, as if those paths were written an hour ago.
+     */
+    private void age() throws IOException {
+        time += 1000;
+        long recent = System.currentTimeMillis() - 600_000;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.getLastModifiedTime(path).toMillis() > recent) {
+                    Files.setLastModifiedTime(path, FileTime.fromMillis(time));
+                }
+            }
+        }
+    }
+
+    private DirectoryManifest manifest() {
+        return DirectoryManifest.load(manifestDir.resolve("manifest.bin"));
+    }
+
+    private List<String> scan(DirectoryManifest manifest) throws IOException {
+        List<String> changed = new ArrayList<>();
+        new OptimizedFileScanner().withManifest(manifest).scan(root, file ->
+            changed.add(root.relativize(file).toString().replace('\\', '/')));
+        changed.sort(null);
+        manifest.save();
+        return changed;
+    }
+
+    @Test
+    void testNoChangesReportsNothingAndListsNoDirectory() throws IOException {
+        write("src/a/A.java", "class A {}");
+        write("src/b/B.java", "class B {}");
+        write("src/b/notes.txt", "notes");
+        age();
+
+        DirectoryManifest first = manifest();
+        assertEquals(List.of("src/a/A.java", "src/b/B.java"), scan(first));
+        assertTrue(first.isEmpty());
+
+        DirectoryManifest second = manifest();
+        assertEquals(List.of(), scan(second));
+        assertEquals(2, second.getScannedFileCount());
+        assertEquals(0, second.getChangedFileCount());
+        assertEquals(0, second.getListedDirectoryCount());
+        assertEquals(4, second.getReusedDirectoryCount());
+    }
+
+    @Test
+    void testChangedAddedAndRemovedFiles() throws IOException {
+        write("src/a/A.java", "class A {}");
+        write("src/b/B.java", "class B {}");
+        write("src/b/Gone.java", "class Gone {}");
+        age();
+        scan(manifest());
+
+        write("src/a/A.java", "class A { int x; }");
+        write("src/b/New.java", "class New {}");
+        Files.delete(root.resolve("src/b/Gone.java"));
+        age();
+
+        DirectoryManifest manifest = manifest();
+        assertEquals(List.of("src/a/A.java", "src/b/New.java"), scan(manifest));
+        assertEquals(List.of("src/b/Gone.java"), manifest.getRemovedFiles());
+    }
+
+    @Test
+    void testUnchangedFilesGoToTheSecondConsumer() throws IOException {
+        write("src/A.java", "class A {}");
+        write("src/B.java", "class B {}");
+        age();
+        scan(manifest());
+
+        write("src/B.java", "class B { int x; }");
+        age();
+        List<Path> changed = new ArrayList<>();
+        List<Path> unchanged = new ArrayList<>();
+        assertEquals(1, new OptimizedFileScanner().withManifest(manifest()).scan(root, changed::add, unchanged::add));
+        assertEquals(List.of(root.resolve("src/B.java")), changed);
+        assertEquals(List.of(root.resolve("src/A.java")), unchanged);
+    }
+
+    @Test
+    void testUnchangedDirectoryIsNotListed() throws IOException {
+        write("src/A.java", "class A {}");
+        age();
+        FileTime srcTime = Files.getLastModifiedTime(root.resolve("src"));
+        scan(manifest());
+
+        // A file added without changing the directory timestamp is invisible, proving no listing
+        write("src/Hidden.java", "class Hidden {}");
+        Files.setLastModifiedTime(root.resolve("src/Hidden.java"), srcTime);
+        Files.setLastModifiedTime(root.resolve("src"), srcTime);
+
+        assertEquals(List.of(), scan(manifest()));
+    }
+
+    @Test
+    void testRecentTimestampsAreCheckedAgain() throws IOException {
+        write("src/A.java", "class A {}");
+        assertEquals(List.of("src/A.java"), scan(manifest()));
+
+        // Written within the racy window, so not trusted
+        assertEquals(List.of("src/A.java"), scan(manifest()));
+
+        age();
+        scan(manifest());
+        assertEquals(List.of(), scan(manifest()));
+    }
+
+    @Test
+    void testUnreadableManifestStartsOver() throws IOException {
+        write("src/A.java", "class A {}");
+        age();
+        Files.writeString(manifestDir.resolve("manifest.bin"), "garbage");
+
+        DirectoryManifest manifest = manifest();
+        assertTrue(manifest.isEmpty());
+        assertEquals(List.of("src/A.java"), scan(manifest));
+    }
+}
@@ -0,0 +1,57 @@
+package com.pragmite.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitignoreRulesTest {
+
+    @Test
+    void testUnanchoredRulesMatchAtAnyDepth() {
+        GitignoreRules rules = GitignoreRules.parse(List.of("# comment", "", "*.log", "out/"));
+
+        assertEquals(Boolean.TRUE, rules.match("debug.log", "debug.log", false));
+        assertEquals(Boolean.TRUE, rules.match("debug.log", "a/b/debug.log", false));
+        assertEquals(Boolean.TRUE, rules.match("out", "a/out", true));
+        assertNull(rules.match("out", "a/out", false), "Directory rules do not match files");
+        assertNull(rules.match("A.java", "src/A.java", false));
+    }
+
+    @Test
+    void testAnchoredRulesAndNegation() {
+        GitignoreRules rules = GitignoreRules.parse(List.of("/generated", "docs/*.java", "*.java", "!Keep.java"));
+
+        assertEquals(Boolean.TRUE, rules.match("generated", "generated", true));
+        assertNull(rules.match("generated", "src/generated", true), "Leading slash anchors to the .gitignore directory");
+        assertEquals(Boolean.TRUE, rules.match("A.java", "docs/A.java", false));
+        assertEquals(Boolean.TRUE, rules.match("A.java", "src/A.java", false));
+        assertEquals(Boolean.FALSE, rules.match("Keep.java", "src/Keep.java", false), "The last matching rule wins");
+    }
+
+    @Test
+    void testCharacterClasses() {
+        GitignoreRules rules = GitignoreRules.parse(List.of("*.[oa]", "build[0-9]/", "!lib.a"));
+
+        assertEquals(Boolean.TRUE, rules.match("main.o", "src/main.o", false));
+        assertEquals(Boolean.FALSE, rules.match("lib.a", "lib.a", false));
+        assertNull(rules.match("main.c", "src/main.c", false));
+        assertEquals(Boolean.TRUE, rules.match("build2", "build2", true));
+        assertNull(rules.match("buildx", "buildx", true));
+    }
+
+    @Test
+    void testDeepestGitignoreDecides() {
+        GitignoreRules.Chain chain = GitignoreRules.Chain.EMPTY
+            .with("", GitignoreRules.parse(List.of("*.java")))
+            .with("module", GitignoreRules.parse(List.of("!Api.java", "vendor/**")));
+
+        assertTrue(chain.isIgnored("Root.java", "Root.java", false));
+        assertTrue(chain.isIgnored("Impl.java", "module/Impl.java", false));
+        assertFalse(chain.isIgnored("Api.java", "module/Api.java", false));
+        assertTrue(chain.isIgnored("Lib.txt", "module/vendor/x/Lib.txt", false));
+        assertFalse(chain.isIgnored("vendor", "module/vendor", true), "dir/** matches the contents only");
+        assertFalse(GitignoreRules.Chain.EMPTY.isIgnored("A.java", "A.java", false));
+    }
+}
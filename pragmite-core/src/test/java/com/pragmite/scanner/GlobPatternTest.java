@@ -0,0 +1,58 @@
+package com.pragmite.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobPatternTest {
+
+    @Test
+    void testDoubleStarMatchesAnyDepth() {
+        Pattern pattern = GlobPattern.compile("**/target/**");
+        assertTrue(pattern.matcher("target").matches());
+        assertTrue(pattern.matcher("target/classes/Foo.class").matches());
+        assertTrue(pattern.matcher("module/target/Foo.java").matches());
+        assertFalse(pattern.matcher("src/main/java/com/acme/targets/Foo.java").matches());
+    }
+
+    @Test
+    void testSingleStarStaysInSegment() {
+        Pattern pattern = GlobPattern.compile("src/*.java");
+        assertTrue(pattern.matcher("src/A.java").matches());
+        assertFalse(pattern.matcher("src/a/A.java").matches());
+        assertFalse(pattern.matcher("src/A_java").matches(), "Dots are literal");
+        assertTrue(GlobPattern.compile("src/?.java").matcher("src/A.java").matches());
+    }
+
+    @Test
+    void testCharacterClasses() {
+        Pattern pattern = GlobPattern.compile("src/[Ab]*.java");
+        assertTrue(pattern.matcher("src/Api.java").matches());
+        assertTrue(pattern.matcher("src/bar.java").matches());
+        assertFalse(pattern.matcher("src/Impl.java").matches());
+        assertFalse(pattern.matcher("src/[Ab]x.java").matches(), "Brackets are not literal");
+
+        assertTrue(GlobPattern.compile("v[0-9].txt").matcher("v7.txt").matches());
+        assertFalse(GlobPattern.compile("v[0-9].txt").matcher("vx.txt").matches());
+        assertTrue(GlobPattern.compile("[!a-c]x").matcher("dx").matches());
+        assertFalse(GlobPattern.compile("[!a-c]x").matcher("bx").matches());
+        assertFalse(GlobPattern.compile("a[!b]c").matcher("a/c").matches(), "Never matches a separator");
+        assertFalse(GlobPattern.compile("a[+-0]c").matcher("a/c").matches(), "Not even inside a range");
+        assertTrue(GlobPattern.compile("[]]").matcher("]").matches(), "Leading ] is literal");
+        assertTrue(GlobPattern.compile("log[[:digit:]]").matcher("log3").matches());
+        assertTrue(GlobPattern.compile("a[b").matcher("a[b").matches(), "Unclosed bracket is literal");
+        assertThrows(IllegalArgumentException.class, () -> GlobPattern.compile("[[:vowel:]]"));
+    }
+
+    @Test
+    void testCompileAny() {
+        assertNull(GlobPattern.compileAny(List.of()));
+        Pattern pattern = GlobPattern.compileAny(List.of("**/generated/**", "**/*Test.java"));
+        assertTrue(pattern.matcher("src/generated/A.java").matches());
+        assertTrue(pattern.matcher("src/test/java/ATest.java").matches());
+        assertFalse(pattern.matcher("src/main/java/A.java").matches());
+    }
+}
@@ -0,0 +1,30 @@
+package com.pragmite.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobSetTest {
+
+    @Test
+    void testNameGlobsMatchTheFileName() {
+        GlobSet set = GlobSet.compile(List.of("**/*.java", "**/generated/**"));
+
+        assertTrue(set.matches("A.java", "src/main/java/A.java"));
+        assertTrue(set.matches("generated", "module/generated"));
+        assertFalse(set.matches("A.kt", "src/main/java/A.kt"));
+        assertNull(GlobSet.compile(List.of()));
+    }
+
+    @Test
+    void testPathGlobsMatchTheRelativePath() {
+        GlobSet set = GlobSet.compile(List.of("src/main/**", "**/legacy/*.java"));
+
+        assertTrue(set.matches("A.java", "src/main/java/A.java"));
+        assertFalse(set.matches("ATest.java", "src/test/java/ATest.java"));
+        assertTrue(set.matches("Old.java", "module/legacy/Old.java"));
+        assertFalse(set.matches("Old.java", "module/legacy/sub/Old.java"));
+    }
+}
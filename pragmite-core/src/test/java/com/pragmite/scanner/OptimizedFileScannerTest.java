@@ -0,0 +1,94 @@
+package com.pragmite.scanner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizedFileScannerTest {
+
+    @TempDir
+    Path root;
+
+    private void touch(String relativePath) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class A {}");
+    }
+
+    private List<String> scan(OptimizedFileScanner scanner) throws IOException {
+        return scanner.scanJavaFiles(root).stream()
+            .map(p -> root.relativize(p).toString().replace('\\', '/'))
+            .toList();
+    }
+
+    @Test
+    void testSkipsBuildAndHiddenDirectoriesByName() throws IOException {
+        touch("src/main/java/com/acme/buildtools/Tool.java");
+        touch("src/main/java/com/acme/target/Target.java");
+        touch("target/generated/Gen.java");
+        touch("module/build/Gen.java");
+        touch(".idea/Hidden.java");
+        touch("node_modules/pkg/X.java");
+        touch("README.md");
+
+        assertEquals(List.of("src/main/java/com/acme/buildtools/Tool.java"), scan(new OptimizedFileScanner()),
+            "Directories are matched by name, not by substring; package directories named target are skipped too");
+    }
+
+    @Test
+    void testIncludeAndExcludePatterns() throws IOException {
+        touch("src/main/java/A.java");
+        touch("src/main/java/generated/G.java");
+        touch("src/test/java/ATest.java");
+        touch("scripts/Script.groovy");
+
+        OptimizedFileScanner scanner = new OptimizedFileScanner()
+            .withIncludes(List.of("src/**/*.java", "**/*.groovy"))
+            .withExcludes(List.of("**/generated/**", "**/*Test.java"));
+
+        assertEquals(List.of("scripts/Script.groovy", "src/main/java/A.java"), scan(scanner));
+    }
+
+    @Test
+    void testRespectsNestedGitignoreFiles() throws IOException {
+        touch("src/A.java");
+        touch("src/Ignored.java");
+        touch("gen/G.java");
+        touch("module/src/B.java");
+        touch("module/src/Old.java");
+        Files.writeString(root.resolve(".gitignore"), "/gen/\n*.java\n!src/*.java\nIgnored.java\n");
+        Files.writeString(root.resolve("module/.gitignore"), "!*.java\nOld.java\n");
+
+        assertEquals(List.of("module/src/B.java", "src/A.java"), scan(new OptimizedFileScanner()),
+            "Deeper .gitignore files decide, the last matching rule wins");
+        assertEquals(5, scan(new OptimizedFileScanner().withGitignore(false)).size());
+    }
+
+    @Test
+    void testStreamsFilesToConsumer() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            touch("pkg" + (i % 7) + "/sub" + (i % 3) + "/C" + i + ".java");
+        }
+        Set<Path> streamed = ConcurrentHashMap.newKeySet();
+
+        int count = new OptimizedFileScanner().withParallelism(4).scan(root, streamed::add);
+
+        assertEquals(50, count);
+        assertEquals(50, streamed.size());
+        assertEquals(streamed, Files.walk(root).filter(Files::isRegularFile).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void testMissingDirectoryFails() {
+        assertThrows(IOException.class, () -> new OptimizedFileScanner().scan(root.resolve("missing"), p -> { }));
+    }
+}
@@ -0,0 +1,67 @@
+package com.pragmite.scoring;
+
+import com.pragmite.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreCalculatorTest {
+
+    private final ScoreCalculator calculator = new ScoreCalculator();
+
+    private FileAnalysis file(String path, CodeSmellType... types) {
+        FileAnalysis analysis = new FileAnalysis(path);
+        for (CodeSmellType type : types) {
+            analysis.addSmell(new CodeSmell(type, path, 1, type.getName()));
+        }
+        return analysis;
+    }
+
+    private static void addMethods(FileAnalysis analysis, BigOComplexity complexity, int count) {
+        for (int i = 0; i < count; i++) {
+            MethodInfo method = new MethodInfo("m" + i, i, i);
+            method.setTimeComplexity(complexity);
+            analysis.addMethod(method);
+        }
+    }
+
+    private static List<CodeSmell> smells(List<FileAnalysis> files) {
+        List<CodeSmell> smells = new ArrayList<>();
+        files.forEach(f -> smells.addAll(f.getSmells()));
+        return smells;
+    }
+
+    @Test
+    void testUnitWeightsMatchCalculate() {
+        List<FileAnalysis> files = List.of(
+            file("A.java", CodeSmellType.EMPTY_CATCH_BLOCK, CodeSmellType.DUPLICATED_CODE),
+            file("B.java", CodeSmellType.GOD_CLASS, CodeSmellType.STRING_CONCAT_IN_LOOP));
+        // An odd number (3) of methods of O(n²) or worse
+        addMethods(files.get(0), BigOComplexity.O_N_SQUARED, 1);
+        addMethods(files.get(1), BigOComplexity.O_N_CUBED, 2);
+        addMethods(files.get(1), BigOComplexity.O_N, 1);
+
+        QualityScore expected = calculator.calculate(files, smells(files));
+        QualityScore weighted = calculator.calculateWeighted(files, f -> 1);
+
+        assertEquals(expected.getDryScore(), weighted.getDryScore(), 1e-9);
+        assertEquals(expected.getOrthogonalityScore(), weighted.getOrthogonalityScore(), 1e-9);
+        assertEquals(expected.getCorrectnessScore(), weighted.getCorrectnessScore(), 1e-9);
+        assertEquals(expected.getPerfScore(), weighted.getPerfScore(), 1e-9);
+    }
+
+    @Test
+    void testWeightsScaleViolations() {
+        FileAnalysis sampled = file("A.java", CodeSmellType.EMPTY_CATCH_BLOCK);
+
+        QualityScore score = calculator.calculateWeighted(List.of(sampled), f -> 2.5);
+
+        // 2.5 estimated correctness violations
+        assertEquals(calculator.calculateFromViolations(0, 0, 2.5, 0).getCorrectnessScore(), score.getCorrectnessScore(), 1e-9);
+        assertTrue(score.getCorrectnessScore() < calculator.calculateWeighted(List.of(sampled), f -> 1).getCorrectnessScore());
+        assertEquals(100, score.getDryScore(), 1e-9);
+    }
+}
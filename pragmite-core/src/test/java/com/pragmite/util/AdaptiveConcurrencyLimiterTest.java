@@ -0,0 +1,86 @@
+package com.pragmite.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void testAdditiveIncrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 4, 1000);
+
+        // About one full round of successes per +1 (2 -> 2.5 -> 2.9 -> 3.24)
+        for (int i = 0; i < 3; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        }
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        }
+        assertEquals(4, limiter.getLimit(), "Never above the maximum");
+    }
+
+    @Test
+    void testMultiplicativeDecreaseOncePerEvent() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8, 1000);
+        long[] permits = new long[8];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.acquire();
+        }
+        assertEquals(8, limiter.getInFlight());
+
+        // All eight were sent before the first throttle: only one halving
+        for (long permit : permits) {
+            limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.THROTTLED, FAST);
+        }
+        assertEquals(4, limiter.getLimit());
+        assertEquals(1, limiter.getDecreaseCount());
+
+        // A request started after the decrease can halve again
+        limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.THROTTLED, FAST);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(8, limiter.getPeakInFlight());
+    }
+
+    @Test
+    void testSlowResponsesShrinkLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 8, 1000);
+        limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS, SLOW);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.IGNORED, SLOW);
+        assertEquals(2, limiter.getLimit(), "Ignored outcomes do not change the limit");
+
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.THROTTLED, FAST);
+        }
+        assertEquals(1, limiter.getLimit(), "Never below one");
+    }
+
+    @Test
+    void testTokenBucketSpacesRequests() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(), "Burst exhausted");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs >= 200, "5 permits at 20/s should take ~250ms, took " + elapsedMs);
+
+        limiter.pauseFor(300, TimeUnit.MILLISECONDS);
+        Thread.sleep(150);
+        assertFalse(limiter.tryAcquire(), "Paused");
+    }
+}
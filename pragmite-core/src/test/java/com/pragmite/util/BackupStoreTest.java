@@ -0,0 +1,96 @@
+package com.pragmite.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private long countBlobs(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root.resolve("objects"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() throws IOException {
+        Path root = tempDir.resolve("backups");
+        BackupStore store = new BackupStore(root);
+        Path file = Files.writeString(tempDir.resolve("Service.java"), "class Service { }");
+
+        BackupStore.Entry first = store.put(file, "fix-1");
+        BackupStore.Entry second = store.put(file, "fix-2");
+
+        assertEquals(first.hash(), second.hash());
+        assertNotEquals(first.id(), second.id());
+        assertEquals(1, countBlobs(root));
+        assertEquals(2, store.entriesFor(file).size());
+        assertEquals(List.of("fix-2", "fix-1"), store.operations());
+    }
+
+    @Test
+    void testRestoreAndIndexSurvivesReopen() throws IOException {
+        Path root = tempDir.resolve("backups");
+        Path file = Files.writeString(tempDir.resolve("Service.java"), "class Service { int a; }");
+        BackupStore.Entry entry = new BackupStore(root).put(file, "fix-1");
+        Files.writeString(file, "class Service { }");
+
+        BackupStore reopened = new BackupStore(root);
+        assertEquals(List.of(entry), reopened.entriesNamed("Service.java"));
+        reopened.restore(reopened.entriesForOperation("fix-1").get(0), file);
+
+        assertEquals("class Service { int a; }", Files.readString(file));
+        assertEquals(entry.hash(), reopened.hashOf(reopened.blobPath(entry.hash())).orElseThrow());
+    }
+
+    @Test
+    void testRetainLatestDeletesUnreferencedBlobs() throws IOException {
+        Path root = tempDir.resolve("backups");
+        BackupStore store = new BackupStore(root);
+        Path file = tempDir.resolve("Service.java");
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(file, "class Service { int v = " + i + "; }");
+            store.put(file, "fix-" + i);
+        }
+
+        assertEquals(2, store.retainLatest(file, 2));
+
+        assertEquals(2, store.entriesFor(file).size());
+        assertEquals(2, countBlobs(root));
+        assertEquals(2, new BackupStore(root).entries().size());
+    }
+
+    @Test
+    void testStoresSharingADirectoryKeepEachOthersBackups() throws IOException {
+        // Two stores opened on one directory, as two processes would
+        Path root = tempDir.resolve("backups");
+        BackupStore first = new BackupStore(root);
+        BackupStore second = new BackupStore(root);
+        Path repository = Files.writeString(tempDir.resolve("Repository.java"), "class Repository { }");
+        Path service = tempDir.resolve("Service.java");
+
+        BackupStore.Entry kept = first.put(repository, "fix-1");
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(service, "class Service { int v = " + i + "; }");
+            second.put(service, "fix-" + i);
+        }
+        // Pruning from the store that never saw the other's entry
+        assertEquals(2, second.retainLatest(service, 1));
+
+        assertEquals(List.of(kept), second.entriesFor(repository));
+        assertEquals(1, first.entriesFor(service).size(), "Reads see the other store's changes");
+        assertEquals(2, new BackupStore(root).entries().size());
+        assertEquals("class Repository { }", new String(first.read(kept.hash())));
+        assertEquals(2, countBlobs(root));
+    }
+}
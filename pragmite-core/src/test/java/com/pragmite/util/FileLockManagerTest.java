@@ -7,9 +7,11 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -295,4 +297,61 @@ class FileLockManagerTest {
         assertNotNull(token2, "Should be able to lock after release");
         lockManager.releaseLock(relativeFile, token2);
     }
+
+    @Test
+    void testSidecarLockSurvivesAtomicReplace() throws IOException {
+        Path lockDir = tempDir.resolve("locks");
+        FileLockManager holder = new FileLockManager(lockDir);
+        FileLockManager other = new FileLockManager(lockDir);
+
+        String token = holder.tryAcquireLock(testFile);
+        assertNotNull(token);
+
+        // Replace the file the way CodeApplicator does; the lock must still be held
+        Path staged = tempDir.resolve("test.txt.tmp");
+        Files.writeString(staged, "new content");
+        Files.move(staged, testFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertNull(other.tryAcquireLock(testFile));
+        assertNull(other.tryAcquireLock(tempDir.resolve("./test.txt")), "Same file via another path");
+        assertEquals("new content", Files.readString(testFile), "Target itself is not locked");
+
+        holder.releaseLock(testFile, token);
+        String otherToken = other.tryAcquireLock(testFile);
+        assertNotNull(otherToken);
+        other.releaseLock(testFile, otherToken);
+    }
+
+    @Test
+    void testSidecarLockFilesAreDeletedOnRelease() throws IOException {
+        Path lockDir = tempDir.resolve("locks");
+        FileLockManager manager = new FileLockManager(lockDir);
+
+        String token = manager.acquireLock(testFile);
+        assertEquals(1, countFiles(lockDir));
+        manager.releaseLock(testFile, token);
+        assertEquals(0, countFiles(lockDir), "Released sidecar is removed");
+
+        manager.acquireLock(testFile);
+        manager.tryAcquireLock(tempDir.resolve("other.txt"));
+        manager.releaseAllLocks();
+        assertEquals(0, countFiles(lockDir));
+
+        // Locking again creates a new sidecar
+        String again = manager.tryAcquireLock(testFile);
+        assertNotNull(again);
+        manager.releaseLock(testFile, again);
+    }
+
+    @Test
+    void testDefaultLockDirectoryBelongsToTheUser() {
+        Path home = Path.of(System.getProperty("user.home"));
+        assertTrue(FileLockManager.defaultLockDirectory().startsWith(home));
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.pragmite.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PragmiteVersionTest {
+
+    @Test
+    void testVersionMatchesPom() throws IOException {
+        // Tests run in the module directory
+        Path pom = Path.of("pom.xml");
+
+        Matcher matcher = Pattern.compile("<artifactId>pragmite-core</artifactId>\\s*<version>([^<]+)</version>")
+            .matcher(Files.readString(pom));
+        assertTrue(matcher.find());
+        assertEquals(matcher.group(1), PragmiteVersion.VERSION);
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -172,12 +173,37 @@ class ProgressTrackerTest {
         assertEquals(1, listener.completeCalls.size(), "Should only call onComplete once");
     }
 
+    @Test
+    void testConcurrentIncrementsNotifyOncePerPercent() throws InterruptedException {
+        ProgressTracker large = new ProgressTracker("Large", 50_000, listener);
+        large.start();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 12_500; i++) {
+                    large.increment("File");
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(50_000, large.getCurrent());
+        assertEquals(100.0, large.getProgressPercentage(), 0.01);
+        assertTrue(listener.progressCalls.size() <= 101, "Notified " + listener.progressCalls.size() + " times");
+        assertTrue(listener.progressCalls.size() >= 2);
+    }
+
     /**
      * Test implementation of ProgressListener.
      */
     private static class TestProgressListener implements ProgressListener {
         final List<String> startCalls = new ArrayList<>();
-        final List<String> progressCalls = new ArrayList<>();
+        final List<String> progressCalls = Collections.synchronizedList(new ArrayList<>());
         final List<Boolean> completeCalls = new ArrayList<>();
 
         @Override
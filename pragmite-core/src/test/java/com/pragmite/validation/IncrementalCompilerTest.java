@@ -0,0 +1,96 @@
+package com.pragmite.validation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for IncrementalCompiler
+ */
+class IncrementalCompilerTest {
+
+    @TempDir
+    Path projectRoot;
+
+    private IncrementalCompiler compiler;
+
+    @AfterEach
+    void tearDown() {
+        if (compiler != null) {
+            compiler.close();
+        }
+    }
+
+    private Path write(String relative, String content) throws IOException {
+        Path file = projectRoot.resolve("src/main/java").resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should check a changed file against the rest of the project")
+    void testValidateAgainstProjectClasses() throws Exception {
+        write("demo/Repository.java", "package demo; public class Repository { public String find(int id) { return \"x\"; } }");
+        Path service = write("demo/Service.java",
+            "package demo; public class Service { String load(Repository r) { return r.find(1); } }");
+
+        compiler = IncrementalCompiler.forProject(projectRoot);
+        assertEquals(2, compiler.getClassCount());
+
+        // A valid change that uses project types
+        String valid = "package demo; public class Service { String load(Repository r) { return r.find(2).trim(); } }";
+        assertTrue(compiler.validate(Map.of(service, valid)).get(service.toAbsolutePath()).isValid());
+
+        // A change calling a method that does not exist in the project
+        String invalid = "package demo; public class Service { String load(Repository r) { return r.findAll(); } }";
+        ValidationResult result = compiler.validate(Map.of(service, invalid)).get(service.toAbsolutePath());
+        assertFalse(result.isValid());
+        assertTrue(result.getErrorMessage().contains("findAll"), result.getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Should see updated classes in later validations")
+    void testUpdateReplacesClasses() throws Exception {
+        Path repository = write("demo/Repository.java", "package demo; public class Repository { }");
+        Path service = write("demo/Service.java", "package demo; public class Service { }");
+        compiler = IncrementalCompiler.forProject(projectRoot);
+
+        String usesCount = "package demo; public class Service { int n(Repository r) { return r.count(); } }";
+        assertFalse(compiler.validate(Map.of(service, usesCount)).get(service.toAbsolutePath()).isValid());
+
+        String withCount = "package demo; public class Repository { public int count() { return 0; } }";
+        assertTrue(compiler.update(Map.of(repository, withCount)).get(repository.toAbsolutePath()).isValid());
+        assertTrue(compiler.validate(Map.of(service, usesCount)).get(service.toAbsolutePath()).isValid());
+    }
+
+    @Test
+    @DisplayName("Should not resolve types removed from the changed file")
+    void testOldClassesOfChangedFileAreHidden() throws Exception {
+        Path shapes = write("demo/Shapes.java", "package demo; public class Shapes { } class Circle { }");
+        compiler = IncrementalCompiler.forProject(projectRoot);
+
+        String withoutCircle = "package demo; public class Shapes { Circle c; }";
+        assertFalse(compiler.validate(Map.of(shapes, withoutCircle)).get(shapes.toAbsolutePath()).isValid());
+    }
+
+    @Test
+    @DisplayName("Should leave files that do not compile out of the cache")
+    void testWarmUpSkipsBrokenFiles() throws Exception {
+        write("demo/Good.java", "package demo; public class Good { }");
+        Path broken = write("demo/Broken.java", "package demo; public class Broken { Missing m; }");
+
+        compiler = IncrementalCompiler.forProject(projectRoot);
+
+        assertEquals(1, compiler.getClassCount());
+        assertTrue(compiler.getUnavailableSources().contains(broken.toAbsolutePath()));
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.DisplayName;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -308,4 +311,69 @@ class JavacValidatorTest {
         assertTrue(errorMessage.contains("error"), "Should mention error count");
         assertTrue(errorMessage.contains("Line"), "Should include line numbers");
     }
+
+    @Test
+    @DisplayName("Should validate a batch in one task and attribute errors per class")
+    void testValidateAllAttributesErrors() {
+        // Given: Classes referencing each other, one syntax error and one type error
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("com.example.A", "package com.example; public class A { B b = new B(); }");
+        sources.put("com.example.B", "package com.example; public class B { int x() { return 1; } }");
+        sources.put("com.example.Broken", "package com.example; public class Broken { void m() { int x = 1 } }");
+        sources.put("com.example.Typed", "package com.example; public class Typed { String s = 42; }");
+
+        // When: Validating all at once
+        Map<String, ValidationResult> results = validator.validateAll(sources);
+
+        // Then: Each class gets its own result, later files are still checked after an error
+        assertEquals(List.copyOf(sources.keySet()), List.copyOf(results.keySet()));
+        assertTrue(results.get("com.example.A").isValid(), "Cross reference within batch compiles");
+        assertTrue(results.get("com.example.B").isValid());
+        assertFalse(results.get("com.example.Broken").isValid());
+        assertFalse(results.get("com.example.Typed").isValid(), "Type error found despite syntax error elsewhere");
+    }
+
+    @Test
+    @DisplayName("Should reuse the compiler across many validations")
+    void testValidateManyClasses() {
+        // Given: 200 small classes
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            sources.put("com.example.Fix" + i,
+                "package com.example; public class Fix" + i + " { int value() { return " + i + "; } }");
+        }
+
+        // When: Validating in one batch, then one by one with the same validator
+        Map<String, ValidationResult> results = validator.validateAll(sources);
+        ValidationResult single = validator.validate(sources.get("com.example.Fix7"), "com.example.Fix7");
+
+        // Then: All succeed
+        assertEquals(200, results.size());
+        assertTrue(results.values().stream().allMatch(ValidationResult::isValid));
+        assertTrue(single.isValid());
+    }
+
+    @Test
+    @DisplayName("Should validate files from disk in one batch")
+    void testValidateFiles() throws Exception {
+        Path tempDir = Files.createTempDirectory("test-");
+        try {
+            Path good = tempDir.resolve("Good.java");
+            Path bad = tempDir.resolve("Bad.java");
+            Files.writeString(good, "package demo; public class Good { Bad bad; }");
+            Files.writeString(bad, "package demo; public class Bad { void m() { missing(); } }");
+
+            Map<Path, ValidationResult> results = validator.validateFiles(List.of(good, bad));
+
+            assertTrue(results.get(good).isValid());
+            assertFalse(results.get(bad).isValid());
+            try (var files = Files.list(tempDir)) {
+                assertEquals(2, files.count(), "No class files written next to sources");
+            }
+        } finally {
+            try (var files = Files.walk(tempDir)) {
+                files.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
 }
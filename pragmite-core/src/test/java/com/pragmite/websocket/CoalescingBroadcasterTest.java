@@ -0,0 +1,121 @@
+package com.pragmite.websocket;
+
+import org.java_websocket.WebSocket;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingBroadcasterTest {
+
+    private final List<String> frames = new ArrayList<>();
+    private final List<Collection<WebSocket>> recipients = new ArrayList<>();
+
+    private static WebSocket client(AtomicBoolean buffered) {
+        return (WebSocket) Proxy.newProxyInstance(WebSocket.class.getClassLoader(), new Class<?>[] {WebSocket.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isOpen" -> true;
+                case "hasBufferedData" -> buffered.get();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    private CoalescingBroadcaster broadcaster(List<WebSocket> clients) {
+        return new CoalescingBroadcaster(10, () -> clients, (json, to) -> {
+            frames.add(json);
+            recipients.add(List.copyOf(to));
+        });
+    }
+
+    @Test
+    void testOnlyLatestStatePerChannelIsSent() {
+        CoalescingBroadcaster broadcaster = broadcaster(List.of(client(new AtomicBoolean()), client(new AtomicBoolean())));
+
+        for (int i = 1; i <= 1000; i++) {
+            broadcaster.publish("analysis", Map.of("current", i));
+        }
+        broadcaster.publish("refactoring", Map.of("current", 7));
+        broadcaster.flush();
+
+        assertEquals(2, frames.size());
+        assertTrue(frames.contains("{\"current\":1000}"), frames.toString());
+        assertTrue(frames.contains("{\"current\":7}"), frames.toString());
+        assertEquals(2, recipients.get(0).size(), "One serialized frame is shared by all clients");
+        assertEquals(1001, broadcaster.getPublishedCount());
+        assertEquals(999, broadcaster.getCoalescedCount());
+
+        broadcaster.flush();
+        assertEquals(2, frames.size(), "Nothing new to send");
+    }
+
+    @Test
+    void testSlowClientSkipsStaleFrames() {
+        AtomicBoolean slowHasBacklog = new AtomicBoolean(true);
+        WebSocket fast = client(new AtomicBoolean());
+        WebSocket slow = client(slowHasBacklog);
+        CoalescingBroadcaster broadcaster = broadcaster(List.of(fast, slow));
+
+        broadcaster.publish("analysis", Map.of("current", 1));
+        broadcaster.flush();
+        assertEquals(List.of(fast), recipients.get(0));
+        assertEquals(1, broadcaster.getDroppedCount());
+
+        slowHasBacklog.set(false);
+        broadcaster.publish("analysis", Map.of("current", 2));
+        broadcaster.flush();
+        assertEquals(2, recipients.get(1).size(), "The slow client catches up with the newest state");
+    }
+
+    @Test
+    void testSlowClientGetsTheFinalStateWithoutFurtherPublish() {
+        AtomicBoolean slowHasBacklog = new AtomicBoolean(true);
+        WebSocket fast = client(new AtomicBoolean());
+        WebSocket slow = client(slowHasBacklog);
+        CoalescingBroadcaster broadcaster = broadcaster(List.of(fast, slow));
+
+        broadcaster.publish("analysis", Map.of("percentage", 50));
+        broadcaster.flush();
+        broadcaster.publish("analysis", Map.of("percentage", 100));
+        broadcaster.flush();
+        assertEquals(List.of(List.of(fast), List.of(fast)), recipients);
+
+        broadcaster.flush();
+        assertEquals(2, frames.size(), "Still waiting for the slow client");
+
+        slowHasBacklog.set(false);
+        broadcaster.flush();
+        assertEquals(3, frames.size());
+        assertEquals("{\"percentage\":100}", frames.get(2), "Only the newest missed frame is sent");
+        assertEquals(List.of(slow), recipients.get(2));
+
+        broadcaster.flush();
+        assertEquals(3, frames.size(), "Sent once");
+    }
+
+    @Test
+    void testScheduledPublishingAndCloseFlushes() throws InterruptedException {
+        CoalescingBroadcaster broadcaster = broadcaster(List.of(client(new AtomicBoolean())));
+        broadcaster.start();
+        try {
+            broadcaster.publish("analysis", Map.of("current", 1));
+            long deadline = System.currentTimeMillis() + 2000;
+            while (broadcaster.getFrameCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, broadcaster.getFrameCount());
+        } finally {
+            broadcaster.publish("analysis", Map.of("current", 2));
+            broadcaster.close();
+        }
+        assertEquals("{\"current\":2}", frames.get(frames.size() - 1), "Pending state is sent on close");
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingBroadcaster(0, List::of, (json, to) -> { }));
+    }
+}
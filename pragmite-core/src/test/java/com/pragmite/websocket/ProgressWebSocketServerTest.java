@@ -0,0 +1,161 @@
+package com.pragmite.websocket;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.model.FileAnalysis;
+import com.pragmite.model.Severity;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressWebSocketServerTest {
+
+    private static final Gson gson = new Gson();
+
+    private ProgressWebSocketServer server;
+    private final List<RecordingClient> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RecordingClient client : clients) {
+            client.closeBlocking();
+        }
+        if (server != null) {
+            server.stop(500);
+        }
+    }
+
+    /**
+     * Client that keeps every received message.
+     */
+    private static class RecordingClient extends WebSocketClient {
+        final List<JsonObject> messages = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingClient(URI uri, Draft_6455 draft) {
+            super(uri, draft);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(String message) {
+            messages.add(gson.fromJson(message, JsonObject.class));
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(Exception ex) {
+        }
+
+        List<JsonObject> ofType(String type) {
+            synchronized (messages) {
+                return messages.stream().filter(m -> type.equals(m.get("type").getAsString())).toList();
+            }
+        }
+
+        void await(Predicate<RecordingClient> condition) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!condition.test(this) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(condition.test(this), "Timed out, received: " + messages);
+        }
+    }
+
+    private void startServer(boolean compression) throws InterruptedException {
+        server = new ProgressWebSocketServer(0, 10, compression);
+        server.setReuseAddr(true);
+        server.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getPort() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private RecordingClient connect(Draft_6455 draft) throws Exception {
+        RecordingClient client = new RecordingClient(new URI("ws://localhost:" + server.getPort()), draft);
+        assertTrue(client.connectBlocking());
+        clients.add(client);
+        client.await(c -> !c.ofType("connected").isEmpty());
+        return client;
+    }
+
+    private static FileAnalysis file(String path, Severity... severities) {
+        FileAnalysis analysis = new FileAnalysis(path);
+        for (Severity severity : severities) {
+            CodeSmell smell = new CodeSmell(CodeSmellType.LONG_METHOD, path, 1, "Long method");
+            smell.setSeverity(severity);
+            analysis.addSmell(smell);
+        }
+        return analysis;
+    }
+
+    @Test
+    void testFileResultsAreStreamedPerSubscription() throws Exception {
+        startServer(false);
+        RecordingClient all = connect(new Draft_6455());
+        RecordingClient filtered = connect(new Draft_6455());
+
+        filtered.send("{\"type\":\"subscribe\",\"pathPrefix\":\"src/a\",\"minSeverity\":\"major\"}");
+        filtered.await(c -> !c.ofType("subscribed").isEmpty());
+        filtered.send("{\"type\":\"subscribe\",\"minSeverity\":\"SEVERE\"}");
+        filtered.await(c -> !c.ofType("error").isEmpty());
+
+        String root = "/work/project";
+        server.onAnalysisStart(root, 3);
+        server.onFileAnalyzed(file(root + "/src/a/One.java", Severity.MAJOR, Severity.MINOR), 1, 3);
+        server.onFileAnalyzed(file(root + "/src/a/Two.java", Severity.MINOR), 2, 3);
+        server.onFileAnalyzed(file(root + "/src/b/Three.java", Severity.CRITICAL), 3, 3);
+
+        all.await(c -> c.ofType("file_result").size() == 3);
+        filtered.await(c -> c.ofType("file_result").size() == 1);
+        Thread.sleep(200);
+
+        JsonObject only = filtered.ofType("file_result").get(0);
+        assertEquals(root + "/src/a/One.java", only.getAsJsonObject("file").get("filePath").getAsString());
+        assertEquals(1, only.getAsJsonObject("file").getAsJsonArray("smells").size());
+        assertEquals(1, filtered.ofType("file_result").size(), "Other files are filtered out");
+        assertEquals(2, all.ofType("file_result").get(0).getAsJsonObject("file").getAsJsonArray("smells").size());
+        assertEquals(3, all.ofType("file_result").get(2).get("completed").getAsInt());
+    }
+
+    @Test
+    void testCompressionIsNegotiatedPerClient() throws Exception {
+        startServer(true);
+        RecordingClient compressed = connect(new Draft_6455(new PerMessageDeflateExtension()));
+        RecordingClient compressedToo = connect(new Draft_6455(new PerMessageDeflateExtension()));
+        RecordingClient plain = connect(new Draft_6455());
+
+        assertInstanceOf(PerMessageDeflateExtension.class, ((Draft_6455) compressed.getConnection().getDraft()).getExtension());
+        assertFalse(((Draft_6455) plain.getConnection().getDraft()).getExtension() instanceof PerMessageDeflateExtension);
+
+        server.broadcastFileResult(file("/work/project/src/Big.java", Severity.MAJOR, Severity.MAJOR, Severity.MINOR), 1, 1);
+        server.broadcastRefactoringEvent("refactoring_completed", "Big.java", "LONG_METHOD", "success");
+
+        compressed.await(c -> c.ofType("file_result").size() == 1 && c.ofType("refactoring_completed").size() == 1);
+        compressedToo.await(c -> c.ofType("file_result").size() == 1 && c.ofType("refactoring_completed").size() == 1);
+        plain.await(c -> c.ofType("file_result").size() == 1 && c.ofType("refactoring_completed").size() == 1);
+        assertEquals(plain.ofType("file_result").get(0).getAsJsonObject("file"),
+            compressed.ofType("file_result").get(0).getAsJsonObject("file"));
+        assertEquals(plain.ofType("file_result").get(0).getAsJsonObject("file"),
+            compressedToo.ofType("file_result").get(0).getAsJsonObject("file"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.pragmite.websocket;
+
+import com.pragmite.model.CodeSmell;
+import com.pragmite.model.CodeSmellType;
+import com.pragmite.model.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionTest {
+
+    @Test
+    void testAllMatchesEverything() {
+        assertTrue(Subscription.ALL.matchesPath("/work/project/src/A.java", "/work/project"));
+        assertFalse(Subscription.ALL.filtersSeverity());
+        assertNull(new Subscription("./", null).pathPrefix());
+    }
+
+    @Test
+    void testPathPrefixMatchesAbsoluteAndRelativePaths() {
+        Subscription relative = new Subscription(".\\src\\main", null);
+        assertEquals("src/main", relative.pathPrefix());
+        assertTrue(relative.matchesPath("/work/project/src/main/java/A.java", "/work/project"));
+        assertTrue(relative.matchesPath("src/main/java/A.java", null));
+        assertFalse(relative.matchesPath("/work/project/src/test/java/ATest.java", "/work/project"));
+        assertFalse(relative.matchesPath("/work/project/src/main/java/A.java", null));
+
+        Subscription absolute = new Subscription("/work/project/src/test", null);
+        assertTrue(absolute.matchesPath("/work/project/src/test/java/ATest.java", "/work/project"));
+        assertFalse(absolute.matchesPath("/work/project/src/main/java/A.java", "/work/project"));
+    }
+
+    @Test
+    void testPathPrefixMatchesWholeSegments() {
+        Subscription main = new Subscription("src/main", null);
+        assertTrue(main.matchesPath("/work/project/src/main", "/work/project"));
+        assertTrue(main.matchesPath("src/main/A.java", null));
+        assertFalse(main.matchesPath("/work/project/src/mainframe/A.java", "/work/project"));
+        assertFalse(main.matchesPath("src/mainframe/A.java", null));
+
+        Subscription trailing = new Subscription("/work/project/src/", null);
+        assertTrue(trailing.matchesPath("/work/project/src/A.java", "/work/project"));
+        assertFalse(trailing.matchesPath("/work/project/srcgen/A.java", "/work/project"));
+    }
+
+    @Test
+    void testSeverityFilter() {
+        CodeSmell minor = new CodeSmell(CodeSmellType.LONG_METHOD, "A.java", 1, "minor");
+        minor.setSeverity(Severity.MINOR);
+        CodeSmell critical = new CodeSmell(CodeSmellType.LONG_METHOD, "A.java", 2, "critical");
+        critical.setSeverity(Severity.CRITICAL);
+
+        Subscription major = new Subscription(null, Severity.MAJOR);
+        assertTrue(major.filtersSeverity());
+        assertEquals(List.of(critical), major.filter(List.of(minor, critical)));
+        assertEquals(2, Subscription.ALL.filter(List.of(minor, critical)).size());
+    }
+}
@@ -290,10 +290,23 @@ async function analyzeWorkspace() {
         progress.report({ increment: 0, message: 'Starting analysis...' });
 
         try {
-            const result = await pragmiteService.analyzeWorkspace(workspacePath);
+            // Render each file as soon as the CLI has analyzed it
+            webServer.beginAnalysis();
+            let reportedPercent = 0;
+            const result = await pragmiteService.analyzeWorkspace(workspacePath, (fileAnalysis, completed, total) => {
+                const uri = vscode.Uri.file(fileAnalysis.filePath);
+                diagnosticProvider.updateDiagnostics(uri, fileAnalysis);
+                webServer.addFileResult(fileAnalysis, completed, total);
+
+                const percent = total > 0 ? Math.floor(completed * 100 / total) : 0;
+                if (percent > reportedPercent) {
+                    progress.report({ increment: percent - reportedPercent, message: `${completed}/${total} files` });
+                    reportedPercent = percent;
+                }
+            });
 
             if (result) {
-                progress.report({ increment: 100, message: 'Analysis complete!' });
+                progress.report({ increment: 100 - reportedPercent, message: 'Analysis complete!' });
 
                 // Update diagnostics for all files
                 result.fileAnalyses.forEach(fileAnalysis => {
@@ -1,7 +1,24 @@
 import * as vscode from 'vscode';
 import * as path from 'path';
 import * as child_process from 'child_process';
-import { AnalysisResult, FileAnalysis } from './models';
+import { AnalysisResult, CodeSmell, FileAnalysis, QualityScore } from './models';
+
+/**
+ * Single line of the CLI's `--format ndjson` event stream
+ */
+interface NdjsonRecord {
+    type: 'start' | 'file' | 'progress' | 'smells' | 'summary';
+    totalFiles?: number;
+    totalLines?: number;
+    analysisDurationMs?: number;
+    completed?: number;
+    total?: number;
+    percentage?: number;
+    file?: FileAnalysis;
+    filePath?: string;
+    smells?: CodeSmell[];
+    qualityScore?: QualityScore;
+}
 
 export class PragmiteService {
     private jarPath: string;
@@ -52,12 +69,16 @@ export class PragmiteService {
     }
 
     /**
-     * Analyze entire workspace or directory
+     * Analyze entire workspace or directory.
+     * The optional callback receives each file result while the analysis is still running.
      */
-    async analyzeWorkspace(workspacePath: string): Promise<AnalysisResult | null> {
+    async analyzeWorkspace(
+        workspacePath: string,
+        onFileAnalysis?: (fileAnalysis: FileAnalysis, completed: number, total: number) => void
+    ): Promise<AnalysisResult | null> {
         try {
             this.outputChannel.appendLine(`Analyzing workspace: ${workspacePath}`);
-            return await this.runPragmite(workspacePath);
+            return await this.runPragmite(workspacePath, onFileAnalysis);
         } catch (error) {
             this.outputChannel.appendLine(`Error analyzing workspace: ${error}`);
             vscode.window.showErrorMessage(`Pragmite analysis failed: ${error}`);
@@ -66,18 +87,19 @@ export class PragmiteService {
     }
 
     /**
-     * Execute Pragmite JAR with given path
+     * Execute Pragmite JAR with given path.
+     * Uses the NDJSON event stream so each file result is available as soon as the CLI finishes it.
      */
-    private async runPragmite(targetPath: string): Promise<AnalysisResult | null> {
+    private async runPragmite(
+        targetPath: string,
+        onFileAnalysis?: (fileAnalysis: FileAnalysis, completed: number, total: number) => void
+    ): Promise<AnalysisResult | null> {
         return new Promise((resolve, reject) => {
-            const outputFile = path.join(require('os').tmpdir(), `pragmite-${Date.now()}.json`);
-
             const args = [
                 '-jar',
                 this.jarPath,
                 targetPath,
-                '-f', 'json',
-                '-o', outputFile
+                '-f', 'ndjson'
             ];
 
             this.outputChannel.appendLine(`Running: ${this.javaPath} ${args.join(' ')}`);
@@ -86,41 +108,87 @@ export class PragmiteService {
                 cwd: path.dirname(this.jarPath)
             });
 
-            let stdout = '';
+            const result: AnalysisResult = {
+                projectPath: targetPath,
+                analyzedAt: new Date().toISOString(),
+                totalFiles: 0,
+                totalLines: 0,
+                analysisDurationMs: 0,
+                fileAnalyses: [],
+                codeSmells: [],
+                complexities: [],
+                qualityScore: undefined as unknown as QualityScore
+            };
+            let pending = '';
             let stderr = '';
 
+            const handleRecord = (line: string) => {
+                if (!line.trim()) {
+                    return;
+                }
+                let record: NdjsonRecord;
+                try {
+                    record = JSON.parse(line);
+                } catch {
+                    this.outputChannel.appendLine(line);
+                    return;
+                }
+                switch (record.type) {
+                    case 'start':
+                        result.totalFiles = record.totalFiles ?? 0;
+                        break;
+                    case 'file':
+                        if (record.file) {
+                            result.fileAnalyses.push(record.file);
+                            result.codeSmells.push(...(record.file.smells || []));
+                            result.complexities.push(...(record.file.complexities || []));
+                            onFileAnalysis?.(record.file, record.completed ?? 0, record.total ?? 0);
+                        }
+                        break;
+                    case 'progress':
+                        this.outputChannel.appendLine(`Progress: ${record.completed}/${record.total} (${record.percentage}%)`);
+                        break;
+                    case 'smells':
+                        // Smells found after the file record, e.g. clones shared with other files
+                        if (record.smells) {
+                            const fileAnalysis = result.fileAnalyses.find(f => f.filePath === record.filePath);
+                            fileAnalysis?.smells.push(...record.smells);
+                            result.codeSmells.push(...record.smells);
+                        }
+                        break;
+                    case 'summary':
+                        result.totalFiles = record.totalFiles ?? result.totalFiles;
+                        result.totalLines = record.totalLines ?? 0;
+                        result.analysisDurationMs = record.analysisDurationMs ?? 0;
+                        if (record.qualityScore) {
+                            result.qualityScore = record.qualityScore;
+                        }
+                        break;
+                }
+            };
+
             process.stdout.on('data', (data) => {
-                stdout += data.toString();
-                this.outputChannel.append(data.toString());
+                pending += data.toString();
+                let newline = pending.indexOf('\n');
+                while (newline >= 0) {
+                    handleRecord(pending.slice(0, newline));
+                    pending = pending.slice(newline + 1);
+                    newline = pending.indexOf('\n');
+                }
             });
 
             process.stderr.on('data', (data) => {
                 stderr += data.toString();
-                this.outputChannel.append(`[ERROR] ${data.toString()}`);
+                this.outputChannel.append(data.toString());
             });
 
             process.on('close', (code) => {
+                handleRecord(pending);
                 if (code !== 0) {
                     reject(new Error(`Pragmite exited with code ${code}: ${stderr}`));
                     return;
                 }
-
-                try {
-                    const fs = require('fs');
-                    if (!fs.existsSync(outputFile)) {
-                        reject(new Error(`Output file not created: ${outputFile}`));
-                        return;
-                    }
-
-                    const result: AnalysisResult = JSON.parse(fs.readFileSync(outputFile, 'utf-8'));
-
-                    // Clean up temp file
-                    fs.unlinkSync(outputFile);
-
-                    resolve(result);
-                } catch (error) {
-                    reject(error);
-                }
+                resolve(result);
             });
 
             process.on('error', (error) => {
@@ -1,6 +1,11 @@
 import * as http from 'http';
 import * as vscode from 'vscode';
-import { AnalysisResult } from './models';
+import { AnalysisResult, FileAnalysis } from './models';
+
+/**
+ * Minimum interval between partial result events sent to the dashboard
+ */
+const PARTIAL_FLUSH_INTERVAL_MS = 250;
 
 export class PragmiteWebServer {
     private server: http.Server | null = null;
@@ -8,6 +13,10 @@ export class PragmiteWebServer {
     private latestResult: AnalysisResult | null = null;
     private outputChannel: vscode.OutputChannel;
     private sseClients: http.ServerResponse[] = [];
+    private pendingFiles: FileAnalysis[] = [];
+    private pendingProgress = { completed: 0, total: 0 };
+    private partialReset = false;
+    private partialTimer: NodeJS.Timeout | null = null;
 
     constructor(outputChannel: vscode.OutputChannel) {
         this.outputChannel = outputChannel;
@@ -151,7 +160,65 @@ export class PragmiteWebServer {
         res.end('Not Found');
     }
 
+    /**
+     * Starts a new progressive analysis; the dashboard drops its previous results
+     * with the first partial event.
+     */
+    beginAnalysis() {
+        this.clearPartial();
+        this.partialReset = true;
+    }
+
+    /**
+     * Adds a file result of a running analysis. Results are batched and sent to the
+     * dashboard at most every PARTIAL_FLUSH_INTERVAL_MS, so large projects render progressively
+     * without one event per file.
+     */
+    addFileResult(fileAnalysis: FileAnalysis, completed: number, total: number) {
+        this.pendingFiles.push(fileAnalysis);
+        this.pendingProgress = { completed, total };
+        if (!this.partialTimer) {
+            this.partialTimer = setTimeout(() => this.flushPartial(), PARTIAL_FLUSH_INTERVAL_MS);
+        }
+    }
+
+    private flushPartial() {
+        this.partialTimer = null;
+        if (this.pendingFiles.length === 0) {
+            return;
+        }
+
+        const eventData = JSON.stringify({
+            type: 'partial',
+            reset: this.partialReset,
+            files: this.pendingFiles,
+            completed: this.pendingProgress.completed,
+            total: this.pendingProgress.total
+        });
+        this.pendingFiles = [];
+        this.partialReset = false;
+
+        this.sseClients.forEach((client, index) => {
+            try {
+                client.write(`data: ${eventData}\n\n`);
+            } catch (error) {
+                this.outputChannel.appendLine(`Error sending to client ${index}: ${error}`);
+            }
+        });
+    }
+
+    private clearPartial() {
+        if (this.partialTimer) {
+            clearTimeout(this.partialTimer);
+            this.partialTimer = null;
+        }
+        this.pendingFiles = [];
+        this.partialReset = false;
+    }
+
     updateAnalysis(result: AnalysisResult) {
+        // The full result replaces any partial results still queued
+        this.clearPartial();
         this.latestResult = result;
         this.outputChannel.appendLine(`Dashboard updated: ${result.totalFiles} files, ${result.codeSmells.length} smells`);
         this.notifyClients();
@@ -183,6 +250,7 @@ export class PragmiteWebServer {
     }
 
     stop() {
+        this.clearPartial();
         this.sseClients.forEach(client => {
             try {
                 client.end();
@@ -1494,6 +1562,8 @@ export class PragmiteWebServer {
 
                 if (data.type === 'connected') {
                     console.log('✅ SSE connected - Instant updates enabled!');
+                } else if (data.type === 'partial') {
+                    mergePartial(data);
                 } else if (data.type === 'update') {
                     console.log('⚡ New analysis data received! Updating instantly...');
                     loadData();
@@ -1512,6 +1582,44 @@ export class PragmiteWebServer {
             };
         }
 
+        let renderScheduled = false;
+
+        // Merges file results of a running analysis and re-renders at most once per frame
+        function mergePartial(data) {
+            if (data.reset || !currentData || !currentData.partial) {
+                currentData = {
+                    partial: true,
+                    totalFiles: 0,
+                    totalLines: 0,
+                    analysisDurationMs: 0,
+                    fileAnalyses: [],
+                    codeSmells: [],
+                    complexities: []
+                };
+            }
+            (data.files || []).forEach(file => {
+                currentData.fileAnalyses.push(file);
+                currentData.codeSmells.push(...(file.smells || []));
+                currentData.complexities.push(...(file.complexities || []));
+                currentData.totalLines += file.lineCount || 0;
+            });
+            currentData.totalFiles = currentData.fileAnalyses.length;
+            currentData.progress = { completed: data.completed, total: data.total };
+
+            if (renderScheduled) {
+                return;
+            }
+            renderScheduled = true;
+            requestAnimationFrame(() => {
+                renderScheduled = false;
+                const loadingContainer = document.getElementById('loadingContainer');
+                const dashboardContainer = document.getElementById('dashboardContainer');
+                if (loadingContainer) loadingContainer.style.display = 'none';
+                if (dashboardContainer) dashboardContainer.style.display = 'block';
+                renderDashboard(currentData);
+            });
+        }
+
         async function loadData() {
             try {
                 const response = await fetch('/api/analysis');
@@ -1601,6 +1709,7 @@ export class PragmiteWebServer {
                     <div class="stat-card glass">
                         <div class="stat-label">Files</div>
                         <div class="stat-value">\${data.totalFiles || 0}</div>
+                        \${data.partial && data.progress ? \`<div style="margin-top: 8px; font-size: 16px; opacity: 0.6;">Analyzing… \${data.progress.completed}/\${data.progress.total}</div>\` : ''}
                     </div>
 
                     <div class="stat-card glass">